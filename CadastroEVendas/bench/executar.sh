@@ -0,0 +1,12 @@
+#!/bin/sh
+# Compila e executa os benchmarks JMH contra o banco H2 em memoria.
+# Requer os seguintes arquivos .jar na pasta bench/lib:
+#   jmh-core, jmh-generator-annprocess, jopt-simple, commons-math3 e h2.
+# Os argumentos sao repassados ao JMH, por exemplo:
+#   ./executar.sh VendaDAOBenchmark -p vendas=1000,10000,100000
+set -e
+cd "$(dirname "$0")"
+rm -rf out
+mkdir -p out
+javac -encoding UTF-8 -cp "lib/*" -d out $(find ../src src -name '*.java')
+java -cp "out:lib/*" org.openjdk.jmh.Main "$@"
@@ -0,0 +1,87 @@
+package benchmark;
+
+import analise.AnaliseVendas;
+import analise.ColunasVendas;
+import analise.Dimensao;
+import analise.TotaisGrupo;
+import model.ResumoVendas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das somas paralelas da {@link AnaliseVendas} sobre linhas já carregadas em memória,
+ * sem banco de dados: totais do período, agrupamento por produto e os 10 clientes de maior receita.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AnaliseBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int vendas;
+
+    @Param({"10000"})
+    public int clientes;
+
+    @Param({"1000"})
+    public int produtos;
+
+    @Param({"3"})
+    public int itensPorVenda;
+
+    @Param({"365"})
+    public int dias;
+
+    private AnaliseVendas analise;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Random aleatorio = new Random(42);
+        ColunasVendas colunas = new ColunasVendas();
+        LocalDate primeiroDia = LocalDate.of(2024, 1, 1);
+        for (int v = 1; v <= vendas; v++) {
+            String data = primeiroDia.plusDays((long) (v - 1) * dias / vendas).toString();
+            String cpf = String.format("%011d", aleatorio.nextInt(clientes));
+            int primeiroProduto = aleatorio.nextInt(produtos);
+            for (int i = 0; i < itensPorVenda; i++) {
+                int idProduto = 1 + (primeiroProduto + i) % produtos;
+                colunas.receber(v, data, cpf, "CLIENTE " + cpf, idProduto, "PRODUTO " + idProduto,
+                        1 + aleatorio.nextInt(5), 1500L + idProduto, 1000L + idProduto);
+            }
+        }
+        analise = new AnaliseVendas(colunas);
+    }
+
+    @Benchmark
+    public ResumoVendas totalizar() {
+        return analise.totalizar();
+    }
+
+    @Benchmark
+    public List<TotaisGrupo> agruparPorProduto() {
+        return analise.agrupar(Dimensao.PRODUTO);
+    }
+
+    @Benchmark
+    public List<TotaisGrupo> maioresClientes() {
+        return analise.maiores(Dimensao.CLIENTE, 10);
+    }
+}
@@ -0,0 +1,163 @@
+package benchmark;
+
+import dao.VendaDAO;
+import db.DB;
+import db.DbException;
+import model.Cliente;
+import model.Dinheiro;
+import model.Produto;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Popula o banco de dados embarcado usado pelos benchmarks, com volumes
+ * configuráveis de clientes, produtos e vendas. Os dados são gerados de forma determinística
+ * (semente fixa), para que execuções diferentes meçam exatamente a mesma base.
+ * <br>
+ * O banco é o embarcado configurado no arquivo 'db.properties' da pasta 'bench' (H2 em memória),
+ * cujo esquema é criado pelo próprio {@link DB} ao abrir o pool. Ele deve estar vazio: o JMH
+ * executa cada combinação de parâmetros em uma nova JVM.
+ */
+public class BaseDados {
+
+    // Primeiro dia das vendas geradas.
+    public static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+
+    // Quantidade de linhas enviadas por lote nas inserções.
+    private static final int TAMANHO_LOTE = 1000;
+
+    /**
+     * Dados gerados, usados pelos benchmarks para escolher clientes e produtos existentes.
+     */
+    public static final class Volume {
+        public final Cliente[] clientes;
+        public final Produto[] produtos;
+        public final int dias;
+
+        Volume(Cliente[] clientes, Produto[] produtos, int dias) {
+            this.clientes = clientes;
+            this.produtos = produtos;
+            this.dias = dias;
+        }
+    }
+
+    /**
+     * Insere os dados.
+     *
+     * @param clientes      número de clientes.
+     * @param produtos      número de produtos.
+     * @param vendas        número de vendas.
+     * @param itensPorVenda número de produtos distintos em cada venda (no máximo {@code produtos}).
+     * @param dias          número de dias pelos quais as vendas são distribuídas, a partir de {@link #INICIO}.
+     * @return os clientes e produtos gerados.
+     * @throws DbException se ocorrer algum erro ao criar ou popular o banco.
+     */
+    public static Volume popular(int clientes, int produtos, int vendas, int itensPorVenda, int dias) {
+        if (itensPorVenda > produtos) {
+            throw new IllegalArgumentException("itensPorVenda não pode ser maior que produtos.");
+        }
+        ContadorConsultas.registrar();
+        Random aleatorio = new Random(42);
+        try (Connection conn = DB.getConnection()) {
+            conn.setAutoCommit(false);
+            Cliente[] listaClientes = inserirClientes(conn, clientes);
+            Produto[] listaProdutos = inserirProdutos(conn, produtos, aleatorio);
+            inserirVendas(conn, vendas, itensPorVenda, dias, listaClientes, listaProdutos, aleatorio);
+            conn.commit();
+            conn.setAutoCommit(true);
+            // As vendas foram inseridas diretamente: o resumo diário é calculado a partir delas.
+            new VendaDAO().reconstruirResumoDiario();
+            return new Volume(listaClientes, listaProdutos, dias);
+        } catch (SQLException e) {
+            throw new DbException("Erro ao popular a base de benchmark: " + e.getMessage());
+        }
+    }
+
+    private static Cliente[] inserirClientes(Connection conn, int quantidade) throws SQLException {
+        Cliente[] lista = new Cliente[quantidade];
+        String sql = "INSERT INTO clientes (cpf, nome, telefone, endereco) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement st = conn.prepareStatement(sql)) {
+            for (int i = 0; i < quantidade; i++) {
+                Cliente c = new Cliente("CLIENTE " + i, String.format("%011d", 10_000_000_000L + i),
+                        "11999990000", "RUA DO CLIENTE " + i);
+                lista[i] = c;
+                st.setString(1, c.getCpf());
+                st.setString(2, c.getNome());
+                st.setString(3, c.getTelefone());
+                st.setString(4, c.getEndereco());
+                st.addBatch();
+                if ((i + 1) % TAMANHO_LOTE == 0) {
+                    st.executeBatch();
+                }
+            }
+            st.executeBatch();
+        }
+        return lista;
+    }
+
+    private static Produto[] inserirProdutos(Connection conn, int quantidade, Random aleatorio) throws SQLException {
+        Produto[] lista = new Produto[quantidade];
+        String sql = "INSERT INTO produtos (nome, preco_compra, preco_venda, estoque, autor) VALUES (?, ?, ?, ?, NULL)";
+        try (PreparedStatement st = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < quantidade; i++) {
+                // Preços em centavos: compra entre R$ 1,00 e R$ 100,99 e venda 50% acima, arredondada.
+                long compra = 100 + aleatorio.nextInt(10_000);
+                long venda = (compra * 3 + 1) / 2;
+                // Estoque grande o suficiente para que registrarVenda nunca falte produto durante a medição.
+                lista[i] = new Produto(null, "PRODUTO " + i, compra, venda, 1_000_000_000);
+                st.setString(1, lista[i].getNome());
+                st.setBigDecimal(2, Dinheiro.paraDecimal(compra));
+                st.setBigDecimal(3, Dinheiro.paraDecimal(venda));
+                st.setInt(4, lista[i].getEstoque());
+                st.executeUpdate();
+                try (ResultSet rs = st.getGeneratedKeys()) {
+                    rs.next();
+                    lista[i].setId(rs.getInt(1));
+                }
+            }
+        }
+        return lista;
+    }
+
+    private static void inserirVendas(Connection conn, int quantidade, int itensPorVenda, int dias,
+                                      Cliente[] clientes, Produto[] produtos, Random aleatorio) throws SQLException {
+        String sqlVenda = "INSERT INTO vendas (cpf_cliente, data_venda) VALUES (?, ?)";
+        String sqlItem = "INSERT INTO venda_produtos (id_venda, id_produto, quantidade, preco_unitario) VALUES (?, ?, 1, ?)";
+        try (PreparedStatement stVenda = conn.prepareStatement(sqlVenda, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement stItem = conn.prepareStatement(sqlItem)) {
+            int pendentes = 0;
+            for (int i = 0; i < quantidade; i++) {
+                stVenda.setString(1, clientes[aleatorio.nextInt(clientes.length)].getCpf());
+                stVenda.setDate(2, Date.valueOf(INICIO.plusDays(aleatorio.nextInt(dias))));
+                stVenda.executeUpdate();
+                int idVenda;
+                try (ResultSet rs = stVenda.getGeneratedKeys()) {
+                    rs.next();
+                    idVenda = rs.getInt(1);
+                }
+                // Produtos consecutivos a partir de uma posição aleatória: sempre distintos dentro da venda.
+                int inicio = aleatorio.nextInt(produtos.length);
+                for (int j = 0; j < itensPorVenda; j++) {
+                    stItem.setInt(1, idVenda);
+                    Produto p = produtos[(inicio + j) % produtos.length];
+                    stItem.setInt(2, p.getId());
+                    stItem.setBigDecimal(3, Dinheiro.paraDecimal(p.getPrecoVenda()));
+                    stItem.addBatch();
+                    pendentes++;
+                }
+                if (pendentes >= TAMANHO_LOTE) {
+                    stItem.executeBatch();
+                    pendentes = 0;
+                }
+            }
+            stItem.executeBatch();
+        }
+    }
+}
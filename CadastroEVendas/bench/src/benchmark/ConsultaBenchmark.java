@@ -0,0 +1,105 @@
+package benchmark;
+
+import cache.ClienteCache;
+import cache.ProdutoCache;
+import dao.ClienteDAO;
+import dao.ProdutoDAO;
+import db.DB;
+import model.Cliente;
+import model.Produto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das buscas pontuais usadas na tela de vendas: cliente por CPF, produto por ID
+ * e sugestões de produtos pelo início do nome (a meta é ficar bem abaixo de 50 ms com
+ * {@code -p produtos=100000}).
+ * <br>
+ * Cada busca é medida de duas formas: pelo caminho normal (com os caches de
+ * {@link ClienteCache} e {@link ProdutoCache}, cuja taxa de acerto depende da capacidade
+ * configurada e do volume de dados) e sem cache, invalidando a chave antes da busca para
+ * medir apenas a ida ao banco de dados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConsultaBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int clientes;
+
+    @Param({"500", "5000", "50000", "100000"})
+    public int produtos;
+
+    @Param("1000")
+    public int vendas;
+
+    private BaseDados.Volume base;
+    private ClienteDAO clienteDAO;
+    private ProdutoDAO produtoDAO;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        base = BaseDados.popular(clientes, produtos, vendas, 1, 365);
+        clienteDAO = new ClienteDAO();
+        produtoDAO = new ProdutoDAO();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        System.out.printf("%n[cache] clientes: %s%n[cache] produtos: %s%n[cache] statements: %s%n",
+                ClienteCache.getEstatisticas(), ProdutoCache.getEstatisticas(), DB.getPool().getEstatisticasStatements());
+        DB.closeConnection();
+    }
+
+    @Benchmark
+    public Cliente buscarPorCpf() {
+        return clienteDAO.buscarPorCpf(base.clientes[ThreadLocalRandom.current().nextInt(base.clientes.length)].getCpf());
+    }
+
+    @Benchmark
+    public Cliente buscarPorCpfSemCache() {
+        String cpf = base.clientes[ThreadLocalRandom.current().nextInt(base.clientes.length)].getCpf();
+        ClienteCache.invalidar(cpf);
+        return clienteDAO.buscarPorCpf(cpf);
+    }
+
+    @Benchmark
+    public Produto buscarPorId() {
+        return produtoDAO.buscarPorId(base.produtos[ThreadLocalRandom.current().nextInt(base.produtos.length)].getId());
+    }
+
+    @Benchmark
+    public Produto buscarPorIdSemCache() {
+        int id = base.produtos[ThreadLocalRandom.current().nextInt(base.produtos.length)].getId();
+        ProdutoCache.invalidar(id);
+        return produtoDAO.buscarPorId(id);
+    }
+
+    /**
+     * Sugestões para um prefixo como "PRODUTO 12", que corresponde a muitos produtos:
+     * as duas consultas do UNION são limitadas e servidas pelos índices.
+     */
+    @Benchmark
+    public List<Produto> sugerirPorPrefixo() {
+        return produtoDAO.sugerirPorPrefixo("PRODUTO " + (1 + ThreadLocalRandom.current().nextInt(99)), 10);
+    }
+}
@@ -0,0 +1,138 @@
+package benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Driver JDBC intermediário que conta quantos comandos SQL são enviados ao banco de dados.
+ * Usado pelos benchmarks para verificar o número de idas ao banco (round-trips) de cada operação,
+ * por exemplo, que {@code VendaDAO.listarTodas} continua executando duas consultas
+ * independentemente do número de vendas.
+ * <br>
+ * Aceita URLs no formato {@code jdbc:contagem:<url real>}, abre a conexão com o driver real
+ * e conta cada chamada a {@code execute}, {@code executeQuery}, {@code executeUpdate} e
+ * {@code executeBatch} (um lote conta como um único comando).
+ */
+public class ContadorConsultas implements Driver {
+
+    private static final String PREFIXO = "jdbc:contagem:";
+
+    // Total de comandos executados por todas as conexões abertas por este driver.
+    private static final AtomicLong TOTAL = new AtomicLong();
+
+    static {
+        try {
+            DriverManager.registerDriver(new ContadorConsultas());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Garante que o driver esteja registrado no DriverManager (basta carregar a classe).
+     */
+    public static void registrar() {
+        // O registro acontece no bloco estático.
+    }
+
+    /**
+     * Retorna o total de comandos SQL executados até o momento.
+     *
+     * @return o número de comandos executados.
+     */
+    public static long getTotal() {
+        return TOTAL.get();
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        Connection real = DriverManager.getConnection(url.substring(PREFIXO.length()), info);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConexaoContada(real));
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith(PREFIXO);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    /**
+     * Repassa as chamadas para a conexão real, envolvendo os statements criados.
+     */
+    private static final class ConexaoContada implements InvocationHandler {
+
+        private final Connection real;
+
+        ConexaoContada(Connection real) {
+            this.real = real;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object resultado = repassar(real, method, args);
+            if (resultado instanceof Statement) {
+                // prepareStatement, prepareCall ou createStatement: conta as execuções do statement.
+                Class<?> tipo = method.getReturnType();
+                return Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo},
+                        (p, m, a) -> {
+                            if (m.getName().startsWith("execute")) {
+                                TOTAL.incrementAndGet();
+                            }
+                            return repassar(resultado, m, a);
+                        });
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Invoca o método no objeto real, relançando a exceção original em vez da InvocationTargetException.
+     */
+    private static Object repassar(Object alvo, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package benchmark;
+
+import model.Cliente;
+import model.ItemVenda;
+import model.Produto;
+import model.Venda;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das operações do modelo que rodam em memória, sem banco de dados,
+ * como o cálculo do total de uma venda.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ModeloBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int itensPorVenda;
+
+    private Venda venda;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        List<ItemVenda> itens = new ArrayList<>(itensPorVenda);
+        for (int i = 0; i < itensPorVenda; i++) {
+            Produto p = new Produto(i + 1, "PRODUTO " + i, 1000L + 100 * i, 1500L + 100 * i, 100);
+            itens.add(new ItemVenda(p, 1 + i % 3, p.getPrecoVenda()));
+        }
+        Cliente cliente = new Cliente("CLIENTE", "12345678901", "11999990000", "RUA DO CLIENTE");
+        venda = new Venda(1, cliente, itens, LocalDate.of(2024, 1, 1));
+    }
+
+    @Benchmark
+    public long calcularTotal() {
+        return venda.calcularTotal();
+    }
+}
@@ -0,0 +1,138 @@
+package benchmark;
+
+import dao.VendaDAO;
+import db.DB;
+import model.ItemVenda;
+import model.Produto;
+import model.ResumoVendas;
+import model.Venda;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks do {@link VendaDAO}: registro de vendas, listagem completa, busca por período
+ * e totais do período pelo resumo diário.
+ * <br>
+ * Cada combinação de parâmetros roda em uma JVM nova, com um banco H2 em memória populado
+ * por {@link BaseDados}. O modo {@code Throughput} mede operações por segundo e o modo
+ * {@code SampleTime} mede a distribuição das latências (incluindo p0.99). Para observar o
+ * crescimento com o volume de dados, varie o parâmetro {@code vendas}
+ * (por exemplo, {@code -p vendas=1000,10000,100000}).
+ * <br>
+ * No início de cada execução é impresso o número de comandos SQL enviados por
+ * {@code listarTodas} e {@code listarPorPeriodo}, que deve permanecer constante (dois)
+ * qualquer que seja o número de vendas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VendaDAOBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int vendas;
+
+    @Param("1000")
+    public int clientes;
+
+    @Param("500")
+    public int produtos;
+
+    @Param("3")
+    public int itensPorVenda;
+
+    @Param("365")
+    public int dias;
+
+    // Tamanho do período consultado em listarPorPeriodo, em dias.
+    @Param("30")
+    public int diasPeriodo;
+
+    private BaseDados.Volume base;
+    private VendaDAO dao;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        base = BaseDados.popular(clientes, produtos, vendas, itensPorVenda, dias);
+        dao = new VendaDAO();
+        relatarConsultas();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        DB.closeConnection();
+    }
+
+    /**
+     * Registra uma venda com {@code itensPorVenda} produtos distintos (de 1 a 3 unidades cada) para um cliente aleatório.
+     * As vendas registradas permanecem no banco, de modo que o volume cresce levemente durante a medição.
+     */
+    @Benchmark
+    public Venda registrarVenda() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        List<ItemVenda> itens = new ArrayList<>(itensPorVenda);
+        int inicio = aleatorio.nextInt(base.produtos.length);
+        for (int j = 0; j < itensPorVenda; j++) {
+            Produto p = base.produtos[(inicio + j) % base.produtos.length];
+            itens.add(new ItemVenda(p, 1 + aleatorio.nextInt(3), p.getPrecoVenda()));
+        }
+        Venda venda = new Venda(null, base.clientes[aleatorio.nextInt(base.clientes.length)], itens, LocalDate.now());
+        dao.registrarVenda(venda);
+        return venda;
+    }
+
+    @Benchmark
+    public List<Venda> listarTodas() {
+        return dao.listarTodas();
+    }
+
+    @Benchmark
+    public List<Venda> listarPorPeriodo() {
+        LocalDate inicio = BaseDados.INICIO.plusDays(ThreadLocalRandom.current().nextInt(Math.max(1, dias - diasPeriodo)));
+        return dao.listarPorPeriodo(inicio, inicio.plusDays(diasPeriodo - 1));
+    }
+
+    /**
+     * Totais do mesmo período de {@link #listarPorPeriodo()}, lidos do resumo diário.
+     */
+    @Benchmark
+    public ResumoVendas totalizarPeriodo() {
+        LocalDate inicio = BaseDados.INICIO.plusDays(ThreadLocalRandom.current().nextInt(Math.max(1, dias - diasPeriodo)));
+        return dao.totalizarPeriodo(inicio, inicio.plusDays(diasPeriodo - 1));
+    }
+
+    /**
+     * Imprime quantos comandos SQL cada listagem envia ao banco com o volume atual.
+     */
+    private void relatarConsultas() {
+        long antes = ContadorConsultas.getTotal();
+        int lidas = dao.listarTodas().size();
+        long todas = ContadorConsultas.getTotal() - antes;
+
+        antes = ContadorConsultas.getTotal();
+        dao.listarPorPeriodo(BaseDados.INICIO, BaseDados.INICIO.plusDays(diasPeriodo - 1));
+        long periodo = ContadorConsultas.getTotal() - antes;
+
+        System.out.printf("%n[consultas] listarTodas: %d comandos SQL para %d vendas; listarPorPeriodo: %d comandos SQL%n",
+                todas, lidas, periodo);
+    }
+}
@@ -0,0 +1,248 @@
+package analise;
+
+import model.ResumoVendas;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Análises das vendas de um período para relatórios gerenciais: receita, custo, margem, itens e
+ * número de vendas, no total e agrupados por dia, cliente ou produto, e os N maiores grupos por receita.
+ * <br>
+ * As linhas do período são carregadas uma única vez em {@link ColunasVendas}, e cada análise é uma soma
+ * paralela sobre as colunas: as linhas são divididas em faixas entre os núcleos do processador (fork/join,
+ * no {@link ForkJoinPool#commonPool()}), cada faixa soma os seus grupos em vetores próprios, e os vetores
+ * das faixas são somados ao final. Como os valores são inteiros em centavos, a ordem das somas não altera
+ * o resultado: os totais são exatamente os da consulta SQL equivalente sobre as mesmas linhas. A receita
+ * usa o preço unitário gravado em cada item e o custo, o custo unitário gravado (nos itens anteriores à
+ * coluna 'custo_unitario', o preço de compra atual do produto), as mesmas fórmulas de
+ * {@code VendaDAO.reconstruirResumoDiario}. Os totais só coincidem com os do resumo diário se ele estiver
+ * completo e se não houver vendas sem itens, que não têm linhas e não são contadas aqui.
+ */
+public class AnaliseVendas {
+
+    // Menor faixa de linhas somada por uma tarefa; abaixo disso, dividir custa mais do que somar.
+    private static final int LINHAS_MINIMAS_POR_TAREFA = 8 * 1024;
+
+    private final ColunasVendas colunas;
+
+    /**
+     * Cria a análise sobre linhas já carregadas.
+     *
+     * @param colunas as linhas de venda.
+     */
+    public AnaliseVendas(ColunasVendas colunas) {
+        this.colunas = colunas;
+    }
+
+    /**
+     * Carrega as linhas das vendas de um período do banco de dados e cria a análise sobre elas.
+     *
+     * @param inicio data inicial do período (inclusive), ou {@code null} para não limitar.
+     * @param fim    data final do período (inclusive), ou {@code null} para não limitar.
+     * @return a análise do período.
+     */
+    public static AnaliseVendas carregar(LocalDate inicio, LocalDate fim) {
+        return new AnaliseVendas(ColunasVendas.carregar(inicio, fim));
+    }
+
+    /**
+     * Calcula os totais de todas as linhas.
+     *
+     * @return os totais, do primeiro ao último dia com vendas (zerados e sem datas se não houver linhas).
+     */
+    public ResumoVendas totalizar() {
+        Totais t = somar(null, 0, 1, false);
+        return new ResumoVendas(colunas.getPrimeiroDia(), colunas.getUltimoDia(), (int) t.vendas[0], (int) t.itens[0],
+                t.receita[0], t.custo[0]);
+    }
+
+    /**
+     * Calcula os totais de cada grupo da dimensão.
+     *
+     * @param dimensao a dimensão do agrupamento.
+     * @return os totais de cada grupo com vendas, em ordem de data (dias), de CPF (clientes) ou de ID (produtos).
+     */
+    public List<TotaisGrupo> agrupar(Dimensao dimensao) {
+        Totais t = somarPor(dimensao);
+        List<TotaisGrupo> lista = new ArrayList<>();
+        for (int g = 0; g < t.vendas.length; g++) {
+            if (t.vendas[g] > 0) {
+                lista.add(grupo(dimensao, t, g));
+            }
+        }
+        if (dimensao == Dimensao.CLIENTE) {
+            lista.sort(Comparator.comparing(TotaisGrupo::getChave));
+        } else if (dimensao == Dimensao.PRODUTO) {
+            lista.sort(Comparator.comparingInt(grupo -> Integer.parseInt(grupo.getChave())));
+        }
+        return lista;
+    }
+
+    /**
+     * Retorna os grupos da dimensão com as maiores receitas. Empates são desfeitos pela chave, para que o
+     * resultado não dependa da ordem das linhas.
+     *
+     * @param dimensao a dimensão do agrupamento.
+     * @param n        o número máximo de grupos retornados.
+     * @return até {@code n} grupos, da maior para a menor receita.
+     */
+    public List<TotaisGrupo> maiores(Dimensao dimensao, int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("O número de grupos deve ser maior que zero.");
+        }
+        Totais t = somarPor(dimensao);
+        // Mantém apenas os N maiores em um heap cujo topo é o menor deles.
+        Comparator<TotaisGrupo> ordem = Comparator.comparingLong(TotaisGrupo::getReceita)
+                .thenComparing(TotaisGrupo::getChave, Comparator.reverseOrder());
+        PriorityQueue<TotaisGrupo> heap = new PriorityQueue<>(n + 1, ordem);
+        for (int g = 0; g < t.vendas.length; g++) {
+            if (t.vendas[g] == 0 || (heap.size() == n && t.receita[g] < heap.peek().getReceita())) {
+                continue;
+            }
+            heap.add(grupo(dimensao, t, g));
+            if (heap.size() > n) {
+                heap.poll();
+            }
+        }
+        List<TotaisGrupo> lista = new ArrayList<>(heap);
+        lista.sort(ordem.reversed());
+        return lista;
+    }
+
+    /**
+     * Soma as linhas agrupadas pela dimensão. Nos dias, o grupo é a distância ao primeiro dia com vendas.
+     */
+    private Totais somarPor(Dimensao dimensao) {
+        if (colunas.tamanho == 0) {
+            return new Totais(0);
+        }
+        switch (dimensao) {
+            case DIA:
+                return somar(colunas.dia, colunas.menorDia, colunas.maiorDia - colunas.menorDia + 1, false);
+            case CLIENTE:
+                return somar(colunas.cliente, 0, colunas.cpfs.size(), false);
+            default:
+                // Um produto aparece no máximo uma vez por venda: cada linha é uma venda distinta.
+                return somar(colunas.produto, 0, colunas.idsProdutos.size(), true);
+        }
+    }
+
+    /**
+     * Executa a soma paralela de todas as linhas no pool comum de fork/join.
+     */
+    private Totais somar(int[] chaves, int deslocamento, int grupos, boolean vendaPorLinha) {
+        int paralelismo = ForkJoinPool.getCommonPoolParallelism();
+        // Cada tarefa aloca vetores do tamanho do número de grupos; com faixas de pelo menos 4 linhas
+        // por grupo, alocar e somar esses vetores nunca custa mais do que percorrer as linhas.
+        int limite = Math.max(LINHAS_MINIMAS_POR_TAREFA, Math.max(colunas.tamanho / (paralelismo * 4), grupos * 4));
+        return ForkJoinPool.commonPool().invoke(
+                new Soma(colunas, chaves, deslocamento, grupos, vendaPorLinha, limite, 0, colunas.tamanho));
+    }
+
+    /**
+     * Monta os totais de um grupo com a sua chave e descrição.
+     */
+    private TotaisGrupo grupo(Dimensao dimensao, Totais t, int g) {
+        String chave;
+        String descricao;
+        switch (dimensao) {
+            case DIA:
+                chave = LocalDate.ofEpochDay(colunas.menorDia + g).toString();
+                descricao = chave;
+                break;
+            case CLIENTE:
+                chave = colunas.cpfs.get(g);
+                descricao = colunas.nomesClientes.get(g);
+                break;
+            default:
+                chave = String.valueOf(colunas.idsProdutos.get(g));
+                descricao = colunas.nomesProdutos.get(g);
+        }
+        return new TotaisGrupo(chave, descricao, t.vendas[g], t.itens[g], t.receita[g], t.custo[g]);
+    }
+
+    /**
+     * Totais por grupo, em vetores indexados pelo número do grupo.
+     */
+    private static final class Totais {
+        final long[] vendas;
+        final long[] itens;
+        final long[] receita;
+        final long[] custo;
+
+        Totais(int grupos) {
+            vendas = new long[grupos];
+            itens = new long[grupos];
+            receita = new long[grupos];
+            custo = new long[grupos];
+        }
+
+        void somar(Totais outro) {
+            for (int g = 0; g < vendas.length; g++) {
+                vendas[g] += outro.vendas[g];
+                itens[g] += outro.itens[g];
+                receita[g] += outro.receita[g];
+                custo[g] += outro.custo[g];
+            }
+        }
+    }
+
+    /**
+     * Soma de uma faixa de linhas. Faixas maiores que o limite são divididas ao meio: uma metade
+     * é entregue ao pool e a outra é somada pela própria thread.
+     */
+    private static final class Soma extends RecursiveTask<Totais> {
+        private static final long serialVersionUID = 1L;
+
+        // As tarefas só existem durante a soma e nunca são serializadas.
+        private final transient ColunasVendas c;
+        private final int[] chaves;
+        private final int deslocamento;
+        private final int grupos;
+        private final boolean vendaPorLinha;
+        private final int limite;
+        private final int de;
+        private final int ate;
+
+        Soma(ColunasVendas c, int[] chaves, int deslocamento, int grupos, boolean vendaPorLinha, int limite, int de, int ate) {
+            this.c = c;
+            this.chaves = chaves;
+            this.deslocamento = deslocamento;
+            this.grupos = grupos;
+            this.vendaPorLinha = vendaPorLinha;
+            this.limite = limite;
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        protected Totais compute() {
+            if (ate - de > limite) {
+                int meio = (de + ate) >>> 1;
+                Soma esquerda = new Soma(c, chaves, deslocamento, grupos, vendaPorLinha, limite, de, meio);
+                esquerda.fork();
+                Totais t = new Soma(c, chaves, deslocamento, grupos, vendaPorLinha, limite, meio, ate).compute();
+                t.somar(esquerda.join());
+                return t;
+            }
+            Totais t = new Totais(grupos);
+            for (int i = de; i < ate; i++) {
+                int g = chaves == null ? 0 : chaves[i] - deslocamento;
+                long q = c.quantidade[i];
+                if (vendaPorLinha || c.inicioVenda[i]) {
+                    t.vendas[g]++;
+                }
+                t.itens[g] += q;
+                t.receita[g] += q * c.precoVenda[i];
+                t.custo[g] += q * c.custoUnitario[i];
+            }
+            return t;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package analise;
+
+import dao.VendaDAO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Linhas de venda (uma por produto vendido) guardadas em colunas de tipos primitivos, para a
+ * {@link AnaliseVendas}. Cada coluna é um vetor, e a linha {@code i} é formada pela posição {@code i}
+ * de todos eles: nenhum objeto é criado por linha, e as somas percorrem memória contígua.
+ * <br>
+ * Clientes e produtos são guardados como índices em dicionários (um CPF ou um ID de produto vira
+ * um número de 0 a N-1, na ordem em que aparece), e os dias como número de dias desde 1970-01-01.
+ * <br>
+ * As linhas são recebidas de {@link VendaDAO#percorrerLinhas(LocalDate, LocalDate, VendaDAO.ReceptorLinhas)},
+ * ordenadas pela venda. Depois de carregadas, as colunas não mudam e podem ser lidas por várias threads.
+ */
+public final class ColunasVendas implements VendaDAO.ReceptorLinhas {
+
+    private static final int CAPACIDADE_INICIAL = 1024;
+
+    int tamanho = 0;
+    int[] dia = new int[CAPACIDADE_INICIAL];
+    int[] cliente = new int[CAPACIDADE_INICIAL];
+    int[] produto = new int[CAPACIDADE_INICIAL];
+    int[] quantidade = new int[CAPACIDADE_INICIAL];
+    long[] precoVenda = new long[CAPACIDADE_INICIAL];
+    long[] custoUnitario = new long[CAPACIDADE_INICIAL];
+    // Verdadeiro na primeira linha de cada venda, para contar vendas distintas sem guardar os IDs.
+    boolean[] inicioVenda = new boolean[CAPACIDADE_INICIAL];
+
+    int menorDia = Integer.MAX_VALUE;
+    int maiorDia = Integer.MIN_VALUE;
+
+    final List<String> cpfs = new ArrayList<>();
+    final List<String> nomesClientes = new ArrayList<>();
+    final List<Integer> idsProdutos = new ArrayList<>();
+    final List<String> nomesProdutos = new ArrayList<>();
+    private final Map<String, Integer> indiceClientes = new HashMap<>();
+    private final Map<Integer, Integer> indiceProdutos = new HashMap<>();
+
+    private int ultimaVenda = 0;
+    private String ultimaData = null;
+    private int ultimoDia = 0;
+    private String ultimoCpf = null;
+    private int ultimoCliente = 0;
+
+    /**
+     * Carrega as linhas das vendas de um período do banco de dados.
+     *
+     * @param inicio data inicial do período (inclusive), ou {@code null} para não limitar.
+     * @param fim    data final do período (inclusive), ou {@code null} para não limitar.
+     * @return as colunas com as linhas do período.
+     */
+    public static ColunasVendas carregar(LocalDate inicio, LocalDate fim) {
+        ColunasVendas colunas = new ColunasVendas();
+        new VendaDAO().percorrerLinhas(inicio, fim, colunas);
+        return colunas;
+    }
+
+    /**
+     * Acrescenta uma linha às colunas. As linhas de uma mesma venda devem chegar seguidas.
+     */
+    @Override
+    public void receber(int idVenda, String dataVenda, String cpfCliente, String nomeCliente,
+                        int idProduto, String nomeProduto, int quantidade, long precoUnitario, long custoUnitario) {
+        if (tamanho == dia.length) {
+            crescer();
+        }
+        boolean novaVenda = tamanho == 0 || idVenda != ultimaVenda;
+        if (novaVenda) {
+            ultimaVenda = idVenda;
+            // A data e o cliente só mudam de uma venda para outra.
+            if (!dataVenda.equals(ultimaData)) {
+                ultimaData = dataVenda;
+                ultimoDia = (int) LocalDate.parse(dataVenda).toEpochDay();
+                menorDia = Math.min(menorDia, ultimoDia);
+                maiorDia = Math.max(maiorDia, ultimoDia);
+            }
+            if (!cpfCliente.equals(ultimoCpf)) {
+                ultimoCpf = cpfCliente;
+                ultimoCliente = indiceClientes.computeIfAbsent(cpfCliente, cpf -> {
+                    cpfs.add(cpf);
+                    nomesClientes.add(nomeCliente);
+                    return cpfs.size() - 1;
+                });
+            }
+        }
+        int i = tamanho++;
+        inicioVenda[i] = novaVenda;
+        dia[i] = ultimoDia;
+        cliente[i] = ultimoCliente;
+        produto[i] = indiceProdutos.computeIfAbsent(idProduto, id -> {
+            idsProdutos.add(id);
+            nomesProdutos.add(nomeProduto);
+            return idsProdutos.size() - 1;
+        });
+        this.quantidade[i] = quantidade;
+        this.precoVenda[i] = precoUnitario;
+        this.custoUnitario[i] = custoUnitario;
+    }
+
+    /**
+     * Retorna o número de linhas carregadas.
+     *
+     * @return quantidade de linhas de venda.
+     */
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Retorna o primeiro dia com vendas.
+     *
+     * @return a menor data das linhas, ou {@code null} se não houver linhas.
+     */
+    public LocalDate getPrimeiroDia() {
+        return tamanho == 0 ? null : LocalDate.ofEpochDay(menorDia);
+    }
+
+    /**
+     * Retorna o último dia com vendas.
+     *
+     * @return a maior data das linhas, ou {@code null} se não houver linhas.
+     */
+    public LocalDate getUltimoDia() {
+        return tamanho == 0 ? null : LocalDate.ofEpochDay(maiorDia);
+    }
+
+    /**
+     * Dobra a capacidade de todas as colunas.
+     */
+    private void crescer() {
+        int capacidade = dia.length * 2;
+        dia = Arrays.copyOf(dia, capacidade);
+        cliente = Arrays.copyOf(cliente, capacidade);
+        produto = Arrays.copyOf(produto, capacidade);
+        quantidade = Arrays.copyOf(quantidade, capacidade);
+        precoVenda = Arrays.copyOf(precoVenda, capacidade);
+        custoUnitario = Arrays.copyOf(custoUnitario, capacidade);
+        inicioVenda = Arrays.copyOf(inicioVenda, capacidade);
+    }
+}
@@ -0,0 +1,258 @@
+package analise;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Contagem aproximada dos produtos mais vendidos em memória de tamanho fixo, pelo algoritmo
+ * Space-Saving (Metwally, Agrawal e El Abbadi): no máximo {@code capacidade} produtos são
+ * acompanhados; quando chega um produto novo e a contagem está cheia, ele assume o lugar do
+ * produto de menor contagem, herdando essa contagem como erro máximo.
+ * <br>
+ * A contagem de cada produto nunca é menor que a real e a supera em no máximo o seu erro, e todo
+ * produto com mais de {@code total / capacidade} unidades vendidas está garantidamente na contagem.
+ * Com a capacidade maior que o número de produtos vendidos, as contagens são exatas.
+ * <br>
+ * Como o {@code cache.LruCache}, a estrutura não cria objetos a cada atualização: os produtos ficam em
+ * vetores, localizados por uma tabela de endereçamento aberto, e o de menor contagem é mantido no topo
+ * de um heap de índices. Uma atualização custa O(log capacidade). Não é sincronizada: quem a compartilha
+ * entre threads deve sincronizar os acessos (ver {@link MaisVendidos}).
+ */
+public final class ContagemMaisVendidos {
+
+    // Marca de posição vazia na tabela de endereçamento aberto.
+    private static final int VAZIO = -1;
+
+    private final int capacidade;
+    private final int mascara;
+    private final int[] tabela;
+
+    // Dados das entradas, indexados pelo número da entrada (0 .. tamanho-1).
+    private final int[] ids;
+    private final long[] contagens;
+    private final long[] erros;
+    // Posição de cada entrada no heap.
+    private final int[] posicaoHeap;
+
+    // Heap de entradas, com a de menor contagem na posição 0.
+    private final int[] heap;
+    private int tamanho = 0;
+    private long total = 0;
+
+    /**
+     * Cria uma contagem vazia.
+     *
+     * @param capacidade número máximo de produtos acompanhados.
+     * @throws IllegalArgumentException se a capacidade for menor que 1.
+     */
+    public ContagemMaisVendidos(int capacidade) {
+        if (capacidade < 1) {
+            throw new IllegalArgumentException("A capacidade da contagem deve ser maior que zero.");
+        }
+        this.capacidade = capacidade;
+        int tamanhoTabela = Integer.highestOneBit(Math.max(2, capacidade) * 2 - 1) << 1;
+        this.mascara = tamanhoTabela - 1;
+        this.tabela = new int[tamanhoTabela];
+        Arrays.fill(tabela, VAZIO);
+        this.ids = new int[capacidade];
+        this.contagens = new long[capacidade];
+        this.erros = new long[capacidade];
+        this.posicaoHeap = new int[capacidade];
+        this.heap = new int[capacidade];
+    }
+
+    /**
+     * Soma unidades vendidas de um produto.
+     *
+     * @param idProduto  o ID do produto.
+     * @param quantidade a quantidade vendida (maior que zero).
+     */
+    public void adicionar(int idProduto, long quantidade) {
+        adicionar(idProduto, quantidade, 0);
+    }
+
+    /**
+     * Soma a esta contagem todas as entradas de outra, com os seus erros (por exemplo, para juntar
+     * as contagens de vários dias).
+     *
+     * @param outra a contagem a ser somada.
+     */
+    public void adicionarTodos(ContagemMaisVendidos outra) {
+        for (int e = 0; e < outra.tamanho; e++) {
+            adicionar(outra.ids[e], outra.contagens[e], outra.erros[e]);
+        }
+    }
+
+    /**
+     * Retorna os produtos de maior contagem. Empates são desfeitos pelo menor ID.
+     *
+     * @param n o número máximo de produtos retornados.
+     * @return até {@code n} produtos, do mais vendido para o menos vendido.
+     */
+    public List<ProdutoMaisVendido> maiores(int n) {
+        // Seleção parcial: mantém em 'escolhidas' as n maiores entradas, em ordem decrescente.
+        int limite = Math.min(n, tamanho);
+        int[] escolhidas = new int[limite];
+        int quantidade = 0;
+        for (int e = 0; e < tamanho; e++) {
+            if (quantidade == limite && !antes(e, escolhidas[limite - 1])) {
+                continue;
+            }
+            int p = (quantidade < limite) ? quantidade++ : limite - 1;
+            while (p > 0 && antes(e, escolhidas[p - 1])) {
+                escolhidas[p] = escolhidas[p - 1];
+                p--;
+            }
+            escolhidas[p] = e;
+        }
+        List<ProdutoMaisVendido> lista = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            int e = escolhidas[i];
+            lista.add(new ProdutoMaisVendido(ids[e], contagens[e], erros[e]));
+        }
+        return lista;
+    }
+
+    /**
+     * Retorna o número de produtos acompanhados.
+     *
+     * @return a quantidade de produtos na contagem.
+     */
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Retorna o total de unidades somadas, de todos os produtos (inclusive os que deixaram a contagem).
+     *
+     * @return a soma das quantidades.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    private void adicionar(int idProduto, long quantidade, long erro) {
+        total += quantidade;
+        int posicao = localizar(idProduto);
+        int entrada;
+        if (posicao >= 0) {
+            entrada = tabela[posicao];
+            contagens[entrada] += quantidade;
+            erros[entrada] += erro;
+        } else if (tamanho < capacidade) {
+            entrada = tamanho++;
+            ids[entrada] = idProduto;
+            contagens[entrada] = quantidade;
+            erros[entrada] = erro;
+            heap[entrada] = entrada;
+            posicaoHeap[entrada] = entrada;
+            inserirNaTabela(entrada);
+            subir(entrada);
+            return;
+        } else {
+            // Contagem cheia: o produto novo substitui o de menor contagem e herda a contagem como erro.
+            entrada = heap[0];
+            removerDaTabela(localizar(ids[entrada]));
+            ids[entrada] = idProduto;
+            erros[entrada] = contagens[entrada] + erro;
+            contagens[entrada] += quantidade;
+            inserirNaTabela(entrada);
+        }
+        // A contagem só aumenta: a entrada desce no heap.
+        descer(posicaoHeap[entrada]);
+    }
+
+    /**
+     * Indica se a entrada {@code a} vem antes de {@code b} na ordem dos mais vendidos.
+     */
+    private boolean antes(int a, int b) {
+        return contagens[a] > contagens[b] || (contagens[a] == contagens[b] && ids[a] < ids[b]);
+    }
+
+    private void subir(int p) {
+        int entrada = heap[p];
+        while (p > 0) {
+            int pai = (p - 1) >>> 1;
+            if (contagens[heap[pai]] <= contagens[entrada]) {
+                break;
+            }
+            mover(heap[pai], p);
+            p = pai;
+        }
+        mover(entrada, p);
+    }
+
+    private void descer(int p) {
+        int entrada = heap[p];
+        while (true) {
+            int filho = 2 * p + 1;
+            if (filho >= tamanho) {
+                break;
+            }
+            if (filho + 1 < tamanho && contagens[heap[filho + 1]] < contagens[heap[filho]]) {
+                filho++;
+            }
+            if (contagens[heap[filho]] >= contagens[entrada]) {
+                break;
+            }
+            mover(heap[filho], p);
+            p = filho;
+        }
+        mover(entrada, p);
+    }
+
+    private void mover(int entrada, int p) {
+        heap[p] = entrada;
+        posicaoHeap[entrada] = p;
+    }
+
+    /**
+     * Procura o produto na tabela.
+     *
+     * @return a posição da tabela que aponta para a entrada do produto, ou -1 se não estiver presente.
+     */
+    private int localizar(int idProduto) {
+        int p = hash(idProduto);
+        while (tabela[p] != VAZIO) {
+            if (ids[tabela[p]] == idProduto) {
+                return p;
+            }
+            p = (p + 1) & mascara;
+        }
+        return -1;
+    }
+
+    private void inserirNaTabela(int entrada) {
+        int p = hash(ids[entrada]);
+        while (tabela[p] != VAZIO) {
+            p = (p + 1) & mascara;
+        }
+        tabela[p] = entrada;
+    }
+
+    /**
+     * Esvazia a posição da tabela com deslocamento para trás, como em {@code LruCache}.
+     */
+    private void removerDaTabela(int posicao) {
+        int vazia = posicao;
+        int p = (posicao + 1) & mascara;
+        while (tabela[p] != VAZIO) {
+            int ideal = hash(ids[tabela[p]]);
+            boolean podeMover = (vazia <= p)
+                    ? (ideal <= vazia || ideal > p)
+                    : (ideal <= vazia && ideal > p);
+            if (podeMover) {
+                tabela[vazia] = tabela[p];
+                vazia = p;
+            }
+            p = (p + 1) & mascara;
+        }
+        tabela[vazia] = VAZIO;
+    }
+
+    private int hash(int idProduto) {
+        long h = idProduto * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+}
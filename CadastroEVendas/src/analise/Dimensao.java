@@ -0,0 +1,16 @@
+package analise;
+
+/**
+ * Dimensões pelas quais a {@link AnaliseVendas} agrupa as linhas de venda.
+ */
+public enum Dimensao {
+
+    /** Um grupo por dia com vendas; a chave é a data no formato AAAA-MM-DD. */
+    DIA,
+
+    /** Um grupo por cliente; a chave é o CPF e a descrição, o nome. */
+    CLIENTE,
+
+    /** Um grupo por produto; a chave é o ID e a descrição, o nome. */
+    PRODUTO
+}
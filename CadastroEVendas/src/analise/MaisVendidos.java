@@ -0,0 +1,181 @@
+package analise;
+
+import dao.VendaDAO;
+import db.DB;
+import db.DbException;
+import model.ItemVenda;
+import model.Venda;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Produtos mais vendidos hoje e nos últimos dias, mantidos em memória para o painel da tela de vendas,
+ * sem consultar a tabela 'venda_produtos' a cada atualização.
+ * <br>
+ * Cada dia tem a sua {@link ContagemMaisVendidos}, somada a cada venda registrada por
+ * {@code VendaController.realizarVenda}; apenas os últimos {@link #DIAS_MAXIMOS} dias são mantidos.
+ * A consulta de vários dias junta as contagens diárias, e o resultado é reaproveitado até a próxima venda.
+ * <br>
+ * Na primeira consulta, as contagens são reconstruídas a partir do banco de dados (ver
+ * {@link #reconstruir()}); as vendas registradas antes disso são ignoradas, pois já estarão na leitura.
+ * A leitura é feita fora do monitor usado por {@link #registrar(Venda)}, de modo que o registro das
+ * vendas no caixa nunca espera pelo banco de dados; as contagens lidas substituem as atuais de uma vez.
+ * <br>
+ * Depois da reconstrução, apenas as vendas registradas por este processo são somadas: vendas feitas em
+ * outros caixas (outros processos ligados ao mesmo banco) só aparecem na próxima reconstrução.
+ * A capacidade de cada contagem é lida da chave 'maisVendidos.capacidade' do arquivo 'db.properties'
+ * (padrão 1000): com mais produtos vendidos em um dia do que a capacidade, as quantidades passam a ser
+ * estimativas, com o erro máximo informado em cada {@link ProdutoMaisVendido}.
+ */
+public class MaisVendidos {
+
+    /** Número de dias mantidos, contando o dia atual. */
+    public static final int DIAS_MAXIMOS = 7;
+
+    // Impede duas reconstruções simultâneas; não é usado por registrar().
+    private static final Object RECONSTRUCAO = new Object();
+
+    private static TreeMap<LocalDate, ContagemMaisVendidos> porDia = new TreeMap<>();
+    private static volatile boolean inicializado = false;
+    private static int capacidade;
+    // Vendas registradas durante uma reconstrução, somadas de novo às contagens lidas; null fora dela.
+    private static List<Venda> durante = null;
+
+    // Contagem de vários dias juntada na última consulta, e o primeiro dia dela; descartada a cada venda.
+    private static ContagemMaisVendidos juntada = null;
+    private static LocalDate juntadaDesde = null;
+
+    private MaisVendidos() {
+    }
+
+    /**
+     * Soma os itens de uma venda já gravada às contagens do dia da venda.
+     *
+     * @param venda a venda registrada.
+     */
+    public static synchronized void registrar(Venda venda) {
+        if (durante != null) {
+            durante.add(venda);
+        }
+        if (inicializado) {
+            somar(venda);
+        }
+    }
+
+    private static void somar(Venda venda) {
+        LocalDate dia = venda.getDataVenda();
+        if (dia.isBefore(primeiroDia())) {
+            return;
+        }
+        ContagemMaisVendidos contagem = porDia.computeIfAbsent(dia, d -> new ContagemMaisVendidos(capacidade));
+        for (ItemVenda item : venda.getItens()) {
+            contagem.adicionar(item.getProduto().getId(), item.getQuantidade());
+        }
+        porDia.headMap(primeiroDia()).clear();
+        juntada = null;
+    }
+
+    /**
+     * Retorna os produtos mais vendidos nos últimos dias.
+     *
+     * @param dias o número de dias, contando o atual (1 para hoje, até {@link #DIAS_MAXIMOS}).
+     * @param n    o número máximo de produtos.
+     * @return até {@code n} produtos, do mais vendido para o menos vendido.
+     * @throws IllegalArgumentException se o número de dias ou de produtos for inválido.
+     * @throws DbException se as contagens precisarem ser reconstruídas e a leitura falhar.
+     */
+    public static List<ProdutoMaisVendido> maisVendidos(int dias, int n) {
+        if (dias < 1 || dias > DIAS_MAXIMOS) {
+            throw new IllegalArgumentException("O número de dias deve estar entre 1 e " + DIAS_MAXIMOS + ".");
+        }
+        if (n < 1) {
+            throw new IllegalArgumentException("O número de produtos deve ser maior que zero.");
+        }
+        if (!inicializado) {
+            synchronized (RECONSTRUCAO) {
+                if (!inicializado) {
+                    reconstruir();
+                }
+            }
+        }
+        return consultar(dias, n);
+    }
+
+    private static synchronized List<ProdutoMaisVendido> consultar(int dias, int n) {
+        LocalDate desde = LocalDate.now().minusDays(dias - 1);
+        if (dias == 1) {
+            ContagemMaisVendidos hoje = porDia.get(desde);
+            return (hoje == null) ? List.of() : hoje.maiores(n);
+        }
+        if (juntada == null || !desde.equals(juntadaDesde)) {
+            juntada = new ContagemMaisVendidos(capacidade);
+            for (ContagemMaisVendidos contagem : porDia.tailMap(desde).values()) {
+                juntada.adicionarTodos(contagem);
+            }
+            juntadaDesde = desde;
+        }
+        return juntada.maiores(n);
+    }
+
+    /**
+     * Descarta as contagens e as reconstrói com as quantidades vendidas nos últimos dias (de todos os
+     * caixas), somadas pelo banco de dados. A leitura é feita sem bloquear {@link #registrar(Venda)}: as
+     * vendas registradas enquanto ela acontece são guardadas e somadas às contagens lidas, que então
+     * substituem as atuais. Uma venda concluída durante a leitura pode ser contada duas vezes até a
+     * próxima reconstrução.
+     *
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados ou se a capacidade configurada for inválida.
+     */
+    public static void reconstruir() {
+        synchronized (RECONSTRUCAO) {
+            int novaCapacidade = lerCapacidade();
+            synchronized (MaisVendidos.class) {
+                durante = new ArrayList<>();
+            }
+            TreeMap<LocalDate, ContagemMaisVendidos> lidos = new TreeMap<>();
+            try {
+                new VendaDAO().somarQuantidadesPorDia(primeiroDia(), (dia, idProduto, quantidade) ->
+                        lidos.computeIfAbsent(dia, d -> new ContagemMaisVendidos(novaCapacidade)).adicionar(idProduto, quantidade));
+            } catch (RuntimeException e) {
+                synchronized (MaisVendidos.class) {
+                    durante = null;
+                }
+                throw e;
+            }
+            synchronized (MaisVendidos.class) {
+                capacidade = novaCapacidade;
+                porDia = lidos;
+                juntada = null;
+                for (Venda venda : durante) {
+                    somar(venda);
+                }
+                durante = null;
+                inicializado = true;
+            }
+        }
+    }
+
+    private static int lerCapacidade() {
+        String valor = DB.carregarProperties().getProperty("maisVendidos.capacidade", "1000");
+        int novaCapacidade;
+        try {
+            novaCapacidade = Integer.parseInt(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new DbException("Valor inválido para 'maisVendidos.capacidade': " + valor);
+        }
+        if (novaCapacidade < 1) {
+            throw new DbException("Valor inválido para 'maisVendidos.capacidade': " + valor);
+        }
+        return novaCapacidade;
+    }
+
+    /**
+     * Retorna o dia mais antigo mantido.
+     */
+    private static LocalDate primeiroDia() {
+        return LocalDate.now().minusDays(DIAS_MAXIMOS - 1);
+    }
+}
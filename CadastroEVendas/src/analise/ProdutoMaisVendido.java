@@ -0,0 +1,62 @@
+package analise;
+
+/**
+ * Um produto da lista de mais vendidos de {@link ContagemMaisVendidos}, com a quantidade estimada
+ * e o erro máximo da estimativa.
+ */
+public class ProdutoMaisVendido {
+
+    private final int idProduto;
+    private final long quantidade;
+    private final long erro;
+
+    /**
+     * Construtor completo com parâmetros.
+     *
+     * @param idProduto  o ID do produto.
+     * @param quantidade a quantidade vendida estimada (nunca menor que a real).
+     * @param erro       quanto a estimativa pode superar a quantidade real.
+     */
+    public ProdutoMaisVendido(int idProduto, long quantidade, long erro) {
+        this.idProduto = idProduto;
+        this.quantidade = quantidade;
+        this.erro = erro;
+    }
+
+    /**
+     * Retorna o ID do produto.
+     *
+     * @return o ID do produto.
+     */
+    public int getIdProduto() {
+        return idProduto;
+    }
+
+    /**
+     * Retorna a quantidade vendida estimada.
+     *
+     * @return a estimativa, que nunca é menor que a quantidade real.
+     */
+    public long getQuantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Retorna o erro máximo da estimativa.
+     *
+     * @return quanto a quantidade estimada pode superar a real; 0 se a contagem for exata.
+     */
+    public long getErro() {
+        return erro;
+    }
+
+    /**
+     * Retorna uma representação em String do produto e da quantidade.
+     *
+     * @return o ID e a quantidade, com o erro quando a contagem não for exata.
+     */
+    @Override
+    public String toString() {
+        return "produto " + idProduto + ": " + quantidade + (erro > 0 ? " (erro máximo " + erro + ")" : "");
+    }
+}
@@ -0,0 +1,110 @@
+package analise;
+
+import model.Dinheiro;
+
+/**
+ * Totais de um grupo de linhas de venda (um dia, um cliente ou um produto): número de vendas,
+ * itens vendidos, receita e custo, em centavos. A margem é a diferença entre a receita e o custo.
+ */
+public class TotaisGrupo {
+
+    private final String chave;
+    private final String descricao;
+    private final long vendas;
+    private final long itens;
+    private final long receita;
+    private final long custo;
+
+    /**
+     * Construtor completo com parâmetros.
+     *
+     * @param chave     a chave do grupo (data, CPF ou ID do produto).
+     * @param descricao o nome do cliente ou do produto; para dias, a própria data.
+     * @param vendas    número de vendas distintas do grupo.
+     * @param itens     número de itens vendidos (soma das quantidades).
+     * @param receita   soma dos preços de venda dos itens, em centavos.
+     * @param custo     soma dos preços de compra dos itens, em centavos.
+     */
+    public TotaisGrupo(String chave, String descricao, long vendas, long itens, long receita, long custo) {
+        this.chave = chave;
+        this.descricao = descricao;
+        this.vendas = vendas;
+        this.itens = itens;
+        this.receita = receita;
+        this.custo = custo;
+    }
+
+    /**
+     * Retorna a chave do grupo.
+     *
+     * @return a data (AAAA-MM-DD), o CPF do cliente ou o ID do produto.
+     */
+    public String getChave() {
+        return chave;
+    }
+
+    /**
+     * Retorna a descrição do grupo.
+     *
+     * @return o nome do cliente ou do produto; para dias, a própria data.
+     */
+    public String getDescricao() {
+        return descricao;
+    }
+
+    /**
+     * Retorna o número de vendas distintas do grupo.
+     *
+     * @return quantidade de vendas.
+     */
+    public long getVendas() {
+        return vendas;
+    }
+
+    /**
+     * Retorna o número de itens vendidos no grupo.
+     *
+     * @return soma das quantidades.
+     */
+    public long getItens() {
+        return itens;
+    }
+
+    /**
+     * Retorna a receita do grupo.
+     *
+     * @return soma dos preços de venda, em centavos.
+     */
+    public long getReceita() {
+        return receita;
+    }
+
+    /**
+     * Retorna o custo do grupo.
+     *
+     * @return soma dos preços de compra, em centavos.
+     */
+    public long getCusto() {
+        return custo;
+    }
+
+    /**
+     * Calcula a margem do grupo, isto é, a receita menos o custo.
+     *
+     * @return a margem, em centavos.
+     */
+    public long getMargem() {
+        return receita - custo;
+    }
+
+    /**
+     * Retorna uma representação em String dos totais do grupo.
+     *
+     * @return a descrição e os totais formatados.
+     */
+    @Override
+    public String toString() {
+        return descricao + ": " + vendas + " vendas, " + itens + " itens, receita R$ " + Dinheiro.formatar(receita)
+                + ", custo R$ " + Dinheiro.formatar(custo) + ", margem R$ " + Dinheiro.formatar(getMargem());
+    }
+}
@@ -2,19 +2,27 @@ package app;
 
 import java.awt.EventQueue;
 
+import db.DB;
+import servidor.ServidorVendas;
 import view.LoginView;
 
 /**
  * @author Gabriel Rodrigues
  * Classe principal da aplicação.
- * Responsável por iniciar a interface de login.
+ * Responsável por iniciar a interface de login ou, com o argumento {@code --servidor},
+ * o servidor HTTP de vendas sem interface gráfica (ver {@link ServidorVendas}).
  */
 public class Main {
     /**
      * Método principal que inicia a aplicação Java Swing.
-     * @param args Argumentos de linha de comando (não utilizados neste caso).
+     * Com {@code --servidor [porta]}, inicia apenas o servidor HTTP, que roda até o processo ser encerrado.
+     * @param args Argumentos de linha de comando: vazio para a interface gráfica, ou {@code --servidor [porta]}.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--servidor")) {
+            iniciarServidor(args.length > 1 ? Integer.valueOf(args[1]) : null);
+            return;
+        }
         // Garante que a interface gráfica seja criada e atualizada na Thread de Despacho de Eventos (EDT).
         EventQueue.invokeLater(() -> {
             try {
@@ -28,4 +36,19 @@ public class Main {
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Inicia o servidor HTTP. Ao encerrar o processo (Ctrl+C ou sinal de término), o servidor espera
+     * até 5 segundos pelas requisições em andamento e o pool de conexões é fechado.
+     *
+     * @param porta a porta informada na linha de comando, ou {@code null} para usar a de 'db.properties'.
+     */
+    private static void iniciarServidor(Integer porta) throws Exception {
+        ServidorVendas servidor = ServidorVendas.configurar(porta);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            servidor.parar(5);
+            DB.closeConnection();
+        }, "encerramento-servidor"));
+        servidor.iniciar();
+    }
+}
@@ -0,0 +1,185 @@
+package cache;
+
+import db.DB;
+import db.DbException;
+import model.Cliente;
+
+import java.util.Properties;
+
+/**
+ * Cache de clientes por CPF, usado por {@code ClienteDAO.buscarPorCpf} sempre que um
+ * cliente é identificado nas telas de vendas e de clientes.
+ * <br>
+ * Como o CPF tem sempre 11 dígitos, ele é convertido para um {@code long} e usado como chave
+ * de um {@link LruCache}, sem criar objetos {@code String} ou {@code Long} para as chaves.
+ * Cada entrada ocupa apenas a chave primitiva, a referência ao cliente e dois índices da
+ * lista de uso, bem menos que um {@code HashMap<String, Cliente>}.
+ * <br>
+ * CPFs não encontrados também são guardados (cache negativo), para que consultas repetidas
+ * de um CPF inexistente não voltem ao banco de dados. Inserções, atualizações e exclusões de
+ * clientes feitas pelo DAO removem o CPF do cache, e uma busca que leu o banco antes de uma
+ * dessas alterações não grava o resultado antigo de volta (ver {@link #getGeracao()}).
+ * <br>
+ * Essa invalidação só alcança o processo que fez a alteração. Para que um cliente cadastrado ou
+ * alterado em outro caixa seja visto, as entradas vencem: clientes após 'cache.clientes.validadeMs'
+ * (padrão 300000) e as marcas de CPF não cadastrado, bem mais cedo, após
+ * 'cache.clientes.validadeNegativaMs' (padrão 10000).
+ * <br>
+ * A capacidade é lida da chave 'cache.clientes.capacidade' do arquivo 'db.properties'
+ * (padrão 5000); o valor 0 desativa o cache.
+ */
+public class ClienteCache {
+
+    /**
+     * Marca retornada por {@link #buscar(String)} para CPFs que o cache sabe não estarem cadastrados.
+     * Deve ser comparada por referência ({@code ==}) e nunca exibida ou alterada.
+     */
+    public static final Cliente INEXISTENTE = new Cliente();
+
+    // Instância única do cache (criada na primeira utilização); null se o cache estiver desativado.
+    private static volatile LruCache<Cliente> cache = null;
+    private static volatile boolean inicializado = false;
+    private static volatile long validadeMs;
+    private static volatile long validadeNegativaMs;
+
+    /**
+     * Busca um cliente no cache.
+     *
+     * @param cpf o CPF procurado.
+     * @return o cliente em cache; {@link #INEXISTENTE} se o CPF estiver marcado como não cadastrado;
+     * ou {@code null} se o CPF não estiver no cache e for preciso consultar o banco de dados.
+     */
+    public static Cliente buscar(String cpf) {
+        LruCache<Cliente> c = getCache();
+        long chave = converterCpf(cpf);
+        if (c == null || chave < 0) {
+            return null;
+        }
+        return c.get(chave);
+    }
+
+    /**
+     * Retorna a geração atual do cache. Deve ser obtida antes de ler o cliente do banco de dados e
+     * repassada a {@link #armazenar(String, Cliente, long)}.
+     *
+     * @return a geração atual, ou 0 se o cache estiver desativado.
+     */
+    public static long getGeracao() {
+        LruCache<Cliente> c = getCache();
+        return (c == null) ? 0 : c.getGeracao();
+    }
+
+    /**
+     * Armazena o resultado de uma busca no banco de dados, com o prazo de validade de clientes ou, para
+     * um CPF não cadastrado, o prazo mais curto das marcas de inexistência. O resultado é descartado se
+     * algum cliente foi invalidado depois de obtida a geração.
+     *
+     * @param cpf     o CPF buscado.
+     * @param cliente o cliente encontrado, ou {@code null} para registrar que o CPF não está cadastrado.
+     * @param geracao a geração obtida com {@link #getGeracao()} antes da leitura.
+     */
+    public static void armazenar(String cpf, Cliente cliente, long geracao) {
+        LruCache<Cliente> c = getCache();
+        long chave = converterCpf(cpf);
+        if (c != null && chave >= 0) {
+            if (cliente == null) {
+                c.put(chave, INEXISTENTE, validadeNegativaMs, geracao);
+            } else {
+                c.put(chave, cliente, validadeMs, geracao);
+            }
+        }
+    }
+
+    /**
+     * Remove um CPF do cache (tanto um cliente em cache quanto uma marca de inexistência).
+     * Deve ser chamado após qualquer alteração do cliente no banco de dados.
+     *
+     * @param cpf o CPF do cliente alterado.
+     */
+    public static void invalidar(String cpf) {
+        LruCache<Cliente> c = getCache();
+        long chave = converterCpf(cpf);
+        if (c != null && chave >= 0) {
+            c.invalidar(chave);
+        }
+    }
+
+    /**
+     * Remove todos os clientes do cache.
+     */
+    public static void invalidarTodos() {
+        LruCache<Cliente> c = getCache();
+        if (c != null) {
+            c.limpar();
+        }
+    }
+
+    /**
+     * Retorna os contadores do cache (acertos, falhas, taxa de acerto, remoções e invalidações).
+     *
+     * @return um resumo textual dos contadores, ou uma indicação de que o cache está desativado.
+     */
+    public static String getEstatisticas() {
+        LruCache<Cliente> c = getCache();
+        return (c == null) ? "cache de clientes desativado" : c.toString();
+    }
+
+    /**
+     * Converte um CPF de 11 dígitos para um número {@code long}. Como todo CPF válido tem
+     * exatamente 11 dígitos, CPFs com zeros à esquerda não colidem entre si.
+     *
+     * @param cpf o CPF a ser convertido.
+     * @return o valor numérico do CPF, ou -1 se o texto não tiver exatamente 11 dígitos.
+     */
+    static long converterCpf(String cpf) {
+        if (cpf == null || cpf.length() != 11) {
+            return -1;
+        }
+        long valor = 0;
+        for (int i = 0; i < 11; i++) {
+            char ch = cpf.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            valor = valor * 10 + (ch - '0');
+        }
+        return valor;
+    }
+
+    /**
+     * Retorna o cache, criando-o na primeira chamada com a capacidade e as validades configuradas em 'db.properties'.
+     *
+     * @return o cache de clientes, ou {@code null} se estiver desativado.
+     * @throws DbException se a capacidade ou alguma validade configurada for inválida.
+     */
+    private static LruCache<Cliente> getCache() {
+        if (!inicializado) {
+            synchronized (ClienteCache.class) {
+                if (!inicializado) {
+                    Properties props = DB.carregarProperties();
+                    String valor = props.getProperty("cache.clientes.capacidade", "5000");
+                    int capacidade;
+                    try {
+                        capacidade = Integer.parseInt(valor.trim());
+                    } catch (NumberFormatException e) {
+                        throw new DbException("Valor inválido para 'cache.clientes.capacidade': " + valor);
+                    }
+                    validadeMs = lerValidade(props, "cache.clientes.validadeMs", "300000");
+                    validadeNegativaMs = lerValidade(props, "cache.clientes.validadeNegativaMs", "10000");
+                    cache = (capacidade > 0) ? new LruCache<>(capacidade) : null;
+                    inicializado = true;
+                }
+            }
+        }
+        return cache;
+    }
+
+    private static long lerValidade(Properties props, String chave, String padrao) {
+        String valor = props.getProperty(chave, padrao);
+        try {
+            return Long.parseLong(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new DbException("Valor inválido para '" + chave + "': " + valor);
+        }
+    }
+}
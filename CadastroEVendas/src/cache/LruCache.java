@@ -0,0 +1,408 @@
+package cache;
+
+import java.util.Arrays;
+
+/**
+ * Cache em memória de tamanho limitado, com chaves primitivas do tipo {@code long}
+ * e política de remoção LRU (o item usado há mais tempo é removido quando o cache enche).
+ * <br>
+ * Para evitar a criação de objetos a cada acesso, o cache não usa {@code HashMap} nem
+ * {@code LinkedHashMap}: as chaves ficam em uma tabela de endereçamento aberto (sondagem linear)
+ * e a ordem de uso é mantida por uma lista duplamente encadeada implementada com vetores de
+ * {@code int}. Nenhuma chave é convertida para {@code Long} (boxing).
+ * <br>
+ * Chaves {@code int} (como IDs de produtos) podem ser usadas diretamente, pois são convertidas
+ * implicitamente para {@code long}. Todos os métodos são sincronizados, de modo que uma mesma
+ * instância pode ser compartilhada por várias threads. Contadores de acertos, falhas,
+ * remoções por capacidade, expirações e invalidações ficam disponíveis para dimensionar o cache.
+ * <br>
+ * Cada entrada pode ter um prazo de validade contado a partir da escrita (expire-after-write):
+ * uma entrada vencida é removida na próxima busca e conta como falha. Isso limita o tempo em que
+ * uma alteração feita por outro processo, que a invalidação local não alcança, fica sem ser vista.
+ * <br>
+ * Para evitar que uma leitura lenta do banco de dados grave no cache um valor já invalidado,
+ * o cache mantém uma geração, incrementada a cada invalidação: quem vai ler o banco obtém a geração
+ * com {@link #getGeracao()} antes da leitura e armazena o resultado com
+ * {@link #put(long, Object, long, long)}, que descarta o valor se houve alguma invalidação nesse meio-tempo.
+ *
+ * @param <V> o tipo dos valores armazenados.
+ */
+public class LruCache<V> {
+
+    // Marca de posição vazia na tabela de endereçamento aberto.
+    private static final int VAZIO = -1;
+
+    private final int capacidade;
+    private final int mascara;
+
+    // Tabela de endereçamento aberto: cada posição guarda o índice de uma entrada ou VAZIO.
+    private final int[] tabela;
+
+    // Dados das entradas, indexados pelo número da entrada (0 .. capacidade-1).
+    private final long[] chaves;
+    private final Object[] valores;
+    private final int[] anterior;
+    private final int[] proximo;
+    // Instante (System.currentTimeMillis) em que cada entrada vence; Long.MAX_VALUE se não vencer.
+    private final long[] expiraEm;
+
+    // Início (mais recente) e fim (menos recente) da lista de uso; VAZIO se o cache estiver vazio.
+    private int cabeca = VAZIO;
+    private int cauda = VAZIO;
+    // Quantidade de entradas ocupadas e pilha de entradas livres (encadeada por 'proximo').
+    private int tamanho = 0;
+    private int livre;
+
+    // Contadores expostos para dimensionamento.
+    private long acertos;
+    private long falhas;
+    private long remocoes;
+    private long expiracoes;
+    private long invalidacoes;
+
+    // Incrementada a cada invalidação (de uma chave ou de todo o cache).
+    private long geracao;
+
+    /**
+     * Cria um cache com a capacidade máxima informada.
+     *
+     * @param capacidade número máximo de entradas mantidas no cache.
+     * @throws IllegalArgumentException se a capacidade for menor que 1.
+     */
+    public LruCache(int capacidade) {
+        if (capacidade < 1) {
+            throw new IllegalArgumentException("A capacidade do cache deve ser maior que zero.");
+        }
+        this.capacidade = capacidade;
+        // A tabela tem pelo menos o dobro da capacidade (potência de 2) para manter as sondagens curtas.
+        int tamanhoTabela = Integer.highestOneBit(Math.max(2, capacidade) * 2 - 1) << 1;
+        this.mascara = tamanhoTabela - 1;
+        this.tabela = new int[tamanhoTabela];
+        this.chaves = new long[capacidade];
+        this.valores = new Object[capacidade];
+        this.anterior = new int[capacidade];
+        this.proximo = new int[capacidade];
+        this.expiraEm = new long[capacidade];
+        limparEstruturas();
+    }
+
+    /**
+     * Busca o valor associado à chave e o marca como usado mais recentemente.
+     *
+     * @param chave a chave procurada.
+     * @return o valor em cache, ou {@code null} se a chave não estiver no cache ou se a entrada tiver vencido.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V get(long chave) {
+        int posicao = localizar(chave);
+        if (posicao < 0) {
+            falhas++;
+            return null;
+        }
+        int entrada = tabela[posicao];
+        if (expiraEm[entrada] != Long.MAX_VALUE && System.currentTimeMillis() >= expiraEm[entrada]) {
+            // Entrada vencida: é removida e a busca conta como falha.
+            expiracoes++;
+            falhas++;
+            removerEntrada(entrada);
+            return null;
+        }
+        acertos++;
+        moverParaInicio(entrada);
+        return (V) valores[entrada];
+    }
+
+    /**
+     * Armazena (ou substitui) o valor associado à chave, sem prazo de validade. Se o cache estiver cheio,
+     * a entrada usada há mais tempo é removida.
+     *
+     * @param chave a chave do valor.
+     * @param valor o valor a ser armazenado (não pode ser {@code null}).
+     */
+    public void put(long chave, V valor) {
+        put(chave, valor, 0);
+    }
+
+    /**
+     * Armazena (ou substitui) o valor associado à chave, válido pelo tempo informado a partir de agora.
+     * Se o cache estiver cheio, a entrada usada há mais tempo é removida.
+     *
+     * @param chave     a chave do valor.
+     * @param valor     o valor a ser armazenado (não pode ser {@code null}).
+     * @param validadeMs o prazo de validade da entrada, em milissegundos; 0 para não vencer.
+     */
+    public synchronized void put(long chave, V valor, long validadeMs) {
+        armazenar(chave, valor, validadeMs);
+    }
+
+    /**
+     * Armazena o valor lido do banco de dados somente se nenhuma invalidação tiver ocorrido desde
+     * que a geração informada foi obtida com {@link #getGeracao()}. Caso contrário, o valor pode já
+     * estar desatualizado e é descartado; a próxima busca relê o banco.
+     *
+     * @param chave      a chave do valor.
+     * @param valor      o valor a ser armazenado (não pode ser {@code null}).
+     * @param validadeMs o prazo de validade da entrada, em milissegundos; 0 para não vencer.
+     * @param geracao    a geração obtida antes da leitura do valor.
+     * @return {@code true} se o valor foi armazenado.
+     */
+    public synchronized boolean put(long chave, V valor, long validadeMs, long geracao) {
+        if (geracao != this.geracao) {
+            return false;
+        }
+        armazenar(chave, valor, validadeMs);
+        return true;
+    }
+
+    /**
+     * Retorna a geração atual do cache, a ser obtida antes de ler do banco de dados um valor que será
+     * armazenado com {@link #put(long, Object, long, long)}.
+     *
+     * @return a geração atual, que muda a cada invalidação.
+     */
+    public synchronized long getGeracao() {
+        return geracao;
+    }
+
+    private void armazenar(long chave, V valor, long validadeMs) {
+        if (valor == null) {
+            throw new IllegalArgumentException("O cache não armazena valores nulos.");
+        }
+        int posicao = localizar(chave);
+        if (posicao >= 0) {
+            int entrada = tabela[posicao];
+            valores[entrada] = valor;
+            expiraEm[entrada] = calcularVencimento(validadeMs);
+            moverParaInicio(entrada);
+            return;
+        }
+        if (tamanho == capacidade) {
+            // Cache cheio: remove a entrada menos recente.
+            remocoes++;
+            removerEntrada(cauda);
+        }
+        // Ocupa uma entrada livre.
+        int entrada = livre;
+        livre = proximo[entrada];
+        chaves[entrada] = chave;
+        valores[entrada] = valor;
+        expiraEm[entrada] = calcularVencimento(validadeMs);
+        tamanho++;
+        inserirNoInicio(entrada);
+        // Insere na tabela, na primeira posição vazia a partir do hash da chave.
+        int p = hash(chave);
+        while (tabela[p] != VAZIO) {
+            p = (p + 1) & mascara;
+        }
+        tabela[p] = entrada;
+    }
+
+    /**
+     * Remove a chave do cache, se presente (usado na invalidação após escritas). A geração é
+     * incrementada mesmo que a chave não esteja no cache, pois ela pode estar sendo lida nesse momento.
+     *
+     * @param chave a chave a ser removida.
+     */
+    public synchronized void invalidar(long chave) {
+        geracao++;
+        int posicao = localizar(chave);
+        if (posicao >= 0) {
+            invalidacoes++;
+            removerEntrada(tabela[posicao]);
+        }
+    }
+
+    /**
+     * Remove todas as entradas do cache. Os contadores são preservados.
+     */
+    public synchronized void limpar() {
+        geracao++;
+        invalidacoes += tamanho;
+        limparEstruturas();
+    }
+
+    /**
+     * Retorna o número de entradas atualmente no cache.
+     *
+     * @return a quantidade de entradas.
+     */
+    public synchronized int getTamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Retorna a capacidade máxima do cache.
+     *
+     * @return o número máximo de entradas.
+     */
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    /**
+     * Retorna o número de buscas que encontraram o valor no cache.
+     *
+     * @return a quantidade de acertos.
+     */
+    public synchronized long getAcertos() {
+        return acertos;
+    }
+
+    /**
+     * Retorna o número de buscas que não encontraram o valor no cache.
+     *
+     * @return a quantidade de falhas.
+     */
+    public synchronized long getFalhas() {
+        return falhas;
+    }
+
+    /**
+     * Retorna o número de entradas removidas por falta de espaço (política LRU).
+     *
+     * @return a quantidade de remoções por capacidade.
+     */
+    public synchronized long getRemocoes() {
+        return remocoes;
+    }
+
+    /**
+     * Retorna o número de entradas removidas por terem vencido o prazo de validade.
+     *
+     * @return a quantidade de expirações.
+     */
+    public synchronized long getExpiracoes() {
+        return expiracoes;
+    }
+
+    /**
+     * Retorna o número de entradas removidas por invalidação (escritas no banco de dados).
+     *
+     * @return a quantidade de invalidações.
+     */
+    public synchronized long getInvalidacoes() {
+        return invalidacoes;
+    }
+
+    /**
+     * Retorna um resumo textual dos contadores do cache, útil para logs e dimensionamento.
+     *
+     * @return uma string com tamanho, capacidade, acertos, falhas, taxa de acerto, remoções, expirações e invalidações.
+     */
+    @Override
+    public synchronized String toString() {
+        long total = acertos + falhas;
+        double taxa = total == 0 ? 0.0 : (100.0 * acertos / total);
+        return String.format("tamanho=%d/%d, acertos=%d, falhas=%d, taxa=%.1f%%, remocoes=%d, expiracoes=%d, invalidacoes=%d",
+                tamanho, capacidade, acertos, falhas, taxa, remocoes, expiracoes, invalidacoes);
+    }
+
+    /**
+     * Procura a chave na tabela.
+     *
+     * @return a posição da tabela que aponta para a entrada da chave, ou -1 se não estiver presente.
+     */
+    private int localizar(long chave) {
+        int p = hash(chave);
+        while (tabela[p] != VAZIO) {
+            if (chaves[tabela[p]] == chave) {
+                return p;
+            }
+            p = (p + 1) & mascara;
+        }
+        return -1;
+    }
+
+    /**
+     * Remove a entrada da tabela, da lista de uso, e a devolve à pilha de entradas livres.
+     */
+    private void removerEntrada(int entrada) {
+        removerDaTabela(localizar(chaves[entrada]));
+        desencadear(entrada);
+        valores[entrada] = null; // Libera a referência para o coletor de lixo.
+        proximo[entrada] = livre;
+        livre = entrada;
+        tamanho--;
+    }
+
+    /**
+     * Esvazia a posição da tabela e reposiciona as entradas seguintes do mesmo agrupamento
+     * (remoção com deslocamento para trás), mantendo as sondagens lineares corretas sem marcas de exclusão.
+     */
+    private void removerDaTabela(int posicao) {
+        int vazia = posicao;
+        int p = (posicao + 1) & mascara;
+        while (tabela[p] != VAZIO) {
+            int ideal = hash(chaves[tabela[p]]);
+            // A entrada em 'p' pode ocupar 'vazia' se sua posição ideal não estiver entre (vazia, p].
+            boolean podeMover = (vazia <= p)
+                    ? (ideal <= vazia || ideal > p)
+                    : (ideal <= vazia && ideal > p);
+            if (podeMover) {
+                tabela[vazia] = tabela[p];
+                vazia = p;
+            }
+            p = (p + 1) & mascara;
+        }
+        tabela[vazia] = VAZIO;
+    }
+
+    private static long calcularVencimento(long validadeMs) {
+        return (validadeMs > 0) ? System.currentTimeMillis() + validadeMs : Long.MAX_VALUE;
+    }
+
+    private void moverParaInicio(int entrada) {
+        if (entrada != cabeca) {
+            desencadear(entrada);
+            inserirNoInicio(entrada);
+        }
+    }
+
+    private void inserirNoInicio(int entrada) {
+        anterior[entrada] = VAZIO;
+        proximo[entrada] = cabeca;
+        if (cabeca != VAZIO) {
+            anterior[cabeca] = entrada;
+        }
+        cabeca = entrada;
+        if (cauda == VAZIO) {
+            cauda = entrada;
+        }
+    }
+
+    private void desencadear(int entrada) {
+        int a = anterior[entrada];
+        int p = proximo[entrada];
+        if (a != VAZIO) {
+            proximo[a] = p;
+        } else {
+            cabeca = p;
+        }
+        if (p != VAZIO) {
+            anterior[p] = a;
+        } else {
+            cauda = a;
+        }
+    }
+
+    private void limparEstruturas() {
+        Arrays.fill(tabela, VAZIO);
+        Arrays.fill(valores, null);
+        // Todas as entradas começam na pilha de livres: 0 -> 1 -> ... -> capacidade-1.
+        for (int i = 0; i < capacidade; i++) {
+            proximo[i] = (i + 1 < capacidade) ? i + 1 : VAZIO;
+        }
+        livre = 0;
+        cabeca = VAZIO;
+        cauda = VAZIO;
+        tamanho = 0;
+    }
+
+    /**
+     * Espalha os bits da chave (multiplicação de Fibonacci) e a reduz ao tamanho da tabela.
+     */
+    private int hash(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+}
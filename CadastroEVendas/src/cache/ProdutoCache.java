@@ -0,0 +1,174 @@
+package cache;
+
+import db.DB;
+import db.DbException;
+import model.Livro;
+import model.Produto;
+
+import java.util.Properties;
+
+/**
+ * Cache do catálogo de produtos, compartilhado por {@code ProdutoDAO} e {@code LivroDAO}.
+ * Guarda os produtos buscados por ID em um {@link LruCache} de tamanho limitado, evitando
+ * uma ida ao banco de dados a cada item lido na tela de vendas.
+ * <br>
+ * A busca de {@code LivroDAO} só retorna livros ativos, e os objetos não guardam se o produto está
+ * ativo; por isso os livros dessa busca ficam sob uma chave própria (o complemento do ID), no mesmo
+ * cache, e são invalidados junto com o produto.
+ * <br>
+ * A consistência é mantida por invalidação na escrita (write-through): todo método de DAO
+ * que altera a tabela 'produtos' (inserção, atualização, exclusão, estoque e preços, além da
+ * baixa de estoque ao registrar uma venda) remove o produto afetado do cache depois que o
+ * comando é executado, e a próxima busca relê a linha do banco. Uma busca que leu o banco antes de
+ * uma invalidação não grava o valor antigo de volta no cache (ver {@link #getGeracao()}).
+ * <br>
+ * A invalidação só alcança o processo que fez a alteração; outros caixas ligados ao mesmo banco
+ * continuariam com o produto antigo (e o seu preço de venda) indefinidamente. Por isso cada produto
+ * fica no cache apenas pelo tempo definido em 'cache.produtos.validadeMs' (padrão 30000), depois do
+ * qual é relido do banco.
+ * <br>
+ * A capacidade é lida da chave 'cache.produtos.capacidade' do arquivo 'db.properties'
+ * (padrão 1000); o valor 0 desativa o cache. Os objetos em cache são compartilhados entre os
+ * chamadores e não devem ser alterados diretamente; alterações devem passar pelos DAOs.
+ */
+public class ProdutoCache {
+
+    // Instância única do cache (criada na primeira utilização); null se o cache estiver desativado.
+    private static volatile LruCache<Produto> cache = null;
+    private static volatile boolean inicializado = false;
+    private static volatile long validadeMs;
+
+    /**
+     * Busca um produto no cache.
+     *
+     * @param id o ID do produto.
+     * @return o produto em cache, ou {@code null} se não estiver no cache (ou se o cache estiver desativado).
+     */
+    public static Produto buscar(int id) {
+        LruCache<Produto> c = getCache();
+        return (c == null) ? null : c.get(id);
+    }
+
+    /**
+     * Busca um livro ativo no cache, guardado por {@link #armazenarLivroAtivo(Livro, long)}.
+     *
+     * @param id o ID do livro.
+     * @return o livro em cache, ou {@code null} se não estiver no cache (ou se o cache estiver desativado).
+     */
+    public static Livro buscarLivroAtivo(int id) {
+        LruCache<Produto> c = getCache();
+        return (c == null) ? null : (Livro) c.get(chaveLivroAtivo(id));
+    }
+
+    /**
+     * Armazena um livro lido do banco de dados por uma busca que só retorna livros ativos, nas
+     * mesmas condições de {@link #armazenar(Produto, long)}.
+     *
+     * @param livro   o livro a ser armazenado; ignorado se for {@code null}.
+     * @param geracao a geração obtida com {@link #getGeracao()} antes da leitura.
+     */
+    public static void armazenarLivroAtivo(Livro livro, long geracao) {
+        LruCache<Produto> c = getCache();
+        if (c != null && livro != null) {
+            c.put(chaveLivroAtivo(livro.getId()), livro, validadeMs, geracao);
+        }
+    }
+
+    /**
+     * Retorna a geração atual do cache. Deve ser obtida antes de ler o produto do banco de dados e
+     * repassada a {@link #armazenar(Produto, long)}.
+     *
+     * @return a geração atual, ou 0 se o cache estiver desativado.
+     */
+    public static long getGeracao() {
+        LruCache<Produto> c = getCache();
+        return (c == null) ? 0 : c.getGeracao();
+    }
+
+    /**
+     * Armazena um produto recém-lido do banco de dados no cache, pelo prazo de validade configurado.
+     * O produto é descartado se algum produto foi invalidado depois de obtida a geração, pois a
+     * leitura pode ter acontecido antes dessa alteração.
+     *
+     * @param produto o produto a ser armazenado; ignorado se for {@code null}.
+     * @param geracao a geração obtida com {@link #getGeracao()} antes da leitura.
+     */
+    public static void armazenar(Produto produto, long geracao) {
+        LruCache<Produto> c = getCache();
+        if (c != null && produto != null) {
+            c.put(produto.getId(), produto, validadeMs, geracao);
+        }
+    }
+
+    /**
+     * Remove um produto do cache. Deve ser chamado após qualquer alteração do produto no banco de dados.
+     *
+     * @param id o ID do produto alterado.
+     */
+    public static void invalidar(int id) {
+        LruCache<Produto> c = getCache();
+        if (c != null) {
+            c.invalidar(id);
+            c.invalidar(chaveLivroAtivo(id));
+        }
+    }
+
+    /**
+     * Remove todos os produtos do cache.
+     */
+    public static void invalidarTodos() {
+        LruCache<Produto> c = getCache();
+        if (c != null) {
+            c.limpar();
+        }
+    }
+
+    /**
+     * Retorna os contadores do cache (acertos, falhas, taxa de acerto, remoções e invalidações).
+     *
+     * @return um resumo textual dos contadores, ou uma indicação de que o cache está desativado.
+     */
+    public static String getEstatisticas() {
+        LruCache<Produto> c = getCache();
+        return (c == null) ? "cache de produtos desativado" : c.toString();
+    }
+
+    /**
+     * Chave dos livros ativos: o complemento do ID, que nunca coincide com o ID (positivo) de um produto.
+     */
+    private static long chaveLivroAtivo(int id) {
+        return ~(long) id;
+    }
+
+    /**
+     * Retorna o cache, criando-o na primeira chamada com a capacidade e a validade configuradas em 'db.properties'.
+     *
+     * @return o cache de produtos, ou {@code null} se estiver desativado.
+     * @throws DbException se a capacidade ou a validade configurada for inválida.
+     */
+    private static LruCache<Produto> getCache() {
+        if (!inicializado) {
+            synchronized (ProdutoCache.class) {
+                if (!inicializado) {
+                    Properties props = DB.carregarProperties();
+                    String valor = props.getProperty("cache.produtos.capacidade", "1000");
+                    int capacidade;
+                    try {
+                        capacidade = Integer.parseInt(valor.trim());
+                    } catch (NumberFormatException e) {
+                        throw new DbException("Valor inválido para 'cache.produtos.capacidade': " + valor);
+                    }
+                    valor = props.getProperty("cache.produtos.validadeMs", "30000");
+                    try {
+                        validadeMs = Long.parseLong(valor.trim());
+                    } catch (NumberFormatException e) {
+                        throw new DbException("Valor inválido para 'cache.produtos.validadeMs': " + valor);
+                    }
+                    cache = (capacidade > 0) ? new LruCache<>(capacidade) : null;
+                    inicializado = true;
+                }
+            }
+        }
+        return cache;
+    }
+}
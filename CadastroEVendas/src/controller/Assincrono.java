@@ -0,0 +1,50 @@
+package controller;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Camada assíncrona dos controladores. Executa as chamadas aos controladores (e, portanto,
+ * aos DAOs) fora da Thread de Despacho de Eventos (EDT) do Swing, para que uma consulta lenta
+ * não congele a interface gráfica.
+ * <br>
+ * As tarefas rodam em um executor dedicado que cria uma thread virtual (JDK 21) por tarefa.
+ * Threads virtuais são baratas para operações que passam a maior parte do tempo esperando o
+ * banco de dados; o número de consultas simultâneas continua limitado pelo pool de conexões.
+ * <br>
+ * Exemplo de uso em uma tela:
+ * <pre>
+ * Assincrono.executar(() -&gt; clienteController.buscarCliente(cpf))
+ *         .thenAccept(c -&gt; SwingUtilities.invokeLater(() -&gt; exibir(c)));
+ * </pre>
+ */
+public class Assincrono {
+
+    // Executor com uma thread virtual por tarefa, identificadas como "acesso-dados-N".
+    // Threads virtuais não impedem o encerramento da JVM, por isso o executor não precisa ser fechado.
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("acesso-dados-", 0).factory());
+
+    /**
+     * Executa uma consulta em segundo plano.
+     *
+     * @param tarefa a chamada ao controlador que produz o resultado.
+     * @param <T>    o tipo do resultado.
+     * @return um CompletableFuture concluído com o resultado da tarefa, ou com a exceção lançada por ela.
+     */
+    public static <T> CompletableFuture<T> executar(Supplier<T> tarefa) {
+        return CompletableFuture.supplyAsync(tarefa, EXECUTOR);
+    }
+
+    /**
+     * Executa uma operação sem resultado (cadastro, atualização, exclusão) em segundo plano.
+     *
+     * @param tarefa a chamada ao controlador.
+     * @return um CompletableFuture concluído quando a operação terminar, ou com a exceção lançada por ela.
+     */
+    public static CompletableFuture<Void> executar(Runnable tarefa) {
+        return CompletableFuture.runAsync(tarefa, EXECUTOR);
+    }
+}
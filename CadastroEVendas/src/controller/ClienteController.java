@@ -1,9 +1,16 @@
 package controller;
 
+import cache.ClienteCache;
 import dao.ClienteDAO;
+import importacao.ImportadorClientes;
+import importacao.ImportadorCsv;
+import importacao.ResultadoImportacao;
 import model.Cliente;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Camada intermediária entre a interface gráfica (ou outra camada de apresentação)
@@ -33,6 +40,19 @@ public class ClienteController {
         dao.inserir(cliente);
     }
 
+    /**
+     * Método para importar clientes de um arquivo CSV com as colunas 'nome', 'cpf', 'telefone' e 'endereco'.
+     * Os clientes são validados com as mesmas regras do cadastro e gravados em lotes com o tamanho
+     * configurado em 'db.properties'; registros inválidos são rejeitados sem interromper a importação.
+     *
+     * @param arquivo o arquivo CSV a ser importado.
+     * @return os totais da importação e os registros rejeitados.
+     * @throws IOException se o arquivo não puder ser lido ou não tiver as colunas obrigatórias.
+     */
+    public ResultadoImportacao importarClientes(Path arquivo) throws IOException {
+        return new ImportadorClientes(ImportadorCsv.getTamanhoLotePadrao()).importar(arquivo);
+    }
+
     /**
      * Método para buscar um cliente no sistema através do seu CPF.
      * Chama o método 'buscarPorCpf' do DAO para recuperar o cliente do banco de dados.
@@ -45,6 +65,16 @@ public class ClienteController {
         return dao.buscarPorCpf(cpf);
     }
 
+    /**
+     * Retorna os contadores do cache de clientes (acertos, falhas, remoções e invalidações),
+     * usados para acompanhar a eficiência da busca por CPF.
+     *
+     * @return um resumo textual dos contadores do cache.
+     */
+    public String getEstatisticasCache() {
+        return ClienteCache.getEstatisticas();
+    }
+
     /**
      * Método para atualizar os dados de um cliente existente no sistema.
      * Recebe um objeto Cliente com os dados atualizados e o envia para a camada de acesso a dados (DAO)
@@ -79,4 +109,54 @@ public class ClienteController {
         // Chama o método 'listarTodos' do DAO para obter a lista de todos os clientes.
         return dao.listarTodos();
     }
-}
\ No newline at end of file
+
+    /**
+     * Método para listar uma página de clientes, ordenada por nome.
+     * Chama o método 'listarPagina' do DAO, que utiliza paginação por chave (keyset).
+     * Para obter a próxima página, informe o nome e o CPF do último cliente da página atual.
+     *
+     * @param aposNome nome do último cliente da página anterior, ou {@code null} para a primeira página.
+     * @param aposCpf  CPF do último cliente da página anterior, ou {@code null} para a primeira página.
+     * @param tamanho  número máximo de clientes na página.
+     * @return uma lista com até {@code tamanho} clientes; vazia quando não houver mais páginas.
+     */
+    public List<Cliente> listarClientesPagina(String aposNome, String aposCpf, int tamanho) {
+        return dao.listarPagina(aposNome, aposCpf, tamanho);
+    }
+
+    /**
+     * Método para contar os clientes que atendem a um filtro.
+     * Chama o método 'contar' do DAO.
+     *
+     * @param filtro texto procurado no nome ou no CPF, ou {@code null} para contar todos.
+     * @return o número de clientes que atendem ao filtro.
+     */
+    public int contarClientes(String filtro) {
+        return dao.contar(filtro);
+    }
+
+    /**
+     * Método para listar uma faixa da listagem de clientes, com filtro e ordenação.
+     * Chama o método 'listarFaixa' do DAO, que filtra e ordena no próprio banco de dados.
+     *
+     * @param filtro       texto procurado no nome ou no CPF, ou {@code null} para listar todos.
+     * @param ordenarPor   coluna da ordenação (nome, cpf, telefone ou endereco).
+     * @param decrescente  {@code true} para ordem decrescente.
+     * @param deslocamento posição da primeira linha da faixa (começando em 0).
+     * @param tamanho      número máximo de linhas.
+     * @return os clientes da faixa.
+     */
+    public List<Cliente> listarClientesFaixa(String filtro, String ordenarPor, boolean decrescente, int deslocamento, int tamanho) {
+        return dao.listarFaixa(filtro, ordenarPor, decrescente, deslocamento, tamanho);
+    }
+
+    /**
+     * Método para percorrer todos os clientes, ordenados por nome, sem carregá-los todos na memória.
+     * Chama o método 'percorrerTodos' do DAO, que lê os clientes por meio de um cursor.
+     *
+     * @param consumidor ação executada para cada cliente lido.
+     */
+    public void percorrerClientes(Consumer<Cliente> consumidor) {
+        dao.percorrerTodos(consumidor);
+    }
+}
@@ -1,6 +1,7 @@
 package controller;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import dao.LivroDAO;
 import model.Livro;
@@ -20,12 +21,12 @@ public class LivroController {
      * é gerado automaticamente pelo banco.
      *
      * @param nome        o nome do livro a ser cadastrado.
-     * @param precoCompra o preço de compra do livro.
-     * @param precoVenda  o preço de venda do livro.
+     * @param precoCompra o preço de compra do livro, em centavos.
+     * @param precoVenda  o preço de venda do livro, em centavos.
      * @param estoque     a quantidade em estoque do livro.
      * @param autor       o autor do livro.
      */
-    public void cadastrarProduto(String nome, Double precoCompra, Double precoVenda, Integer estoque, String autor) {
+    public void cadastrarProduto(String nome, long precoCompra, long precoVenda, Integer estoque, String autor) {
         // Cria um novo objeto Livro com os dados fornecidos.
         Livro livro = new Livro(null, nome, precoCompra, precoVenda, estoque, autor);
         // Chama o método 'inserir' do DAO para persistir o novo livro no banco de dados.
@@ -95,11 +96,35 @@ public class LivroController {
      * Chama o método 'atualizarPrecos' do DAO para persistir os novos preços no banco de dados.
      *
      * @param idProduto       o ID do livro a ter os preços atualizados.
-     * @param novoPrecoCompra o novo preço de compra.
-     * @param novoPrecoVenda  o novo preço de venda.
+     * @param novoPrecoCompra o novo preço de compra, em centavos.
+     * @param novoPrecoVenda  o novo preço de venda, em centavos.
      */
-    public void atualizarPrecos(int idProduto, double novoPrecoCompra, double novoPrecoVenda) {
+    public void atualizarPrecos(int idProduto, long novoPrecoCompra, long novoPrecoVenda) {
         // Chama o método 'atualizarPrecos' do DAO para atualizar os preços do livro pelo ID.
         dao.atualizarPrecos(idProduto, novoPrecoCompra, novoPrecoVenda);
     }
-}
\ No newline at end of file
+
+    /**
+     * Método para listar uma página de livros ativos, ordenada por nome.
+     * Chama o método 'listarPagina' do DAO, que utiliza paginação por chave (keyset).
+     * Para obter a próxima página, informe o nome e o ID do último livro da página atual.
+     *
+     * @param aposNome nome do último livro da página anterior, ou {@code null} para a primeira página.
+     * @param aposId   ID do último livro da página anterior, ou {@code null} para a primeira página.
+     * @param tamanho  número máximo de livros na página.
+     * @return uma lista com até {@code tamanho} livros; vazia quando não houver mais páginas.
+     */
+    public List<Livro> listarLivrosPagina(String aposNome, Integer aposId, int tamanho) {
+        return dao.listarPagina(aposNome, aposId, tamanho);
+    }
+
+    /**
+     * Método para percorrer todos os livros ativos, ordenados por nome, sem carregá-los todos na memória.
+     * Chama o método 'percorrer' do DAO, que lê os livros por meio de um cursor.
+     *
+     * @param consumidor ação executada para cada livro lido.
+     */
+    public void percorrerLivros(Consumer<Livro> consumidor) {
+        dao.percorrer(consumidor);
+    }
+}
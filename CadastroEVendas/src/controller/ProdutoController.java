@@ -1,9 +1,16 @@
 package controller;
 
+import cache.ProdutoCache;
 import dao.ProdutoDAO;
+import importacao.ImportadorCsv;
+import importacao.ImportadorProdutos;
+import importacao.ResultadoImportacao;
 import model.Produto;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Controlador responsável por aplicar regras de negócio e intermediar operações
@@ -21,17 +28,30 @@ public class ProdutoController {
      * é gerado automaticamente pelo banco.
      *
      * @param nome        o nome do produto a ser cadastrado.
-     * @param precoCompra o preço de compra do produto.
-     * @param precoVenda  o preço de venda do produto.
+     * @param precoCompra o preço de compra do produto, em centavos.
+     * @param precoVenda  o preço de venda do produto, em centavos.
      * @param estoque     a quantidade em estoque do produto.
      */
-    public void cadastrarProduto(String nome, Double precoCompra, Double precoVenda, Integer estoque) {
+    public void cadastrarProduto(String nome, long precoCompra, long precoVenda, Integer estoque) {
         // Cria um novo objeto Produto com os dados fornecidos.
         Produto produto = new Produto(null, nome, precoCompra, precoVenda, estoque);
         // Chama o método 'inserir' do DAO para persistir o novo produto no banco de dados.
         dao.inserir(produto);
     }
 
+    /**
+     * Método para importar produtos de um arquivo CSV com as colunas 'nome', 'preco_compra', 'preco_venda'
+     * e 'estoque' (e, para livros, 'autor'). Os produtos são gravados em lotes com o tamanho configurado
+     * em 'db.properties'; registros inválidos são rejeitados sem interromper a importação.
+     *
+     * @param arquivo o arquivo CSV a ser importado.
+     * @return os totais da importação e os registros rejeitados.
+     * @throws IOException se o arquivo não puder ser lido ou não tiver as colunas obrigatórias.
+     */
+    public ResultadoImportacao importarProdutos(Path arquivo) throws IOException {
+        return new ImportadorProdutos(ImportadorCsv.getTamanhoLotePadrao()).importar(arquivo);
+    }
+
     /**
      * Método para buscar um produto no sistema através do seu ID.
      * Chama o método 'buscarPorId' do DAO para recuperar o produto do banco de dados.
@@ -44,6 +64,16 @@ public class ProdutoController {
         return dao.buscarPorId(id);
     }
 
+    /**
+     * Retorna os contadores do cache de produtos (acertos, falhas, remoções e invalidações),
+     * usados para acompanhar a eficiência da busca por ID na tela de vendas.
+     *
+     * @return um resumo textual dos contadores do cache.
+     */
+    public String getEstatisticasCache() {
+        return ProdutoCache.getEstatisticas();
+    }
+
     /**
      * Método para atualizar os dados de um produto existente no sistema.
      * Recebe um objeto Produto com os dados atualizados e o envia para a camada de acesso a dados (DAO)
@@ -95,11 +125,73 @@ public class ProdutoController {
      * Chama o método 'atualizarPrecos' do DAO para persistir os novos preços no banco de dados.
      *
      * @param idProduto       o ID do produto a ter os preços atualizados.
-     * @param novoPrecoCompra o novo preço de compra.
-     * @param novoPrecoVenda  o novo preço de venda.
+     * @param novoPrecoCompra o novo preço de compra, em centavos.
+     * @param novoPrecoVenda  o novo preço de venda, em centavos.
      */
-    public void atualizarPrecos(int idProduto, double novoPrecoCompra, double novoPrecoVenda) {
+    public void atualizarPrecos(int idProduto, long novoPrecoCompra, long novoPrecoVenda) {
         // Chama o método 'atualizarPrecos' do DAO para atualizar os preços do produto pelo ID.
         dao.atualizarPrecos(idProduto, novoPrecoCompra, novoPrecoVenda);
     }
-}
\ No newline at end of file
+
+    /**
+     * Método para listar uma página de produtos ativos, ordenada por nome.
+     * Chama o método 'listarPaginaOrdenado' do DAO, que utiliza paginação por chave (keyset).
+     * Para obter a próxima página, informe o nome e o ID do último produto da página atual.
+     *
+     * @param aposNome nome do último produto da página anterior, ou {@code null} para a primeira página.
+     * @param aposId   ID do último produto da página anterior, ou {@code null} para a primeira página.
+     * @param tamanho  número máximo de produtos na página.
+     * @return uma lista com até {@code tamanho} produtos (livros são instâncias de Livro); vazia quando não houver mais páginas.
+     */
+    public List<Produto> listarProdutosPagina(String aposNome, Integer aposId, int tamanho) {
+        return dao.listarPaginaOrdenado(aposNome, aposId, tamanho);
+    }
+
+    /**
+     * Método para contar os produtos ativos que atendem a um filtro.
+     * Chama o método 'contarAtivos' do DAO.
+     *
+     * @param filtro texto procurado no nome ou no autor, ou {@code null} para contar todos.
+     * @return o número de produtos ativos que atendem ao filtro.
+     */
+    public int contarProdutos(String filtro) {
+        return dao.contarAtivos(filtro);
+    }
+
+    /**
+     * Método para listar uma faixa da listagem de produtos ativos, com filtro e ordenação.
+     * Chama o método 'listarFaixa' do DAO, que filtra e ordena no próprio banco de dados.
+     *
+     * @param filtro       texto procurado no nome ou no autor, ou {@code null} para listar todos.
+     * @param ordenarPor   coluna da ordenação (id, nome, preco_compra, preco_venda, estoque ou autor).
+     * @param decrescente  {@code true} para ordem decrescente.
+     * @param deslocamento posição da primeira linha da faixa (começando em 0).
+     * @param tamanho      número máximo de linhas.
+     * @return os produtos da faixa (livros são instâncias de Livro).
+     */
+    public List<Produto> listarProdutosFaixa(String filtro, String ordenarPor, boolean decrescente, int deslocamento, int tamanho) {
+        return dao.listarFaixa(filtro, ordenarPor, decrescente, deslocamento, tamanho);
+    }
+
+    /**
+     * Método para buscar sugestões de produtos enquanto o usuário digita.
+     * Chama o método 'sugerirPorPrefixo' do DAO, que procura o prefixo no nome do produto e no autor dos livros.
+     *
+     * @param prefixo o texto digitado.
+     * @param limite  número máximo de sugestões.
+     * @return até {@code limite} produtos ativos, ordenados por nome.
+     */
+    public List<Produto> sugerirProdutos(String prefixo, int limite) {
+        return dao.sugerirPorPrefixo(prefixo, limite);
+    }
+
+    /**
+     * Método para percorrer todos os produtos ativos, ordenados por nome, sem carregá-los todos na memória.
+     * Chama o método 'percorrerOrdenado' do DAO, que lê os produtos por meio de um cursor.
+     *
+     * @param consumidor ação executada para cada produto lido.
+     */
+    public void percorrerProdutos(Consumer<Produto> consumidor) {
+        dao.percorrerOrdenado(consumidor);
+    }
+}
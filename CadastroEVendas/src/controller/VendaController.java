@@ -1,12 +1,23 @@
 package controller;
 
+import analise.AnaliseVendas;
+import analise.MaisVendidos;
+import analise.ProdutoMaisVendido;
 import dao.VendaDAO;
+import db.DBIntregatyException;
+import exportacao.ExportadorVendas;
+import exportacao.FormatoExportacao;
+import exportacao.ResultadoExportacao;
 import model.Cliente;
-import model.Produto;
+import model.ItemVenda;
+import model.ResumoVendas;
 import model.Venda;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Controlador responsável por orquestrar o processo de registro de vendas,
@@ -21,29 +32,25 @@ public class VendaController {
 
     /**
      * Método para realizar uma nova venda no sistema.
-     * Recebe o cliente, a lista de produtos a serem vendidos e a data da venda.
-     * Antes de registrar a venda, verifica se todos os produtos possuem estoque suficiente.
-     * Se algum produto não tiver estoque, uma exceção em tempo de execução é lançada.
-     * Caso contrário, cria um objeto Venda e o envia para a camada de acesso a dados (DAO)
-     * para ser persistido no banco de dados.
+     * Recebe o cliente e as linhas da venda (produto, quantidade e preço unitário); a data da venda é a data atual.
+     * Cria um objeto Venda e o envia para a camada de acesso a dados (DAO) para ser persistido.
+     * A verificação de estoque é feita pelo próprio banco de dados, no momento da baixa,
+     * e não a partir dos objetos Produto em memória (que podem estar desatualizados).
      *
      * @param cliente  o cliente que está realizando a compra.
-     * @param produtos a lista de produtos que estão sendo vendidos.
-     */
-    public void realizarVenda(Cliente cliente, List<Produto> produtos) {
-        // Verifica se os produtos possuem estoque suficiente para a venda.
-        for (Produto p : produtos) {
-            if (p.getEstoque() < 1) {
-                // Se algum produto não tiver estoque (quantidade menor que 1), lança uma exceção.
-                throw new RuntimeException("Produto sem estoque: " + p.getNome());
-            }
-        }
-
-        // Cria um novo objeto Venda com o cliente, a lista de produtos e a data atual.
-        Venda venda = new Venda(null, cliente, produtos, LocalDate.now());
+     * @param itens   as linhas da venda.
+     * @return a venda registrada, com o ID gerado pelo banco de dados.
+     * @throws DBIntregatyException se algum produto não tiver estoque suficiente.
+     */
+    public Venda realizarVenda(Cliente cliente, List<ItemVenda> itens) {
+        // Cria um novo objeto Venda com o cliente, os itens e a data atual.
+        Venda venda = new Venda(null, cliente, itens, LocalDate.now());
         // Chama o método 'registrarVenda' do DAO para persistir a venda no banco de dados
         // e atualizar o estoque dos produtos vendidos.
         dao.registrarVenda(venda);
+        // Soma os itens à contagem dos mais vendidos, mantida em memória.
+        MaisVendidos.registrar(venda);
+        return venda;
     }
 
     /**
@@ -57,4 +64,129 @@ public class VendaController {
         // Chama o método 'listarTodas' do DAO para obter a lista de todas as vendas com seus detalhes.
         return dao.listarTodas();
     }
-}
\ No newline at end of file
+
+    /**
+     * Método para listar as vendas realizadas dentro de um período.
+     * Chama o método 'listarPorPeriodo' do DAO, que aplica o filtro de datas diretamente no banco de dados,
+     * evitando carregar todo o histórico de vendas para filtrá-lo em memória.
+     *
+     * @param inicio data inicial do período (inclusive).
+     * @param fim    data final do período (inclusive).
+     * @return uma lista dos objetos Venda realizados no período informado.
+     */
+    public List<Venda> listarVendasPorPeriodo(LocalDate inicio, LocalDate fim) {
+        // Chama o método 'listarPorPeriodo' do DAO para obter apenas as vendas do período.
+        return dao.listarPorPeriodo(inicio, fim);
+    }
+
+    /**
+     * Método para listar uma página de vendas, ordenada por ID.
+     * Chama o método 'listarPagina' do DAO, que utiliza paginação por chave (keyset).
+     * Para obter a próxima página, informe o ID da última venda da página atual.
+     *
+     * @param aposId  ID da última venda da página anterior (0 para a primeira página).
+     * @param tamanho número máximo de vendas na página.
+     * @return uma lista com até {@code tamanho} vendas; vazia quando não houver mais páginas.
+     */
+    public List<Venda> listarVendasPagina(int aposId, int tamanho) {
+        return dao.listarPagina(aposId, tamanho);
+    }
+
+    /**
+     * Método para percorrer todas as vendas, ordenadas por ID, sem carregá-las todas na memória.
+     * Chama o método 'percorrerTodas' do DAO, que lê as vendas e seus itens por meio de um cursor.
+     *
+     * @param consumidor ação executada para cada venda lida.
+     */
+    public void percorrerVendas(Consumer<Venda> consumidor) {
+        dao.percorrerTodas(consumidor);
+    }
+
+    /**
+     * Método para percorrer as vendas de um período, ordenadas por ID, sem carregá-las todas na memória.
+     * Chama o método 'percorrerPorPeriodo' do DAO, que lê as vendas e seus itens por meio de um cursor.
+     *
+     * @param inicio     data inicial do período (inclusive), ou {@code null} para não limitar.
+     * @param fim        data final do período (inclusive), ou {@code null} para não limitar.
+     * @param consumidor ação executada para cada venda lida.
+     */
+    public void percorrerVendasPorPeriodo(LocalDate inicio, LocalDate fim, Consumer<Venda> consumidor) {
+        dao.percorrerPorPeriodo(inicio, fim, consumidor);
+    }
+
+    /**
+     * Método para exportar as linhas das vendas de um período (uma por produto vendido) para um arquivo CSV ou JSON.
+     * A exportação é feita pelo ExportadorVendas, que escreve as linhas à medida que são lidas do banco,
+     * sem montar os objetos Venda, e por isso suporta históricos de qualquer tamanho.
+     *
+     * @param arquivo o arquivo de destino, criado ou substituído.
+     * @param formato o formato do arquivo.
+     * @param inicio  data inicial do período (inclusive), ou {@code null} para não limitar.
+     * @param fim     data final do período (inclusive), ou {@code null} para não limitar.
+     * @return os totais da exportação e a vazão em linhas por segundo.
+     * @throws IOException se o arquivo não puder ser escrito.
+     */
+    public ResultadoExportacao exportarVendas(Path arquivo, FormatoExportacao formato, LocalDate inicio, LocalDate fim) throws IOException {
+        return new ExportadorVendas().exportar(arquivo, formato, inicio, fim);
+    }
+
+    /**
+     * Método para obter os totais de um período (vendas, itens, receita, custo e margem).
+     * Chama o método 'totalizarPeriodo' do DAO, que soma o resumo diário mantido a cada venda,
+     * sem carregar as vendas nem seus produtos.
+     *
+     * @param inicio data inicial do período (inclusive).
+     * @param fim    data final do período (inclusive).
+     * @return os totais do período.
+     */
+    public ResumoVendas totalizarPeriodo(LocalDate inicio, LocalDate fim) {
+        return dao.totalizarPeriodo(inicio, fim);
+    }
+
+    /**
+     * Método para analisar as vendas de um período (receita, custo, margem, itens e os maiores grupos),
+     * agrupadas por dia, cliente ou produto.
+     * As linhas do período são carregadas uma única vez em colunas na memória, e cada análise da
+     * AnaliseVendas é somada em paralelo, com os mesmos totais da consulta SQL equivalente.
+     *
+     * @param inicio data inicial do período (inclusive), ou {@code null} para não limitar.
+     * @param fim    data final do período (inclusive), ou {@code null} para não limitar.
+     * @return a análise do período.
+     */
+    public AnaliseVendas analisarVendas(LocalDate inicio, LocalDate fim) {
+        return AnaliseVendas.carregar(inicio, fim);
+    }
+
+    /**
+     * Método para obter os produtos mais vendidos hoje ou nos últimos dias.
+     * Consulta a contagem mantida em memória por MaisVendidos, atualizada a cada venda,
+     * sem ler as vendas do banco de dados (exceto na primeira consulta, que reconstrói a contagem).
+     *
+     * @param dias o número de dias, contando o atual (1 para hoje, até {@link MaisVendidos#DIAS_MAXIMOS}).
+     * @param n    o número máximo de produtos.
+     * @return até {@code n} produtos com a quantidade vendida, do mais vendido para o menos vendido.
+     */
+    public List<ProdutoMaisVendido> listarMaisVendidos(int dias, int n) {
+        return MaisVendidos.maisVendidos(dias, n);
+    }
+
+    /**
+     * Método para obter os totais de cada dia de um período.
+     * Chama o método 'resumirPorDia' do DAO, que lê o resumo diário mantido a cada venda.
+     *
+     * @param inicio data inicial do período (inclusive).
+     * @param fim    data final do período (inclusive).
+     * @return uma lista com os totais de cada dia que teve vendas, em ordem de data.
+     */
+    public List<ResumoVendas> resumirPorDia(LocalDate inicio, LocalDate fim) {
+        return dao.resumirPorDia(inicio, fim);
+    }
+
+    /**
+     * Método para recalcular o resumo diário a partir de todas as vendas registradas.
+     * Necessário apenas quando o resumo estiver incompleto (por exemplo, vendas anteriores à sua criação).
+     */
+    public void reconstruirResumoDiario() {
+        dao.reconstruirResumoDiario();
+    }
+}
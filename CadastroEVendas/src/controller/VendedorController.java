@@ -1,10 +1,11 @@
 package controller;
 
 import dao.VendedorDAO;
+import seguranca.VerificadorSenhas;
 
 /**
  * Controlador responsável por intermediar as operações relacionadas à entidade Vendedor,
- * como autenticação, cadastro e recuperação de senha, entre a camada de apresentação
+ * como autenticação e cadastro, entre a camada de apresentação
  * e a camada de acesso a dados (VendedorDAO).
  */
 public class VendedorController {
@@ -41,15 +42,13 @@ public class VendedorController {
     }
 
     /**
-     * Método para buscar e recuperar a senha de um vendedor com base no seu nome de usuário.
-     * Chama o método 'recuperarSenha' do DAO para obter a senha do vendedor do banco de dados.
+     * Método para obter as medições do pool de verificação de senhas.
+     * Inclui o custo configurado, as threads, o tamanho atual e máximo da fila, os pedidos recusados
+     * e os percentis dos tempos de espera na fila e de cálculo do hash.
      *
-     * @param usuario o nome de usuário do vendedor para o qual se deseja recuperar a senha.
-     * @return a senha do vendedor correspondente ao nome de usuário, ou {@code null}
-     * se nenhum vendedor com esse nome de usuário for encontrado.
+     * @return um resumo textual das medições.
      */
-    public String buscarSenha(String usuario) {
-        // Chama o método 'recuperarSenha' do DAO para obter a senha do vendedor.
-        return dao.recuperarSenha(usuario);
+    public String getEstatisticasSenhas() {
+        return VerificadorSenhas.getEstatisticas();
     }
-}
\ No newline at end of file
+}
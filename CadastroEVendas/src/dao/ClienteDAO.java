@@ -2,6 +2,8 @@ package dao;
 
 import java.sql.*;
 import java.util.*;
+import java.util.function.Consumer;
+import cache.ClienteCache;
 import db.DB;
 import db.DbException;
 import model.Cliente;
@@ -13,6 +15,10 @@ import model.Cliente;
  */
 public class ClienteDAO {
 
+    // Colunas pelas quais a listagem pode ser ordenada. O nome da coluna é concatenado ao SQL,
+    // por isso apenas estes valores são aceitos.
+    private static final Set<String> COLUNAS_ORDENACAO = Set.of("nome", "cpf", "telefone", "endereco");
+
     /**
      * Insere um novo cliente no banco de dados.
      * Os dados do cliente a serem inseridos são obtidos do objeto Cliente fornecido.
@@ -27,32 +33,85 @@ public class ClienteDAO {
         String sql = "INSERT INTO clientes (cpf, nome, telefone, endereco) VALUES (?, ?, ?, ?)";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente após a execução ou em caso de exceção.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
             // Define os valores dos placeholders na instrução SQL com os dados do objeto Cliente.
             st.setString(1, cliente.getCpf()); // Primeiro placeholder: CPF do cliente.
             st.setString(2, cliente.getNome()); // Segundo placeholder: nome do cliente.
             st.setString(3, cliente.getTelefone()); // Terceiro placeholder: telefone do cliente.
             st.setString(4, cliente.getEndereco()); // Quarto placeholder: endereço do cliente.
             st.executeUpdate(); // Executa a instrução SQL de inserção no banco de dados.
+            ClienteCache.invalidar(cliente.getCpf()); // Remove a versão antiga (ou a marca de inexistência) do cache.
         } catch (SQLException e) {
             // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
             throw new DbException("Erro ao inserir cliente: " + e.getMessage());
         }
     }
 
+    /**
+     * Insere vários clientes com um único comando {@code INSERT} de várias linhas
+     * ({@code VALUES (...), (...)}), usado na importação em lote.
+     * <br>
+     * O comando é atômico: se um dos clientes não puder ser inserido (por exemplo, um CPF já
+     * cadastrado), nenhum deles é gravado e quem chamou pode tentar inseri-los um a um.
+     *
+     * @param clientes os clientes a serem inseridos; uma lista vazia não faz nada.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a operação de inserção.
+     */
+    public void inserirLote(List<Cliente> clientes) {
+        if (clientes.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO clientes (cpf, nome, telefone, endereco) VALUES ");
+        for (int i = 0; i < clientes.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+        }
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql.toString())) {
+            int parametro = 1;
+            for (Cliente cliente : clientes) {
+                st.setString(parametro++, cliente.getCpf());
+                st.setString(parametro++, cliente.getNome());
+                st.setString(parametro++, cliente.getTelefone());
+                st.setString(parametro++, cliente.getEndereco());
+            }
+            st.executeUpdate();
+            // Remove as marcas de inexistência dos CPFs inseridos.
+            for (Cliente cliente : clientes) {
+                ClienteCache.invalidar(cliente.getCpf());
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao inserir clientes: " + e.getMessage());
+        }
+    }
+
     /**
      * Busca um cliente no banco de dados a partir do seu CPF.
+     * O resultado é consultado primeiro no {@link ClienteCache}; somente em caso de falha
+     * a linha é lida do banco de dados e o resultado (inclusive a ausência do cliente) é guardado no cache,
+     * a menos que algum cliente tenha sido alterado durante a leitura.
      *
      * @param cpf CPF do cliente a ser buscado.
      * @return um objeto Cliente se encontrado, ou null caso contrário.
      * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a operação de busca.
      */
     public Cliente buscarPorCpf(String cpf) {
+        // Consulta o cache antes de ir ao banco de dados.
+        Cliente emCache = ClienteCache.buscar(cpf);
+        if (emCache == ClienteCache.INEXISTENTE) {
+            return null; // CPF já conhecido como não cadastrado.
+        }
+        if (emCache != null) {
+            return emCache;
+        }
+        // Geração do cache antes da leitura: se houver uma invalidação até o fim dela, o resultado não é guardado.
+        long geracao = ClienteCache.getGeracao();
         // Define a string SQL para selecionar um registro da tabela 'clientes' com base no CPF.
         String sql = "SELECT * FROM clientes WHERE cpf = ?";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
             // Define o valor do placeholder '?' com o CPF do cliente a ser buscado.
             st.setString(1, cpf);
             // Executa a consulta SQL e armazena o resultado em um ResultSet.
@@ -66,8 +125,10 @@ public class ClienteDAO {
                     rs.getString("telefone"),
                     rs.getString("endereco")
                 );
+                ClienteCache.armazenar(cpf, c, geracao); // Guarda o cliente no cache.
                 return c; // Retorna o objeto Cliente encontrado.
             }
+            ClienteCache.armazenar(cpf, null, geracao); // Guarda a ausência do cliente no cache, por pouco tempo.
             return null; // cliente não encontrado
         } catch (SQLException e) {
             // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
@@ -89,7 +150,8 @@ public class ClienteDAO {
         String sql = "SELECT * FROM clientes";
         // Utiliza um bloco try-with-resources para garantir que a conexão (via Statement) e o ResultSet
         // sejam fechados automaticamente.
-        try (Statement st = DB.getConnection().createStatement();
+        try (Connection conn = DB.getConnection();
+             Statement st = conn.createStatement();
              ResultSet rs = st.executeQuery(sql)) {
             // Itera sobre cada linha (cliente) retornado pelo ResultSet.
             while (rs.next()) {
@@ -122,13 +184,15 @@ public class ClienteDAO {
         String sql = "UPDATE clientes SET nome=?, telefone=?, endereco=? WHERE cpf=?";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
             // Define os valores dos placeholders na instrução SQL com os dados do objeto Cliente.
             st.setString(1, cliente.getNome()); // Primeiro placeholder: novo nome.
             st.setString(2, cliente.getTelefone()); // Segundo placeholder: novo telefone.
             st.setString(3, cliente.getEndereco()); // Terceiro placeholder: novo endereço.
             st.setString(4, cliente.getCpf()); // Quarto placeholder: CPF do cliente a ser atualizado (cláusula WHERE).
             st.executeUpdate(); // Executa a instrução SQL de atualização no banco de dados.
+            ClienteCache.invalidar(cliente.getCpf()); // Remove a versão antiga (ou a marca de inexistência) do cache.
         } catch (SQLException e) {
             // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
             throw new DbException("Erro ao atualizar cliente: " + e.getMessage());
@@ -146,13 +210,162 @@ public class ClienteDAO {
         String sql = "DELETE FROM clientes WHERE cpf=?";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
             // Define o valor do placeholder '?' com o CPF do cliente a ser deletado.
             st.setString(1, cpf);
             st.executeUpdate(); // Executa a instrução SQL de exclusão no banco de dados.
+            ClienteCache.invalidar(cpf); // Remove a versão antiga (ou a marca de inexistência) do cache.
         } catch (SQLException e) {
             // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
             throw new DbException("Erro ao deletar cliente: " + e.getMessage());
         }
     }
+
+    /**
+     * Retorna uma página de clientes ordenada por nome (e CPF, para desempate), usando paginação
+     * por chave (keyset): em vez de OFFSET, a consulta continua a partir do último cliente
+     * da página anterior. Assim, o custo de cada página não cresce com a posição na listagem.
+     *
+     * @param aposNome nome do último cliente da página anterior, ou {@code null} para a primeira página.
+     * @param aposCpf  CPF do último cliente da página anterior, ou {@code null} para a primeira página.
+     * @param tamanho  número máximo de clientes na página.
+     * @return lista com até {@code tamanho} clientes. Uma lista vazia indica que não há mais páginas.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a operação de listagem.
+     */
+    public List<Cliente> listarPagina(String aposNome, String aposCpf, int tamanho) {
+        List<Cliente> lista = new ArrayList<>();
+        // A primeira página não tem ponto de partida; as demais continuam após (nome, cpf).
+        String sql = (aposNome == null)
+                ? "SELECT * FROM clientes ORDER BY nome, cpf LIMIT ?"
+                : "SELECT * FROM clientes WHERE (nome > ? OR (nome = ? AND cpf > ?)) ORDER BY nome, cpf LIMIT ?";
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (aposNome != null) {
+                st.setString(i++, aposNome);
+                st.setString(i++, aposNome);
+                st.setString(i++, aposCpf);
+            }
+            st.setInt(i, tamanho);
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(instanciarCliente(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao listar clientes: " + e.getMessage());
+        }
+        return lista;
+    }
+
+    /**
+     * Conta os clientes que atendem ao filtro. Usado junto com
+     * {@link #listarFaixa(String, String, boolean, int, int)} para saber o total de linhas da listagem.
+     *
+     * @param filtro texto procurado no nome ou no CPF, ou {@code null} (ou vazio) para contar todos.
+     * @return o número de clientes que atendem ao filtro.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados.
+     */
+    public int contar(String filtro) {
+        boolean filtrar = filtro != null && !filtro.isEmpty();
+        String sql = "SELECT COUNT(*) FROM clientes"
+                + (filtrar ? " WHERE nome LIKE ? ESCAPE '!' OR cpf LIKE ? ESCAPE '!'" : "");
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            if (filtrar) {
+                st.setString(1, DB.padraoContem(filtro));
+                st.setString(2, DB.padraoContem(filtro));
+            }
+            try (ResultSet rs = st.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao contar clientes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retorna uma faixa de linhas da listagem de clientes, com o filtro e a ordenação aplicados
+     * pelo próprio banco de dados. A faixa é localizada pela posição ({@code LIMIT ? OFFSET ?}),
+     * o que permite buscar qualquer trecho da listagem, como o que está visível em uma tabela.
+     * O CPF é sempre usado como desempate, para que a posição de cada cliente seja estável.
+     *
+     * @param filtro       texto procurado no nome ou no CPF, ou {@code null} (ou vazio) para listar todos.
+     * @param ordenarPor   coluna da ordenação: nome, cpf, telefone ou endereco.
+     * @param decrescente  {@code true} para ordem decrescente.
+     * @param deslocamento posição da primeira linha da faixa (começando em 0).
+     * @param tamanho      número máximo de linhas.
+     * @return os clientes da faixa, na ordem pedida.
+     * @throws IllegalArgumentException se a coluna de ordenação não for aceita.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados.
+     */
+    public List<Cliente> listarFaixa(String filtro, String ordenarPor, boolean decrescente, int deslocamento, int tamanho) {
+        if (!COLUNAS_ORDENACAO.contains(ordenarPor)) {
+            throw new IllegalArgumentException("Coluna de ordenação inválida: " + ordenarPor);
+        }
+        boolean filtrar = filtro != null && !filtro.isEmpty();
+        String direcao = decrescente ? " DESC" : "";
+        String sql = "SELECT * FROM clientes"
+                + (filtrar ? " WHERE nome LIKE ? ESCAPE '!' OR cpf LIKE ? ESCAPE '!'" : "")
+                + " ORDER BY " + ordenarPor + direcao + ", cpf" + direcao + " LIMIT ? OFFSET ?";
+        List<Cliente> lista = new ArrayList<>(tamanho);
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (filtrar) {
+                st.setString(i++, DB.padraoContem(filtro));
+                st.setString(i++, DB.padraoContem(filtro));
+            }
+            st.setInt(i++, tamanho);
+            st.setInt(i, deslocamento);
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(instanciarCliente(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao listar clientes: " + e.getMessage());
+        }
+        return lista;
+    }
+
+    /**
+     * Percorre todos os clientes, ordenados por nome, entregando um de cada vez ao consumidor.
+     * A consulta é lida como um cursor somente de avanço (ver {@link DB#prepararCursor(Connection, String)}),
+     * de modo que apenas um lote de linhas fica em memória a cada momento, independentemente
+     * do tamanho da tabela. A conexão permanece emprestada até o fim da leitura.
+     *
+     * @param consumidor ação executada para cada cliente lido.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a leitura.
+     */
+    public void percorrerTodos(Consumer<Cliente> consumidor) {
+        String sql = "SELECT * FROM clientes ORDER BY nome, cpf";
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = DB.prepararCursor(conn, sql);
+             ResultSet rs = st.executeQuery()) {
+            while (rs.next()) {
+                consumidor.accept(instanciarCliente(rs));
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao percorrer clientes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cria um objeto Cliente a partir da linha atual do ResultSet.
+     *
+     * @param rs o ResultSet posicionado na linha do cliente.
+     * @return o objeto Cliente correspondente à linha.
+     * @throws SQLException se ocorrer algum erro ao ler as colunas.
+     */
+    private Cliente instanciarCliente(ResultSet rs) throws SQLException {
+        return new Cliente(
+            rs.getString("nome"),
+            rs.getString("cpf"),
+            rs.getString("telefone"),
+            rs.getString("endereco")
+        );
+    }
 }
\ No newline at end of file
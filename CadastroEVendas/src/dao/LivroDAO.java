@@ -1,17 +1,22 @@
 package dao;
 
+import cache.ProdutoCache;
 import db.DB;
 import db.DbException;
+import model.Dinheiro;
 import model.Livro;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Classe responsável por realizar operações de banco de dados
  * relacionadas à entidade Livro. Esta classe implementa o padrão
  * Data Access Object (DAO) para abstrair a interação com o banco de dados.
+ * Como os livros ficam na mesma tabela 'produtos', toda escrita feita aqui
+ * também invalida a entrada correspondente no {@link ProdutoCache}.
  */
 public class LivroDAO {
 
@@ -31,11 +36,12 @@ public class LivroDAO {
         String sql = "INSERT INTO produtos (nome, preco_compra, preco_venda, estoque, autor) VALUES (?, ?, ?, ?, ?)";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente após a execução ou em caso de exceção.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             // Define os valores dos placeholders na instrução SQL com os dados do objeto Livro.
             st.setString(1, livro.getNome()); // Primeiro placeholder: nome do livro.
-            st.setDouble(2, livro.getPrecoCompra()); // Segundo placeholder: preço de compra.
-            st.setDouble(3, livro.getPrecoVenda()); // Terceiro placeholder: preço de venda.
+            st.setBigDecimal(2, Dinheiro.paraDecimal(livro.getPrecoCompra())); // Segundo placeholder: preço de compra.
+            st.setBigDecimal(3, Dinheiro.paraDecimal(livro.getPrecoVenda())); // Terceiro placeholder: preço de venda.
             st.setInt(4, livro.getEstoque()); // Quarto placeholder: quantidade em estoque.
             st.setString(5, livro.getAutor()); // Quinto placeholder: nome do autor.
             st.executeUpdate(); // Executa a instrução SQL de inserção no banco de dados.
@@ -46,6 +52,8 @@ public class LivroDAO {
             if (rs.next()) {
                 // Define o ID do livro no objeto Livro com o valor da chave gerada.
                 livro.setId(rs.getInt(1));
+                // Garante que não haja uma entrada antiga com o mesmo ID no cache.
+                ProdutoCache.invalidar(livro.getId());
             }
             // Fecha o ResultSet para liberar recursos.
             DB.closeResultSet(rs);
@@ -58,35 +66,41 @@ public class LivroDAO {
     /**
      * Busca um livro no banco de dados a partir do seu ID.
      * A busca inclui filtros para garantir que o livro tenha um autor definido e esteja ativo.
+     * O resultado é consultado primeiro no {@link ProdutoCache}, entre os livros ativos; somente em caso
+     * de falha a linha é lida do banco de dados e então armazenada no cache, a menos que algum produto
+     * tenha sido alterado durante a leitura.
      *
      * @param id o ID do livro a ser buscado.
      * @return um objeto Livro se encontrado, ou null caso contrário.
      * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a operação.
      */
     public Livro buscarPorId(int id) {
+        // Consulta o cache antes de ir ao banco de dados.
+        Livro emCache = ProdutoCache.buscarLivroAtivo(id);
+        if (emCache != null) {
+            return emCache;
+        }
+        // Geração do cache antes da leitura: se houver uma invalidação até o fim dela, o livro lido não é guardado.
+        long geracao = ProdutoCache.getGeracao();
         // Define a string SQL para selecionar um registro da tabela 'produtos' com base no ID,
         // garantindo que o campo 'autor' não seja nulo e que o campo 'ativo' seja verdadeiro.
-        String sql = "SELECT * FROM produtos WHERE id = ? AND autor IS NOT NULL AND ativo = TRUE";
+        String sql = "SELECT " + MapeadorProduto.COLUNAS + " FROM produtos WHERE id = ? AND autor IS NOT NULL AND ativo = TRUE";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
             // Define o valor do placeholder '?' com o ID do livro a ser buscado.
             st.setInt(1, id);
             // Executa a consulta SQL e armazena o resultado em um ResultSet.
             ResultSet rs = st.executeQuery();
             // Verifica se algum registro foi encontrado.
             if (rs.next()) {
-                // Cria um novo objeto Livro com os dados recuperados do ResultSet.
-                Livro livro = new Livro(
-                        rs.getInt("id"),
-                        rs.getString("nome"),
-                        rs.getDouble("preco_compra"),
-                        rs.getDouble("preco_venda"),
-                        rs.getInt("estoque"),
-                        rs.getString("autor")
-                );
+                // Cria o objeto Livro com os dados recuperados do ResultSet (a consulta só retorna linhas com autor).
+                Livro livro = (Livro) MapeadorProduto.mapear(rs);
                 // Fecha o ResultSet.
                 DB.closeResultSet(rs);
+                // Guarda o livro no cache para as próximas buscas.
+                ProdutoCache.armazenarLivroAtivo(livro, geracao);
                 // Retorna o objeto Livro encontrado.
                 return livro;
             }
@@ -112,15 +126,17 @@ public class LivroDAO {
         String sql = "UPDATE produtos SET nome = ?, preco_compra = ?, preco_venda = ?, estoque = ?, autor = ? WHERE id = ?";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
             // Define os valores dos placeholders na instrução SQL com os dados do objeto Livro.
             st.setString(1, livro.getNome());
-            st.setDouble(2, livro.getPrecoCompra());
-            st.setDouble(3, livro.getPrecoVenda());
+            st.setBigDecimal(2, Dinheiro.paraDecimal(livro.getPrecoCompra()));
+            st.setBigDecimal(3, Dinheiro.paraDecimal(livro.getPrecoVenda()));
             st.setInt(4, livro.getEstoque());
             st.setString(5, livro.getAutor());
             st.setInt(6, livro.getId()); // O ID é usado na cláusula WHERE para identificar o livro a ser atualizado.
             st.executeUpdate(); // Executa a instrução SQL de atualização no banco de dados.
+            ProdutoCache.invalidar(livro.getId()); // Remove a versão antiga do cache.
         } catch (SQLException e) {
             // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
             throw new DbException("Erro ao atualizar livro: " + e.getMessage());
@@ -140,10 +156,12 @@ public class LivroDAO {
         String sql = "UPDATE produtos SET ativo = FALSE WHERE id = ?";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
             // Define o valor do placeholder '?' com o ID do livro a ser deletado (inativado).
             st.setInt(1, id);
             st.executeUpdate(); // Executa a instrução SQL de atualização.
+            ProdutoCache.invalidar(id); // Remove a versão antiga do cache.
         } catch (SQLException e) {
             // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
             throw new DbException("Erro ao deletar livro: " + e.getMessage());
@@ -163,22 +181,16 @@ public class LivroDAO {
         List<Livro> lista = new ArrayList<>();
         // Define a string SQL para selecionar todos os registros da tabela 'produtos' onde
         // o campo 'ativo' é TRUE e o campo 'autor' não é nulo, ordenados pelo nome em ordem crescente.
-        String sql = "SELECT * FROM produtos WHERE ativo = TRUE AND autor IS NOT NULL ORDER BY nome ASC";
+        String sql = "SELECT " + MapeadorProduto.COLUNAS + " FROM produtos WHERE ativo = TRUE AND autor IS NOT NULL ORDER BY nome ASC";
         // Utiliza um bloco try-with-resources para garantir que a conexão (via Statement) e o ResultSet
         // sejam fechados automaticamente.
-        try (Statement st = DB.getConnection().createStatement();
+        try (Connection conn = DB.getConnection();
+             Statement st = conn.createStatement();
              ResultSet rs = st.executeQuery(sql)) {
             // Itera sobre cada linha (livro) retornado pelo ResultSet.
             while (rs.next()) {
-                // Cria um novo objeto Livro com os dados de cada coluna da linha atual.
-                Livro livro = new Livro(
-                        rs.getInt("id"),
-                        rs.getString("nome"),
-                        rs.getDouble("preco_compra"),
-                        rs.getDouble("preco_venda"),
-                        rs.getInt("estoque"),
-                        rs.getString("autor")
-                );
+                // Cria o objeto Livro com os dados da linha atual (a consulta só retorna linhas com autor).
+                Livro livro = (Livro) MapeadorProduto.mapear(rs);
                 // Adiciona o objeto Livro à lista.
                 lista.add(livro);
             }
@@ -204,11 +216,13 @@ public class LivroDAO {
         String sql = "UPDATE produtos SET estoque = ? WHERE id = ?";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
             // Define os valores dos placeholders na instrução SQL.
             st.setInt(1, novoEstoque); // Primeiro placeholder: nova quantidade em estoque.
             st.setInt(2, idLivro); // Segundo placeholder: ID do livro a ser atualizado.
             st.executeUpdate(); // Executa a instrução SQL de atualização.
+            ProdutoCache.invalidar(idLivro); // Remove a versão antiga do cache.
         } catch (SQLException e) {
             // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
             throw new DbException("Erro ao atualizar estoque: " + e.getMessage());
@@ -220,25 +234,85 @@ public class LivroDAO {
      * A atualização é feita com base no ID do livro.
      *
      * @param idLivro         o ID do livro a ter os preços atualizados.
-     * @param novoPrecoCompra o novo preço de compra do livro.
-     * @param novoPrecoVenda  o novo preço de venda do livro.
+     * @param novoPrecoCompra o novo preço de compra do livro, em centavos.
+     * @param novoPrecoVenda  o novo preço de venda do livro, em centavos.
      * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a operação.
      */
-    public void atualizarPrecos(int idLivro, double novoPrecoCompra, double novoPrecoVenda) {
+    public void atualizarPrecos(int idLivro, long novoPrecoCompra, long novoPrecoVenda) {
         // Define a string SQL para atualizar os campos 'preco_compra' e 'preco_venda'
         // no registro da tabela 'produtos' correspondente ao ID do livro fornecido.
         String sql = "UPDATE produtos SET preco_compra = ?, preco_venda = ? WHERE id = ?";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
             // Define os valores dos placeholders na instrução SQL.
-            st.setDouble(1, novoPrecoCompra); // Primeiro placeholder: novo preço de compra.
-            st.setDouble(2, novoPrecoVenda); // Segundo placeholder: novo preço de venda.
+            st.setBigDecimal(1, Dinheiro.paraDecimal(novoPrecoCompra)); // Primeiro placeholder: novo preço de compra.
+            st.setBigDecimal(2, Dinheiro.paraDecimal(novoPrecoVenda)); // Segundo placeholder: novo preço de venda.
             st.setInt(3, idLivro); // Terceiro placeholder: ID do livro a ser atualizado.
             st.executeUpdate(); // Executa a instrução SQL de atualização.
+            ProdutoCache.invalidar(idLivro); // Remove a versão antiga do cache.
         } catch (SQLException e) {
             // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
             throw new DbException("Erro ao atualizar preços: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Retorna uma página de livros ativos ordenada por nome (e ID, para desempate), usando
+     * paginação por chave (keyset): a consulta continua a partir do último livro da página anterior,
+     * sem OFFSET, de modo que o custo de cada página não cresce com a posição na listagem.
+     *
+     * @param aposNome nome do último livro da página anterior, ou {@code null} para a primeira página.
+     * @param aposId   ID do último livro da página anterior, ou {@code null} para a primeira página.
+     * @param tamanho  número máximo de livros na página.
+     * @return lista com até {@code tamanho} livros. Uma lista vazia indica que não há mais páginas.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a operação.
+     */
+    public List<Livro> listarPagina(String aposNome, Integer aposId, int tamanho) {
+        List<Livro> lista = new ArrayList<>();
+        // A primeira página não tem ponto de partida; as demais continuam após (nome, id).
+        String sql = (aposNome == null)
+                ? "SELECT " + MapeadorProduto.COLUNAS + " FROM produtos WHERE ativo = TRUE AND autor IS NOT NULL ORDER BY nome, id LIMIT ?"
+                : "SELECT " + MapeadorProduto.COLUNAS + " FROM produtos WHERE ativo = TRUE AND autor IS NOT NULL AND (nome > ? OR (nome = ? AND id > ?)) ORDER BY nome, id LIMIT ?";
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (aposNome != null) {
+                st.setString(i++, aposNome);
+                st.setString(i++, aposNome);
+                st.setInt(i++, aposId);
+            }
+            st.setInt(i, tamanho);
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    lista.add((Livro) MapeadorProduto.mapear(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao listar livros: " + e.getMessage());
+        }
+        return lista;
+    }
+
+    /**
+     * Percorre todos os livros ativos, ordenados por nome, entregando um de cada vez ao consumidor.
+     * A consulta é lida como um cursor somente de avanço (ver {@link DB#prepararCursor(Connection, String)}),
+     * mantendo em memória apenas um lote de linhas por vez. A conexão permanece emprestada até o fim da leitura.
+     *
+     * @param consumidor ação executada para cada livro lido.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a leitura.
+     */
+    public void percorrer(Consumer<Livro> consumidor) {
+        String sql = "SELECT " + MapeadorProduto.COLUNAS + " FROM produtos WHERE ativo = TRUE AND autor IS NOT NULL ORDER BY nome, id";
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = DB.prepararCursor(conn, sql);
+             ResultSet rs = st.executeQuery()) {
+            while (rs.next()) {
+                consumidor.accept((Livro) MapeadorProduto.mapear(rs));
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao percorrer livros: " + e.getMessage());
+        }
+    }
+}
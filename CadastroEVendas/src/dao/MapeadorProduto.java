@@ -0,0 +1,72 @@
+package dao;
+
+import model.Dinheiro;
+import model.Livro;
+import model.Produto;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Conversão das linhas da tabela 'produtos' em objetos, usada por todos os DAOs que leem produtos.
+ * <br>
+ * Produtos e livros ficam na mesma tabela: uma linha com a coluna 'autor' preenchida é um
+ * {@link Livro}, e as demais são {@link Produto}. Assim, uma única consulta traz o catálogo
+ * inteiro, já com o tipo certo de cada objeto.
+ * <br>
+ * As consultas selecionam as colunas na ordem de {@link #COLUNAS} (ou {@link #colunas(String)},
+ * quando a tabela tem um apelido, como em um JOIN), e a leitura é feita pela posição da coluna,
+ * sem procurar o nome de cada coluna a cada linha. Quando as colunas do produto não são as
+ * primeiras do SELECT, informe a posição da primeira delas.
+ */
+final class MapeadorProduto {
+
+    /** Colunas do produto, na ordem em que são lidas, para uso em consultas sem apelido de tabela. */
+    static final String COLUNAS = colunas(null);
+
+    private MapeadorProduto() {
+    }
+
+    /**
+     * Retorna a lista de colunas do produto, na ordem em que são lidas, qualificadas pelo apelido da tabela.
+     *
+     * @param apelido o apelido da tabela 'produtos' na consulta (por exemplo, "p"), ou {@code null}.
+     * @return as colunas separadas por vírgula, como "p.id, p.nome, ...".
+     */
+    static String colunas(String apelido) {
+        String p = (apelido == null) ? "" : apelido + ".";
+        return p + "id, " + p + "nome, " + p + "preco_compra, " + p + "preco_venda, " + p + "estoque, " + p + "autor";
+    }
+
+    /**
+     * Cria o produto da linha atual, supondo que as colunas do produto são as primeiras do SELECT.
+     *
+     * @param rs o ResultSet posicionado na linha.
+     * @return um Livro, se a coluna 'autor' estiver preenchida, ou um Produto.
+     * @throws SQLException se ocorrer algum erro ao ler as colunas.
+     */
+    static Produto mapear(ResultSet rs) throws SQLException {
+        return mapear(rs, 1);
+    }
+
+    /**
+     * Cria o produto da linha atual a partir das colunas que começam na posição informada.
+     *
+     * @param rs       o ResultSet posicionado na linha.
+     * @param primeira a posição (começando em 1) da coluna 'id' do produto no SELECT.
+     * @return um Livro, se a coluna 'autor' estiver preenchida, ou um Produto.
+     * @throws SQLException se ocorrer algum erro ao ler as colunas.
+     */
+    static Produto mapear(ResultSet rs, int primeira) throws SQLException {
+        int id = rs.getInt(primeira);
+        String nome = rs.getString(primeira + 1);
+        long precoCompra = Dinheiro.deDecimal(rs.getBigDecimal(primeira + 2));
+        long precoVenda = Dinheiro.deDecimal(rs.getBigDecimal(primeira + 3));
+        int estoque = rs.getInt(primeira + 4);
+        String autor = rs.getString(primeira + 5);
+        if (autor != null) {
+            return new Livro(id, nome, precoCompra, precoVenda, estoque, autor);
+        }
+        return new Produto(id, nome, precoCompra, precoVenda, estoque);
+    }
+}
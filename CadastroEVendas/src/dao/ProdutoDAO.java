@@ -1,12 +1,17 @@
 package dao;
 
+import cache.ProdutoCache;
 import db.DB;
 import db.DbException;
+import model.Dinheiro;
+import model.Livro;
 import model.Produto;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Classe responsável por realizar operações de CRUD (Create, Read, Update, Delete)
@@ -15,6 +20,11 @@ import java.util.List;
  */
 public class ProdutoDAO {
 
+    // Colunas pelas quais a listagem pode ser ordenada. O nome da coluna é concatenado ao SQL,
+    // por isso apenas estes valores são aceitos.
+    private static final Set<String> COLUNAS_ORDENACAO =
+            Set.of("id", "nome", "preco_compra", "preco_venda", "estoque", "autor");
+
     /**
      * Insere um novo produto no banco de dados.
      * Os dados do produto a serem inseridos são obtidos do objeto Produto fornecido.
@@ -32,11 +42,12 @@ public class ProdutoDAO {
         String sql = "INSERT INTO produtos (nome, preco_compra, preco_venda, estoque, autor) VALUES (?, ?, ?, ?, NULL)";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente após a execução ou em caso de exceção.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             // Define os valores dos placeholders na instrução SQL com os dados do objeto Produto.
             st.setString(1, produto.getNome()); // Primeiro placeholder: nome do produto.
-            st.setDouble(2, produto.getPrecoCompra()); // Segundo placeholder: preço de compra.
-            st.setDouble(3, produto.getPrecoVenda()); // Terceiro placeholder: preço de venda.
+            st.setBigDecimal(2, Dinheiro.paraDecimal(produto.getPrecoCompra())); // Segundo placeholder: preço de compra.
+            st.setBigDecimal(3, Dinheiro.paraDecimal(produto.getPrecoVenda())); // Terceiro placeholder: preço de venda.
             st.setInt(4, produto.getEstoque()); // Quarto placeholder: quantidade em estoque.
             // O quinto valor (autor) é definido como NULL diretamente na string SQL.
             st.executeUpdate(); // Executa a instrução SQL de inserção no banco de dados.
@@ -47,6 +58,8 @@ public class ProdutoDAO {
             if (rs.next()) {
                 // Define o ID do produto no objeto Produto com o valor da chave gerada.
                 produto.setId(rs.getInt(1));
+                // Garante que não haja uma entrada antiga com o mesmo ID no cache.
+                ProdutoCache.invalidar(produto.getId());
             }
             // Fecha o ResultSet para liberar recursos.
             DB.closeResultSet(rs);
@@ -56,35 +69,88 @@ public class ProdutoDAO {
         }
     }
 
+    /**
+     * Insere vários produtos com um único comando {@code INSERT} de várias linhas
+     * ({@code VALUES (...), (...)}), usado na importação em lote. Livros são gravados com o autor;
+     * os demais produtos, com o autor nulo. Os IDs gerados são definidos nos objetos.
+     * <br>
+     * O comando é atômico: se um dos produtos não puder ser inserido, nenhum deles é gravado e
+     * quem chamou pode tentar inseri-los um a um.
+     *
+     * @param produtos os produtos a serem inseridos; uma lista vazia não faz nada.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a operação de inserção.
+     */
+    public void inserirLote(List<Produto> produtos) {
+        if (produtos.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO produtos (nome, preco_compra, preco_venda, estoque, autor) VALUES ");
+        for (int i = 0; i < produtos.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
+        }
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS)) {
+            int parametro = 1;
+            for (Produto produto : produtos) {
+                st.setString(parametro++, produto.getNome());
+                st.setBigDecimal(parametro++, Dinheiro.paraDecimal(produto.getPrecoCompra()));
+                st.setBigDecimal(parametro++, Dinheiro.paraDecimal(produto.getPrecoVenda()));
+                st.setInt(parametro++, produto.getEstoque());
+                if (produto instanceof Livro) {
+                    st.setString(parametro++, ((Livro) produto).getAutor());
+                } else {
+                    st.setNull(parametro++, Types.VARCHAR);
+                }
+            }
+            st.executeUpdate();
+            // As chaves geradas chegam na ordem das linhas do comando.
+            try (ResultSet rs = st.getGeneratedKeys()) {
+                for (int i = 0; i < produtos.size() && rs.next(); i++) {
+                    produtos.get(i).setId(rs.getInt(1));
+                    ProdutoCache.invalidar(rs.getInt(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao inserir produtos: " + e.getMessage());
+        }
+    }
+
     /**
      * Busca um produto no banco de dados a partir do seu ID.
+     * O resultado é consultado primeiro no {@link ProdutoCache}; somente em caso de falha
+     * a linha é lida do banco de dados e então armazenada no cache, a menos que algum produto
+     * tenha sido alterado durante a leitura.
      *
      * @param id o ID do produto a ser buscado.
      * @return um objeto Produto se encontrado, ou null caso contrário.
      * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a operação de busca.
      */
     public Produto buscarPorId(int id) {
+        // Consulta o cache antes de ir ao banco de dados.
+        Produto emCache = ProdutoCache.buscar(id);
+        if (emCache != null) {
+            return emCache;
+        }
+        // Geração do cache antes da leitura: se houver uma invalidação até o fim dela, o produto lido não é guardado.
+        long geracao = ProdutoCache.getGeracao();
         // Define a string SQL para selecionar um registro da tabela 'produtos' com base no ID.
-        String sql = "SELECT * FROM produtos WHERE id = ?";
+        String sql = "SELECT " + MapeadorProduto.COLUNAS + " FROM produtos WHERE id = ?";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
             // Define o valor do placeholder '?' com o ID do produto a ser buscado.
             st.setInt(1, id);
             // Executa a consulta SQL e armazena o resultado em um ResultSet.
             ResultSet rs = st.executeQuery();
             // Verifica se algum registro foi encontrado.
             if (rs.next()) {
-                // Cria um novo objeto Produto com os dados recuperados do ResultSet.
-                Produto p = new Produto(
-                        rs.getInt("id"),
-                        rs.getString("nome"),
-                        rs.getDouble("preco_compra"),
-                        rs.getDouble("preco_venda"),
-                        rs.getInt("estoque")
-                );
+                // Cria o objeto Produto (ou Livro, se tiver autor) com os dados recuperados do ResultSet.
+                Produto p = MapeadorProduto.mapear(rs);
                 // Fecha o ResultSet.
                 DB.closeResultSet(rs);
+                // Guarda o produto no cache para as próximas buscas.
+                ProdutoCache.armazenar(p, geracao);
                 // Retorna o objeto Produto encontrado.
                 return p;
             }
@@ -111,14 +177,16 @@ public class ProdutoDAO {
         String sql = "UPDATE produtos SET nome=?, preco_compra=?, preco_venda=?, estoque=? WHERE id=?";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
             // Define os valores dos placeholders na instrução SQL com os dados do objeto Produto.
             st.setString(1, produto.getNome());
-            st.setDouble(2, produto.getPrecoCompra());
-            st.setDouble(3, produto.getPrecoVenda());
+            st.setBigDecimal(2, Dinheiro.paraDecimal(produto.getPrecoCompra()));
+            st.setBigDecimal(3, Dinheiro.paraDecimal(produto.getPrecoVenda()));
             st.setInt(4, produto.getEstoque());
             st.setInt(5, produto.getId()); // O ID é usado na cláusula WHERE para identificar o produto a ser atualizado.
             st.executeUpdate(); // Executa a instrução SQL de atualização no banco de dados.
+            ProdutoCache.invalidar(produto.getId()); // Remove a versão antiga do cache.
         } catch (SQLException e) {
             // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
             throw new DbException("Erro ao atualizar produto: " + e.getMessage());
@@ -138,10 +206,12 @@ public class ProdutoDAO {
         String sql = "UPDATE produtos SET ativo = FALSE WHERE id = ?";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
             // Define o valor do placeholder '?' com o ID do produto a ser "deletado" (inativado).
             st.setInt(1, id);
             st.executeUpdate(); // Executa a instrução SQL de atualização.
+            ProdutoCache.invalidar(id); // Remove a versão antiga do cache.
         } catch (SQLException e) {
             // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
             throw new DbException("Erro ao deletar produto: " + e.getMessage());
@@ -150,8 +220,9 @@ public class ProdutoDAO {
 
     /**
      * Retorna todos os produtos ativos cadastrados no banco de dados, ordenados por nome em ordem ascendente.
+     * O catálogo inteiro é lido em uma única consulta; as linhas com autor são retornadas como {@link Livro}.
      *
-     * @return uma lista de objetos Produto contendo todos os produtos ativos encontrados.
+     * @return uma lista de objetos Produto (podendo ser instâncias de Livro) contendo todos os produtos ativos encontrados.
      * Retorna uma lista vazia se nenhum produto ativo for encontrado.
      * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a operação de listagem.
      */
@@ -160,23 +231,16 @@ public class ProdutoDAO {
         List<Produto> lista = new ArrayList<>();
         // Define a string SQL para selecionar todos os registros da tabela 'produtos' onde
         // o campo 'ativo' é TRUE, ordenados pelo nome em ordem crescente.
-        String sql = "SELECT * FROM produtos WHERE ativo = TRUE ORDER BY nome ASC";
+        String sql = "SELECT " + MapeadorProduto.COLUNAS + " FROM produtos WHERE ativo = TRUE ORDER BY nome ASC";
         // Utiliza um bloco try-with-resources para garantir que a conexão (via Statement) e o ResultSet
         // sejam fechados automaticamente.
-        try (Statement st = DB.getConnection().createStatement();
+        try (Connection conn = DB.getConnection();
+             Statement st = conn.createStatement();
              ResultSet rs = st.executeQuery(sql)) {
             // Itera sobre cada linha (produto) retornado pelo ResultSet.
             while (rs.next()) {
-                // Cria um novo objeto Produto com os dados de cada coluna da linha atual.
-                Produto p = new Produto(
-                        rs.getInt("id"),
-                        rs.getString("nome"),
-                        rs.getDouble("preco_compra"),
-                        rs.getDouble("preco_venda"),
-                        rs.getInt("estoque")
-                );
-                // Adiciona o objeto Produto à lista.
-                lista.add(p);
+                // Cria o objeto Produto (ou Livro, se tiver autor) e o adiciona à lista.
+                lista.add(MapeadorProduto.mapear(rs));
             }
         } catch (SQLException e) {
             // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
@@ -201,11 +265,13 @@ public class ProdutoDAO {
         String sql = "UPDATE produtos SET estoque = ? WHERE id = ?";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
             // Define os valores dos placeholders na instrução SQL.
             st.setInt(1, novoEstoque); // Primeiro placeholder: nova quantidade em estoque.
             st.setInt(2, idProduto); // Segundo placeholder: ID do produto a ser atualizado.
             st.executeUpdate(); // Executa a instrução SQL de atualização.
+            ProdutoCache.invalidar(idProduto); // Remove a versão antiga do cache.
         } catch (SQLException e) {
             // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
             throw new DbException("Erro ao atualizar estoque: " + e.getMessage());
@@ -217,25 +283,199 @@ public class ProdutoDAO {
      * A atualização é feita com base no ID do produto.
      *
      * @param idProduto     o ID do produto a ter os preços atualizados.
-     * @param novoPrecoCompra o novo preço de compra do produto.
-     * @param novoPrecoVenda  o novo preço de venda do produto.
+     * @param novoPrecoCompra o novo preço de compra do produto, em centavos.
+     * @param novoPrecoVenda  o novo preço de venda do produto, em centavos.
      * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a operação de atualização.
      */
-    public void atualizarPrecos(int idProduto, double novoPrecoCompra, double novoPrecoVenda) {
+    public void atualizarPrecos(int idProduto, long novoPrecoCompra, long novoPrecoVenda) {
         // Define a string SQL para atualizar os campos 'preco_compra' e 'preco_venda'
         // no registro da tabela 'produtos' correspondente ao ID do produto fornecido.
         String sql = "UPDATE produtos SET preco_compra = ?, preco_venda = ? WHERE id = ?";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
             // Define os valores dos placeholders na instrução SQL.
-            st.setDouble(1, novoPrecoCompra); // Primeiro placeholder: novo preço de compra.
-            st.setDouble(2, novoPrecoVenda); // Segundo placeholder: novo preço de venda.
+            st.setBigDecimal(1, Dinheiro.paraDecimal(novoPrecoCompra)); // Primeiro placeholder: novo preço de compra.
+            st.setBigDecimal(2, Dinheiro.paraDecimal(novoPrecoVenda)); // Segundo placeholder: novo preço de venda.
             st.setInt(3, idProduto); // Terceiro placeholder: ID do produto a ser atualizado.
             st.executeUpdate(); // Executa a instrução SQL de atualização.
+            ProdutoCache.invalidar(idProduto); // Remove a versão antiga do cache.
         } catch (SQLException e) {
             // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
             throw new DbException("Erro ao atualizar preços: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Retorna uma página de produtos ativos ordenada por nome (e ID, para desempate), usando
+     * paginação por chave (keyset): a consulta continua a partir do último produto da página anterior,
+     * sem OFFSET, de modo que o custo de cada página não cresce com a posição na listagem.
+     * Produtos com autor definido são retornados como instâncias de {@link Livro}.
+     *
+     * @param aposNome nome do último produto da página anterior, ou {@code null} para a primeira página.
+     * @param aposId   ID do último produto da página anterior, ou {@code null} para a primeira página.
+     * @param tamanho  número máximo de produtos na página.
+     * @return lista com até {@code tamanho} produtos. Uma lista vazia indica que não há mais páginas.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a operação de listagem.
+     */
+    public List<Produto> listarPaginaOrdenado(String aposNome, Integer aposId, int tamanho) {
+        List<Produto> lista = new ArrayList<>();
+        // A primeira página não tem ponto de partida; as demais continuam após (nome, id).
+        String sql = (aposNome == null)
+                ? "SELECT " + MapeadorProduto.COLUNAS + " FROM produtos WHERE ativo = TRUE ORDER BY nome, id LIMIT ?"
+                : "SELECT " + MapeadorProduto.COLUNAS + " FROM produtos WHERE ativo = TRUE AND (nome > ? OR (nome = ? AND id > ?)) ORDER BY nome, id LIMIT ?";
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (aposNome != null) {
+                st.setString(i++, aposNome);
+                st.setString(i++, aposNome);
+                st.setInt(i++, aposId);
+            }
+            st.setInt(i, tamanho);
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(MapeadorProduto.mapear(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao listar produtos: " + e.getMessage());
+        }
+        return lista;
+    }
+
+    /**
+     * Conta os produtos ativos que atendem ao filtro. Usado junto com
+     * {@link #listarFaixa(String, String, boolean, int, int)} para saber o total de linhas da listagem.
+     *
+     * @param filtro texto procurado no nome ou no autor, ou {@code null} (ou vazio) para contar todos.
+     * @return o número de produtos ativos que atendem ao filtro.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados.
+     */
+    public int contarAtivos(String filtro) {
+        boolean filtrar = filtro != null && !filtro.isEmpty();
+        String sql = "SELECT COUNT(*) FROM produtos WHERE ativo = TRUE"
+                + (filtrar ? " AND (nome LIKE ? ESCAPE '!' OR autor LIKE ? ESCAPE '!')" : "");
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            if (filtrar) {
+                st.setString(1, DB.padraoContem(filtro));
+                st.setString(2, DB.padraoContem(filtro));
+            }
+            try (ResultSet rs = st.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao contar produtos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retorna uma faixa de linhas da listagem de produtos ativos, com o filtro e a ordenação
+     * aplicados pelo próprio banco de dados. Diferente de {@link #listarPaginaOrdenado(String, Integer, int)},
+     * a faixa é localizada pela posição ({@code LIMIT ? OFFSET ?}), o que permite buscar qualquer
+     * trecho da listagem, como o que está visível em uma tabela rolada até o meio.
+     * O ID é sempre usado como desempate, para que a posição de cada produto seja estável.
+     * Produtos com autor definido são retornados como instâncias de {@link Livro}.
+     *
+     * @param filtro       texto procurado no nome ou no autor, ou {@code null} (ou vazio) para listar todos.
+     * @param ordenarPor   coluna da ordenação: id, nome, preco_compra, preco_venda, estoque ou autor.
+     * @param decrescente  {@code true} para ordem decrescente.
+     * @param deslocamento posição da primeira linha da faixa (começando em 0).
+     * @param tamanho      número máximo de linhas.
+     * @return os produtos da faixa, na ordem pedida.
+     * @throws IllegalArgumentException se a coluna de ordenação não for aceita.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados.
+     */
+    public List<Produto> listarFaixa(String filtro, String ordenarPor, boolean decrescente, int deslocamento, int tamanho) {
+        if (!COLUNAS_ORDENACAO.contains(ordenarPor)) {
+            throw new IllegalArgumentException("Coluna de ordenação inválida: " + ordenarPor);
+        }
+        boolean filtrar = filtro != null && !filtro.isEmpty();
+        String direcao = decrescente ? " DESC" : "";
+        String sql = "SELECT " + MapeadorProduto.COLUNAS + " FROM produtos WHERE ativo = TRUE"
+                + (filtrar ? " AND (nome LIKE ? ESCAPE '!' OR autor LIKE ? ESCAPE '!')" : "")
+                + " ORDER BY " + ordenarPor + direcao + ", id" + direcao + " LIMIT ? OFFSET ?";
+        List<Produto> lista = new ArrayList<>(tamanho);
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (filtrar) {
+                st.setString(i++, DB.padraoContem(filtro));
+                st.setString(i++, DB.padraoContem(filtro));
+            }
+            st.setInt(i++, tamanho);
+            st.setInt(i, deslocamento);
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(MapeadorProduto.mapear(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao listar produtos: " + e.getMessage());
+        }
+        return lista;
+    }
+
+    /**
+     * Busca os produtos ativos cujo nome ou autor começa com o prefixo informado, para as sugestões
+     * da tela de vendas. Cada condição é uma consulta separada, limitada e servida por um índice
+     * ('idx_produtos_ativo_nome_id' para o nome e 'idx_produtos_ativo_autor' para o autor); o UNION
+     * junta e ordena no máximo {@code 2 * limite} linhas. Assim, o custo depende do limite e não do
+     * tamanho do catálogo.
+     *
+     * @param prefixo o início do nome do produto ou do autor do livro.
+     * @param limite  número máximo de produtos retornados.
+     * @return até {@code limite} produtos, ordenados por nome (livros são instâncias de {@link Livro}).
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados.
+     */
+    public List<Produto> sugerirPorPrefixo(String prefixo, int limite) {
+        String sql = "SELECT " + MapeadorProduto.COLUNAS + " FROM ("
+                + "(SELECT " + MapeadorProduto.COLUNAS + " FROM produtos WHERE ativo = TRUE AND nome LIKE ? ESCAPE '!' ORDER BY nome, id LIMIT ?) "
+                + "UNION "
+                + "(SELECT " + MapeadorProduto.COLUNAS + " FROM produtos WHERE ativo = TRUE AND autor LIKE ? ESCAPE '!' ORDER BY autor, id LIMIT ?)"
+                + ") sugestoes ORDER BY nome, id LIMIT ?";
+        List<Produto> lista = new ArrayList<>(limite);
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            String padrao = DB.padraoPrefixo(prefixo);
+            st.setString(1, padrao);
+            st.setInt(2, limite);
+            st.setString(3, padrao);
+            st.setInt(4, limite);
+            st.setInt(5, limite);
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(MapeadorProduto.mapear(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao buscar sugestões de produtos: " + e.getMessage());
+        }
+        return lista;
+    }
+
+    /**
+     * Percorre todos os produtos ativos, ordenados por nome, entregando um de cada vez ao consumidor.
+     * A consulta é lida como um cursor somente de avanço (ver {@link DB#prepararCursor(Connection, String)}),
+     * mantendo em memória apenas um lote de linhas por vez. A conexão permanece emprestada até o fim da leitura.
+     * Produtos com autor definido são entregues como instâncias de {@link Livro}.
+     *
+     * @param consumidor ação executada para cada produto lido.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a leitura.
+     */
+    public void percorrerOrdenado(Consumer<Produto> consumidor) {
+        String sql = "SELECT " + MapeadorProduto.COLUNAS + " FROM produtos WHERE ativo = TRUE ORDER BY nome, id";
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = DB.prepararCursor(conn, sql);
+             ResultSet rs = st.executeQuery()) {
+            while (rs.next()) {
+                consumidor.accept(MapeadorProduto.mapear(rs));
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao percorrer produtos: " + e.getMessage());
+        }
+    }
+}
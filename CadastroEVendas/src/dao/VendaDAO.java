@@ -1,177 +1,742 @@
 package dao;
 
+import cache.ProdutoCache;
 import db.DB;
+import db.DBIntregatyException;
 import db.DbException;
+import db.Transacao;
 import model.Cliente;
+import model.Dinheiro;
+import model.ItemVenda;
 import model.Produto;
+import model.ResumoVendas;
 import model.Venda;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Classe responsável por realizar operações de persistência (salvar e consultar)
  * relacionadas à entidade Venda no banco de dados.
- * Utiliza outros DAOs (ProdutoDAO) para realizar operações em entidades relacionadas.
+ * Também atualiza o estoque dos produtos vendidos, diretamente na tabela 'produtos',
+ * e o resumo diário das vendas (tabela 'vendas_resumo_diario'), usado nos relatórios de totais.
  */
 public class VendaDAO {
 
-    // Instância de ProdutoDAO para interagir com a persistência de produtos.
-    private ProdutoDAO produtoDAO = new ProdutoDAO();
+    /** Número máximo de linhas da venda gravadas por comando INSERT. */
+    private static final int LINHAS_POR_INSERT = 100;
+
+    /**
+     * Recebe as linhas das vendas lidas por {@link #percorrerLinhas(LocalDate, LocalDate, ReceptorLinhas)},
+     * uma de cada vez, sem a criação de objetos Venda, Cliente, Produto ou ItemVenda.
+     */
+    @FunctionalInterface
+    public interface ReceptorLinhas {
+
+        /**
+         * Recebe uma linha de venda. As linhas de uma mesma venda chegam seguidas e recebem os mesmos
+         * objetos {@code String} da data e do cliente.
+         *
+         * @param idVenda       o ID da venda.
+         * @param dataVenda     a data da venda, no formato AAAA-MM-DD.
+         * @param cpfCliente    o CPF do cliente.
+         * @param nomeCliente   o nome do cliente.
+         * @param idProduto     o ID do produto.
+         * @param nomeProduto   o nome do produto.
+         * @param quantidade    a quantidade vendida.
+         * @param precoUnitario o preço de cada unidade no momento da venda, em centavos.
+         * @param custoUnitario o custo de cada unidade no momento da venda, em centavos (para itens gravados
+         *                      antes da coluna 'custo_unitario' existir, o preço de compra atual do produto).
+         */
+        void receber(int idVenda, String dataVenda, String cpfCliente, String nomeCliente,
+                     int idProduto, String nomeProduto, int quantidade, long precoUnitario, long custoUnitario);
+    }
+
+    /**
+     * Recebe as quantidades vendidas de cada produto em cada dia, lidas por
+     * {@link #somarQuantidadesPorDia(LocalDate, ReceptorQuantidades)}.
+     */
+    @FunctionalInterface
+    public interface ReceptorQuantidades {
+
+        /**
+         * Recebe a quantidade vendida de um produto em um dia.
+         *
+         * @param dia        o dia das vendas.
+         * @param idProduto  o ID do produto.
+         * @param quantidade a soma das quantidades vendidas do produto no dia.
+         */
+        void receber(LocalDate dia, int idProduto, long quantidade);
+    }
 
     /**
      * Registra uma nova venda no banco de dados, incluindo as informações do cliente,
-     * a data da venda e os produtos associados. Para cada produto vendido,
-     * também atualiza o estoque correspondente na tabela de produtos.
+     * a data da venda e as linhas da venda (produto, quantidade e preço unitário).
+     * <br>
+     * Linhas repetidas do mesmo produto são agrupadas em uma só, somando as quantidades, já que
+     * a chave da tabela 'venda_produtos' é (id_venda, id_produto).
+     * Toda a operação (baixa de estoque, cabeçalho da venda e itens) é executada em uma única
+     * transação ({@link Transacao}), com um único commit ao final. Se qualquer etapa falhar,
+     * nada é gravado. O estoque é baixado com atualizações relativas e condicionais
+     * ({@code estoque = estoque - ? WHERE estoque >= ?}), enviadas em um único lote; como o banco
+     * de dados calcula o novo estoque, duas vendas simultâneas do mesmo produto não perdem atualizações.
+     * As baixas são enviadas em ordem de ID do produto, e não na ordem do carrinho, de propósito: assim toda
+     * venda bloqueia as linhas de 'produtos' na mesma ordem, e duas vendas com os mesmos produtos em ordens
+     * diferentes esperam uma pela outra em vez de entrarem em deadlock.
+     * Na mesma transação, os totais do dia da venda são somados ao resumo diário
+     * (ver {@link #totalizarPeriodo(LocalDate, LocalDate)}).
+     * Após o commit, os produtos vendidos são removidos do {@link ProdutoCache}, pois seu estoque mudou.
      *
      * @param venda objeto Venda contendo as informações da venda a ser registrada
-     * (cliente, data da venda e lista de produtos).
+     * (cliente, data da venda e itens).
+     * @throws DBIntregatyException se algum produto não tiver estoque suficiente para a venda.
      * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a operação de registro.
      */
     public void registrarVenda(Venda venda) {
+        try {
+            List<ItemVenda> itens = agruparPorProduto(venda.getItens());
+            Transacao.executar(conn -> {
+                // Baixa o estoque de todos os produtos da venda antes de gravá-la.
+                baixarEstoque(conn, itens);
+                // Grava o cabeçalho da venda e obtém o ID gerado.
+                int idVenda = inserirCabecalho(conn, venda);
+                venda.setId(idVenda);
+                // Grava os itens da venda.
+                inserirItens(conn, idVenda, itens);
+                // Soma a venda aos totais do dia.
+                acumularResumoDiario(conn, idVenda, venda.getDataVenda(), itens);
+                return null;
+            });
+            venda.setItens(itens);
+            // O estoque dos produtos vendidos mudou: invalida as cópias em cache.
+            for (ItemVenda item : itens) {
+                ProdutoCache.invalidar(item.getProduto().getId());
+            }
+        } catch (SQLException e) {
+            // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
+            throw new DbException("Erro ao registrar venda: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Agrupa as linhas do mesmo produto em uma só, somando as quantidades e mantendo o preço
+     * unitário da primeira linha. A ordem em que os produtos aparecem na venda é preservada.
+     *
+     * @param itens as linhas da venda.
+     * @return as linhas agrupadas (a própria lista, se não houver produtos repetidos).
+     */
+    private List<ItemVenda> agruparPorProduto(List<ItemVenda> itens) {
+        Map<Integer, ItemVenda> porProduto = new LinkedHashMap<>();
+        for (ItemVenda item : itens) {
+            porProduto.merge(item.getProduto().getId(), item, (a, b) ->
+                    new ItemVenda(a.getProduto(), a.getQuantidade() + b.getQuantidade(), a.getPrecoUnitario()));
+        }
+        return porProduto.size() == itens.size() ? itens : new ArrayList<>(porProduto.values());
+    }
+
+    /**
+     * Insere o registro da venda na tabela 'vendas' e retorna o ID gerado.
+     *
+     * @param conn  a conexão da transação da venda.
+     * @param venda a venda a ser gravada (cliente e data).
+     * @return o ID gerado para a venda.
+     * @throws SQLException se ocorrer algum erro na inserção ou se nenhum ID for gerado.
+     */
+    private int inserirCabecalho(Connection conn, Venda venda) throws SQLException {
         // Define a string SQL para inserir um novo registro na tabela 'vendas'
         // com o CPF do cliente e a data da venda.
         String sqlVenda = "INSERT INTO vendas (cpf_cliente, data_venda) VALUES (?, ?)";
-        // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
-        // para a tabela 'vendas' sejam fechados automaticamente.
-        try (PreparedStatement stVenda = DB.getConnection().prepareStatement(sqlVenda, Statement.RETURN_GENERATED_KEYS)) {
-            // Define os valores dos placeholders na instrução SQL para a tabela 'vendas'.
+        try (PreparedStatement stVenda = conn.prepareStatement(sqlVenda, Statement.RETURN_GENERATED_KEYS)) {
             stVenda.setString(1, venda.getCliente().getCpf()); // Primeiro placeholder: CPF do cliente.
             stVenda.setDate(2, Date.valueOf(venda.getDataVenda())); // Segundo placeholder: data da venda.
             stVenda.executeUpdate(); // Executa a instrução SQL de inserção na tabela 'vendas'.
 
-            // Recupera as chaves primárias geradas automaticamente pela inserção na tabela 'vendas' (o ID da venda).
-            ResultSet rs = stVenda.getGeneratedKeys();
-            // Verifica se algum registro foi inserido e se uma chave foi gerada.
-            if (rs.next()) {
-                int idVenda = rs.getInt(1); // Obtém o ID da venda gerado.
-                venda.setId(idVenda); // Define o ID da venda no objeto Venda.
-
-                // Inserir os produtos associados à venda na tabela 'venda_produtos'.
-                String sqlItem = "INSERT INTO venda_produtos (id_venda, id_produto, quantidade) VALUES (?, ?, ?)";
-                // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
-                // para a tabela 'venda_produtos' sejam fechados automaticamente.
-                try (PreparedStatement stItem = DB.getConnection().prepareStatement(sqlItem)) {
-                    // Itera sobre a lista de produtos presentes na venda.
-                    for (Produto p : venda.getProdutos()) {
-                        stItem.setInt(1, idVenda); // Primeiro placeholder: ID da venda.
-                        stItem.setInt(2, p.getId()); // Segundo placeholder: ID do produto.
-                        stItem.setInt(3, 1); // Terceiro placeholder: quantidade vendida (definida como 1 por padrão, pode ser ajustado).
-                        stItem.addBatch(); // Adiciona a instrução ao lote para execução em massa.
-
-                        // Reduzir o estoque do produto vendido na tabela 'produtos'.
-                        int novoEstoque = p.getEstoque() - 1;
-                        produtoDAO.atualizarEstoque(p.getId(), novoEstoque);
-                    }
-                    stItem.executeBatch(); // Executa todas as inserções na tabela 'venda_produtos' em lote.
+            // Recupera a chave primária gerada automaticamente (o ID da venda).
+            try (ResultSet rs = stVenda.getGeneratedKeys()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
                 }
             }
-            // Fecha o ResultSet para liberar recursos.
-            DB.closeResultSet(rs);
-        } catch (SQLException e) {
-            // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
-            throw new DbException("Erro ao registrar venda: " + e.getMessage());
+        }
+        throw new SQLException("Nenhum ID foi gerado para a venda.");
+    }
+
+    /**
+     * Insere as linhas da venda na tabela 'venda_produtos', com a quantidade, o preço unitário e o
+     * custo unitário. O custo é o preço de compra lido pelo próprio comando na tabela 'produtos', dentro
+     * da transação da venda (a linha do produto já está bloqueada pela baixa de estoque), e não o valor
+     * do objeto Produto, que pode ter vindo do cache.
+     * <br>
+     * As linhas são enviadas em comandos {@code INSERT ... SELECT} de várias linhas (unidas por
+     * {@code UNION ALL}), com até {@link #LINHAS_POR_INSERT} linhas cada: uma venda comum é gravada com
+     * uma única ida ao banco de dados. Como o texto do comando depende apenas do número de linhas, os comandos
+     * completos são sempre iguais e reaproveitados pelo cache de statements do pool.
+     *
+     * @param conn    a conexão da transação da venda.
+     * @param idVenda o ID da venda.
+     * @param itens   as linhas da venda, já agrupadas por produto.
+     * @throws SQLException se ocorrer algum erro na inserção.
+     */
+    private void inserirItens(Connection conn, int idVenda, List<ItemVenda> itens) throws SQLException {
+        for (int inicio = 0; inicio < itens.size(); inicio += LINHAS_POR_INSERT) {
+            int fim = Math.min(itens.size(), inicio + LINHAS_POR_INSERT);
+            StringBuilder sql = new StringBuilder(
+                    "INSERT INTO venda_produtos (id_venda, id_produto, quantidade, preco_unitario, custo_unitario) ");
+            for (int i = inicio; i < fim; i++) {
+                sql.append(i == inicio ? "" : " UNION ALL ")
+                   .append("SELECT ?, id, ?, ?, preco_compra FROM produtos WHERE id = ?");
+            }
+            try (PreparedStatement stItem = conn.prepareStatement(sql.toString())) {
+                int parametro = 1;
+                for (int i = inicio; i < fim; i++) {
+                    ItemVenda item = itens.get(i);
+                    stItem.setInt(parametro++, idVenda); // ID da venda.
+                    stItem.setInt(parametro++, item.getQuantidade()); // Quantidade vendida.
+                    stItem.setBigDecimal(parametro++, Dinheiro.paraDecimal(item.getPrecoUnitario())); // Preço cobrado.
+                    stItem.setInt(parametro++, item.getProduto().getId()); // ID do produto.
+                }
+                stItem.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Soma a venda à linha do seu dia na tabela 'vendas_resumo_diario', criando a linha se for a
+     * primeira venda do dia. A atualização é relativa ({@code receita = receita + ?}), de modo que
+     * vendas simultâneas no mesmo dia não perdem valores. A receita usa o preço unitário de cada
+     * linha, o mesmo de {@link Venda#calcularTotal()}, e o custo, o custo unitário que acabou de ser
+     * gravado em cada item, lido no banco de dados; assim, o resumo tem os mesmos valores que
+     * {@link #reconstruirResumoDiario()} calcularia a partir dos itens.
+     *
+     * @param conn      a conexão da transação da venda.
+     * @param idVenda   o ID da venda, com os itens já gravados.
+     * @param dataVenda o dia da venda.
+     * @param itens     as linhas da venda.
+     * @throws SQLException se ocorrer algum erro na atualização.
+     */
+    private void acumularResumoDiario(Connection conn, int idVenda, LocalDate dataVenda, List<ItemVenda> itens) throws SQLException {
+        int unidades = 0;
+        long receita = 0;
+        for (ItemVenda item : itens) {
+            unidades += item.getQuantidade();
+            receita += item.getSubtotal();
+        }
+        long custo;
+        try (PreparedStatement st = conn.prepareStatement(
+                "SELECT COALESCE(SUM(quantidade * custo_unitario), 0) FROM venda_produtos WHERE id_venda = ?")) {
+            st.setInt(1, idVenda);
+            try (ResultSet rs = st.executeQuery()) {
+                rs.next();
+                custo = Dinheiro.deDecimal(rs.getBigDecimal(1));
+            }
+        }
+
+        String sql = "INSERT INTO vendas_resumo_diario (data_venda, quantidade_vendas, quantidade_itens, receita, custo) " +
+                     "VALUES (?, 1, ?, ?, ?) " +
+                     "ON DUPLICATE KEY UPDATE quantidade_vendas = quantidade_vendas + 1, " +
+                     "quantidade_itens = quantidade_itens + ?, receita = receita + ?, custo = custo + ?";
+        try (PreparedStatement st = conn.prepareStatement(sql)) {
+            st.setDate(1, Date.valueOf(dataVenda));
+            st.setInt(2, unidades);
+            st.setBigDecimal(3, Dinheiro.paraDecimal(receita));
+            st.setBigDecimal(4, Dinheiro.paraDecimal(custo));
+            st.setInt(5, unidades);
+            st.setBigDecimal(6, Dinheiro.paraDecimal(receita));
+            st.setBigDecimal(7, Dinheiro.paraDecimal(custo));
+            st.executeUpdate();
+        }
+    }
+
+    /**
+     * Baixa o estoque dos produtos vendidos com atualizações relativas e condicionais,
+     * enviadas ao banco de dados em um único lote, uma por linha da venda.
+     * <br>
+     * O lote é montado em ordem crescente de ID do produto, para que todas as transações bloqueiem as
+     * linhas na mesma ordem (evitando deadlocks entre vendas simultâneas); a lista recebida, na ordem do
+     * carrinho, não é alterada.
+     * <br>
+     * Cada atualização só é aplicada se houver estoque suficiente. Se alguma não afetar
+     * nenhuma linha, uma exceção é lançada e a transação da venda desfaz as baixas já aplicadas.
+     *
+     * @param conn  a conexão da transação da venda.
+     * @param itens as linhas da venda, já agrupadas por produto.
+     * @throws DBIntregatyException se algum produto não tiver estoque suficiente.
+     * @throws SQLException se ocorrer algum erro ao executar as atualizações.
+     */
+    private void baixarEstoque(Connection conn, List<ItemVenda> itens) throws SQLException {
+        List<ItemVenda> ordenados = new ArrayList<>(itens);
+        ordenados.sort(Comparator.comparingInt(item -> item.getProduto().getId()));
+        String sql = "UPDATE produtos SET estoque = estoque - ? WHERE id = ? AND estoque >= ?";
+        int[] resultados;
+        try (PreparedStatement st = conn.prepareStatement(sql)) {
+            for (ItemVenda item : ordenados) {
+                st.setInt(1, item.getQuantidade()); // Quantidade a baixar.
+                st.setInt(2, item.getProduto().getId()); // ID do produto.
+                st.setInt(3, item.getQuantidade()); // Estoque mínimo necessário.
+                st.addBatch();
+            }
+            resultados = st.executeBatch();
+        }
+
+        // Uma atualização que não afetou nenhuma linha indica estoque insuficiente.
+        for (int i = 0; i < resultados.length; i++) {
+            if (resultados[i] == 0) {
+                throw new DBIntregatyException("Produto sem estoque: " + ordenados.get(i).getProduto().getNome());
+            }
         }
     }
 
     /**
      * Lista todas as vendas registradas no banco de dados, recuperando informações
      * do cliente associado a cada venda através de um JOIN com a tabela 'clientes'.
-     * Também busca os produtos associados a cada venda utilizando o método {@link #buscarProdutosPorVenda(int)}.
+     * Os produtos de todas as vendas são carregados em uma única consulta adicional
+     * e associados às vendas em memória pelo método {@link #montarVendas(PreparedStatement, PreparedStatement)},
+     * de modo que o número de consultas ao banco é sempre dois, independentemente da quantidade de vendas.
      *
      * @return uma lista de objetos Venda contendo todas as vendas registradas, com seus respectivos
      * clientes e produtos. Retorna uma lista vazia se não houver vendas registradas.
      * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a operação de listagem.
      */
     public List<Venda> listarTodas() {
-        // Cria uma nova lista ArrayList para armazenar as vendas encontradas.
-        List<Venda> lista = new ArrayList<>();
         // Define a string SQL para selecionar informações das tabelas 'vendas' (v) e 'clientes' (c)
         // através de um INNER JOIN na coluna 'cpf_cliente'.
-        String sql = "SELECT v.id, v.data_venda, c.cpf, c.nome, c.telefone, c.endereco " +
-                     "FROM vendas v INNER JOIN clientes c ON v.cpf_cliente = c.cpf";
-
-        // Utiliza um bloco try-with-resources para garantir que a conexão (via Statement) e o ResultSet
-        // sejam fechados automaticamente.
-        try (Statement st = DB.getConnection().createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
-            // Itera sobre cada linha (venda) retornado pelo ResultSet.
-            while (rs.next()) {
-                // Cria um novo objeto Cliente com os dados recuperados do ResultSet.
-                Cliente cliente = new Cliente(
-                        rs.getString("nome"),
-                        rs.getString("cpf"),
-                        rs.getString("telefone"),
-                        rs.getString("endereco")
-                );
+        String sqlVendas = "SELECT v.id, v.data_venda, c.cpf, c.nome, c.telefone, c.endereco " +
+                           "FROM vendas v INNER JOIN clientes c ON v.cpf_cliente = c.cpf " +
+                           "ORDER BY v.id";
+        // Define a string SQL para selecionar os produtos de todas as vendas de uma só vez,
+        // através de um INNER JOIN entre a tabela de junção 'venda_produtos' (vp) e 'produtos' (p).
+        String sqlItens = "SELECT vp.id_venda, vp.quantidade, COALESCE(vp.preco_unitario, p.preco_venda) AS preco_unitario, " +
+                          MapeadorProduto.colunas("p") + " " +
+                          "FROM venda_produtos vp INNER JOIN produtos p ON p.id = vp.id_produto";
 
-                // Busca a lista de produtos associados à venda atual utilizando o ID da venda.
-                List<Produto> produtos = buscarProdutosPorVenda(rs.getInt("id"));
+        // Utiliza um bloco try-with-resources para garantir que a conexão e os PreparedStatements
+        // sejam fechados automaticamente. As duas consultas usam a mesma conexão.
+        try (Connection conn = DB.getConnection();
+             PreparedStatement stVendas = conn.prepareStatement(sqlVendas);
+             PreparedStatement stItens = conn.prepareStatement(sqlItens)) {
+            return montarVendas(stVendas, stItens);
+        } catch (SQLException e) {
+            // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
+            throw new DbException("Erro ao listar vendas: " + e.getMessage());
+        }
+    }
 
-                // Cria um novo objeto Venda com os dados recuperados.
-                Venda venda = new Venda(
-                        rs.getInt("id"),
-                        cliente,
-                        produtos,
-                        rs.getDate("data_venda").toLocalDate()
-                );
-                lista.add(venda); // Adiciona o objeto Venda à lista.
-            }
+    /**
+     * Lista as vendas realizadas dentro de um período (datas inclusivas), com seus clientes e produtos.
+     * O filtro por data é aplicado no próprio banco de dados, tanto na consulta de vendas quanto
+     * na de itens, e se apoia no índice 'idx_vendas_data_venda' sobre a coluna 'data_venda'.
+     * Assim, o custo da consulta depende do número de vendas no período e não do histórico completo.
+     *
+     * @param inicio data inicial do período (inclusive).
+     * @param fim    data final do período (inclusive).
+     * @return uma lista de objetos Venda realizadas no período, ordenadas por ID.
+     * Retorna uma lista vazia se não houver vendas no período.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a operação de busca.
+     */
+    public List<Venda> listarPorPeriodo(LocalDate inicio, LocalDate fim) {
+        // Seleciona apenas as vendas cuja data está dentro do período informado.
+        String sqlVendas = "SELECT v.id, v.data_venda, c.cpf, c.nome, c.telefone, c.endereco " +
+                           "FROM vendas v INNER JOIN clientes c ON v.cpf_cliente = c.cpf " +
+                           "WHERE v.data_venda BETWEEN ? AND ? " +
+                           "ORDER BY v.id";
+        // Seleciona apenas os itens das vendas do período, filtrando pela data da venda.
+        String sqlItens = "SELECT vp.id_venda, vp.quantidade, COALESCE(vp.preco_unitario, p.preco_venda) AS preco_unitario, " +
+                          MapeadorProduto.colunas("p") + " " +
+                          "FROM vendas v " +
+                          "INNER JOIN venda_produtos vp ON vp.id_venda = v.id " +
+                          "INNER JOIN produtos p ON p.id = vp.id_produto " +
+                          "WHERE v.data_venda BETWEEN ? AND ?";
+
+        // Utiliza um bloco try-with-resources para garantir que a conexão e os PreparedStatements
+        // sejam fechados automaticamente. As duas consultas usam a mesma conexão.
+        try (Connection conn = DB.getConnection();
+             PreparedStatement stVendas = conn.prepareStatement(sqlVendas);
+             PreparedStatement stItens = conn.prepareStatement(sqlItens)) {
+            // Define as datas de início e fim nas duas consultas.
+            stVendas.setDate(1, Date.valueOf(inicio));
+            stVendas.setDate(2, Date.valueOf(fim));
+            stItens.setDate(1, Date.valueOf(inicio));
+            stItens.setDate(2, Date.valueOf(fim));
+            return montarVendas(stVendas, stItens);
         } catch (SQLException e) {
             // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
+            throw new DbException("Erro ao listar vendas por período: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retorna uma página de vendas ordenada por ID, usando paginação por chave (keyset):
+     * a consulta continua a partir do ID da última venda da página anterior, sem OFFSET.
+     * Os itens das vendas da página são carregados por uma segunda consulta limitada às
+     * mesmas vendas, de modo que cada página custa sempre duas consultas.
+     *
+     * @param aposId  ID da última venda da página anterior (use 0 para a primeira página).
+     * @param tamanho número máximo de vendas na página.
+     * @return lista com até {@code tamanho} vendas. Uma lista vazia indica que não há mais páginas.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a operação de listagem.
+     */
+    public List<Venda> listarPagina(int aposId, int tamanho) {
+        String sqlVendas = "SELECT v.id, v.data_venda, c.cpf, c.nome, c.telefone, c.endereco " +
+                           "FROM vendas v INNER JOIN clientes c ON v.cpf_cliente = c.cpf " +
+                           "WHERE v.id > ? ORDER BY v.id LIMIT ?";
+        // A subconsulta seleciona exatamente as vendas da página, para buscar apenas os seus itens.
+        String sqlItens = "SELECT vp.id_venda, vp.quantidade, COALESCE(vp.preco_unitario, p.preco_venda) AS preco_unitario, " +
+                          MapeadorProduto.colunas("p") + " " +
+                          "FROM (SELECT v.id FROM vendas v INNER JOIN clientes c ON v.cpf_cliente = c.cpf " +
+                          "      WHERE v.id > ? ORDER BY v.id LIMIT ?) pv " +
+                          "INNER JOIN venda_produtos vp ON vp.id_venda = pv.id " +
+                          "INNER JOIN produtos p ON p.id = vp.id_produto";
+        try (Connection conn = DB.getConnection();
+             PreparedStatement stVendas = conn.prepareStatement(sqlVendas);
+             PreparedStatement stItens = conn.prepareStatement(sqlItens)) {
+            stVendas.setInt(1, aposId);
+            stVendas.setInt(2, tamanho);
+            stItens.setInt(1, aposId);
+            stItens.setInt(2, tamanho);
+            return montarVendas(stVendas, stItens);
+        } catch (SQLException e) {
             throw new DbException("Erro ao listar vendas: " + e.getMessage());
         }
+    }
 
-        return lista; // Retorna a lista de todas as vendas registradas com seus clientes e produtos.
+    /**
+     * Percorre as linhas das vendas (uma por produto vendido), ordenadas pelo ID da venda, e as entrega
+     * ao receptor como valores simples, para exportações de qualquer tamanho. As linhas são lidas como
+     * um cursor somente de avanço (ver {@link DB#prepararCursor(Connection, String)}) e nada é acumulado:
+     * a memória usada não depende do número de linhas. A data e o cliente são lidos apenas na primeira
+     * linha de cada venda, e os preços chegam em centavos já calculados pelo banco de dados.
+     * A conexão permanece emprestada até o fim da leitura.
+     *
+     * @param inicio   data inicial do período (inclusive), ou {@code null} para não limitar.
+     * @param fim      data final do período (inclusive), ou {@code null} para não limitar.
+     * @param receptor ação executada para cada linha lida.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a leitura.
+     */
+    public void percorrerLinhas(LocalDate inicio, LocalDate fim, ReceptorLinhas receptor) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT v.id, v.data_venda, c.cpf, c.nome, vp.id_produto, p.nome, vp.quantidade, " +
+                "ROUND(COALESCE(vp.preco_unitario, p.preco_venda) * 100) AS centavos, ROUND(COALESCE(vp.custo_unitario, p.preco_compra) * 100) AS custo " +
+                "FROM vendas v " +
+                "INNER JOIN clientes c ON v.cpf_cliente = c.cpf " +
+                "INNER JOIN venda_produtos vp ON vp.id_venda = v.id " +
+                "INNER JOIN produtos p ON p.id = vp.id_produto");
+        if (inicio != null && fim != null) {
+            sql.append(" WHERE v.data_venda BETWEEN ? AND ?");
+        } else if (inicio != null) {
+            sql.append(" WHERE v.data_venda >= ?");
+        } else if (fim != null) {
+            sql.append(" WHERE v.data_venda <= ?");
+        }
+        sql.append(" ORDER BY v.id");
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = DB.prepararCursor(conn, sql.toString())) {
+            int parametro = 1;
+            if (inicio != null) {
+                st.setDate(parametro++, Date.valueOf(inicio));
+            }
+            if (fim != null) {
+                st.setDate(parametro, Date.valueOf(fim));
+            }
+            try (ResultSet rs = st.executeQuery()) {
+                int vendaAtual = 0;
+                String data = null;
+                String cpf = null;
+                String nome = null;
+                while (rs.next()) {
+                    int idVenda = rs.getInt(1);
+                    if (data == null || idVenda != vendaAtual) {
+                        vendaAtual = idVenda;
+                        data = rs.getDate(2).toLocalDate().toString();
+                        cpf = rs.getString(3);
+                        nome = rs.getString(4);
+                    }
+                    receptor.receber(idVenda, data, cpf, nome, rs.getInt(5), rs.getString(6), rs.getInt(7),
+                            rs.getLong(8), rs.getLong(9));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao percorrer as linhas das vendas: " + e.getMessage());
+        }
     }
 
     /**
-     * Busca os produtos associados a uma venda específica no banco de dados,
-     * utilizando o ID da venda para consultar a tabela de junção 'venda_produtos'.
-     * Realiza um INNER JOIN com a tabela 'produtos' para obter os detalhes de cada produto.
+     * Soma as quantidades vendidas de cada produto em cada dia, a partir de uma data, no próprio banco
+     * de dados, e entrega uma linha por dia e produto ao receptor. Usado para reconstruir a contagem
+     * dos mais vendidos ({@code analise.MaisVendidos}) sem ler as linhas das vendas.
      *
-     * @param idVenda o ID da venda para a qual se deseja buscar os produtos.
-     * @return uma lista de objetos Produto associados à venda especificada.
-     * Retorna uma lista vazia se nenhum produto estiver associado à venda.
-     * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a operação de busca.
+     * @param desde    o primeiro dia considerado (inclusive).
+     * @param receptor ação executada para cada dia e produto.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados.
      */
-    private List<Produto> buscarProdutosPorVenda(int idVenda) {
-        // Cria uma nova lista ArrayList para armazenar os produtos encontrados.
-        List<Produto> lista = new ArrayList<>();
-        // Define a string SQL para selecionar informações da tabela 'produtos' (p)
-        // através de um INNER JOIN com a tabela de junção 'venda_produtos' (vp)
-        // com base no ID do produto, filtrando pelo ID da venda.
-        String sql = "SELECT p.id, p.nome, p.preco_compra, p.preco_venda, p.estoque " +
-                     "FROM produtos p " +
-                     "INNER JOIN venda_produtos vp ON p.id = vp.id_produto " +
-                     "WHERE vp.id_venda = ?";
-
-        // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
-        // sejam fechados automaticamente.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
-            // Define o valor do placeholder '?' com o ID da venda para buscar os produtos.
-            st.setInt(1, idVenda);
-            // Executa a consulta SQL e armazena o resultado em um ResultSet.
-            ResultSet rs = st.executeQuery();
-            // Itera sobre cada linha (produto) retornado pelo ResultSet.
+    public void somarQuantidadesPorDia(LocalDate desde, ReceptorQuantidades receptor) {
+        String sql = "SELECT v.data_venda, vp.id_produto, SUM(vp.quantidade) " +
+                     "FROM vendas v " +
+                     "INNER JOIN venda_produtos vp ON vp.id_venda = v.id " +
+                     "WHERE v.data_venda >= ? " +
+                     "GROUP BY v.data_venda, vp.id_produto";
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            st.setDate(1, Date.valueOf(desde));
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    receptor.receber(rs.getDate(1).toLocalDate(), rs.getInt(2), rs.getLong(3));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao somar as quantidades vendidas por dia: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Percorre todas as vendas, ordenadas por ID, entregando uma de cada vez (já com cliente e itens)
+     * ao consumidor. Vendas e itens são lidos em uma única consulta, como um cursor somente de avanço
+     * (ver {@link DB#prepararCursor(Connection, String)}); como as linhas chegam ordenadas pelo ID da venda,
+     * cada venda é entregue assim que a próxima começa. Apenas a venda em montagem e um lote de linhas
+     * ficam em memória. A conexão permanece emprestada até o fim da leitura.
+     *
+     * @param consumidor ação executada para cada venda lida.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a leitura.
+     */
+    public void percorrerTodas(Consumer<Venda> consumidor) {
+        percorrerPorPeriodo(null, null, consumidor);
+    }
+
+    /**
+     * Percorre as vendas de um período, ordenadas por ID, entregando uma de cada vez (já com cliente e
+     * itens) ao consumidor, com o mesmo cursor de {@link #percorrerTodas(Consumer)}: a memória usada não
+     * depende do número de vendas do período. A conexão permanece emprestada até o fim da leitura.
+     *
+     * @param inicio     data inicial do período (inclusive), ou {@code null} para não limitar.
+     * @param fim        data final do período (inclusive), ou {@code null} para não limitar.
+     * @param consumidor ação executada para cada venda lida.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a leitura.
+     */
+    public void percorrerPorPeriodo(LocalDate inicio, LocalDate fim, Consumer<Venda> consumidor) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT v.id AS id_venda, v.data_venda, c.cpf, c.nome AS nome_cliente, c.telefone, c.endereco, " +
+                "vp.quantidade, COALESCE(vp.preco_unitario, p.preco_venda) AS preco_unitario, " +
+                MapeadorProduto.colunas("p") + " " +
+                "FROM vendas v " +
+                "INNER JOIN clientes c ON v.cpf_cliente = c.cpf " +
+                "LEFT JOIN venda_produtos vp ON vp.id_venda = v.id " +
+                "LEFT JOIN produtos p ON p.id = vp.id_produto");
+        if (inicio != null && fim != null) {
+            sql.append(" WHERE v.data_venda BETWEEN ? AND ?");
+        } else if (inicio != null) {
+            sql.append(" WHERE v.data_venda >= ?");
+        } else if (fim != null) {
+            sql.append(" WHERE v.data_venda <= ?");
+        }
+        sql.append(" ORDER BY v.id");
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = DB.prepararCursor(conn, sql.toString())) {
+            int parametro = 1;
+            if (inicio != null) {
+                st.setDate(parametro++, Date.valueOf(inicio));
+            }
+            if (fim != null) {
+                st.setDate(parametro, Date.valueOf(fim));
+            }
+            try (ResultSet rs = st.executeQuery()) {
+                Venda atual = null;
+                while (rs.next()) {
+                    int idVenda = rs.getInt(1);
+                    // Quando o ID muda, a venda anterior está completa e pode ser entregue.
+                    if (atual == null || atual.getId() != idVenda) {
+                        if (atual != null) {
+                            consumidor.accept(atual);
+                        }
+                        Cliente cliente = new Cliente(rs.getString(4), rs.getString(3), rs.getString(5), rs.getString(6));
+                        atual = new Venda(idVenda, cliente, new ArrayList<>(), rs.getDate(2).toLocalDate());
+                    }
+                    // Vendas sem itens retornam uma única linha com as colunas do produto nulas.
+                    // As colunas são lidas pela posição: 1 a 6 são da venda e do cliente, 7 e 8 do item
+                    // e, a partir da 9, do produto.
+                    rs.getInt(9);
+                    if (!rs.wasNull()) {
+                        Produto p = MapeadorProduto.mapear(rs, 9);
+                        atual.getItens().add(new ItemVenda(p, rs.getInt(7), Dinheiro.deDecimal(rs.getBigDecimal(8))));
+                    }
+                }
+                if (atual != null) {
+                    consumidor.accept(atual);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao percorrer vendas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retorna os totais de cada dia do período que teve vendas, lidos do resumo diário.
+     * O custo depende do número de dias do período, e não do número de vendas ou de itens.
+     *
+     * @param inicio data inicial do período (inclusive).
+     * @param fim    data final do período (inclusive).
+     * @return um ResumoVendas por dia com vendas, em ordem de data.
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados.
+     */
+    public List<ResumoVendas> resumirPorDia(LocalDate inicio, LocalDate fim) {
+        String sql = "SELECT data_venda, quantidade_vendas, quantidade_itens, receita, custo " +
+                     "FROM vendas_resumo_diario WHERE data_venda BETWEEN ? AND ? ORDER BY data_venda";
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            st.setDate(1, Date.valueOf(inicio));
+            st.setDate(2, Date.valueOf(fim));
+            List<ResumoVendas> lista = new ArrayList<>();
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    LocalDate dia = rs.getDate("data_venda").toLocalDate();
+                    lista.add(new ResumoVendas(dia, dia, rs.getInt("quantidade_vendas"), rs.getInt("quantidade_itens"),
+                            Dinheiro.deDecimal(rs.getBigDecimal("receita")), Dinheiro.deDecimal(rs.getBigDecimal("custo"))));
+                }
+            }
+            return lista;
+        } catch (SQLException e) {
+            throw new DbException("Erro ao resumir vendas por dia: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retorna os totais de um período (vendas, itens, receita, custo e margem), somando as linhas
+     * do resumo diário no próprio banco de dados. Substitui o cálculo de {@link Venda#calcularTotal()}
+     * sobre todas as vendas do período: o custo depende apenas do número de dias.
+     *
+     * @param inicio data inicial do período (inclusive).
+     * @param fim    data final do período (inclusive).
+     * @return os totais do período (zerados se não houver vendas).
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados.
+     */
+    public ResumoVendas totalizarPeriodo(LocalDate inicio, LocalDate fim) {
+        String sql = "SELECT COALESCE(SUM(quantidade_vendas), 0) AS vendas, COALESCE(SUM(quantidade_itens), 0) AS itens, " +
+                     "COALESCE(SUM(receita), 0) AS receita, COALESCE(SUM(custo), 0) AS custo " +
+                     "FROM vendas_resumo_diario WHERE data_venda BETWEEN ? AND ?";
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            st.setDate(1, Date.valueOf(inicio));
+            st.setDate(2, Date.valueOf(fim));
+            try (ResultSet rs = st.executeQuery()) {
+                rs.next();
+                return new ResumoVendas(inicio, fim, rs.getInt("vendas"), rs.getInt("itens"),
+                        Dinheiro.deDecimal(rs.getBigDecimal("receita")), Dinheiro.deDecimal(rs.getBigDecimal("custo")));
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao totalizar vendas do período: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recalcula todo o resumo diário a partir das tabelas de vendas, em uma única transação.
+     * Deve ser usado apenas quando o resumo estiver incompleto, por exemplo em um banco que já
+     * tinha vendas antes da criação da tabela 'vendas_resumo_diario', ou após inserções feitas
+     * diretamente no banco. A receita usa o preço unitário gravado em cada item, e o custo, o custo
+     * unitário gravado; para itens gravados antes dessas colunas existirem, são usados o preço de venda
+     * e o preço de compra atuais do produto.
+     *
+     * @throws DbException se ocorrer algum erro de acesso ao banco de dados.
+     */
+    public void reconstruirResumoDiario() {
+        String sqlInserir = "INSERT INTO vendas_resumo_diario (data_venda, quantidade_vendas, quantidade_itens, receita, custo) " +
+                            "SELECT v.data_venda, COUNT(DISTINCT v.id), COALESCE(SUM(vp.quantidade), 0), " +
+                            "COALESCE(SUM(vp.quantidade * COALESCE(vp.preco_unitario, p.preco_venda)), 0), COALESCE(SUM(vp.quantidade * COALESCE(vp.custo_unitario, p.preco_compra)), 0) " +
+                            "FROM vendas v " +
+                            "LEFT JOIN venda_produtos vp ON vp.id_venda = v.id " +
+                            "LEFT JOIN produtos p ON p.id = vp.id_produto " +
+                            "GROUP BY v.data_venda";
+        try {
+            Transacao.executar(conn -> {
+                try (Statement st = conn.createStatement()) {
+                    st.executeUpdate("DELETE FROM vendas_resumo_diario");
+                    st.executeUpdate(sqlInserir);
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new DbException("Erro ao reconstruir o resumo diário de vendas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Executa a consulta de vendas e a consulta de itens já preparadas e monta o grafo
+     * de objetos Venda/Cliente/ItemVenda/Produto em memória.
+     * <br>
+     * As vendas são indexadas por ID em um HashMap e cada linha de item é associada
+     * à sua venda por uma busca nesse mapa (junção por hash), evitando uma consulta
+     * por venda. Clientes e produtos repetidos são reaproveitados, de modo que cada
+     * CPF e cada ID de produto gera um único objeto.
+     * <br>
+     * A consulta de vendas deve retornar as colunas id, data_venda, cpf, nome, telefone e endereco;
+     * a de itens deve retornar id_venda, quantidade e preco_unitario, seguidos das colunas de {@link MapeadorProduto#colunas(String)}.
+     *
+     * @param stVendas consulta preparada que retorna as vendas (com os dados do cliente).
+     * @param stItens  consulta preparada que retorna os itens das vendas (com os dados do produto).
+     * @return a lista de vendas, na ordem retornada pela consulta de vendas.
+     * @throws SQLException se ocorrer algum erro ao executar as consultas.
+     */
+    private List<Venda> montarVendas(PreparedStatement stVendas, PreparedStatement stItens) throws SQLException {
+        List<Venda> lista = new ArrayList<>();
+        Map<Integer, Venda> vendasPorId = new HashMap<>();
+        Map<String, Cliente> clientesPorCpf = new HashMap<>();
+
+        // Primeira consulta: vendas e clientes.
+        try (ResultSet rs = stVendas.executeQuery()) {
             while (rs.next()) {
-                // Cria um novo objeto Produto com os dados recuperados do ResultSet.
-                Produto p = new Produto(
+                String cpf = rs.getString("cpf");
+                // Reaproveita o objeto Cliente se ele já apareceu em outra venda.
+                Cliente cliente = clientesPorCpf.get(cpf);
+                if (cliente == null) {
+                    cliente = new Cliente(
+                            rs.getString("nome"),
+                            cpf,
+                            rs.getString("telefone"),
+                            rs.getString("endereco")
+                    );
+                    clientesPorCpf.put(cpf, cliente);
+                }
+
+                // Cria a venda com uma lista de itens vazia, preenchida pela segunda consulta.
+                Venda venda = new Venda(
                         rs.getInt("id"),
-                        rs.getString("nome"),
-                        rs.getDouble("preco_compra"),
-                        rs.getDouble("preco_venda"),
-                        rs.getInt("estoque")
+                        cliente,
+                        new ArrayList<>(),
+                        rs.getDate("data_venda").toLocalDate()
                 );
-                lista.add(p); // Adiciona o objeto Produto à lista.
+                lista.add(venda);
+                vendasPorId.put(venda.getId(), venda);
+            }
+        }
+
+        // Nenhuma venda encontrada: não há itens a associar.
+        if (lista.isEmpty()) {
+            return lista;
+        }
+
+        // Segunda consulta: itens de todas as vendas, associados pelo ID da venda.
+        Map<Integer, Produto> produtosPorId = new HashMap<>();
+        try (ResultSet rs = stItens.executeQuery()) {
+            while (rs.next()) {
+                // Colunas lidas pela posição: 1 a 3 são do item e, a partir da 4, do produto.
+                Venda venda = vendasPorId.get(rs.getInt(1));
+                if (venda == null) {
+                    continue; // Item de uma venda que não faz parte do resultado.
+                }
+                // Um produto que aparece em várias vendas é criado uma única vez.
+                int idProduto = rs.getInt(4);
+                Produto p = produtosPorId.get(idProduto);
+                if (p == null) {
+                    p = MapeadorProduto.mapear(rs, 4);
+                    produtosPorId.put(idProduto, p);
+                }
+                venda.getItens().add(new ItemVenda(p, rs.getInt(2), Dinheiro.deDecimal(rs.getBigDecimal(3))));
             }
-            // Fecha o ResultSet para liberar recursos.
-            DB.closeResultSet(rs);
-        } catch (SQLException e) {
-            // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
-            throw new DbException("Erro ao buscar produtos da venda: " + e.getMessage());
         }
-        return lista; // Retorna a lista de produtos associados à venda especificada.
+        return lista;
     }
-}
\ No newline at end of file
+}
@@ -2,69 +2,86 @@ package dao;
 
 import db.DB;
 import db.DbException;
+import seguranca.VerificadorSenhas;
+
 import java.sql.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Classe responsável por realizar operações de acesso a dados relacionadas
- * à entidade Vendedor, como autenticação, cadastro e recuperação de senha.
+ * à entidade Vendedor, como autenticação e cadastro.
+ * <br>
+ * As senhas são gravadas na coluna 'senha' como hash com sal (PBKDF2), gerado e conferido pelo
+ * {@link VerificadorSenhas}; nenhuma senha nova é gravada em texto puro. Cadastros antigos, gravados
+ * antes do hash, ainda podem ter a senha em texto puro, que é lida e conferida no login e então
+ * substituída pelo hash. Os cálculos são feitos
+ * fora da conexão com o banco de dados, para que nenhuma conexão do pool fique presa durante o hash.
  */
 public class VendedorDAO {
 
+    private static final Logger LOG = Logger.getLogger(VendedorDAO.class.getName());
+
     /**
-     * Autentica um vendedor no sistema verificando se o nome de usuário e a senha
-     * fornecidos correspondem a um registro na tabela 'vendedor'.
+     * Autentica um vendedor no sistema, lendo o hash gravado para o nome de usuário e conferindo
+     * a senha fornecida com ele.
+     * <br>
+     * Se a senha estiver correta mas o valor gravado tiver sido gerado com outro custo (ou ainda for
+     * uma senha em texto puro, de um cadastro antigo), ele é substituído por um hash com o custo atual.
      *
      * @param usuario o nome de usuário do vendedor a ser autenticado.
      * @param senha   a senha do vendedor a ser autenticado.
      * @return {@code true} se a autenticação for bem-sucedida (usuário e senha correspondem),
      * {@code false} caso contrário.
      * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a autenticação.
+     * @throws java.util.concurrent.RejectedExecutionException se houver verificações de senha demais em andamento.
      */
     public boolean autenticar(String usuario, String senha) {
-        // Define a string SQL para selecionar todos os registros da tabela 'vendedor'
-        // onde a coluna 'usuario' corresponde ao valor fornecido e a coluna 'senha'
-        // corresponde ao valor fornecido.
-        String sql = "SELECT * FROM vendedor WHERE usuario = ? AND senha = ?";
-        // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
-        // sejam fechados automaticamente após a execução ou em caso de exceção.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
-            // Define os valores dos placeholders na instrução SQL com o usuário e a senha fornecidos.
+        // Lê o ID e o valor gravado da senha; a conexão é devolvida ao pool antes do cálculo do hash.
+        String sql = "SELECT id, senha FROM vendedor WHERE usuario = ?";
+        int id = 0;
+        String armazenado = null;
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
             st.setString(1, usuario); // Primeiro placeholder: nome de usuário.
-            st.setString(2, senha);   // Segundo placeholder: senha.
-            // Executa a consulta SQL e armazena o resultado em um ResultSet.
-            ResultSet rs = st.executeQuery();
-            // Verifica se algum registro foi encontrado. Se 'rs.next()' retornar true,
-            // significa que um vendedor com as credenciais fornecidas existe no banco.
-            boolean autenticado = rs.next();
-            // Fecha o ResultSet para liberar recursos.
-            rs.close();
-            // Retorna o resultado da autenticação.
-            return autenticado;
+            try (ResultSet rs = st.executeQuery()) {
+                if (rs.next()) {
+                    id = rs.getInt("id");
+                    armazenado = rs.getString("senha");
+                }
+            }
         } catch (SQLException e) {
             // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
             throw new DbException("Erro ao autenticar: " + e.getMessage());
         }
+        // Confere a senha no pool de verificação (mesmo sem vendedor, para não revelar quais usuários existem).
+        VerificadorSenhas.Resultado resultado = VerificadorSenhas.verificar(senha, armazenado);
+        if (resultado.isValida() && resultado.getNovoHash() != null) {
+            atualizarHash(id, armazenado, resultado.getNovoHash());
+        }
+        return resultado.isValida();
     }
 
     /**
      * Cadastra um novo vendedor no sistema, inserindo um novo registro na tabela 'vendedor'
-     * com o nome de usuário e a senha fornecidos.
+     * com o nome de usuário e o hash da senha fornecida.
      *
      * @param usuario o nome de usuário do novo vendedor a ser cadastrado.
      * @param senha   a senha do novo vendedor a ser cadastrado.
      * @return {@code true} se o cadastro for bem-sucedido, {@code false} em caso de erro
      * (por exemplo, violação de chave única, erro de conexão).
+     * @throws java.util.concurrent.RejectedExecutionException se houver cálculos de senha demais em andamento.
      */
     public boolean cadastrar(String usuario, String senha) {
-        // Define a string SQL para inserir um novo registro na tabela 'vendedor'
-        // com o nome de usuário e a senha fornecidos.
+        // Calcula o hash antes de emprestar a conexão.
+        String hash = VerificadorSenhas.gerarHash(senha);
         String sql = "INSERT INTO vendedor (usuario, senha) VALUES (?, ?)";
         // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
         // sejam fechados automaticamente após a execução ou em caso de exceção.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
-            // Define os valores dos placeholders na instrução SQL com o usuário e a senha fornecidos.
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
             st.setString(1, usuario); // Primeiro placeholder: nome de usuário.
-            st.setString(2, senha);   // Segundo placeholder: senha.
+            st.setString(2, hash);    // Segundo placeholder: hash da senha.
             // Executa a instrução SQL de inserção no banco de dados.
             st.executeUpdate();
             // Se a execução da atualização ocorrer sem exceção, o cadastro é considerado bem-sucedido.
@@ -78,34 +95,21 @@ public class VendedorDAO {
     }
 
     /**
-     * Recupera a senha de um vendedor com base no nome de usuário fornecido.
-     *
-     * @param usuario o nome de usuário do vendedor para o qual se deseja recuperar a senha.
-     * @return a senha do vendedor correspondente ao nome de usuário, ou {@code null}
-     * se nenhum vendedor com esse nome de usuário for encontrado.
-     * @throws DbException se ocorrer algum erro de acesso ao banco de dados durante a recuperação da senha.
+     * Substitui o valor gravado da senha por um hash com o custo atual. A troca só acontece se o valor
+     * ainda for o lido no login, para não desfazer uma alteração de senha feita nesse meio-tempo.
+     * A falha não impede o login, pois a senha já foi conferida: ela é registrada no log e a
+     * atualização é tentada de novo no próximo login.
      */
-    public String recuperarSenha(String usuario) {
-        // Define a string SQL para selecionar a coluna 'senha' da tabela 'vendedor'
-        // onde a coluna 'usuario' corresponde ao valor fornecido.
-        String sql = "SELECT senha FROM vendedor WHERE usuario = ?";
-        // Utiliza um bloco try-with-resources para garantir que a conexão e o PreparedStatement
-        // sejam fechados automaticamente após a execução ou em caso de exceção.
-        try (PreparedStatement st = DB.getConnection().prepareStatement(sql)) {
-            // Define o valor do placeholder na instrução SQL com o nome de usuário fornecido.
-            st.setString(1, usuario); // Primeiro placeholder: nome de usuário.
-            // Executa a consulta SQL e armazena o resultado em um ResultSet.
-            ResultSet rs = st.executeQuery();
-            // Verifica se algum registro foi encontrado.
-            if (rs.next()) {
-                // Retorna o valor da coluna 'senha' do primeiro (e único) registro encontrado.
-                return rs.getString("senha");
-            }
-            // Se nenhum vendedor com o nome de usuário especificado for encontrado, retorna null.
-            return null;
+    private void atualizarHash(int id, String anterior, String novoHash) {
+        String sql = "UPDATE vendedor SET senha = ? WHERE id = ? AND senha = ?";
+        try (Connection conn = DB.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            st.setString(1, novoHash);
+            st.setInt(2, id);
+            st.setString(3, anterior);
+            st.executeUpdate();
         } catch (SQLException e) {
-            // Em caso de erro de SQL, lança uma DbException com uma mensagem informativa.
-            throw new DbException("Erro ao recuperar senha: " + e.getMessage());
+            LOG.log(Level.WARNING, "Não foi possível atualizar o hash da senha do vendedor " + id, e);
         }
     }
-}
\ No newline at end of file
+}
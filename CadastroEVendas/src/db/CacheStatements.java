@@ -0,0 +1,221 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache de {@link PreparedStatement} de uma conexão física do {@link ConnectionPool},
+ * indexado pelo texto do SQL. Como a conexão física continua aberta entre os empréstimos,
+ * os statements preparados também continuam válidos e podem ser reaproveitados, evitando
+ * que o banco analise e prepare o mesmo comando a cada chamada de um DAO.
+ * <br>
+ * O statement entregue ao DAO é um proxy: fechá-lo apenas limpa os parâmetros e o devolve
+ * ao cache. Se o mesmo SQL for preparado novamente enquanto o statement ainda estiver em uso
+ * (por exemplo, dois statements iguais abertos ao mesmo tempo), é criado um statement avulso,
+ * fora do cache, também entregue por um proxy (para que {@code getConnection()} retorne a conexão
+ * emprestada, e não a física), que é fechado de fato ao ser fechado pelo DAO. O número de statements guardados é limitado; ao atingir o limite, o usado
+ * há mais tempo é fechado (LRU).
+ * <br>
+ * Apenas {@code prepareStatement(sql)} e {@code prepareStatement(sql, autoGeneratedKeys)} são
+ * atendidos pelo cache. Statements com outras opções (como os cursores de {@link DB#prepararCursor})
+ * alteram configurações do statement e por isso são sempre criados do zero.
+ * <br>
+ * Cada instância é usada por uma conexão emprestada de cada vez, mas os métodos são sincronizados
+ * porque a thread de manutenção do pool pode descartar a conexão.
+ */
+final class CacheStatements {
+
+    private final Connection fisica;
+    private final int capacidade;
+
+    // Contadores compartilhados por todas as conexões do pool.
+    private final LongAdder acertos;
+    private final LongAdder falhas;
+    private final LongAdder remocoes;
+
+    // Ordem de acesso: o primeiro elemento é o usado há mais tempo.
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+
+    CacheStatements(Connection fisica, int capacidade, LongAdder acertos, LongAdder falhas, LongAdder remocoes) {
+        this.fisica = fisica;
+        this.capacidade = capacidade;
+        this.acertos = acertos;
+        this.falhas = falhas;
+        this.remocoes = remocoes;
+    }
+
+    /**
+     * Retorna um statement preparado para o SQL, reaproveitando o do cache quando estiver livre.
+     *
+     * @param conexao       o proxy da conexão emprestada, devolvido por {@code getConnection()} do statement.
+     * @param sql           o comando SQL.
+     * @param chavesGeradas {@link Statement#RETURN_GENERATED_KEYS} ou {@link Statement#NO_GENERATED_KEYS}.
+     * @return o statement, que deve ser fechado pelo chamador para voltar ao cache.
+     * @throws SQLException se ocorrer erro ao preparar o comando.
+     */
+    synchronized PreparedStatement preparar(Connection conexao, String sql, int chavesGeradas) throws SQLException {
+        // O mesmo SQL com e sem retorno das chaves geradas resulta em statements diferentes.
+        String chave = chavesGeradas == Statement.RETURN_GENERATED_KEYS ? "+" + sql : "-" + sql;
+        Entrada entrada = entradas.get(chave);
+        if (entrada != null && entrada.emUso) {
+            falhas.increment();
+            // Statement avulso: fora do mapa e já marcado como descartado, é fechado ao ser devolvido.
+            Entrada avulsa = new Entrada(fisica.prepareStatement(sql, chavesGeradas));
+            avulsa.descartada = true;
+            avulsa.emUso = true;
+            return criarProxy(avulsa, conexao);
+        }
+        if (entrada != null) {
+            acertos.increment();
+        } else {
+            falhas.increment();
+            entrada = new Entrada(fisica.prepareStatement(sql, chavesGeradas));
+            entradas.put(chave, entrada);
+            removerExcedentes();
+        }
+        entrada.emUso = true;
+        return criarProxy(entrada, conexao);
+    }
+
+    /**
+     * Fecha todos os statements guardados. Chamado quando a conexão física é descartada.
+     */
+    synchronized void fechar() {
+        for (Entrada e : entradas.values()) {
+            e.descartada = true;
+            if (!e.emUso) {
+                fecharSilenciosamente(e.statement);
+            }
+        }
+        entradas.clear();
+    }
+
+    /**
+     * Retorna o número de statements guardados.
+     *
+     * @return quantidade de statements no cache desta conexão.
+     */
+    synchronized int getTamanho() {
+        return entradas.size();
+    }
+
+    /**
+     * Fecha os statements usados há mais tempo enquanto o cache estiver acima da capacidade.
+     * Um statement em uso sai do cache, mas só é fechado quando o DAO terminar de usá-lo.
+     */
+    private void removerExcedentes() {
+        Iterator<Map.Entry<String, Entrada>> it = entradas.entrySet().iterator();
+        while (entradas.size() > capacidade && it.hasNext()) {
+            Entrada e = it.next().getValue();
+            it.remove();
+            remocoes.increment();
+            e.descartada = true;
+            if (!e.emUso) {
+                fecharSilenciosamente(e.statement);
+            }
+        }
+    }
+
+    /**
+     * Chamado quando o DAO fecha o statement: limpa o estado deixado pela execução e o devolve
+     * ao cache, ou o fecha de fato se ele já tiver sido removido. O ResultSet atual é fechado aqui,
+     * como aconteceria ao fechar um statement comum, para que um DAO que não o fechou não o mantenha
+     * aberto até a próxima execução do mesmo SQL.
+     */
+    private synchronized void devolver(Entrada entrada) {
+        entrada.emUso = false;
+        if (entrada.descartada) {
+            fecharSilenciosamente(entrada.statement);
+            return;
+        }
+        try {
+            ResultSet resultado = entrada.statement.getResultSet();
+            if (resultado != null) {
+                resultado.close();
+            }
+            entrada.statement.clearParameters();
+            entrada.statement.clearBatch();
+            entrada.statement.clearWarnings();
+        } catch (SQLException e) {
+            // Statement com problema: deixa de ser reaproveitado.
+            entradas.values().remove(entrada);
+            entrada.descartada = true;
+            fecharSilenciosamente(entrada.statement);
+        }
+    }
+
+    /**
+     * Cria o proxy entregue ao DAO. Cada empréstimo recebe um proxy próprio, de modo que um
+     * statement já fechado não possa ser usado para executar comandos depois de voltar ao cache.
+     */
+    private PreparedStatement criarProxy(Entrada entrada, Connection conexao) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean fechado = false;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!fechado) {
+                            fechado = true;
+                            devolver(entrada);
+                        }
+                        return null;
+                    case "isClosed":
+                        return fechado || entrada.statement.isClosed();
+                    case "getConnection":
+                        return conexao;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "StatementDoCache[" + entrada.statement + "]";
+                    default:
+                        if (fechado) {
+                            throw new SQLException("O statement já foi fechado.");
+                        }
+                        try {
+                            return method.invoke(entrada.statement, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                }
+            }
+        };
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, handler);
+    }
+
+    private static void fecharSilenciosamente(Statement st) {
+        try {
+            st.close();
+        } catch (SQLException e) {
+            // Nada a fazer: o statement já está sendo descartado.
+        }
+    }
+
+    /**
+     * Statement guardado no cache e sua situação.
+     */
+    private static final class Entrada {
+        final PreparedStatement statement;
+        boolean emUso = false;
+        boolean descartada = false;
+
+        Entrada(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool de conexões com o banco de dados, limitado e seguro para uso por várias threads.
+ * Substitui a antiga conexão única compartilhada: cada DAO pede uma conexão emprestada,
+ * executa seus comandos e a devolve ao pool chamando {@code close()} (normalmente através
+ * de um bloco try-with-resources).
+ * <br>
+ * Recursos oferecidos:
+ * <ul>
+ *   <li>tamanho mínimo e máximo configuráveis;</li>
+ *   <li>tempo limite para aguardar uma conexão livre;</li>
+ *   <li>remoção de conexões ociosas há muito tempo (respeitando o tamanho mínimo);</li>
+ *   <li>validação, no momento do empréstimo, das conexões ociosas há mais tempo que um limite;</li>
+ *   <li>detecção de vazamentos (conexões emprestadas e nunca devolvidas);</li>
+ *   <li>cache de prepared statements por conexão física (ver {@link CacheStatements});</li>
+ *   <li>medição opcional do tempo dos comandos SQL e log de consultas lentas (ver {@link Instrumentacao}).</li>
+ * </ul>
+ * As configurações são lidas do arquivo 'db.properties' pelas chaves com prefixo {@code pool.},
+ * {@code statement.} e {@code metrics.}.
+ */
+public class ConnectionPool {
+
+    // URL JDBC e propriedades repassadas ao driver (usuário, senha, etc.).
+    private final String url;
+    private final Properties propriedadesDriver;
+
+    // Parâmetros de dimensionamento e tempos do pool.
+    private final int tamanhoMinimo;
+    private final int tamanhoMaximo;
+    private final long timeoutAquisicaoMs;
+    private final long timeoutOciosoMs;
+    private final int timeoutValidacaoSeg;
+    private final long ociosidadeValidacaoMs;
+    private final long limiteVazamentoMs;
+    private final int capacidadeStatements;
+
+    // Conexões físicas livres, prontas para serem emprestadas (a mais recente fica no topo).
+    private final Deque<ConexaoOciosa> ociosas = new ArrayDeque<>();
+    // Conexões atualmente emprestadas, indexadas pelo proxy entregue ao DAO.
+    private final Map<Connection, Emprestimo> emprestadas = new ConcurrentHashMap<>();
+    // Limita o número total de conexões (livres + emprestadas) ao tamanho máximo.
+    private final Semaphore permissoes;
+    // Cache de statements de cada conexão física aberta (vazio se o cache estiver desativado).
+    private final Map<Connection, CacheStatements> caches = new ConcurrentHashMap<>();
+    // Contadores do cache de statements, somados entre todas as conexões.
+    private final LongAdder acertosStatements = new LongAdder();
+    private final LongAdder falhasStatements = new LongAdder();
+    private final LongAdder remocoesStatements = new LongAdder();
+    // Medição dos comandos SQL (null quando desativada).
+    private final Instrumentacao instrumentacao;
+    // Thread de manutenção responsável pela remoção de ociosas e pela detecção de vazamentos.
+    private final ScheduledExecutorService manutencao;
+
+    private volatile boolean fechado = false;
+    // Isolamento padrão das conexões físicas, lido da primeira conexão aberta (-1 até lá).
+    private volatile int isolamentoPadrao = -1;
+
+    /**
+     * Cria o pool a partir das propriedades carregadas de 'db.properties'.
+     * As chaves reconhecidas (e seus valores padrão) são:
+     * {@code pool.minSize} (2), {@code pool.maxSize} (10), {@code pool.acquireTimeoutMs} (30000),
+     * {@code pool.idleTimeoutMs} (600000), {@code pool.validationTimeoutSec} (2),
+     * {@code pool.validationIdleMs} (5000; conexões devolvidas há menos tempo são entregues sem validação)
+     * e {@code pool.leakDetectionMs} (0, desativada; cada empréstimo guarda a pilha de chamadas quando ativa).
+     * O cache de statements usa {@code statement.cacheSize} (50 statements por conexão; 0 desativa)
+     * e {@code statement.serverPrepare} (false), que, no MySQL, faz o driver preparar os comandos
+     * no servidor ({@code useServerPrepStmts}), de modo que os statements guardados no cache
+     * evitem também a análise do SQL pelo servidor.
+     * A medição dos comandos usa {@code metrics.enabled} (false), {@code metrics.slowQueryMs} (500)
+     * e {@code metrics.slowQueryLogSize} (100 consultas lentas guardadas).
+     *
+     * @param prop propriedades com a URL ('dburl'), credenciais e configurações do pool.
+     * @throws DbException se a configuração for inválida ou se não for possível abrir as conexões iniciais.
+     */
+    public ConnectionPool(Properties prop) {
+        this.url = prop.getProperty("dburl");
+        this.tamanhoMinimo = lerInt(prop, "pool.minSize", 2);
+        this.tamanhoMaximo = lerInt(prop, "pool.maxSize", 10);
+        this.timeoutAquisicaoMs = lerLong(prop, "pool.acquireTimeoutMs", 30000);
+        this.timeoutOciosoMs = lerLong(prop, "pool.idleTimeoutMs", 600000);
+        this.timeoutValidacaoSeg = lerInt(prop, "pool.validationTimeoutSec", 2);
+        this.ociosidadeValidacaoMs = lerLong(prop, "pool.validationIdleMs", 5000);
+        this.limiteVazamentoMs = lerLong(prop, "pool.leakDetectionMs", 0);
+        this.capacidadeStatements = lerInt(prop, "statement.cacheSize", 50);
+
+        if (tamanhoMaximo < 1 || tamanhoMinimo < 0 || tamanhoMinimo > tamanhoMaximo) {
+            throw new DbException("Configuração do pool inválida: minSize=" + tamanhoMinimo + ", maxSize=" + tamanhoMaximo);
+        }
+        this.instrumentacao = Boolean.parseBoolean(prop.getProperty("metrics.enabled", "false").trim())
+                ? new Instrumentacao(lerLong(prop, "metrics.slowQueryMs", 500), lerInt(prop, "metrics.slowQueryLogSize", 100))
+                : null;
+        if (capacidadeStatements < 0) {
+            throw new DbException("Valor inválido para 'statement.cacheSize': " + capacidadeStatements);
+        }
+
+        // Apenas as propriedades do driver (usuário, senha, etc.) são repassadas ao JDBC.
+        // Chaves com ponto ('pool.maxSize', 'cursor.fetchSize', ...) são configurações da aplicação.
+        this.propriedadesDriver = new Properties();
+        for (String chave : prop.stringPropertyNames()) {
+            if (!chave.contains(".") && !chave.equals("dburl")) {
+                propriedadesDriver.setProperty(chave, prop.getProperty(chave));
+            }
+        }
+        // Statements preparados no servidor: opção específica do driver do MySQL (os demais bancos ignoram a chave).
+        if (Boolean.parseBoolean(prop.getProperty("statement.serverPrepare", "false").trim())
+                && url != null && url.contains("jdbc:mysql:") && !propriedadesDriver.containsKey("useServerPrepStmts")) {
+            propriedadesDriver.setProperty("useServerPrepStmts", "true");
+        }
+
+        this.permissoes = new Semaphore(tamanhoMaximo, true);
+
+        // Abre antecipadamente o número mínimo de conexões. Se alguma falhar, as já abertas são fechadas.
+        try {
+            for (int i = 0; i < tamanhoMinimo; i++) {
+                ociosas.push(new ConexaoOciosa(abrirConexao(), System.currentTimeMillis()));
+            }
+        } catch (RuntimeException e) {
+            for (ConexaoOciosa c : ociosas) {
+                descartar(c.conexao);
+            }
+            ociosas.clear();
+            throw e;
+        }
+
+        // A manutenção roda em uma thread daemon para não impedir o encerramento da aplicação.
+        this.manutencao = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-manutencao");
+            t.setDaemon(true);
+            return t;
+        });
+        long intervalo = Math.max(1000, Math.min(timeoutOciosoMs, limiteVazamentoMs > 0 ? limiteVazamentoMs : timeoutOciosoMs) / 2);
+        manutencao.scheduleWithFixedDelay(this::executarManutencao, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Empresta uma conexão do pool. Se não houver conexão livre e o tamanho máximo
+     * já tiver sido atingido, aguarda até o tempo limite configurado.
+     * A conexão retornada deve ser fechada pelo chamador; o fechamento a devolve ao pool
+     * em vez de encerrar a sessão com o banco de dados.
+     *
+     * @return uma conexão válida e exclusiva do chamador até que seja fechada.
+     * @throws DbException se o pool estiver fechado, se o tempo limite for atingido
+     * ou se ocorrer erro ao abrir uma nova conexão.
+     */
+    public Connection emprestar() {
+        if (fechado) {
+            throw new DbException("O pool de conexões está fechado.");
+        }
+        try {
+            if (!permissoes.tryAcquire(timeoutAquisicaoMs, TimeUnit.MILLISECONDS)) {
+                throw new DbException("Tempo esgotado aguardando uma conexão livre (" + timeoutAquisicaoMs + " ms).");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DbException("Interrompido enquanto aguardava uma conexão livre.");
+        }
+
+        try {
+            Connection fisica = obterConexaoValida();
+            Connection proxy = criarProxy(fisica);
+            // A pilha de chamadas só é capturada com a detecção de vazamentos ativa, pois custa caro a cada empréstimo.
+            emprestadas.put(proxy, new Emprestimo(System.currentTimeMillis(),
+                    limiteVazamentoMs > 0 ? new Throwable("Conexão emprestada aqui") : null));
+            return proxy;
+        } catch (RuntimeException e) {
+            // Se não foi possível entregar a conexão, a permissão é devolvida.
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Fecha o pool: encerra a thread de manutenção e todas as conexões livres.
+     * Conexões ainda emprestadas são encerradas quando forem devolvidas.
+     */
+    public void fechar() {
+        fechado = true;
+        manutencao.shutdownNow();
+        synchronized (ociosas) {
+            for (ConexaoOciosa c : ociosas) {
+                descartar(c.conexao);
+            }
+            ociosas.clear();
+        }
+    }
+
+    /**
+     * Retorna o número de conexões atualmente emprestadas.
+     *
+     * @return quantidade de conexões em uso.
+     */
+    public int getEmUso() {
+        return emprestadas.size();
+    }
+
+    /**
+     * Retorna o número de conexões livres no pool.
+     *
+     * @return quantidade de conexões ociosas.
+     */
+    public int getOciosas() {
+        synchronized (ociosas) {
+            return ociosas.size();
+        }
+    }
+
+    /**
+     * Retorna os contadores do cache de statements (acertos, falhas, taxa de acerto e remoções),
+     * somados entre todas as conexões do pool.
+     *
+     * @return um resumo textual dos contadores, ou uma indicação de que o cache está desativado.
+     */
+    public String getEstatisticasStatements() {
+        if (capacidadeStatements == 0) {
+            return "cache de statements desativado";
+        }
+        int tamanho = 0;
+        for (CacheStatements c : caches.values()) {
+            tamanho += c.getTamanho();
+        }
+        long acertos = acertosStatements.sum();
+        long falhas = falhasStatements.sum();
+        long total = acertos + falhas;
+        double taxa = total == 0 ? 0.0 : (100.0 * acertos / total);
+        return String.format("conexoes=%d, statements=%d (max %d por conexao), acertos=%d, falhas=%d, taxa=%.1f%%, remocoes=%d",
+                caches.size(), tamanho, capacidadeStatements, acertos, falhas, taxa, remocoesStatements.sum());
+    }
+
+    /**
+     * Retorna a medição dos comandos SQL, com os histogramas de latência por método dos DAOs
+     * e o log de consultas lentas.
+     *
+     * @return a instrumentação, ou null se a chave 'metrics.enabled' estiver desativada.
+     */
+    public Instrumentacao getInstrumentacao() {
+        return instrumentacao;
+    }
+
+    /**
+     * Retira uma conexão livre do pool. Conexões ociosas há mais de 'pool.validationIdleMs' são validadas
+     * antes de serem entregues (uma ida ao servidor); as devolvidas há pouco tempo são entregues direto.
+     * Conexões inválidas são descartadas. Se não houver nenhuma livre, abre uma nova.
+     */
+    private Connection obterConexaoValida() {
+        while (true) {
+            ConexaoOciosa ociosa;
+            synchronized (ociosas) {
+                ociosa = ociosas.poll();
+            }
+            if (ociosa == null) {
+                return abrirConexao();
+            }
+            if (System.currentTimeMillis() - ociosa.ultimoUso < ociosidadeValidacaoMs) {
+                return ociosa.conexao;
+            }
+            try {
+                if (ociosa.conexao.isValid(timeoutValidacaoSeg)) {
+                    return ociosa.conexao;
+                }
+            } catch (SQLException e) {
+                // Conexão com problema: cai no descarte abaixo.
+            }
+            descartar(ociosa.conexao);
+        }
+    }
+
+    /**
+     * Devolve a conexão física ao pool. Chamado pelo proxy quando o DAO fecha a conexão.
+     * Se o DAO alterou o modo somente leitura ou o isolamento, ambos voltam ao padrão do pool.
+     */
+    private void devolver(Connection proxy, Connection fisica, boolean configuracaoAlterada) {
+        if (emprestadas.remove(proxy) == null) {
+            return; // Já devolvida anteriormente.
+        }
+        try {
+            // Garante que a próxima pessoa a usar a conexão a receba em modo padrão.
+            if (!fisica.isClosed() && !fisica.getAutoCommit()) {
+                fisica.rollback();
+                fisica.setAutoCommit(true);
+            }
+            if (configuracaoAlterada && !fisica.isClosed()) {
+                if (fisica.isReadOnly()) {
+                    fisica.setReadOnly(false);
+                }
+                if (isolamentoPadrao != -1 && fisica.getTransactionIsolation() != isolamentoPadrao) {
+                    fisica.setTransactionIsolation(isolamentoPadrao);
+                }
+            }
+            if (fechado || fisica.isClosed()) {
+                descartar(fisica);
+            } else {
+                synchronized (ociosas) {
+                    ociosas.push(new ConexaoOciosa(fisica, System.currentTimeMillis()));
+                }
+            }
+        } catch (SQLException e) {
+            descartar(fisica);
+        } finally {
+            permissoes.release();
+        }
+    }
+
+    /**
+     * Tarefa periódica: remove conexões ociosas há mais tempo que o limite (mantendo o mínimo)
+     * e registra um aviso para cada conexão emprestada há mais tempo que o limite de vazamento.
+     */
+    private void executarManutencao() {
+        long agora = System.currentTimeMillis();
+
+        synchronized (ociosas) {
+            // As mais antigas ficam no final da fila.
+            Iterator<ConexaoOciosa> it = ociosas.descendingIterator();
+            while (it.hasNext() && ociosas.size() + emprestadas.size() > tamanhoMinimo) {
+                ConexaoOciosa c = it.next();
+                if (agora - c.ultimoUso > timeoutOciosoMs) {
+                    it.remove();
+                    descartar(c.conexao);
+                }
+            }
+        }
+
+        if (limiteVazamentoMs > 0) {
+            for (Emprestimo e : emprestadas.values()) {
+                if (!e.vazamentoReportado && agora - e.inicio > limiteVazamentoMs) {
+                    e.vazamentoReportado = true;
+                    System.err.println("Possível vazamento de conexão: emprestada há " + (agora - e.inicio) + " ms.");
+                    e.origem.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Abre uma nova conexão física com o banco de dados.
+     */
+    private Connection abrirConexao() {
+        try {
+            Connection fisica = DriverManager.getConnection(url, propriedadesDriver);
+            if (isolamentoPadrao == -1) {
+                isolamentoPadrao = fisica.getTransactionIsolation();
+            }
+            if (capacidadeStatements > 0) {
+                caches.put(fisica, new CacheStatements(fisica, capacidadeStatements,
+                        acertosStatements, falhasStatements, remocoesStatements));
+            }
+            return fisica;
+        } catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        }
+    }
+
+    /**
+     * Cria o proxy entregue ao DAO. Todas as chamadas são repassadas à conexão física,
+     * exceto {@code close()}, que devolve a conexão ao pool, {@code isClosed()},
+     * que reflete o estado do empréstimo, e {@code prepareStatement(sql)} e
+     * {@code prepareStatement(sql, autoGeneratedKeys)}, atendidos pelo cache de statements.
+     * Com a instrumentação ativa, os statements criados também são envolvidos pelo medidor.
+     */
+    private Connection criarProxy(Connection fisica) {
+        CacheStatements cache = caches.get(fisica);
+        InvocationHandler handler = new InvocationHandler() {
+            // Podem ser lidos por outra thread além da que fechou a conexão, por isso são voláteis.
+            private volatile boolean devolvida = false;
+            // Indica se o DAO mudou o modo somente leitura ou o isolamento da conexão.
+            private volatile boolean configuracaoAlterada = false;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!devolvida) {
+                            devolvida = true;
+                            devolver((Connection) proxy, fisica, configuracaoAlterada);
+                        }
+                        return null;
+                    case "isClosed":
+                        return devolvida || fisica.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "ConexaoDoPool[" + fisica + "]";
+                    case "prepareStatement":
+                        PreparedStatement ps;
+                        if (cache != null && !devolvida && (args.length == 1
+                                || (args.length == 2 && method.getParameterTypes()[1] == int.class))) {
+                            int chavesGeradas = args.length == 1 ? Statement.NO_GENERATED_KEYS : (Integer) args[1];
+                            ps = cache.preparar((Connection) proxy, (String) args[0], chavesGeradas);
+                        } else {
+                            // Demais variantes: criadas pela conexão física.
+                            ps = (PreparedStatement) repassar(method, args);
+                        }
+                        return instrumentacao == null ? ps : instrumentacao.envolver(ps, PreparedStatement.class, (String) args[0]);
+                    case "createStatement":
+                        Statement st = (Statement) repassar(method, args);
+                        return instrumentacao == null ? st : instrumentacao.envolver(st, Statement.class, null);
+                    case "setReadOnly":
+                    case "setTransactionIsolation":
+                        configuracaoAlterada = true;
+                        return repassar(method, args);
+                    default:
+                        return repassar(method, args);
+                }
+            }
+
+            private Object repassar(Method method, Object[] args) throws Throwable {
+                if (devolvida) {
+                    throw new SQLException("A conexão já foi devolvida ao pool.");
+                }
+                try {
+                    return method.invoke(fisica, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+    }
+
+    /**
+     * Descarta uma conexão física: fecha os statements do seu cache e a própria conexão.
+     */
+    private void descartar(Connection con) {
+        CacheStatements cache = caches.remove(con);
+        if (cache != null) {
+            cache.fechar();
+        }
+        fecharSilenciosamente(con);
+    }
+
+    /**
+     * Fecha uma conexão física ignorando erros (usado em descartes).
+     */
+    private static void fecharSilenciosamente(Connection con) {
+        try {
+            con.close();
+        } catch (SQLException e) {
+            // Nada a fazer: a conexão já está sendo descartada.
+        }
+    }
+
+    private static int lerInt(Properties prop, String chave, int padrao) {
+        String valor = prop.getProperty(chave);
+        try {
+            return valor == null ? padrao : Integer.parseInt(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new DbException("Valor inválido para '" + chave + "': " + valor);
+        }
+    }
+
+    private static long lerLong(Properties prop, String chave, long padrao) {
+        String valor = prop.getProperty(chave);
+        try {
+            return valor == null ? padrao : Long.parseLong(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new DbException("Valor inválido para '" + chave + "': " + valor);
+        }
+    }
+
+    /**
+     * Conexão física livre, com o instante em que foi devolvida pela última vez.
+     */
+    private static final class ConexaoOciosa {
+        final Connection conexao;
+        final long ultimoUso;
+
+        ConexaoOciosa(Connection conexao, long ultimoUso) {
+            this.conexao = conexao;
+            this.ultimoUso = ultimoUso;
+        }
+    }
+
+    /**
+     * Registro de um empréstimo em andamento, usado na detecção de vazamentos.
+     */
+    private static final class Emprestimo {
+        final long inicio;
+        final Throwable origem;
+        volatile boolean vazamentoReportado = false;
+
+        Emprestimo(long inicio, Throwable origem) {
+            this.inicio = inicio;
+            this.origem = origem;
+        }
+    }
+}
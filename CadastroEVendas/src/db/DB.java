@@ -3,69 +3,185 @@ package db;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
 
 /**
- * Classe utilitária responsável por gerenciar a conexão com o banco de dados.
- * Implementa o padrão Singleton para garantir que exista apenas uma instância
- * da conexão durante a execução da aplicação. Também fornece métodos para
- * carregar as configurações de acesso ao banco de dados e fechar recursos
- * como conexões, statements e result sets.
+ * Classe utilitária responsável por gerenciar o acesso ao banco de dados.
+ * Mantém um único {@link ConnectionPool} durante a execução da aplicação, criado
+ * na primeira solicitação a partir das configurações do arquivo 'db.properties'.
+ * Cada chamada a {@link #getConnection()} empresta uma conexão exclusiva do pool,
+ * que deve ser fechada pelo chamador para ser devolvida. Também fornece métodos
+ * para carregar as configurações de acesso e fechar recursos como statements e result sets.
+ * <br>
+ * O banco de dados usado é escolhido pela chave 'db.backend': {@code mysql} (padrão) usa a
+ * URL da chave 'dburl'; {@code embarcado} usa um banco H2 dentro do próprio processo, em modo
+ * de compatibilidade com o MySQL, com a URL da chave 'embedded.url' (padrão: arquivo
+ * './dados/cadastroevendas'). Com a chave 'db.criarEsquema' ativa (padrão no banco embarcado),
+ * as tabelas e os índices que faltarem são criados ao iniciar o pool (ver {@link Esquema}).
  */
 public class DB {
 
-    // Variável estática para armazenar a única instância da conexão com o banco de dados.
-    private static Connection con = null;
+    // Variável estática para armazenar a única instância do pool de conexões.
+    private static volatile ConnectionPool pool = null;
+
+    // URL padrão do banco embarcado: H2 em arquivo local, compatível com o SQL do MySQL usado pelos DAOs.
+    private static final String URL_EMBARCADO_PADRAO =
+            "jdbc:h2:./dados/cadastroevendas;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+    // Tamanho do lote de leitura dos cursores (0 enquanto ainda não foi lido de 'db.properties').
+    private static volatile int tamanhoLoteCursor = 0;
 
     /**
-     * Retorna uma instância da conexão com o banco de dados.
-     * Se a conexão ainda não foi estabelecida (con == null), este método
-     * carrega as propriedades de configuração do arquivo 'db.properties',
-     * obtém a URL de conexão e estabelece a conexão com o banco de dados
-     * utilizando o DriverManager. Se a conexão já existir, retorna a instância existente,
-     * garantindo o padrão Singleton.
+     * Empresta uma conexão do pool de conexões com o banco de dados.
+     * Se o pool ainda não foi criado, este método carrega as propriedades de
+     * configuração do arquivo 'db.properties' e o inicializa. A conexão retornada
+     * é exclusiva do chamador até ser fechada; ao chamar {@code close()}, ela é
+     * devolvida ao pool em vez de ser encerrada. Por isso, deve ser sempre usada
+     * em um bloco try-with-resources.
      *
-     * @return um objeto Connection representando a conexão com o banco de dados.
-     * @throws DbException se ocorrer algum erro de SQL durante a tentativa de conexão.
+     * @return um objeto Connection emprestado do pool.
+     * @throws DbException se ocorrer algum erro ao criar o pool ou ao obter a conexão.
      */
     public static Connection getConnection() {
-        try {
-            if (con == null) {
-                Properties prop = carregarProperties();
-                String url = prop.getProperty("dburl");
-                con = DriverManager.getConnection(url, prop);
+        return getPool().emprestar();
+    }
+
+    /**
+     * Retorna o pool de conexões, criando-o na primeira chamada.
+     *
+     * @return a instância única do ConnectionPool.
+     * @throws DbException se ocorrer algum erro ao carregar as configurações ou abrir as conexões iniciais.
+     */
+    public static ConnectionPool getPool() {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (DB.class) {
+                p = pool;
+                if (p == null) {
+                    Properties prop = configurarBackend(carregarProperties());
+                    p = new ConnectionPool(prop);
+                    if (Boolean.parseBoolean(prop.getProperty("db.criarEsquema", "false").trim())) {
+                        try (Connection conn = p.emprestar()) {
+                            Esquema.criar(conn);
+                        } catch (SQLException | RuntimeException e) {
+                            p.fechar();
+                            throw (e instanceof DbException) ? (DbException) e : new DbException(e.getMessage());
+                        }
+                    }
+                    pool = p;
+                }
             }
-        } catch (SQLException e) {
-            // Em caso de erro de SQL, lança uma DbException com a mensagem de erro original.
-            throw new DbException(e.getMessage());
         }
-        return con;
+        return p;
     }
 
     /**
-     * Fecha a conexão com o banco de dados, se ela estiver aberta (não for null).
-     * Este método deve ser chamado quando a conexão não for mais necessária,
+     * Ajusta as configurações de acordo com o banco escolhido na chave 'db.backend'.
+     * Para o banco embarcado, substitui a URL pela da chave 'embedded.url', usa o usuário
+     * 'sa' sem senha quando não houver 'embedded.user' e 'embedded.password', e ativa a
+     * criação do esquema, a menos que 'db.criarEsquema' tenha sido definida explicitamente.
+     *
+     * @param prop as configurações lidas de 'db.properties'.
+     * @return as configurações a serem usadas pelo pool.
+     * @throws DbException se o valor de 'db.backend' não for reconhecido.
+     */
+    private static Properties configurarBackend(Properties prop) {
+        String backend = prop.getProperty("db.backend", "mysql").trim().toLowerCase();
+        switch (backend) {
+            case "mysql":
+                return prop;
+            case "embarcado":
+                Properties ajustadas = new Properties();
+                ajustadas.putAll(prop);
+                ajustadas.setProperty("dburl", prop.getProperty("embedded.url", URL_EMBARCADO_PADRAO).trim());
+                ajustadas.setProperty("user", prop.getProperty("embedded.user", "sa"));
+                ajustadas.setProperty("password", prop.getProperty("embedded.password", ""));
+                if (!prop.containsKey("db.criarEsquema")) {
+                    ajustadas.setProperty("db.criarEsquema", "true");
+                }
+                return ajustadas;
+            default:
+                throw new DbException("Valor inválido para 'db.backend': " + backend);
+        }
+    }
+
+    /**
+     * Fecha o pool de conexões com o banco de dados, se ele tiver sido criado.
+     * Este método deve ser chamado quando as conexões não forem mais necessárias,
      * geralmente ao final da execução da aplicação, para liberar recursos do banco de dados.
+     */
+    public static synchronized void closeConnection() {
+        if (pool != null) {
+            pool.fechar();
+            pool = null; // Define o pool como null após o fechamento.
+        }
+    }
+
+    /**
+     * Prepara uma consulta para ser percorrida como um cursor: o ResultSet é somente
+     * de avanço (forward-only), somente leitura, e o driver é instruído a buscar as linhas
+     * em lotes do tamanho definido pela chave 'cursor.fetchSize' do arquivo 'db.properties'
+     * (padrão 500). Com o MySQL, isso exige a opção 'useCursorFetch=true' na URL de conexão.
+     * Dessa forma, consultas com muitas linhas podem ser percorridas sem carregar
+     * o resultado inteiro na memória.
      *
-     * @return a conexão fechada (que será null após o fechamento bem-sucedido),
-     * ou a conexão existente se já estiver fechada ou for null.
-     * @throws DbException se ocorrer algum erro de SQL durante a tentativa de fechar a conexão.
+     * @param conn a conexão (emprestada do pool) onde a consulta será preparada.
+     * @param sql  a consulta SQL a ser preparada.
+     * @return um PreparedStatement configurado para leitura em fluxo.
+     * @throws SQLException se ocorrer algum erro ao preparar a consulta.
      */
-    public static Connection closeConnection() {
-        if (con != null) {
+    public static PreparedStatement prepararCursor(Connection conn, String sql) throws SQLException {
+        PreparedStatement st = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        st.setFetchSize(getTamanhoLoteCursor());
+        return st;
+    }
+
+    /**
+     * Monta o padrão de um filtro "contém" para ser usado com {@code LIKE ? ESCAPE '!'}.
+     * Os caracteres curinga do LIKE ({@code %} e {@code _}) digitados pelo usuário são escapados,
+     * de modo que o texto é procurado literalmente.
+     *
+     * @param texto o texto a ser procurado.
+     * @return o padrão {@code %texto%}, com os curingas escapados.
+     */
+    public static String padraoContem(String texto) {
+        return "%" + escaparLike(texto) + "%";
+    }
+
+    /**
+     * Monta o padrão de um filtro "começa com" para ser usado com {@code LIKE ? ESCAPE '!'}.
+     * Com o texto fixo no início, o banco de dados pode usar um índice sobre a coluna.
+     *
+     * @param texto o prefixo a ser procurado.
+     * @return o padrão {@code texto%}, com os curingas escapados.
+     */
+    public static String padraoPrefixo(String texto) {
+        return escaparLike(texto) + "%";
+    }
+
+    private static String escaparLike(String texto) {
+        return texto.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    /**
+     * Retorna o tamanho do lote usado pelos cursores, configurado pela chave 'cursor.fetchSize'.
+     *
+     * @return o número de linhas buscadas por vez pelos cursores.
+     */
+    private static int getTamanhoLoteCursor() {
+        if (tamanhoLoteCursor == 0) {
+            String valor = carregarProperties().getProperty("cursor.fetchSize", "500");
             try {
-                con.close();
-                con = null; // Define a conexão como null após o fechamento.
-            } catch (SQLException e) {
-                // Em caso de erro de SQL ao fechar a conexão, lança uma DbException.
-                throw new DbException(e.getMessage());
+                tamanhoLoteCursor = Integer.parseInt(valor.trim());
+            } catch (NumberFormatException e) {
+                throw new DbException("Valor inválido para 'cursor.fetchSize': " + valor);
             }
         }
-        return con;
+        return tamanhoLoteCursor;
     }
 
     /**
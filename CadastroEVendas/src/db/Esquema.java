@@ -0,0 +1,129 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Criação automática do esquema do banco de dados (tabelas e índices), executada uma única vez
+ * quando o pool de conexões é criado, se a chave 'db.criarEsquema' estiver ativa (ela é ativa
+ * por padrão no banco embarcado; ver {@link DB}).
+ * <br>
+ * Os comandos usam apenas SQL aceito tanto pelo MySQL quanto pelo banco embarcado (H2 em modo
+ * MySQL). As tabelas são criadas com {@code CREATE TABLE IF NOT EXISTS}; como o MySQL não aceita
+ * {@code CREATE INDEX IF NOT EXISTS}, a existência de cada índice é verificada pelos metadados
+ * da conexão antes de criá-lo. Assim, a criação pode ser executada várias vezes sem erros.
+ */
+public class Esquema {
+
+    private static final String[] TABELAS = {
+            "CREATE TABLE IF NOT EXISTS clientes ("
+                    + " cpf VARCHAR(11) PRIMARY KEY,"
+                    + " nome VARCHAR(100) NOT NULL,"
+                    + " telefone VARCHAR(11) NOT NULL,"
+                    + " endereco VARCHAR(200) NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS produtos ("
+                    + " id INT PRIMARY KEY AUTO_INCREMENT,"
+                    + " nome VARCHAR(100) NOT NULL,"
+                    + " estoque INT NOT NULL,"
+                    + " autor VARCHAR(100),"
+                    + " preco_compra DECIMAL(10, 2) NOT NULL,"
+                    + " preco_venda DECIMAL(10, 2) NOT NULL,"
+                    + " ativo BOOLEAN DEFAULT TRUE)",
+            "CREATE TABLE IF NOT EXISTS vendas ("
+                    + " id INT AUTO_INCREMENT PRIMARY KEY,"
+                    + " cpf_cliente VARCHAR(11),"
+                    + " data_venda DATE NOT NULL,"
+                    + " FOREIGN KEY (cpf_cliente) REFERENCES clientes(cpf))",
+            "CREATE TABLE IF NOT EXISTS venda_produtos ("
+                    + " id_venda INT,"
+                    + " id_produto INT,"
+                    + " quantidade INT NOT NULL DEFAULT 1,"
+                    + " preco_unitario DECIMAL(10, 2),"
+                    + " custo_unitario DECIMAL(10, 2),"
+                    + " FOREIGN KEY (id_venda) REFERENCES vendas(id),"
+                    + " FOREIGN KEY (id_produto) REFERENCES produtos(id),"
+                    + " PRIMARY KEY (id_venda, id_produto))",
+            "CREATE TABLE IF NOT EXISTS vendedor ("
+                    + " id INT AUTO_INCREMENT PRIMARY KEY,"
+                    + " usuario VARCHAR(50) NOT NULL UNIQUE,"
+                    + " senha VARCHAR(255) NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS vendas_resumo_diario ("
+                    + " data_venda DATE PRIMARY KEY,"
+                    + " quantidade_vendas INT NOT NULL,"
+                    + " quantidade_itens INT NOT NULL,"
+                    + " receita DECIMAL(14, 2) NOT NULL,"
+                    + " custo DECIMAL(14, 2) NOT NULL)"
+    };
+
+    // Colunas adicionadas depois da criação das tabelas, no formato {tabela, coluna, definição}.
+    // Bancos criados antes delas recebem a coluna por ALTER TABLE.
+    private static final String[][] COLUNAS = {
+            {"venda_produtos", "preco_unitario", "DECIMAL(10, 2)"},
+            {"venda_produtos", "custo_unitario", "DECIMAL(10, 2)"}
+    };
+
+    // Índices no formato {nome, tabela, colunas}.
+    private static final String[][] INDICES = {
+            {"idx_vendas_data_venda", "vendas", "data_venda"},
+            {"idx_clientes_nome_cpf", "clientes", "nome, cpf"},
+            {"idx_produtos_ativo_nome_id", "produtos", "ativo, nome, id"},
+            {"idx_produtos_ativo_autor", "produtos", "ativo, autor"}
+    };
+
+    /**
+     * Cria as tabelas, as colunas e os índices que ainda não existirem.
+     *
+     * @param conn a conexão onde o esquema será criado.
+     * @throws DbException se ocorrer algum erro ao criar o esquema.
+     */
+    public static void criar(Connection conn) {
+        try (Statement st = conn.createStatement()) {
+            for (String ddl : TABELAS) {
+                st.execute(ddl);
+            }
+            DatabaseMetaData meta = conn.getMetaData();
+            for (String[] coluna : COLUNAS) {
+                if (!existeColuna(meta, conn.getCatalog(), coluna[0], coluna[1])) {
+                    st.execute("ALTER TABLE " + coluna[0] + " ADD COLUMN " + coluna[1] + " " + coluna[2]);
+                }
+            }
+            for (String[] indice : INDICES) {
+                if (!existeIndice(meta, conn.getCatalog(), indice[1], indice[0])) {
+                    st.execute("CREATE INDEX " + indice[0] + " ON " + indice[1] + " (" + indice[2] + ")");
+                }
+            }
+        } catch (SQLException e) {
+            throw new DbException("Erro ao criar o esquema do banco de dados: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Verifica, pelos metadados da conexão, se a tabela já tem a coluna informada.
+     */
+    private static boolean existeColuna(DatabaseMetaData meta, String catalogo, String tabela, String nome) throws SQLException {
+        String nomeTabela = meta.storesUpperCaseIdentifiers() ? tabela.toUpperCase() : tabela;
+        String nomeColuna = meta.storesUpperCaseIdentifiers() ? nome.toUpperCase() : nome;
+        try (ResultSet rs = meta.getColumns(catalogo, null, nomeTabela, nomeColuna)) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Verifica, pelos metadados da conexão, se a tabela já tem um índice com o nome informado.
+     */
+    private static boolean existeIndice(DatabaseMetaData meta, String catalogo, String tabela, String nome) throws SQLException {
+        // Bancos que guardam os identificadores em maiúsculas (como o H2 sem DATABASE_TO_LOWER) exigem o nome assim.
+        String nomeTabela = meta.storesUpperCaseIdentifiers() ? tabela.toUpperCase() : tabela;
+        try (ResultSet rs = meta.getIndexInfo(catalogo, null, nomeTabela, false, false)) {
+            while (rs.next()) {
+                if (nome.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
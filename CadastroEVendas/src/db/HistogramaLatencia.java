@@ -0,0 +1,125 @@
+package db;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latências, em microssegundos, que pode ser atualizado por várias threads
+ * ao mesmo tempo sem bloqueios (apenas operações atômicas).
+ * <br>
+ * Os valores são agrupados em faixas log-lineares: até 16 µs cada valor tem sua própria faixa;
+ * acima disso, cada potência de dois é dividida em 16 faixas iguais. Assim, os percentis são
+ * calculados com erro relativo de no máximo 6,25%, usando uma quantidade fixa de memória
+ * (976 contadores), qualquer que seja o número de medições. O máximo é guardado com exatidão.
+ */
+public final class HistogramaLatencia {
+
+    // Bits usados para dividir cada potência de dois (2^4 = 16 faixas).
+    private static final int BITS_SUBFAIXA = 4;
+    private static final int SUBFAIXAS = 1 << BITS_SUBFAIXA;
+    // Faixas suficientes para qualquer valor long positivo.
+    private static final int TOTAL_FAIXAS = (64 - BITS_SUBFAIXA + 1) * SUBFAIXAS;
+
+    private final AtomicLongArray faixas = new AtomicLongArray(TOTAL_FAIXAS);
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Registra uma medição.
+     *
+     * @param nanos a duração medida, em nanossegundos.
+     */
+    public void registrar(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        faixas.incrementAndGet(indice(micros));
+        long atual = maximo.get();
+        while (micros > atual && !maximo.compareAndSet(atual, micros)) {
+            atual = maximo.get();
+        }
+    }
+
+    /**
+     * Retorna o número de medições registradas.
+     *
+     * @return a quantidade de medições.
+     */
+    public long getContagem() {
+        long total = 0;
+        for (int i = 0; i < TOTAL_FAIXAS; i++) {
+            total += faixas.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Retorna o percentil informado das medições registradas.
+     * O valor retornado é o limite superior da faixa onde o percentil se encontra
+     * (nunca maior que o máximo registrado).
+     *
+     * @param percentil o percentil desejado, entre 0 e 100 (por exemplo, 99 para o p99).
+     * @return a latência do percentil, em microssegundos, ou 0 se não houver medições.
+     */
+    public long getPercentil(double percentil) {
+        // Cópia dos contadores, para que a contagem e a busca usem os mesmos valores.
+        long[] copia = new long[TOTAL_FAIXAS];
+        long total = 0;
+        for (int i = 0; i < TOTAL_FAIXAS; i++) {
+            copia[i] = faixas.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long alvo = Math.max(1, (long) Math.ceil(total * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < TOTAL_FAIXAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= alvo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    /**
+     * Retorna a maior medição registrada.
+     *
+     * @return a latência máxima, em microssegundos.
+     */
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Retorna um resumo com a contagem e os percentis p50, p95 e p99 e o máximo, em milissegundos.
+     */
+    @Override
+    public String toString() {
+        return String.format("n=%d, p50=%.3f ms, p95=%.3f ms, p99=%.3f ms, max=%.3f ms",
+                getContagem(), getPercentil(50) / 1000.0, getPercentil(95) / 1000.0,
+                getPercentil(99) / 1000.0, getMaximo() / 1000.0);
+    }
+
+    /**
+     * Calcula a faixa de um valor.
+     */
+    private static int indice(long valor) {
+        if (valor < SUBFAIXAS) {
+            return (int) valor;
+        }
+        int expoente = 63 - Long.numberOfLeadingZeros(valor);
+        int subfaixa = (int) (valor >>> (expoente - BITS_SUBFAIXA)) & (SUBFAIXAS - 1);
+        return (expoente - BITS_SUBFAIXA + 1) * SUBFAIXAS + subfaixa;
+    }
+
+    /**
+     * Calcula o maior valor que pertence à faixa.
+     */
+    private static long limiteSuperior(int indice) {
+        if (indice < SUBFAIXAS) {
+            return indice;
+        }
+        int expoente = indice / SUBFAIXAS + BITS_SUBFAIXA - 1;
+        long inicio = (long) (SUBFAIXAS + indice % SUBFAIXAS) << (expoente - BITS_SUBFAIXA);
+        return inicio + (1L << (expoente - BITS_SUBFAIXA)) - 1;
+    }
+}
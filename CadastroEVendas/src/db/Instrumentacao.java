@@ -0,0 +1,356 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Medição do tempo dos comandos SQL executados pelos DAOs.
+ * <br>
+ * Quando a chave 'metrics.enabled' está ativa, o {@link ConnectionPool} entrega statements
+ * envolvidos por um proxy que mede cada execução: o tempo da chamada {@code execute*} somado,
+ * nas consultas, ao tempo gasto em {@code ResultSet.next()} até o fechamento do result set (o
+ * tempo que o DAO leva para processar cada linha não é contado). As medições são agrupadas por
+ * método do DAO que executou o comando (por exemplo, {@code ProdutoDAO.buscarPorId}), em um
+ * {@link HistogramaLatencia} para cada método.
+ * <br>
+ * Comandos que demoram pelo menos 'metrics.slowQueryMs' são registrados no log de consultas lentas,
+ * com o SQL, o número de parâmetros, o número de linhas e o tempo, e também impressos em
+ * {@code System.err}. O log guarda apenas as últimas 'metrics.slowQueryLogSize' consultas.
+ * <br>
+ * Com a chave desativada (padrão), nenhum statement é envolvido e esta classe não é criada:
+ * o caminho de execução dos DAOs não faz nenhuma alocação adicional.
+ */
+public final class Instrumentacao {
+
+    // Usado para descobrir o método do DAO que executou o comando.
+    private static final StackWalker PILHA = StackWalker.getInstance();
+
+    private final long limiteLentaNanos;
+    private final Map<String, HistogramaLatencia> histogramas = new ConcurrentHashMap<>();
+
+    // Log circular de consultas lentas: a posição de escrita avança sem bloqueios.
+    private final AtomicReferenceArray<ConsultaLenta> lentas;
+    private final AtomicLong proximaLenta = new AtomicLong();
+
+    Instrumentacao(long limiteLentaMs, int tamanhoLogLentas) {
+        this.limiteLentaNanos = limiteLentaMs * 1_000_000L;
+        this.lentas = new AtomicReferenceArray<>(Math.max(1, tamanhoLogLentas));
+    }
+
+    /**
+     * Consulta registrada no log de consultas lentas.
+     */
+    public static final class ConsultaLenta {
+        private final LocalDateTime instante;
+        private final String metodo;
+        private final String sql;
+        private final int parametros;
+        private final long linhas;
+        private final long nanos;
+
+        ConsultaLenta(LocalDateTime instante, String metodo, String sql, int parametros, long linhas, long nanos) {
+            this.instante = instante;
+            this.metodo = metodo;
+            this.sql = sql;
+            this.parametros = parametros;
+            this.linhas = linhas;
+            this.nanos = nanos;
+        }
+
+        public LocalDateTime getInstante() {
+            return instante;
+        }
+
+        public String getMetodo() {
+            return metodo;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public int getParametros() {
+            return parametros;
+        }
+
+        /**
+         * @return as linhas lidas (consultas) ou alteradas (atualizações), ou -1 se não forem conhecidas.
+         */
+        public long getLinhas() {
+            return linhas;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s: %.3f ms, %d parametro(s), %d linha(s): %s",
+                    instante, metodo, nanos / 1_000_000.0, parametros, linhas, sql);
+        }
+    }
+
+    /**
+     * Retorna uma cópia dos histogramas, ordenada pelo nome do método do DAO.
+     *
+     * @return os histogramas de latência indexados por método.
+     */
+    public Map<String, HistogramaLatencia> getHistogramas() {
+        return new TreeMap<>(histogramas);
+    }
+
+    /**
+     * Retorna as consultas lentas ainda guardadas no log, da mais antiga para a mais recente.
+     *
+     * @return a lista de consultas lentas.
+     */
+    public List<ConsultaLenta> getConsultasLentas() {
+        long fim = proximaLenta.get();
+        long inicio = Math.max(0, fim - lentas.length());
+        List<ConsultaLenta> lista = new ArrayList<>((int) (fim - inicio));
+        for (long i = inicio; i < fim; i++) {
+            ConsultaLenta c = lentas.get((int) (i % lentas.length()));
+            if (c != null) {
+                lista.add(c);
+            }
+        }
+        return Collections.unmodifiableList(lista);
+    }
+
+    /**
+     * Retorna um relatório com uma linha por método do DAO (contagem, p50, p95, p99 e máximo).
+     *
+     * @return o relatório em texto.
+     */
+    public String getRelatorio() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, HistogramaLatencia> e : getHistogramas().entrySet()) {
+            sb.append(e.getKey()).append(": ").append(e.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Envolve um statement para medir suas execuções.
+     *
+     * @param st       o statement a ser medido.
+     * @param tipo     a interface a ser implementada pelo proxy ({@code Statement} ou {@code PreparedStatement}).
+     * @param sql      o SQL de um prepared statement, ou null para um statement comum.
+     * @return o statement envolvido.
+     */
+    <T extends Statement> T envolver(T st, Class<T> tipo, String sql) {
+        return tipo.cast(Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo},
+                new MedidorStatement(st, sql)));
+    }
+
+    /**
+     * Registra uma execução concluída no histograma do método e, se for lenta, no log.
+     */
+    private void registrar(String metodo, String sql, int parametros, long linhas, long nanos) {
+        histogramas.computeIfAbsent(metodo, m -> new HistogramaLatencia()).registrar(nanos);
+        if (nanos >= limiteLentaNanos) {
+            ConsultaLenta c = new ConsultaLenta(LocalDateTime.now(), metodo, sql, parametros, linhas, nanos);
+            lentas.set((int) (proximaLenta.getAndIncrement() % lentas.length()), c);
+            System.err.println("Consulta lenta: " + c);
+        }
+    }
+
+    /**
+     * Descobre o método que executou o comando: o primeiro da pilha fora do pacote 'db' e das
+     * classes do Java (incluindo os proxies). Métodos de expressões lambda, como as transações
+     * de {@link Transacao#executar}, recebem o nome do método onde a lambda foi escrita.
+     */
+    private static String metodoChamador() {
+        return PILHA.walk(frames -> frames
+                .filter(f -> !ehInterno(f.getClassName()))
+                .findFirst()
+                .map(f -> {
+                    String classe = f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1);
+                    String metodo = f.getMethodName();
+                    if (metodo.startsWith("lambda$")) {
+                        int fim = metodo.indexOf('$', 7);
+                        metodo = metodo.substring(7, fim > 7 ? fim : metodo.length());
+                    }
+                    return classe + "." + metodo;
+                })
+                .orElse("desconhecido"));
+    }
+
+    private static boolean ehInterno(String classe) {
+        return classe.startsWith("db.") || classe.startsWith("java.") || classe.startsWith("jdk.")
+                || classe.startsWith("sun.") || classe.startsWith("com.sun.");
+    }
+
+    /**
+     * Proxy de um statement. Cada statement é usado por uma thread de cada vez (a que tem a
+     * conexão emprestada), por isso o estado da medição fica em campos simples.
+     */
+    private final class MedidorStatement implements InvocationHandler {
+        private final Statement statement;
+        private final String sql;
+
+        // Maior índice de parâmetro definido desde a última limpeza.
+        private int parametros = 0;
+
+        // Consulta cujo result set ainda está aberto: o tempo de leitura das linhas é somado a ela.
+        private boolean consultaAberta = false;
+        private String metodoAberto;
+        private String sqlAberto;
+        private long nanosAbertos;
+        private long linhasAbertas;
+
+        MedidorStatement(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nome = method.getName();
+            if (nome.startsWith("execute")) {
+                return executar(method, args);
+            }
+            switch (nome) {
+                case "close":
+                    concluirConsulta();
+                    break;
+                case "clearParameters":
+                    parametros = 0;
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    // setInt(1, ...), setString(2, ...), etc.: o primeiro argumento é o índice do parâmetro.
+                    if (nome.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        parametros = Math.max(parametros, (Integer) args[0]);
+                    }
+            }
+            return repassar(statement, method, args);
+        }
+
+        /**
+         * Executa e mede um comando. Atualizações são registradas imediatamente; consultas,
+         * quando o result set for fechado (ou o statement for fechado ou executado de novo).
+         */
+        private Object executar(Method method, Object[] args) throws Throwable {
+            concluirConsulta();
+            String comando = (args != null && args.length > 0 && args[0] instanceof String) ? (String) args[0] : sql;
+            String metodo = metodoChamador();
+            long inicio = System.nanoTime();
+            Object resultado;
+            try {
+                resultado = repassar(statement, method, args);
+            } catch (Throwable t) {
+                registrar(metodo, comando, parametros, -1, System.nanoTime() - inicio);
+                throw t;
+            }
+            long nanos = System.nanoTime() - inicio;
+
+            if (resultado instanceof ResultSet) {
+                consultaAberta = true;
+                metodoAberto = metodo;
+                sqlAberto = comando;
+                nanosAbertos = nanos;
+                linhasAbertas = 0;
+                return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                        new MedidorResultSet(this, (ResultSet) resultado));
+            }
+            registrar(metodo, comando, parametros, linhasAlteradas(resultado), nanos);
+            return resultado;
+        }
+
+        /**
+         * Registra a consulta aberta, se houver.
+         */
+        void concluirConsulta() {
+            if (consultaAberta) {
+                consultaAberta = false;
+                registrar(metodoAberto, sqlAberto, parametros, linhasAbertas, nanosAbertos);
+            }
+        }
+    }
+
+    /**
+     * Proxy de um result set: soma ao statement o tempo e o número de linhas lidas.
+     */
+    private static final class MedidorResultSet implements InvocationHandler {
+        private final MedidorStatement medidor;
+        private final ResultSet resultSet;
+
+        MedidorResultSet(MedidorStatement medidor, ResultSet resultSet) {
+            this.medidor = medidor;
+            this.resultSet = resultSet;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    long inicio = System.nanoTime();
+                    boolean temLinha = resultSet.next();
+                    medidor.nanosAbertos += System.nanoTime() - inicio;
+                    if (temLinha) {
+                        medidor.linhasAbertas++;
+                    }
+                    return temLinha;
+                case "close":
+                    medidor.concluirConsulta();
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+            }
+            return repassar(resultSet, method, args);
+        }
+    }
+
+    /**
+     * Soma as linhas alteradas retornadas por {@code executeUpdate} ou {@code executeBatch}.
+     * Para {@code execute}, o número de linhas não é conhecido (-1).
+     */
+    private static long linhasAlteradas(Object resultado) {
+        if (resultado instanceof Integer || resultado instanceof Long) {
+            return ((Number) resultado).longValue();
+        }
+        long total = 0;
+        if (resultado instanceof int[]) {
+            for (int n : (int[]) resultado) {
+                total += Math.max(0, n);
+            }
+            return total;
+        }
+        if (resultado instanceof long[]) {
+            for (long n : (long[]) resultado) {
+                total += Math.max(0, n);
+            }
+            return total;
+        }
+        return -1;
+    }
+
+    private static Object repassar(Object alvo, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Unidade de trabalho (unit of work) para operações com vários comandos SQL.
+ * Empresta uma conexão do pool, desativa o auto-commit, executa todo o trabalho
+ * nessa mesma conexão e, ao final, faz um único commit. Se ocorrer qualquer erro,
+ * todas as alterações são desfeitas com rollback, evitando registros parciais.
+ * <br>
+ * O nível de isolamento padrão é lido da chave 'transaction.isolation' do arquivo
+ * 'db.properties' (READ_UNCOMMITTED, READ_COMMITTED, REPEATABLE_READ ou SERIALIZABLE;
+ * padrão READ_COMMITTED) e pode ser informado explicitamente em cada chamada.
+ * <br>
+ * Exemplo de uso em um DAO:
+ * <pre>
+ * try {
+ *     Transacao.executar(conn -&gt; {
+ *         // vários comandos usando 'conn'
+ *         return null;
+ *     });
+ * } catch (SQLException e) {
+ *     throw new DbException("Erro ao ...: " + e.getMessage());
+ * }
+ * </pre>
+ */
+public class Transacao {
+
+    // Nível de isolamento padrão (-1 enquanto ainda não foi lido de 'db.properties').
+    private static volatile int isolamentoPadrao = -1;
+
+    /**
+     * Trabalho a ser executado dentro de uma transação.
+     *
+     * @param <T> o tipo do resultado produzido pelo trabalho.
+     */
+    @FunctionalInterface
+    public interface Trabalho<T> {
+
+        /**
+         * Executa os comandos da transação.
+         *
+         * @param conn a conexão da transação; não deve ser fechada nem confirmada pelo trabalho.
+         * @return o resultado do trabalho (pode ser {@code null}).
+         * @throws SQLException se ocorrer algum erro de SQL, o que provoca o rollback.
+         */
+        T executar(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Executa o trabalho em uma transação com o nível de isolamento padrão.
+     *
+     * @param trabalho os comandos a serem executados.
+     * @param <T>      o tipo do resultado.
+     * @return o resultado do trabalho, após o commit.
+     * @throws SQLException se ocorrer algum erro de SQL; a transação é desfeita antes do lançamento.
+     */
+    public static <T> T executar(Trabalho<T> trabalho) throws SQLException {
+        return executar(getIsolamentoPadrao(), trabalho);
+    }
+
+    /**
+     * Executa o trabalho em uma transação com o nível de isolamento informado.
+     * Qualquer exceção lançada pelo trabalho (de SQL ou em tempo de execução) provoca o
+     * rollback e é relançada sem alterações. A conexão é devolvida ao pool com o
+     * auto-commit e o nível de isolamento originais.
+     *
+     * @param nivelIsolamento uma das constantes {@code Connection.TRANSACTION_*}.
+     * @param trabalho        os comandos a serem executados.
+     * @param <T>             o tipo do resultado.
+     * @return o resultado do trabalho, após o commit.
+     * @throws SQLException se ocorrer algum erro de SQL; a transação é desfeita antes do lançamento.
+     */
+    public static <T> T executar(int nivelIsolamento, Trabalho<T> trabalho) throws SQLException {
+        try (Connection conn = DB.getConnection()) {
+            int isolamentoOriginal = conn.getTransactionIsolation();
+            try {
+                if (isolamentoOriginal != nivelIsolamento) {
+                    conn.setTransactionIsolation(nivelIsolamento);
+                }
+                conn.setAutoCommit(false);
+                T resultado = trabalho.executar(conn);
+                conn.commit(); // Um único commit para todos os comandos.
+                return resultado;
+            } catch (SQLException | RuntimeException e) {
+                desfazer(conn, e);
+                throw e;
+            } finally {
+                restaurar(conn, isolamentoOriginal, nivelIsolamento);
+            }
+        }
+    }
+
+    /**
+     * Restaura o auto-commit e o nível de isolamento originais antes de a conexão voltar ao pool.
+     * Erros aqui são ignorados para não encobrir o resultado da transação; se a conexão estiver
+     * com problemas, ela será descartada pela validação do pool no próximo empréstimo.
+     */
+    private static void restaurar(Connection conn, int isolamentoOriginal, int nivelIsolamento) {
+        try {
+            conn.setAutoCommit(true);
+            if (isolamentoOriginal != nivelIsolamento) {
+                conn.setTransactionIsolation(isolamentoOriginal);
+            }
+        } catch (SQLException e) {
+            // Ignorado: ver comentário do método.
+        }
+    }
+
+    /**
+     * Desfaz a transação, anexando à exceção original um eventual erro do próprio rollback.
+     */
+    private static void desfazer(Connection conn, Exception causa) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            causa.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Retorna o nível de isolamento padrão configurado em 'db.properties'.
+     *
+     * @return uma das constantes {@code Connection.TRANSACTION_*}.
+     * @throws DbException se o valor configurado não for reconhecido.
+     */
+    public static int getIsolamentoPadrao() {
+        if (isolamentoPadrao == -1) {
+            String nome = DB.carregarProperties().getProperty("transaction.isolation", "READ_COMMITTED");
+            isolamentoPadrao = converterIsolamento(nome.trim());
+        }
+        return isolamentoPadrao;
+    }
+
+    /**
+     * Converte o nome de um nível de isolamento na constante JDBC correspondente.
+     *
+     * @param nome o nome do nível (por exemplo, "READ_COMMITTED").
+     * @return a constante {@code Connection.TRANSACTION_*} correspondente.
+     * @throws DbException se o nome não for reconhecido.
+     */
+    public static int converterIsolamento(String nome) {
+        switch (nome.toUpperCase()) {
+            case "READ_UNCOMMITTED":
+                return Connection.TRANSACTION_READ_UNCOMMITTED;
+            case "READ_COMMITTED":
+                return Connection.TRANSACTION_READ_COMMITTED;
+            case "REPEATABLE_READ":
+                return Connection.TRANSACTION_REPEATABLE_READ;
+            case "SERIALIZABLE":
+                return Connection.TRANSACTION_SERIALIZABLE;
+            default:
+                throw new DbException("Nível de isolamento desconhecido: " + nome);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package exportacao;
+
+import dao.VendaDAO;
+import model.Dinheiro;
+import servidor.Json;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Exportação do histórico de vendas em CSV ou JSON, com uma linha (ou objeto) por produto vendido.
+ * <br>
+ * As linhas vêm de {@link VendaDAO#percorrerLinhas(LocalDate, LocalDate, VendaDAO.ReceptorLinhas)}, que as
+ * lê de um cursor somente de avanço, e são escritas uma a uma: nenhuma lista de vendas é montada, de
+ * modo que milhões de linhas são exportadas com memória constante. Cada linha é formatada em um
+ * {@code StringBuilder} reaproveitado (números e valores em dinheiro são escritos sem criar textos
+ * intermediários) e copiada para um buffer de caracteres, também reaproveitado, antes de ir para o arquivo.
+ * <br>
+ * O arquivo é escrito primeiro com um nome temporário, ao lado do destino, e só substitui o destino
+ * quando a exportação termina: uma falha no meio não deixa um arquivo pela metade com o nome escolhido.
+ * <br>
+ * Colunas (e campos do JSON): venda, data, cpf, cliente, produto, nome_produto, quantidade,
+ * preco_unitario e subtotal. Os valores em dinheiro têm duas casas decimais, com ponto.
+ */
+public class ExportadorVendas {
+
+    // Tamanho do buffer de escrita no arquivo, em caracteres.
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private static final String[] COLUNAS = {
+            "venda", "data", "cpf", "cliente", "produto", "nome_produto", "quantidade", "preco_unitario", "subtotal"
+    };
+
+    private final VendaDAO dao = new VendaDAO();
+
+    /**
+     * Exporta as linhas das vendas do período para um arquivo, que é criado ou substituído. As linhas
+     * são escritas em um arquivo temporário no mesmo diretório, movido para o destino ao final; se a
+     * exportação falhar, o temporário é apagado e um arquivo já existente no destino é preservado.
+     *
+     * @param arquivo o arquivo de destino.
+     * @param formato o formato do arquivo.
+     * @param inicio  data inicial do período (inclusive), ou {@code null} para não limitar.
+     * @param fim     data final do período (inclusive), ou {@code null} para não limitar.
+     * @return os totais e a vazão da exportação.
+     * @throws IOException se o arquivo não puder ser escrito.
+     */
+    public ResultadoExportacao exportar(Path arquivo, FormatoExportacao formato, LocalDate inicio, LocalDate fim) throws IOException {
+        Path temporario = arquivo.resolveSibling("." + arquivo.getFileName() + ".parcial");
+        boolean concluida = false;
+        try {
+            ResultadoExportacao resultado;
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                 Writer saida = new BufferedWriter(Channels.newWriter(canal, StandardCharsets.UTF_8), TAMANHO_BUFFER)) {
+                resultado = exportar(saida, formato, inicio, fim);
+            }
+            try {
+                Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING);
+            }
+            concluida = true;
+            return resultado;
+        } finally {
+            if (!concluida) {
+                try {
+                    Files.deleteIfExists(temporario);
+                } catch (IOException e) {
+                    // Mantém a exceção original da exportação; o temporário fica para trás.
+                }
+            }
+        }
+    }
+
+    /**
+     * Exporta as linhas das vendas do período para um destino qualquer (por exemplo, a resposta de uma
+     * requisição). O destino não é fechado, e deve ser bufferizado por quem o fornece.
+     *
+     * @param saida   o destino do texto.
+     * @param formato o formato do texto.
+     * @param inicio  data inicial do período (inclusive), ou {@code null} para não limitar.
+     * @param fim     data final do período (inclusive), ou {@code null} para não limitar.
+     * @return os totais e a vazão da exportação.
+     * @throws IOException se ocorrer um erro ao escrever no destino.
+     */
+    public ResultadoExportacao exportar(Writer saida, FormatoExportacao formato, LocalDate inicio, LocalDate fim) throws IOException {
+        long comeco = System.nanoTime();
+        Escritor escritor = new Escritor(saida, formato);
+        escritor.comecar();
+        try {
+            dao.percorrerLinhas(inicio, fim, escritor);
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // Erro de escrita dentro do receptor das linhas.
+        }
+        escritor.terminar();
+        saida.flush();
+        return new ResultadoExportacao(escritor.linhas, escritor.vendas, (System.nanoTime() - comeco) / 1_000_000);
+    }
+
+    /**
+     * Formata e escreve as linhas recebidas do DAO.
+     */
+    private static final class Escritor implements VendaDAO.ReceptorLinhas {
+        private final Writer saida;
+        private final FormatoExportacao formato;
+        private final StringBuilder linha = new StringBuilder(256);
+        private char[] buffer = new char[256];
+        long linhas = 0;
+        long vendas = 0;
+        private int ultimaVenda = 0;
+
+        Escritor(Writer saida, FormatoExportacao formato) {
+            this.saida = saida;
+            this.formato = formato;
+        }
+
+        void comecar() throws IOException {
+            if (formato == FormatoExportacao.CSV) {
+                saida.write(String.join(";", COLUNAS));
+                saida.write('\n');
+            } else {
+                saida.write('[');
+            }
+        }
+
+        void terminar() throws IOException {
+            if (formato == FormatoExportacao.JSON) {
+                saida.write(linhas == 0 ? "]\n" : "\n]\n");
+            }
+        }
+
+        @Override
+        public void receber(int idVenda, String dataVenda, String cpfCliente, String nomeCliente,
+                            int idProduto, String nomeProduto, int quantidade, long precoUnitario, long custoUnitario) {
+            if (linhas == 0 || idVenda != ultimaVenda) {
+                vendas++;
+                ultimaVenda = idVenda;
+            }
+            linha.setLength(0);
+            if (formato == FormatoExportacao.CSV) {
+                linha.append(idVenda).append(';').append(dataVenda).append(';');
+                textoCsv(cpfCliente);
+                linha.append(';');
+                textoCsv(nomeCliente);
+                linha.append(';').append(idProduto).append(';');
+                textoCsv(nomeProduto);
+                linha.append(';').append(quantidade).append(';');
+                Dinheiro.formatar(linha, precoUnitario);
+                linha.append(';');
+                Dinheiro.formatar(linha, precoUnitario * quantidade);
+                linha.append('\n');
+            } else {
+                linha.append(linhas == 0 ? "\n{\"" : ",\n{\"").append(COLUNAS[0]).append("\":").append(idVenda)
+                        .append(",\"").append(COLUNAS[1]).append("\":\"").append(dataVenda)
+                        .append("\",\"").append(COLUNAS[2]).append("\":");
+                Json.escreverTexto(linha, cpfCliente);
+                linha.append(",\"").append(COLUNAS[3]).append("\":");
+                Json.escreverTexto(linha, nomeCliente);
+                linha.append(",\"").append(COLUNAS[4]).append("\":").append(idProduto)
+                        .append(",\"").append(COLUNAS[5]).append("\":");
+                Json.escreverTexto(linha, nomeProduto);
+                linha.append(",\"").append(COLUNAS[6]).append("\":").append(quantidade)
+                        .append(",\"").append(COLUNAS[7]).append("\":");
+                Dinheiro.formatar(linha, precoUnitario);
+                linha.append(",\"").append(COLUNAS[8]).append("\":");
+                Dinheiro.formatar(linha, precoUnitario * quantidade);
+                linha.append('}');
+            }
+            escreverLinha();
+            linhas++;
+        }
+
+        /**
+         * Copia a linha formatada para o buffer reaproveitado e a escreve, sem criar um {@code String}.
+         */
+        private void escreverLinha() {
+            int tamanho = linha.length();
+            if (tamanho > buffer.length) {
+                buffer = new char[Math.max(tamanho, buffer.length * 2)];
+            }
+            linha.getChars(0, tamanho, buffer, 0);
+            try {
+                saida.write(buffer, 0, tamanho);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Escreve um texto no CSV, entre aspas apenas se ele contiver o separador, aspas ou quebras de linha.
+         */
+        private void textoCsv(String texto) {
+            if (texto == null) {
+                return;
+            }
+            boolean aspas = false;
+            for (int i = 0; i < texto.length() && !aspas; i++) {
+                char ch = texto.charAt(i);
+                aspas = ch == ';' || ch == '"' || ch == '\n' || ch == '\r';
+            }
+            if (!aspas) {
+                linha.append(texto);
+                return;
+            }
+            linha.append('"');
+            for (int i = 0; i < texto.length(); i++) {
+                char ch = texto.charAt(i);
+                if (ch == '"') {
+                    linha.append('"');
+                }
+                linha.append(ch);
+            }
+            linha.append('"');
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package exportacao;
+
+import java.util.Locale;
+
+/**
+ * Formatos de arquivo da exportação de vendas.
+ */
+public enum FormatoExportacao {
+
+    /** Texto separado por ponto e vírgula, com uma linha de cabeçalho e uma linha por produto vendido. */
+    CSV,
+
+    /** Uma lista JSON com um objeto por linha de venda. */
+    JSON;
+
+    /**
+     * Escolhe o formato pela extensão do arquivo.
+     *
+     * @param nomeArquivo o nome do arquivo.
+     * @return JSON para arquivos terminados em ".json"; CSV para os demais.
+     */
+    public static FormatoExportacao peloNome(String nomeArquivo) {
+        return nomeArquivo.toLowerCase(Locale.ROOT).endsWith(".json") ? JSON : CSV;
+    }
+}
@@ -0,0 +1,70 @@
+package exportacao;
+
+/**
+ * Resultado de uma exportação: quantas linhas e vendas foram escritas e em quanto tempo.
+ */
+public class ResultadoExportacao {
+
+    private final long linhas;
+    private final long vendas;
+    private final long duracaoMs;
+
+    /**
+     * Construtor completo com parâmetros.
+     *
+     * @param linhas    número de linhas de venda escritas (uma por produto vendido).
+     * @param vendas    número de vendas distintas.
+     * @param duracaoMs a duração da exportação, em milissegundos.
+     */
+    public ResultadoExportacao(long linhas, long vendas, long duracaoMs) {
+        this.linhas = linhas;
+        this.vendas = vendas;
+        this.duracaoMs = duracaoMs;
+    }
+
+    /**
+     * Retorna o número de linhas de venda escritas.
+     *
+     * @return a quantidade de linhas.
+     */
+    public long getLinhas() {
+        return linhas;
+    }
+
+    /**
+     * Retorna o número de vendas distintas exportadas.
+     *
+     * @return a quantidade de vendas.
+     */
+    public long getVendas() {
+        return vendas;
+    }
+
+    /**
+     * Retorna a duração da exportação.
+     *
+     * @return o tempo total, em milissegundos.
+     */
+    public long getDuracaoMs() {
+        return duracaoMs;
+    }
+
+    /**
+     * Calcula a vazão da exportação.
+     *
+     * @return linhas escritas por segundo.
+     */
+    public long getLinhasPorSegundo() {
+        return linhas * 1000 / Math.max(1, duracaoMs);
+    }
+
+    /**
+     * Retorna um resumo da exportação.
+     *
+     * @return os totais formatados, como "1000000 linhas de 250000 vendas em 4000 ms (250000 linhas/s)".
+     */
+    @Override
+    public String toString() {
+        return linhas + " linhas de " + vendas + " vendas em " + duracaoMs + " ms (" + getLinhasPorSegundo() + " linhas/s)";
+    }
+}
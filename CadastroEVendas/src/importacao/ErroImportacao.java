@@ -0,0 +1,52 @@
+package importacao;
+
+/**
+ * Registro do arquivo importado que foi rejeitado, com o motivo da rejeição.
+ */
+public class ErroImportacao {
+
+    /** Linha do arquivo em que o registro começa (a primeira linha, o cabeçalho, é 1). */
+    private final int linha;
+
+    /** Motivo da rejeição (regra de validação violada ou erro do banco de dados). */
+    private final String mensagem;
+
+    /**
+     * Construtor completo com parâmetros.
+     *
+     * @param linha    a linha do arquivo em que o registro começa.
+     * @param mensagem o motivo da rejeição.
+     */
+    public ErroImportacao(int linha, String mensagem) {
+        this.linha = linha;
+        this.mensagem = mensagem;
+    }
+
+    /**
+     * Retorna a linha do arquivo em que o registro começa.
+     *
+     * @return o número da linha.
+     */
+    public int getLinha() {
+        return linha;
+    }
+
+    /**
+     * Retorna o motivo da rejeição.
+     *
+     * @return a mensagem de erro.
+     */
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    /**
+     * Retorna uma representação textual do erro.
+     *
+     * @return a linha e o motivo, como "Linha 12: O CPF deve conter exatamente 11 dígitos numéricos."
+     */
+    @Override
+    public String toString() {
+        return "Linha " + linha + ": " + mensagem;
+    }
+}
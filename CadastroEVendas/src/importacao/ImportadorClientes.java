@@ -0,0 +1,41 @@
+package importacao;
+
+import dao.ClienteDAO;
+import model.Cliente;
+
+import java.util.List;
+
+/**
+ * Importação de clientes a partir de um arquivo CSV com as colunas 'nome', 'cpf', 'telefone' e 'endereco'.
+ * Cada registro é validado pelo construtor de {@link Cliente}, com as mesmas regras do cadastro pela tela.
+ * Registros com um CPF já cadastrado (ou repetido no próprio arquivo) são rejeitados.
+ */
+public class ImportadorClientes extends ImportadorCsv<Cliente> {
+
+    private final ClienteDAO dao = new ClienteDAO();
+
+    /**
+     * Cria o importador.
+     *
+     * @param tamanhoLote o número de clientes gravados por comando INSERT.
+     * @throws IllegalArgumentException se o tamanho do lote estiver fora do intervalo permitido.
+     */
+    public ImportadorClientes(int tamanhoLote) {
+        super(new String[]{"nome", "cpf", "telefone", "endereco"}, 4, tamanhoLote);
+    }
+
+    @Override
+    protected Cliente converter(String[] valores) {
+        return new Cliente(valores[0], valores[1], valores[2], valores[3]);
+    }
+
+    @Override
+    protected void gravarLote(List<Cliente> itens) {
+        dao.inserirLote(itens);
+    }
+
+    @Override
+    protected void gravar(Cliente item) {
+        dao.inserir(item);
+    }
+}
@@ -0,0 +1,393 @@
+package importacao;
+
+import db.DB;
+import db.DbException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Importação em lote de um arquivo CSV para uma tabela, em três etapas que trabalham ao mesmo tempo:
+ * <ol>
+ *     <li>a leitura, em fluxo, separa os registros em lotes de {@code tamanhoLote} registros;</li>
+ *     <li>a validação converte cada lote em objetos em uma thread do pool (um lote por thread, vários
+ *     lotes em paralelo), aplicando as regras dos setters do modelo;</li>
+ *     <li>a gravação insere os lotes válidos, na ordem do arquivo, com um único comando {@code INSERT}
+ *     de várias linhas por lote.</li>
+ * </ol>
+ * No máximo {@code 2 x número de processadores} lotes ficam em memória ao mesmo tempo: quando esse
+ * limite é atingido, a leitura espera a gravação do lote mais antigo. Assim, arquivos de qualquer
+ * tamanho são importados com memória constante.
+ * <br>
+ * Um registro inválido não interrompe a importação: ele é rejeitado com o motivo e os demais seguem.
+ * Se o comando de um lote falhar no banco de dados (por exemplo, um CPF já cadastrado), os registros
+ * desse lote são gravados um a um, para que apenas os registros com problema sejam rejeitados.
+ * Os rejeitados são gravados em um arquivo ao lado do importado (ver {@link ResultadoImportacao#getArquivoErros()}).
+ * <br>
+ * As colunas são localizadas pelo nome no cabeçalho, sem diferenciar maiúsculas de minúsculas;
+ * colunas desconhecidas são ignoradas.
+ *
+ * @param <T> o tipo do objeto criado a partir de cada registro.
+ */
+public abstract class ImportadorCsv<T> {
+
+    /** Número máximo de erros guardados em memória para exibição; os demais ficam apenas no arquivo de erros. */
+    public static final int ERROS_EXIBIDOS = 100;
+
+    /** Maior tamanho de lote aceito, para limitar o número de parâmetros de cada comando INSERT. */
+    public static final int TAMANHO_LOTE_MAXIMO = 1000;
+
+    // Colunas acrescentadas ao arquivo de erros; são ignoradas na importação, para que ele possa ser reimportado.
+    private static final String COLUNA_LINHA = "linha";
+    private static final String COLUNA_ERRO = "erro";
+
+    private final String[] colunas;
+    private final int obrigatorias;
+    private final int tamanhoLote;
+
+    /**
+     * Cria o importador.
+     *
+     * @param colunas      os nomes das colunas lidas, na ordem em que são passadas a {@link #converter(String[])}.
+     * @param obrigatorias quantas das primeiras colunas são obrigatórias; as demais são opcionais.
+     * @param tamanhoLote  o número de registros validados e gravados de cada vez (de 1 a {@value #TAMANHO_LOTE_MAXIMO}).
+     * @throws IllegalArgumentException se o tamanho do lote estiver fora do intervalo permitido.
+     */
+    protected ImportadorCsv(String[] colunas, int obrigatorias, int tamanhoLote) {
+        if (tamanhoLote < 1 || tamanhoLote > TAMANHO_LOTE_MAXIMO) {
+            throw new IllegalArgumentException("O tamanho do lote deve estar entre 1 e " + TAMANHO_LOTE_MAXIMO + ".");
+        }
+        this.colunas = colunas;
+        this.obrigatorias = obrigatorias;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * Retorna o tamanho de lote configurado na chave 'importacao.tamanhoLote' do arquivo 'db.properties' (padrão 500).
+     *
+     * @return o número de registros por lote.
+     * @throws DbException se o valor configurado não for um número.
+     */
+    public static int getTamanhoLotePadrao() {
+        String valor = DB.carregarProperties().getProperty("importacao.tamanhoLote", "500");
+        try {
+            return Integer.parseInt(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new DbException("Valor inválido para 'importacao.tamanhoLote': " + valor);
+        }
+    }
+
+    /**
+     * Cria o objeto de um registro. Executado em paralelo, nas threads de validação.
+     *
+     * @param valores os valores das colunas, na ordem do construtor, já sem espaços nas pontas; as colunas
+     *                obrigatórias nunca são vazias e as opcionais ausentes ou vazias são {@code null}.
+     * @return o objeto validado.
+     * @throws IllegalArgumentException se algum valor for inválido; a mensagem é o motivo da rejeição.
+     */
+    protected abstract T converter(String[] valores);
+
+    /**
+     * Grava um lote com um único comando.
+     *
+     * @param itens os objetos do lote, na ordem do arquivo.
+     * @throws DbException se o comando falhar; nesse caso nenhum objeto do lote deve ter sido gravado.
+     */
+    protected abstract void gravarLote(List<T> itens);
+
+    /**
+     * Grava um único objeto, usado quando o comando do lote falha.
+     *
+     * @param item o objeto a ser gravado.
+     * @throws DbException se o objeto não puder ser gravado.
+     */
+    protected abstract void gravar(T item);
+
+    /**
+     * Importa um arquivo CSV codificado em UTF-8.
+     *
+     * @param arquivo o arquivo a ser importado.
+     * @return os totais da importação e os registros rejeitados.
+     * @throws IOException se o arquivo não puder ser lido, estiver vazio ou não tiver uma coluna obrigatória.
+     */
+    public ResultadoImportacao importar(Path arquivo) throws IOException {
+        long inicio = System.nanoTime();
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService validacao = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("importacao-", 0).daemon().factory());
+        try (LeitorCsv leitor = new LeitorCsv(Files.newBufferedReader(arquivo, StandardCharsets.UTF_8));
+             Relatorio relatorio = new Relatorio(arquivo)) {
+            String[] cabecalho = leitor.proximo();
+            if (cabecalho == null) {
+                throw new IOException("O arquivo está vazio.");
+            }
+            int[] posicoes = localizarColunas(cabecalho);
+            relatorio.iniciar(cabecalho, leitor.getSeparador());
+
+            // Lotes em validação, na ordem do arquivo.
+            Deque<Future<Lote<T>>> emValidacao = new ArrayDeque<>();
+            int lidos = 0;
+            Bloco bloco;
+            while ((bloco = lerBloco(leitor)) != null) {
+                lidos += bloco.tamanho;
+                Bloco b = bloco;
+                emValidacao.add(validacao.submit(() -> validar(b, posicoes)));
+                if (emValidacao.size() >= threads * 2) {
+                    gravar(aguardar(emValidacao.poll()), relatorio);
+                }
+            }
+            while (!emValidacao.isEmpty()) {
+                gravar(aguardar(emValidacao.poll()), relatorio);
+            }
+            long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+            return new ResultadoImportacao(lidos, relatorio.importados, relatorio.rejeitados, relatorio.primeiros,
+                    relatorio.getArquivo(), duracaoMs);
+        } finally {
+            validacao.shutdownNow();
+        }
+    }
+
+    /**
+     * Encontra a posição no cabeçalho de cada coluna lida.
+     *
+     * @return para cada coluna, a sua posição no registro, ou -1 se uma coluna opcional não estiver no arquivo.
+     * @throws IOException se faltar uma coluna obrigatória.
+     */
+    private int[] localizarColunas(String[] cabecalho) throws IOException {
+        int[] posicoes = new int[colunas.length];
+        for (int c = 0; c < colunas.length; c++) {
+            posicoes[c] = -1;
+            for (int i = 0; i < cabecalho.length; i++) {
+                if (cabecalho[i].trim().equalsIgnoreCase(colunas[c])) {
+                    posicoes[c] = i;
+                    break;
+                }
+            }
+            if (posicoes[c] < 0 && c < obrigatorias) {
+                throw new IOException("O cabeçalho do arquivo não tem a coluna obrigatória '" + colunas[c] + "'.");
+            }
+        }
+        return posicoes;
+    }
+
+    /**
+     * Lê o próximo bloco de registros do arquivo.
+     *
+     * @return o bloco, ou {@code null} no fim do arquivo.
+     */
+    private Bloco lerBloco(LeitorCsv leitor) throws IOException {
+        Bloco bloco = new Bloco(tamanhoLote);
+        String[] registro;
+        while (bloco.tamanho < tamanhoLote && (registro = leitor.proximo()) != null) {
+            bloco.linhas[bloco.tamanho] = leitor.getLinha();
+            bloco.registros[bloco.tamanho] = registro;
+            bloco.tamanho++;
+        }
+        return bloco.tamanho == 0 ? null : bloco;
+    }
+
+    /**
+     * Converte os registros de um bloco em objetos, separando os rejeitados. Executado nas threads de validação.
+     */
+    private Lote<T> validar(Bloco bloco, int[] posicoes) {
+        Lote<T> lote = new Lote<>(bloco.tamanho);
+        for (int r = 0; r < bloco.tamanho; r++) {
+            String[] registro = bloco.registros[r];
+            String[] valores = new String[colunas.length];
+            String erro = null;
+            for (int c = 0; c < colunas.length && erro == null; c++) {
+                int p = posicoes[c];
+                String valor = (p >= 0 && p < registro.length) ? registro[p].trim() : "";
+                if (!valor.isEmpty()) {
+                    valores[c] = valor;
+                } else if (c < obrigatorias) {
+                    erro = "A coluna '" + colunas[c] + "' está vazia.";
+                }
+            }
+            if (erro == null) {
+                try {
+                    lote.adicionar(converter(valores), bloco.linhas[r], registro);
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    erro = e.getMessage();
+                }
+            }
+            lote.rejeicoes.add(new Rejeicao(bloco.linhas[r], registro, erro));
+        }
+        return lote;
+    }
+
+    /**
+     * Grava um lote validado e registra os rejeitados, na ordem do arquivo.
+     */
+    private void gravar(Lote<T> lote, Relatorio relatorio) throws IOException {
+        try {
+            gravarLote(lote.itens);
+            relatorio.importados += lote.itens.size();
+        } catch (DbException e) {
+            // O comando do lote foi desfeito: grava um a um para rejeitar apenas os registros com problema.
+            for (int i = 0; i < lote.itens.size(); i++) {
+                try {
+                    gravar(lote.itens.get(i));
+                    relatorio.importados++;
+                } catch (DbException erro) {
+                    lote.rejeicoes.add(new Rejeicao(lote.linhas.get(i), lote.registros.get(i), erro.getMessage()));
+                }
+            }
+            lote.rejeicoes.sort(Comparator.comparingInt(r -> r.linha));
+        }
+        for (Rejeicao rejeicao : lote.rejeicoes) {
+            relatorio.rejeitar(rejeicao);
+        }
+    }
+
+    private Lote<T> aguardar(Future<Lote<T>> futuro) throws IOException {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Importação interrompida.");
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            throw new IllegalStateException(causa);
+        }
+    }
+
+    /**
+     * Registros lidos do arquivo, ainda não validados.
+     */
+    private static final class Bloco {
+        final int[] linhas;
+        final String[][] registros;
+        int tamanho = 0;
+
+        Bloco(int capacidade) {
+            linhas = new int[capacidade];
+            registros = new String[capacidade][];
+        }
+    }
+
+    /**
+     * Resultado da validação de um bloco: os objetos válidos (com a linha e o registro de origem,
+     * caso a gravação os rejeite) e os registros rejeitados.
+     */
+    private static final class Lote<T> {
+        final List<T> itens;
+        final List<Integer> linhas;
+        final List<String[]> registros;
+        final List<Rejeicao> rejeicoes = new ArrayList<>();
+
+        Lote(int capacidade) {
+            itens = new ArrayList<>(capacidade);
+            linhas = new ArrayList<>(capacidade);
+            registros = new ArrayList<>(capacidade);
+        }
+
+        void adicionar(T item, int linha, String[] registro) {
+            itens.add(item);
+            linhas.add(linha);
+            registros.add(registro);
+        }
+    }
+
+    private static final class Rejeicao {
+        final int linha;
+        final String[] registro;
+        final String mensagem;
+
+        Rejeicao(int linha, String[] registro, String mensagem) {
+            this.linha = linha;
+            this.registro = registro;
+            this.mensagem = mensagem;
+        }
+    }
+
+    /**
+     * Totais da importação e arquivo de erros. O arquivo só é criado no primeiro registro rejeitado e
+     * repete as colunas do arquivo importado (exceto 'linha' e 'erro' de uma importação anterior),
+     * seguidas da linha de origem e do motivo.
+     */
+    private static final class Relatorio implements AutoCloseable {
+        final Path arquivo;
+        final List<ErroImportacao> primeiros = new ArrayList<>();
+        int importados = 0;
+        int rejeitados = 0;
+        private int[] copiar;
+        private String[] cabecalho;
+        private char separador;
+        private BufferedWriter saida;
+
+        Relatorio(Path importado) {
+            String nome = importado.getFileName().toString();
+            if (nome.toLowerCase(Locale.ROOT).endsWith(".csv")) {
+                nome = nome.substring(0, nome.length() - 4);
+            }
+            arquivo = importado.resolveSibling(nome + "-erros.csv");
+        }
+
+        void iniciar(String[] cabecalhoImportado, char separador) {
+            this.separador = separador;
+            List<Integer> indices = new ArrayList<>();
+            for (int i = 0; i < cabecalhoImportado.length; i++) {
+                String coluna = cabecalhoImportado[i].trim();
+                if (!coluna.equalsIgnoreCase(COLUNA_LINHA) && !coluna.equalsIgnoreCase(COLUNA_ERRO)) {
+                    indices.add(i);
+                }
+            }
+            copiar = indices.stream().mapToInt(Integer::intValue).toArray();
+            cabecalho = montar(cabecalhoImportado, COLUNA_LINHA, COLUNA_ERRO);
+        }
+
+        void rejeitar(Rejeicao rejeicao) throws IOException {
+            rejeitados++;
+            if (primeiros.size() < ERROS_EXIBIDOS) {
+                primeiros.add(new ErroImportacao(rejeicao.linha, rejeicao.mensagem));
+            }
+            if (saida == null) {
+                saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8);
+                saida.write(LeitorCsv.formatar(cabecalho, separador));
+                saida.newLine();
+            }
+            saida.write(LeitorCsv.formatar(montar(rejeicao.registro, String.valueOf(rejeicao.linha), rejeicao.mensagem), separador));
+            saida.newLine();
+        }
+
+        Path getArquivo() {
+            return saida == null ? null : arquivo;
+        }
+
+        private String[] montar(String[] registro, String linha, String erro) {
+            String[] campos = new String[copiar.length + 2];
+            for (int i = 0; i < copiar.length; i++) {
+                campos[i] = copiar[i] < registro.length ? registro[copiar[i]] : "";
+            }
+            campos[copiar.length] = linha;
+            campos[copiar.length + 1] = erro;
+            return campos;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (saida != null) {
+                saida.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package importacao;
+
+import dao.ProdutoDAO;
+import model.Dinheiro;
+import model.Livro;
+import model.Produto;
+
+import java.util.List;
+
+/**
+ * Importação de produtos a partir de um arquivo CSV com as colunas 'nome', 'preco_compra', 'preco_venda'
+ * e 'estoque', e a coluna opcional 'autor': registros com autor são importados como {@link Livro}.
+ * <br>
+ * Os preços aceitam vírgula ou ponto como separador decimal, como nos campos da tela de produtos
+ * (ver {@link Dinheiro#converter(String)}), e o estoque é validado pelo construtor de {@link Produto}.
+ */
+public class ImportadorProdutos extends ImportadorCsv<Produto> {
+
+    private final ProdutoDAO dao = new ProdutoDAO();
+
+    /**
+     * Cria o importador.
+     *
+     * @param tamanhoLote o número de produtos gravados por comando INSERT.
+     * @throws IllegalArgumentException se o tamanho do lote estiver fora do intervalo permitido.
+     */
+    public ImportadorProdutos(int tamanhoLote) {
+        super(new String[]{"nome", "preco_compra", "preco_venda", "estoque", "autor"}, 4, tamanhoLote);
+    }
+
+    @Override
+    protected Produto converter(String[] valores) {
+        long precoCompra = converterPreco("preco_compra", valores[1]);
+        long precoVenda = converterPreco("preco_venda", valores[2]);
+        int estoque;
+        try {
+            estoque = Integer.parseInt(valores[3]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido na coluna 'estoque': " + valores[3]);
+        }
+        if (valores[4] != null) {
+            return new Livro(null, valores[0], precoCompra, precoVenda, estoque, valores[4]);
+        }
+        return new Produto(null, valores[0], precoCompra, precoVenda, estoque);
+    }
+
+    @Override
+    protected void gravarLote(List<Produto> itens) {
+        dao.inserirLote(itens);
+    }
+
+    @Override
+    protected void gravar(Produto item) {
+        // Reaproveita o comando de várias linhas com uma única linha, para gravar também o autor dos livros.
+        dao.inserirLote(List.of(item));
+    }
+
+    private static long converterPreco(String coluna, String valor) {
+        try {
+            return Dinheiro.converter(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido na coluna '" + coluna + "': " + valor);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package importacao;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de arquivos CSV em fluxo: cada chamada a {@link #proximo()} lê apenas o próximo registro,
+ * de modo que arquivos de qualquer tamanho são lidos com memória constante.
+ * <br>
+ * Segue o formato usual de planilhas: campos separados por ponto e vírgula ou por vírgula
+ * (o separador é detectado na primeira linha, o cabeçalho), campos entre aspas podendo conter
+ * o separador, quebras de linha e aspas duplicadas ({@code ""}). Linhas em branco são ignoradas
+ * e a marca de ordem de bytes (BOM) do UTF-8, gravada por algumas planilhas, é descartada.
+ */
+public class LeitorCsv implements Closeable {
+
+    private final BufferedReader leitor;
+    private char separador = 0;
+    // Número da linha do arquivo em que o último registro lido começa (a primeira linha é 1).
+    private int linhaRegistro = 0;
+    private int linhaAtual = 0;
+    private boolean inicio = true;
+
+    /**
+     * Cria o leitor.
+     *
+     * @param leitor o texto do arquivo; é fechado junto com este leitor.
+     */
+    public LeitorCsv(BufferedReader leitor) {
+        this.leitor = leitor;
+    }
+
+    /**
+     * Lê o próximo registro do arquivo.
+     *
+     * @return os campos do registro, ou {@code null} no fim do arquivo.
+     * @throws IOException se ocorrer um erro de leitura ou se o arquivo terminar dentro de um campo entre aspas.
+     */
+    public String[] proximo() throws IOException {
+        String linha;
+        do {
+            linha = leitor.readLine();
+            if (linha == null) {
+                return null;
+            }
+            linhaAtual++;
+            if (inicio) {
+                inicio = false;
+                if (!linha.isEmpty() && linha.charAt(0) == '\uFEFF') {
+                    linha = linha.substring(1);
+                }
+            }
+        } while (linha.isBlank());
+        linhaRegistro = linhaAtual;
+        if (separador == 0) {
+            separador = detectarSeparador(linha);
+        }
+
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        int i = 0;
+        while (true) {
+            if (i == linha.length()) {
+                if (!entreAspas) {
+                    break;
+                }
+                // Campo entre aspas com quebra de linha: o registro continua na próxima linha.
+                linha = leitor.readLine();
+                if (linha == null) {
+                    throw new IOException("Aspas não fechadas no registro iniciado na linha " + linhaRegistro + ".");
+                }
+                linhaAtual++;
+                campo.append('\n');
+                i = 0;
+                continue;
+            }
+            char ch = linha.charAt(i++);
+            if (entreAspas) {
+                if (ch == '"') {
+                    if (i < linha.length() && linha.charAt(i) == '"') {
+                        campo.append('"'); // Aspas duplicadas representam uma aspa no texto.
+                        i++;
+                    } else {
+                        entreAspas = false;
+                    }
+                } else {
+                    campo.append(ch);
+                }
+            } else if (ch == '"') {
+                entreAspas = true;
+            } else if (ch == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(ch);
+            }
+        }
+        campos.add(campo.toString());
+        return campos.toArray(new String[0]);
+    }
+
+    /**
+     * Retorna a linha do arquivo em que começa o último registro lido.
+     *
+     * @return o número da linha (a primeira linha do arquivo é 1).
+     */
+    public int getLinha() {
+        return linhaRegistro;
+    }
+
+    /**
+     * Retorna o separador de campos detectado no cabeçalho.
+     *
+     * @return ';' ou ','; ou ';' se nenhum registro tiver sido lido.
+     */
+    public char getSeparador() {
+        return separador == 0 ? ';' : separador;
+    }
+
+    /**
+     * Escreve um registro no mesmo formato lido, colocando entre aspas os campos que precisam delas.
+     *
+     * @param campos    os campos do registro.
+     * @param separador o separador de campos.
+     * @return a linha formatada, sem a quebra de linha final.
+     */
+    public static String formatar(String[] campos, char separador) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) {
+                sb.append(separador);
+            }
+            String campo = campos[i] == null ? "" : campos[i];
+            if (campo.indexOf(separador) >= 0 || campo.indexOf('"') >= 0 || campo.indexOf('\n') >= 0 || campo.indexOf('\r') >= 0) {
+                sb.append('"').append(campo.replace("\"", "\"\"")).append('"');
+            } else {
+                sb.append(campo);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        leitor.close();
+    }
+
+    /**
+     * Escolhe o separador mais frequente fora de aspas no cabeçalho (ponto e vírgula em caso de empate).
+     */
+    private static char detectarSeparador(String cabecalho) {
+        int pontoVirgula = 0;
+        int virgula = 0;
+        boolean entreAspas = false;
+        for (int i = 0; i < cabecalho.length(); i++) {
+            char ch = cabecalho.charAt(i);
+            if (ch == '"') {
+                entreAspas = !entreAspas;
+            } else if (!entreAspas && ch == ';') {
+                pontoVirgula++;
+            } else if (!entreAspas && ch == ',') {
+                virgula++;
+            }
+        }
+        return virgula > pontoVirgula ? ',' : ';';
+    }
+}
@@ -0,0 +1,104 @@
+package importacao;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de uma importação: quantos registros foram lidos, gravados e rejeitados, os primeiros
+ * erros (para exibição) e o arquivo com todos os registros rejeitados.
+ */
+public class ResultadoImportacao {
+
+    private final int lidos;
+    private final int importados;
+    private final int rejeitados;
+    private final List<ErroImportacao> primeirosErros;
+    private final Path arquivoErros;
+    private final long duracaoMs;
+
+    /**
+     * Construtor completo com parâmetros.
+     *
+     * @param lidos          número de registros lidos (sem contar o cabeçalho).
+     * @param importados     número de registros gravados no banco de dados.
+     * @param rejeitados     número de registros rejeitados.
+     * @param primeirosErros os primeiros erros, na ordem do arquivo.
+     * @param arquivoErros   o arquivo com os registros rejeitados, ou {@code null} se não houve rejeições.
+     * @param duracaoMs      a duração da importação, em milissegundos.
+     */
+    public ResultadoImportacao(int lidos, int importados, int rejeitados, List<ErroImportacao> primeirosErros,
+                               Path arquivoErros, long duracaoMs) {
+        this.lidos = lidos;
+        this.importados = importados;
+        this.rejeitados = rejeitados;
+        this.primeirosErros = Collections.unmodifiableList(primeirosErros);
+        this.arquivoErros = arquivoErros;
+        this.duracaoMs = duracaoMs;
+    }
+
+    /**
+     * Retorna o número de registros lidos do arquivo, sem contar o cabeçalho.
+     *
+     * @return a quantidade de registros lidos.
+     */
+    public int getLidos() {
+        return lidos;
+    }
+
+    /**
+     * Retorna o número de registros gravados no banco de dados.
+     *
+     * @return a quantidade de registros importados.
+     */
+    public int getImportados() {
+        return importados;
+    }
+
+    /**
+     * Retorna o número de registros rejeitados, na validação ou na gravação.
+     *
+     * @return a quantidade de registros rejeitados.
+     */
+    public int getRejeitados() {
+        return rejeitados;
+    }
+
+    /**
+     * Retorna os primeiros erros, na ordem do arquivo. A lista completa está em {@link #getArquivoErros()}.
+     *
+     * @return uma lista somente leitura com até {@value ImportadorCsv#ERROS_EXIBIDOS} erros.
+     */
+    public List<ErroImportacao> getPrimeirosErros() {
+        return primeirosErros;
+    }
+
+    /**
+     * Retorna o arquivo com os registros rejeitados. Ele tem o cabeçalho do arquivo importado, seguido das
+     * colunas 'linha' e 'erro'; depois de corrigido, pode ser importado novamente.
+     *
+     * @return o caminho do arquivo, ou {@code null} se nenhum registro foi rejeitado.
+     */
+    public Path getArquivoErros() {
+        return arquivoErros;
+    }
+
+    /**
+     * Retorna a duração da importação.
+     *
+     * @return o tempo total, em milissegundos.
+     */
+    public long getDuracaoMs() {
+        return duracaoMs;
+    }
+
+    /**
+     * Retorna um resumo da importação.
+     *
+     * @return os totais formatados, como "1000 lidos, 998 importados, 2 rejeitados em 1234 ms".
+     */
+    @Override
+    public String toString() {
+        return lidos + " lidos, " + importados + " importados, " + rejeitados + " rejeitados em " + duracaoMs + " ms";
+    }
+}
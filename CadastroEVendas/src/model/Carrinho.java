@@ -0,0 +1,213 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Carrinho da venda em andamento: guarda, para cada produto lido, a quantidade de unidades.
+ * <br>
+ * Ler o mesmo produto várias vezes apenas incrementa a sua quantidade, de modo que a memória,
+ * a exibição e a gravação da venda dependem do número de produtos distintos, e não do número
+ * de unidades. As quantidades ficam em vetores de {@code int}, na ordem em que os produtos foram
+ * lidos, indexados pelo ID do produto em uma tabela de endereçamento aberto (sem objetos por item).
+ * O total é mantido a cada alteração, em centavos.
+ * <br>
+ * Esta classe não é sincronizada: deve ser usada por uma única thread (na tela de vendas, a do Swing).
+ */
+public class Carrinho {
+
+    // Itens na ordem em que foram lidos (vetores paralelos com 'tamanho' posições usadas).
+    private Produto[] produtos = new Produto[8];
+    private int[] quantidades = new int[8];
+    private int tamanho = 0;
+
+    // Índice ID do produto -> posição nos vetores acima (guardada como posição + 1; 0 indica vazio).
+    private int[] chaves = new int[16];
+    private int[] posicoes = new int[16];
+
+    private long total = 0;
+    private int unidades = 0;
+
+    /**
+     * Adiciona unidades de um produto ao carrinho, somando-as às já existentes.
+     * O preço considerado é o preço de venda do produto na primeira vez em que foi lido.
+     *
+     * @param produto    o produto lido.
+     * @param quantidade o número de unidades a adicionar (maior que zero).
+     * @throws IllegalArgumentException se a quantidade não for positiva.
+     */
+    public void adicionar(Produto produto, int quantidade) {
+        if (quantidade <= 0) {
+            throw new IllegalArgumentException("A quantidade deve ser maior que zero.");
+        }
+        int posicao = localizar(produto.getId());
+        if (posicao < 0) {
+            posicao = tamanho;
+            if (tamanho == produtos.length) {
+                produtos = Arrays.copyOf(produtos, tamanho * 2);
+                quantidades = Arrays.copyOf(quantidades, tamanho * 2);
+            }
+            produtos[posicao] = produto;
+            quantidades[posicao] = 0;
+            tamanho++;
+            indexar(produto.getId(), posicao);
+        }
+        quantidades[posicao] += quantidade;
+        unidades += quantidade;
+        total += quantidade * produtos[posicao].getPrecoVenda();
+    }
+
+    /**
+     * Retorna a quantidade de unidades de um produto no carrinho.
+     *
+     * @param idProduto o ID do produto.
+     * @return a quantidade, ou 0 se o produto não estiver no carrinho.
+     */
+    public int getQuantidade(int idProduto) {
+        int posicao = localizar(idProduto);
+        return posicao < 0 ? 0 : quantidades[posicao];
+    }
+
+    /**
+     * Retorna o número de produtos distintos no carrinho.
+     *
+     * @return a quantidade de linhas da venda.
+     */
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Informa se o carrinho está vazio.
+     *
+     * @return true se nenhum produto foi adicionado.
+     */
+    public boolean isVazio() {
+        return tamanho == 0;
+    }
+
+    /**
+     * Retorna o total de unidades no carrinho, somando todos os produtos.
+     *
+     * @return o número de unidades.
+     */
+    public int getUnidades() {
+        return unidades;
+    }
+
+    /**
+     * Retorna o valor total do carrinho.
+     *
+     * @return a soma de quantidade vezes preço de venda de cada produto, em centavos.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Retorna as linhas da venda, uma por produto distinto, na ordem em que foram lidos.
+     *
+     * @return uma nova lista de ItemVenda com as quantidades e preços atuais do carrinho.
+     */
+    public List<ItemVenda> getItens() {
+        List<ItemVenda> itens = new ArrayList<>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            itens.add(new ItemVenda(produtos[i], quantidades[i], produtos[i].getPrecoVenda()));
+        }
+        return itens;
+    }
+
+    /**
+     * Retira do carrinho as quantidades de itens já vendidos. Produtos lidos depois que a venda
+     * foi enviada (ou unidades adicionais deles) permanecem no carrinho.
+     *
+     * @param vendidos as linhas da venda registrada.
+     */
+    public void remover(List<ItemVenda> vendidos) {
+        for (ItemVenda item : vendidos) {
+            int posicao = localizar(item.getProduto().getId());
+            if (posicao >= 0) {
+                int retirar = Math.min(item.getQuantidade(), quantidades[posicao]);
+                quantidades[posicao] -= retirar;
+                unidades -= retirar;
+                total -= retirar * produtos[posicao].getPrecoVenda();
+            }
+        }
+        // Compacta os vetores, descartando os produtos sem unidades, e refaz o índice.
+        int destino = 0;
+        for (int i = 0; i < tamanho; i++) {
+            if (quantidades[i] > 0) {
+                produtos[destino] = produtos[i];
+                quantidades[destino] = quantidades[i];
+                destino++;
+            }
+        }
+        Arrays.fill(produtos, destino, tamanho, null);
+        tamanho = destino;
+        Arrays.fill(posicoes, 0);
+        for (int i = 0; i < tamanho; i++) {
+            inserirNoIndice(produtos[i].getId(), i);
+        }
+    }
+
+    /**
+     * Esvazia o carrinho.
+     */
+    public void limpar() {
+        Arrays.fill(produtos, 0, tamanho, null);
+        Arrays.fill(posicoes, 0);
+        tamanho = 0;
+        total = 0;
+        unidades = 0;
+    }
+
+    /**
+     * Procura a posição de um produto pelo ID (sondagem linear).
+     *
+     * @return a posição nos vetores, ou -1 se o produto não estiver no carrinho.
+     */
+    private int localizar(int idProduto) {
+        int mascara = chaves.length - 1;
+        for (int i = espalhar(idProduto) & mascara; posicoes[i] != 0; i = (i + 1) & mascara) {
+            if (chaves[i] == idProduto) {
+                return posicoes[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Registra a posição de um produto no índice, dobrando a tabela quando passar da metade.
+     */
+    private void indexar(int idProduto, int posicao) {
+        if ((tamanho * 2) > chaves.length) {
+            chaves = new int[chaves.length * 2];
+            posicoes = new int[posicoes.length * 2];
+            for (int i = 0; i < tamanho; i++) {
+                if (i != posicao) {
+                    inserirNoIndice(produtos[i].getId(), i);
+                }
+            }
+        }
+        inserirNoIndice(idProduto, posicao);
+    }
+
+    private void inserirNoIndice(int idProduto, int posicao) {
+        int mascara = chaves.length - 1;
+        int i = espalhar(idProduto) & mascara;
+        while (posicoes[i] != 0) {
+            i = (i + 1) & mascara;
+        }
+        chaves[i] = idProduto;
+        posicoes[i] = posicao + 1;
+    }
+
+    /**
+     * Mistura os bits do ID, já que IDs sequenciais ocupariam posições vizinhas da tabela.
+     */
+    private static int espalhar(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,92 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Classe utilitária para valores monetários.
+ * <br>
+ * Todos os valores em dinheiro do sistema (preços, totais, receitas e custos) são
+ * representados como {@code long} em centavos: R$ 12,50 é guardado como {@code 1250}.
+ * Assim, somas e totais são exatos (sem os erros de arredondamento do {@code double})
+ * e não criam objetos. A conversão para {@link BigDecimal} acontece apenas na fronteira
+ * com o banco de dados, onde os preços são colunas {@code DECIMAL(10, 2)}, e a conversão
+ * para texto, apenas na exibição e na digitação de valores nas telas.
+ */
+public final class Dinheiro {
+
+    private Dinheiro() {
+    }
+
+    /**
+     * Converte um valor decimal lido do banco de dados para centavos.
+     *
+     * @param valor o valor com até duas casas decimais (por exemplo, uma coluna {@code DECIMAL(10, 2)}).
+     * @return o valor em centavos, ou 0 se o valor for nulo.
+     * @throws ArithmeticException se o valor tiver mais de duas casas decimais diferentes de zero.
+     */
+    public static long deDecimal(BigDecimal valor) {
+        if (valor == null) {
+            return 0;
+        }
+        return valor.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converte um valor em centavos para decimal, para ser gravado no banco de dados.
+     *
+     * @param centavos o valor em centavos.
+     * @return o valor decimal com duas casas.
+     */
+    public static BigDecimal paraDecimal(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    /**
+     * Converte um valor digitado pelo usuário, como "12.50" ou "12,50", para centavos.
+     *
+     * @param texto o valor digitado.
+     * @return o valor em centavos.
+     * @throws NumberFormatException se o texto não for um número ou tiver mais de duas casas decimais.
+     */
+    public static long converter(String texto) {
+        BigDecimal valor = new BigDecimal(texto.trim().replace(',', '.'));
+        try {
+            return deDecimal(valor);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Valor com mais de duas casas decimais: " + texto);
+        }
+    }
+
+    /**
+     * Formata um valor em centavos com duas casas decimais, como "12.50".
+     *
+     * @param centavos o valor em centavos.
+     * @return o valor formatado.
+     */
+    public static String formatar(long centavos) {
+        StringBuilder sb = new StringBuilder(16);
+        formatar(sb, centavos);
+        return sb.toString();
+    }
+
+    /**
+     * Escreve um valor em centavos com duas casas decimais, como "12.50", sem criar um {@code String}
+     * (usado para escrever muitos valores seguidos, como na exportação de vendas).
+     *
+     * @param sb       onde escrever.
+     * @param centavos o valor em centavos.
+     */
+    public static void formatar(StringBuilder sb, long centavos) {
+        if (centavos < 0) {
+            sb.append('-');
+        }
+        long absoluto = Math.abs(centavos);
+        long resto = absoluto % 100;
+        sb.append(absoluto / 100).append('.');
+        if (resto < 10) {
+            sb.append('0');
+        }
+        sb.append(resto);
+    }
+}
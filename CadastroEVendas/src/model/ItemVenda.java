@@ -0,0 +1,84 @@
+package model;
+
+/**
+ * Classe que representa uma linha de uma venda: um produto, a quantidade vendida
+ * e o preço unitário cobrado no momento da venda (em centavos).
+ * <br>
+ * O preço unitário é guardado na própria linha porque o preço de venda do produto
+ * pode mudar depois; assim, o total de uma venda antiga continua sendo o valor cobrado.
+ */
+public class ItemVenda {
+
+    /** Produto vendido. */
+    private Produto produto;
+
+    /** Quantidade de unidades vendidas do produto. */
+    private int quantidade;
+
+    /** Preço de cada unidade no momento da venda, em centavos. */
+    private long precoUnitario;
+
+    /**
+     * Construtor completo com parâmetros.
+     *
+     * @param produto       o produto vendido.
+     * @param quantidade    a quantidade de unidades (maior que zero).
+     * @param precoUnitario o preço de cada unidade, em centavos.
+     * @throws IllegalArgumentException se a quantidade não for positiva.
+     */
+    public ItemVenda(Produto produto, int quantidade, long precoUnitario) {
+        if (quantidade <= 0) {
+            throw new IllegalArgumentException("A quantidade de um item deve ser maior que zero.");
+        }
+        this.produto = produto;
+        this.quantidade = quantidade;
+        this.precoUnitario = precoUnitario;
+    }
+
+    /**
+     * Retorna o produto vendido.
+     *
+     * @return o produto desta linha.
+     */
+    public Produto getProduto() {
+        return produto;
+    }
+
+    /**
+     * Retorna a quantidade de unidades vendidas.
+     *
+     * @return a quantidade.
+     */
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Retorna o preço de cada unidade no momento da venda.
+     *
+     * @return o preço unitário, em centavos.
+     */
+    public long getPrecoUnitario() {
+        return precoUnitario;
+    }
+
+    /**
+     * Calcula o valor da linha, isto é, a quantidade vezes o preço unitário.
+     *
+     * @return o subtotal, em centavos.
+     */
+    public long getSubtotal() {
+        return quantidade * precoUnitario;
+    }
+
+    /**
+     * Retorna uma representação textual da linha, com quantidade, produto, preço unitário e subtotal.
+     *
+     * @return a linha formatada.
+     */
+    @Override
+    public String toString() {
+        return quantidade + " x " + produto.getNome() + " (R$ " + Dinheiro.formatar(precoUnitario)
+                + ") = R$ " + Dinheiro.formatar(getSubtotal());
+    }
+}
@@ -29,12 +29,12 @@ public class Livro extends Produto {
      *
      * @param id          ID do produto (herdado de Produto).
      * @param nome        Nome do produto (livro) (herdado de Produto).
-     * @param precoCompra Preço de compra do livro (herdado de Produto).
-     * @param precoVenda  Preço de venda do livro (herdado de Produto).
+     * @param precoCompra Preço de compra do livro, em centavos (herdado de Produto).
+     * @param precoVenda  Preço de venda do livro, em centavos (herdado de Produto).
      * @param estoque     Quantidade em estoque do livro (herdado de Produto).
      * @param autor       Nome do autor do livro.
      */
-    public Livro(Integer id, String nome, Double precoCompra, Double precoVenda, Integer estoque, String autor) {
+    public Livro(Integer id, String nome, long precoCompra, long precoVenda, Integer estoque, String autor) {
         super(id, nome, precoCompra, precoVenda, estoque); // Chama o construtor da superclasse Produto para inicializar os atributos herdados.
         this.autor = autor; // Inicializa o atributo específico da classe Livro.
     }
@@ -81,8 +81,8 @@ public class Livro extends Produto {
     public String toString() {
         return "Livro [ID=" + getId() +
                ", Nome=" + getNome() +
-               ", Preço Compra=" + getPrecoCompra() +
-               ", Preço Venda=" + getPrecoVenda() +
+               ", Preço Compra=" + Dinheiro.formatar(getPrecoCompra()) +
+               ", Preço Venda=" + Dinheiro.formatar(getPrecoVenda()) +
                ", Estoque=" + getEstoque() +
                ", Autor=" + getAutor() + "]";
     }
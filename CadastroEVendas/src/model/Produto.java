@@ -7,6 +7,7 @@ import java.util.Objects;
  * Contém informações essenciais como um identificador único (ID),
  * o nome do produto, o preço de compra (custo para a loja), o preço de venda
  * (preço para o cliente) e a quantidade atual em estoque.
+ * Os preços são guardados em centavos (ver {@link Dinheiro}).
  */
 public class Produto {
 
@@ -14,8 +15,8 @@ public class Produto {
     // O acesso direto a esses atributos é controlado por meio de métodos (getters e setters).
     private Integer id;
     private String nome;
-    private Double precoCompra;
-    private Double precoVenda;
+    private long precoCompra;
+    private long precoVenda;
     private Integer estoque;
 
     // ------------------------------------------------------------------------------------
@@ -40,11 +41,11 @@ public class Produto {
      *
      * @param id          Identificador único do produto.
      * @param nome        Nome do produto.
-     * @param precoCompra Preço pelo qual a loja adquire o produto.
-     * @param precoVenda  Preço pelo qual o produto é vendido ao cliente.
+     * @param precoCompra Preço pelo qual a loja adquire o produto, em centavos.
+     * @param precoVenda  Preço pelo qual o produto é vendido ao cliente, em centavos.
      * @param estoque     Quantidade atual do produto em estoque.
      */
-    public Produto(Integer id, String nome, Double precoCompra, Double precoVenda, Integer estoque) {
+    public Produto(Integer id, String nome, long precoCompra, long precoVenda, Integer estoque) {
         this.id = id;
         this.nome = nome;
         this.precoCompra = precoCompra;
@@ -100,9 +101,9 @@ public class Produto {
      * Retorna o preço de compra do produto (o custo para a loja).
      * Este método permite acessar o valor do atributo 'precoCompra' de fora da classe.
      *
-     * @return preço de compra do produto.
+     * @return preço de compra do produto, em centavos.
      */
-    public Double getPrecoCompra() {
+    public long getPrecoCompra() {
         return precoCompra;
     }
 
@@ -110,9 +111,9 @@ public class Produto {
      * Define o preço de compra do produto.
      * Este método permite modificar o valor do atributo 'precoCompra' de fora da classe.
      *
-     * @param precoCompra novo preço de compra do produto.
+     * @param precoCompra novo preço de compra do produto, em centavos.
      */
-    public void setPrecoCompra(Double precoCompra) {
+    public void setPrecoCompra(long precoCompra) {
         this.precoCompra = precoCompra;
     }
 
@@ -120,9 +121,9 @@ public class Produto {
      * Retorna o preço de venda do produto (o preço para o cliente).
      * Este método permite acessar o valor do atributo 'precoVenda' de fora da classe.
      *
-     * @return preço de venda do produto.
+     * @return preço de venda do produto, em centavos.
      */
-    public Double getPrecoVenda() {
+    public long getPrecoVenda() {
         return precoVenda;
     }
 
@@ -130,9 +131,9 @@ public class Produto {
      * Define o preço de venda do produto.
      * Este método permite modificar o valor do atributo 'precoVenda' de fora da classe.
      *
-     * @param precoVenda novo preço de venda do produto.
+     * @param precoVenda novo preço de venda do produto, em centavos.
      */
-    public void setPrecoVenda(Double precoVenda) {
+    public void setPrecoVenda(long precoVenda) {
         this.precoVenda = precoVenda;
     }
 
@@ -212,6 +213,6 @@ public class Produto {
      */
     @Override
     public String toString() {
-        return "Produto: nome=" + nome + ", preco=R$" + precoVenda;
+        return "Produto: nome=" + nome + ", preco=R$" + Dinheiro.formatar(precoVenda);
     }
 }
\ No newline at end of file
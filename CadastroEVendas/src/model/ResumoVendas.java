@@ -0,0 +1,125 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Classe que representa os totais das vendas de um período: número de vendas,
+ * número de itens vendidos, receita (soma dos preços de venda) e custo (soma dos
+ * preços de compra). A margem é a diferença entre a receita e o custo.
+ * <br>
+ * É usada tanto para um único dia (início igual ao fim), como nas linhas do resumo
+ * diário mantido pelo banco de dados, quanto para os totais de um período inteiro.
+ */
+public class ResumoVendas {
+
+    /** Primeiro dia do período (inclusive). */
+    private LocalDate inicio;
+
+    /** Último dia do período (inclusive). */
+    private LocalDate fim;
+
+    /** Número de vendas registradas no período. */
+    private int quantidadeVendas;
+
+    /** Número de itens vendidos no período (somando as quantidades de todas as vendas). */
+    private int quantidadeItens;
+
+    /** Soma dos preços de venda dos itens vendidos, em centavos. */
+    private long receita;
+
+    /** Soma dos preços de compra dos itens vendidos, em centavos. */
+    private long custo;
+
+    /**
+     * Construtor completo com parâmetros.
+     *
+     * @param inicio           primeiro dia do período.
+     * @param fim              último dia do período.
+     * @param quantidadeVendas número de vendas.
+     * @param quantidadeItens  número de itens vendidos.
+     * @param receita          soma dos preços de venda, em centavos.
+     * @param custo            soma dos preços de compra, em centavos.
+     */
+    public ResumoVendas(LocalDate inicio, LocalDate fim, int quantidadeVendas, int quantidadeItens, long receita, long custo) {
+        this.inicio = inicio;
+        this.fim = fim;
+        this.quantidadeVendas = quantidadeVendas;
+        this.quantidadeItens = quantidadeItens;
+        this.receita = receita;
+        this.custo = custo;
+    }
+
+    /**
+     * Retorna o primeiro dia do período.
+     *
+     * @return data inicial (inclusive).
+     */
+    public LocalDate getInicio() {
+        return inicio;
+    }
+
+    /**
+     * Retorna o último dia do período.
+     *
+     * @return data final (inclusive).
+     */
+    public LocalDate getFim() {
+        return fim;
+    }
+
+    /**
+     * Retorna o número de vendas do período.
+     *
+     * @return quantidade de vendas.
+     */
+    public int getQuantidadeVendas() {
+        return quantidadeVendas;
+    }
+
+    /**
+     * Retorna o número de itens vendidos no período.
+     *
+     * @return quantidade de itens.
+     */
+    public int getQuantidadeItens() {
+        return quantidadeItens;
+    }
+
+    /**
+     * Retorna a receita do período.
+     *
+     * @return soma dos preços de venda, em centavos.
+     */
+    public long getReceita() {
+        return receita;
+    }
+
+    /**
+     * Retorna o custo do período.
+     *
+     * @return soma dos preços de compra, em centavos.
+     */
+    public long getCusto() {
+        return custo;
+    }
+
+    /**
+     * Calcula a margem do período, isto é, a receita menos o custo.
+     *
+     * @return a margem, em centavos.
+     */
+    public long getMargem() {
+        return receita - custo;
+    }
+
+    /**
+     * Retorna uma representação em String do resumo.
+     *
+     * @return os totais do período formatados.
+     */
+    @Override
+    public String toString() {
+        return quantidadeVendas + " vendas, " + quantidadeItens + " itens, receita R$ " + Dinheiro.formatar(receita)
+                + ", custo R$ " + Dinheiro.formatar(custo) + ", margem R$ " + Dinheiro.formatar(getMargem());
+    }
+}
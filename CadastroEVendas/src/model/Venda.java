@@ -5,8 +5,8 @@ import java.util.List;
 
 /**
  * Classe que representa uma Venda realizada na loja.
- * Contém informações sobre o cliente que realizou a compra, a lista de produtos
- * que foram vendidos, a data em que a venda ocorreu e um identificador único para a venda.
+ * Contém informações sobre o cliente que realizou a compra, as linhas da venda
+ * (produto, quantidade e preço unitário, ver {@link ItemVenda}), a data em que a venda ocorreu e um identificador único para a venda.
  */
 public class Venda {
 
@@ -19,8 +19,8 @@ public class Venda {
     /** Objeto Cliente que representa a pessoa que realizou a compra. */
     private Cliente cliente;
 
-    /** Lista de objetos Produto que foram comprados nesta venda. */
-    private List<Produto> produtos;
+    /** Linhas da venda: um ItemVenda por produto distinto, com a quantidade e o preço cobrado. */
+    private List<ItemVenda> itens;
 
     /** Objeto LocalDate que representa a data em que a venda foi realizada. */
     private LocalDate dataVenda;
@@ -45,13 +45,13 @@ public class Venda {
      *
      * @param id        Identificador único da venda.
      * @param cliente   Objeto Cliente que realizou a compra.
-     * @param produtos  Lista de objetos Produto que foram comprados.
+     * @param itens     Linhas da venda (produto, quantidade e preço unitário).
      * @param dataVenda Objeto LocalDate que representa a data da venda.
      */
-    public Venda(Integer id, Cliente cliente, List<Produto> produtos, LocalDate dataVenda) {
+    public Venda(Integer id, Cliente cliente, List<ItemVenda> itens, LocalDate dataVenda) {
         this.id = id;
         this.cliente = cliente;
-        this.produtos = produtos;
+        this.itens = itens;
         this.dataVenda = dataVenda;
     }
 
@@ -100,23 +100,23 @@ public class Venda {
     }
 
     /**
-     * Retorna a lista de produtos vendidos nesta venda.
-     * Este método permite acessar a coleção de objetos Produto que foram comprados.
+     * Retorna as linhas desta venda.
+     * Este método permite acessar a coleção de objetos ItemVenda que compõem a venda.
      *
-     * @return lista de produtos desta venda.
+     * @return lista de itens desta venda.
      */
-    public List<Produto> getProdutos() {
-        return produtos;
+    public List<ItemVenda> getItens() {
+        return itens;
     }
 
     /**
-     * Define a lista de produtos vendidos.
-     * Este método permite substituir a lista de produtos associada a esta venda.
+     * Define as linhas da venda.
+     * Este método permite substituir a lista de itens associada a esta venda.
      *
-     * @param produtos nova lista de produtos que compõem a venda.
+     * @param itens nova lista de itens que compõem a venda.
      */
-    public void setProdutos(List<Produto> produtos) {
-        this.produtos = produtos;
+    public void setItens(List<ItemVenda> itens) {
+        this.itens = itens;
     }
 
     /**
@@ -144,30 +144,30 @@ public class Venda {
     // ------------------------------------------------------------------------------------
 
     /**
-     * Calcula o valor total da venda somando o preço de venda de todos os produtos
-     * presentes na lista de produtos desta venda. Utiliza a API de Streams do Java
-     * para realizar essa operação de forma concisa e funcional.
+     * Calcula o valor total da venda somando o subtotal (quantidade vezes preço unitário)
+     * de cada linha da venda. Como os preços estão em centavos, a soma é exata e não cria
+     * nenhum objeto.
      *
-     * @return a soma dos preços de venda de todos os produtos da venda.
+     * @return o valor total da venda, em centavos.
      */
-    public double calcularTotal() {
-        return produtos.stream()
-                       .mapToDouble(Produto::getPrecoVenda) // Transforma cada Produto em seu preço de venda (Double).
-                       .sum(); // Soma todos os preços de venda resultantes.
+    public long calcularTotal() {
+        long total = 0;
+        for (int i = 0; i < itens.size(); i++) {
+            total += itens.get(i).getSubtotal();
+        }
+        return total;
     }
 
     /**
-     * Retorna uma String formatada contendo a descrição de cada produto vendido
-     * nesta venda. Utiliza um StringBuilder para construir a string de forma eficiente,
-     * iterando sobre a lista de produtos e adicionando a representação textual de cada um
-     * (obtida através do método toString da classe Produto) seguida de uma nova linha.
+     * Retorna uma String formatada contendo a descrição de cada linha da venda
+     * (quantidade, produto, preço unitário e subtotal), uma por linha.
      *
-     * @return uma string formatada com as informações de cada produto vendido.
+     * @return uma string formatada com as informações de cada item vendido.
      */
-    public String listarProdutos() {
+    public String listarItens() {
         StringBuilder sb = new StringBuilder();
-        for (Produto p : produtos) {
-            sb.append(p.toString()).append("\n"); // Adiciona a representação textual do produto e uma nova linha.
+        for (ItemVenda item : itens) {
+            sb.append(item.toString()).append("\n"); // Adiciona a representação textual do item e uma nova linha.
         }
         return sb.toString();
     }
@@ -178,14 +178,13 @@ public class Venda {
 
     /**
      * Retorna uma representação textual da venda para facilitar a visualização ou depuração.
-     * Este método exibe o ID da venda, o cliente associado e a lista de produtos vendidos.
-     * A representação dos produtos dependerá da implementação do método toString na classe Produto.
+     * Este método exibe o ID da venda, o cliente associado e as linhas da venda.
      * A anotação @Override indica que este método está sobrescrevendo o método toString da classe Object.
      *
      * @return uma string contendo informações básicas sobre a venda.
      */
     @Override
     public String toString() {
-        return "Venda: id=" + id + ", cliente=" + cliente + ", produtos=" + produtos;
+        return "Venda: id=" + id + ", cliente=" + cliente + ", itens=" + itens;
     }
 }
\ No newline at end of file
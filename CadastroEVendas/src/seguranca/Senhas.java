@@ -0,0 +1,111 @@
+package seguranca;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Hash das senhas dos vendedores com PBKDF2 (HMAC-SHA256), um sal aleatório por senha e um número de
+ * iterações ajustável, disponível no próprio JDK.
+ * <br>
+ * O valor gravado na coluna 'vendedor.senha' tem o formato {@code pbkdf2-sha256$iteracoes$sal$hash}, com o
+ * sal e o hash em Base64. Como as iterações ficam no próprio valor, um hash gerado com um custo anterior
+ * continua sendo verificado, e {@link #precisaAtualizar(String, int)} indica quando ele deve ser refeito.
+ * Valores fora desse formato são senhas em texto puro, gravadas antes do hash, e são comparadas diretamente
+ * até serem substituídas no próximo login (ver {@link #ehHash(String)}).
+ * <br>
+ * Os cálculos são lentos de propósito; as chamadas devem passar pelo {@link VerificadorSenhas}.
+ */
+final class Senhas {
+
+    private static final String PREFIXO = "pbkdf2-sha256";
+    private static final String ALGORITMO = "PBKDF2WithHmacSHA256";
+    private static final int BYTES_SAL = 16;
+    private static final int BITS_HASH = 256;
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    private Senhas() {
+    }
+
+    /**
+     * Gera o valor a ser gravado para uma senha, com um sal novo.
+     *
+     * @param senha     a senha em texto puro.
+     * @param iteracoes o número de iterações do PBKDF2.
+     * @return o valor no formato {@code pbkdf2-sha256$iteracoes$sal$hash}.
+     */
+    static String gerar(String senha, int iteracoes) {
+        byte[] sal = new byte[BYTES_SAL];
+        ALEATORIO.nextBytes(sal);
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIXO + "$" + iteracoes + "$" + base64.encodeToString(sal) + "$"
+                + base64.encodeToString(calcular(senha, sal, iteracoes, BITS_HASH));
+    }
+
+    /**
+     * Confere uma senha com o valor gravado. A comparação leva o mesmo tempo qualquer que seja a
+     * posição da primeira diferença.
+     *
+     * @param senha      a senha informada.
+     * @param armazenado o valor gravado (hash ou, em cadastros antigos, a senha em texto puro).
+     * @return {@code true} se a senha corresponder ao valor gravado.
+     */
+    static boolean conferir(String senha, String armazenado) {
+        if (!ehHash(armazenado)) {
+            return MessageDigest.isEqual(senha.getBytes(StandardCharsets.UTF_8), armazenado.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] partes = armazenado.split("\\$");
+        if (partes.length != 4) {
+            return false;
+        }
+        try {
+            int iteracoes = Integer.parseInt(partes[1]);
+            byte[] sal = Base64.getDecoder().decode(partes[2]);
+            byte[] esperado = Base64.getDecoder().decode(partes[3]);
+            if (iteracoes < 1 || esperado.length == 0) {
+                return false;
+            }
+            return MessageDigest.isEqual(esperado, calcular(senha, sal, iteracoes, esperado.length * 8));
+        } catch (IllegalArgumentException e) {
+            return false; // Valor corrompido: iterações ou Base64 inválidos.
+        }
+    }
+
+    /**
+     * Indica se o valor gravado é um hash gerado por {@link #gerar(String, int)}, e não uma senha em texto puro.
+     *
+     * @param armazenado o valor gravado.
+     * @return {@code true} se o valor estiver no formato {@code pbkdf2-sha256$...}.
+     */
+    static boolean ehHash(String armazenado) {
+        return armazenado.startsWith(PREFIXO + "$");
+    }
+
+    /**
+     * Indica se o valor gravado deve ser refeito: senhas em texto puro e hashes gerados com outro
+     * número de iterações.
+     *
+     * @param armazenado o valor gravado.
+     * @param iteracoes  o número de iterações configurado.
+     * @return {@code true} se o valor não for um hash com as iterações configuradas.
+     */
+    static boolean precisaAtualizar(String armazenado, int iteracoes) {
+        return !armazenado.startsWith(PREFIXO + "$" + iteracoes + "$");
+    }
+
+    private static byte[] calcular(String senha, byte[] sal, int iteracoes, int bits) {
+        PBEKeySpec especificacao = new PBEKeySpec(senha.toCharArray(), sal, iteracoes, bits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITMO).generateSecret(especificacao).getEncoded();
+        } catch (GeneralSecurityException e) {
+            // O algoritmo faz parte de toda implementação do Java, e os parâmetros já foram validados.
+            throw new IllegalStateException("Erro ao calcular o hash da senha: " + e.getMessage(), e);
+        } finally {
+            especificacao.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package seguranca;
+
+import db.DB;
+import db.DbException;
+import db.HistogramaLatencia;
+
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cálculo e verificação dos hashes de senha ({@link Senhas}) em um pool limitado de threads.
+ * <br>
+ * Cada hash consome dezenas ou centenas de milissegundos de CPU. Para que uma rajada de logins não
+ * ocupe todos os núcleos e atrase as vendas, os cálculos rodam apenas nas threads deste pool
+ * ('senha.threads', padrão: metade dos processadores), com prioridade abaixo da normal. Os pedidos
+ * excedentes aguardam em uma fila limitada ('senha.fila', padrão 8 por thread); com a fila cheia, o pedido é
+ * recusado imediatamente com {@link RejectedExecutionException}, em vez de acumular espera.
+ * <br>
+ * O custo é o número de iterações do PBKDF2 ('senha.iteracoes', padrão 600000). Ao alterá-lo, os hashes
+ * existentes continuam válidos e são refeitos com o novo custo no próximo login de cada vendedor.
+ * <br>
+ * São medidos o tempo de espera na fila e o tempo de cálculo (em {@link HistogramaLatencia}), o tamanho
+ * atual e o máximo da fila e o número de pedidos recusados (ver {@link #getEstatisticas()}).
+ */
+public final class VerificadorSenhas {
+
+    private static volatile VerificadorSenhas instancia = null;
+
+    private final int iteracoes;
+    private final int tamanhoFila;
+    private final ThreadPoolExecutor pool;
+
+    private final HistogramaLatencia espera = new HistogramaLatencia();
+    private final HistogramaLatencia calculo = new HistogramaLatencia();
+    private final AtomicInteger maiorFila = new AtomicInteger();
+    private final AtomicLong recusados = new AtomicLong();
+
+    /**
+     * Resultado da verificação de uma senha.
+     */
+    public static final class Resultado {
+        private final boolean valida;
+        private final String novoHash;
+
+        Resultado(boolean valida, String novoHash) {
+            this.valida = valida;
+            this.novoHash = novoHash;
+        }
+
+        /**
+         * Indica se a senha confere com o valor gravado.
+         *
+         * @return {@code true} se a senha estiver correta.
+         */
+        public boolean isValida() {
+            return valida;
+        }
+
+        /**
+         * Retorna o hash que deve substituir o valor gravado, quando a senha estiver correta mas o valor
+         * tiver sido gerado com outro custo (ou ainda estiver em texto puro).
+         *
+         * @return o novo valor a ser gravado, ou {@code null} se o atual já estiver atualizado.
+         */
+        public String getNovoHash() {
+            return novoHash;
+        }
+    }
+
+    private VerificadorSenhas(int iteracoes, int threads, int tamanhoFila) {
+        this.iteracoes = iteracoes;
+        this.tamanhoFila = tamanhoFila;
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(tamanhoFila),
+                Thread.ofPlatform().name("senhas-", 0).daemon().priority(Thread.NORM_PRIORITY - 1).factory(),
+                (tarefa, executor) -> {
+                    recusados.incrementAndGet();
+                    throw new RejectedExecutionException("Muitas verificações de senha em andamento; tente novamente em instantes.");
+                });
+    }
+
+    /**
+     * Gera o hash de uma nova senha, com o custo configurado.
+     *
+     * @param senha a senha em texto puro.
+     * @return o valor a ser gravado na coluna 'vendedor.senha'.
+     * @throws RejectedExecutionException se a fila de cálculos estiver cheia.
+     */
+    public static String gerarHash(String senha) {
+        VerificadorSenhas v = getInstancia();
+        return v.executar(() -> Senhas.gerar(senha, v.iteracoes));
+    }
+
+    /**
+     * Confere uma senha com o valor gravado e, se ela estiver correta e o valor desatualizado,
+     * gera o novo hash na mesma tarefa.
+     * <br>
+     * Se o vendedor não existir ({@code armazenado} nulo), um hash é calculado mesmo assim e descartado,
+     * para que o tempo de resposta não revele quais usuários existem. Pelo mesmo motivo, se o valor gravado
+     * for uma senha em texto puro, o hash que a substituirá é calculado antes da comparação, mesmo que a
+     * senha esteja errada: todo login custa ao menos um cálculo de hash.
+     *
+     * @param senha      a senha informada.
+     * @param armazenado o valor gravado, ou {@code null} se o vendedor não existir.
+     * @return o resultado da verificação.
+     * @throws RejectedExecutionException se a fila de cálculos estiver cheia.
+     */
+    public static Resultado verificar(String senha, String armazenado) {
+        VerificadorSenhas v = getInstancia();
+        return v.executar(() -> {
+            if (armazenado == null) {
+                Senhas.gerar(senha, v.iteracoes);
+                return new Resultado(false, null);
+            }
+            if (!Senhas.ehHash(armazenado)) {
+                String novoHash = Senhas.gerar(senha, v.iteracoes);
+                return Senhas.conferir(senha, armazenado) ? new Resultado(true, novoHash) : new Resultado(false, null);
+            }
+            if (!Senhas.conferir(senha, armazenado)) {
+                return new Resultado(false, null);
+            }
+            String novoHash = Senhas.precisaAtualizar(armazenado, v.iteracoes) ? Senhas.gerar(senha, v.iteracoes) : null;
+            return new Resultado(true, novoHash);
+        });
+    }
+
+    /**
+     * Retorna as medições do pool: threads, fila, recusas e os tempos de espera e de cálculo.
+     *
+     * @return um resumo textual das medições.
+     */
+    public static String getEstatisticas() {
+        VerificadorSenhas v = getInstancia();
+        return String.format("iteracoes=%d, threads=%d, ativas=%d, fila=%d/%d (max=%d), recusados=%d, espera: %s, calculo: %s",
+                v.iteracoes, v.pool.getMaximumPoolSize(), v.pool.getActiveCount(), v.pool.getQueue().size(), v.tamanhoFila,
+                v.maiorFila.get(), v.recusados.get(), v.espera, v.calculo);
+    }
+
+    /**
+     * Executa o cálculo no pool e aguarda o resultado, medindo a espera na fila e o tempo de cálculo.
+     */
+    private <T> T executar(Supplier<T> tarefa) {
+        long enfileirado = System.nanoTime();
+        Future<T> futuro = pool.submit(() -> {
+            long inicio = System.nanoTime();
+            espera.registrar(inicio - enfileirado);
+            try {
+                return tarefa.get();
+            } finally {
+                calculo.registrar(System.nanoTime() - inicio);
+            }
+        });
+        maiorFila.accumulateAndGet(pool.getQueue().size(), Math::max);
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Verificação de senha interrompida.", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            throw new IllegalStateException("Erro ao calcular o hash da senha: " + causa.getMessage(), causa);
+        }
+    }
+
+    /**
+     * Retorna o verificador, criando-o na primeira chamada com a configuração de 'db.properties'.
+     *
+     * @throws DbException se algum valor configurado for inválido.
+     */
+    private static VerificadorSenhas getInstancia() {
+        if (instancia == null) {
+            synchronized (VerificadorSenhas.class) {
+                if (instancia == null) {
+                    Properties props = DB.carregarProperties();
+                    int threads = lerInteiro(props, "senha.threads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+                    instancia = new VerificadorSenhas(
+                            lerInteiro(props, "senha.iteracoes", 600_000),
+                            threads,
+                            lerInteiro(props, "senha.fila", 8 * threads));
+                }
+            }
+        }
+        return instancia;
+    }
+
+    private static int lerInteiro(Properties props, String chave, int padrao) {
+        String valor = props.getProperty(chave);
+        if (valor == null) {
+            return padrao;
+        }
+        try {
+            int numero = Integer.parseInt(valor.trim());
+            if (numero < 1) {
+                throw new NumberFormatException();
+            }
+            return numero;
+        } catch (NumberFormatException e) {
+            throw new DbException("Valor inválido para '" + chave + "': " + valor);
+        }
+    }
+}
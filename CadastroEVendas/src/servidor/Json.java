@@ -0,0 +1,228 @@
+package servidor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leitura e escrita de JSON para a API do servidor, sem bibliotecas externas.
+ * <br>
+ * A leitura converte o texto em objetos Java comuns: objetos em {@code Map<String, Object>}
+ * (na ordem do texto), listas em {@code List<Object>}, textos em {@code String}, números em
+ * {@link BigDecimal} (sem perda de precisão), {@code true}/{@code false} em {@code Boolean}
+ * e {@code null} em {@code null}. Na escrita, feita campo a campo pelo servidor e pela exportação
+ * de vendas, apenas os textos precisam de tratamento ({@link #escreverTexto(StringBuilder, String)}).
+ */
+public final class Json {
+
+    // Limite de objetos e listas aninhados, para que um documento malicioso não esgote a pilha.
+    private static final int PROFUNDIDADE_MAXIMA = 32;
+
+    private final String texto;
+    private int pos = 0;
+    private int profundidade = 0;
+
+    private Json(String texto) {
+        this.texto = texto;
+    }
+
+    /**
+     * Converte um texto JSON em objetos Java.
+     *
+     * @param texto o documento JSON.
+     * @return o valor lido (Map, List, String, BigDecimal, Boolean ou {@code null}).
+     * @throws IllegalArgumentException se o texto não for um JSON válido.
+     */
+    static Object ler(String texto) {
+        Json leitor = new Json(texto);
+        Object valor = leitor.valor();
+        leitor.espacos();
+        if (leitor.pos != texto.length()) {
+            throw leitor.erro("conteúdo após o fim do documento");
+        }
+        return valor;
+    }
+
+    /**
+     * Escreve um texto como string JSON, entre aspas e com os caracteres especiais escapados.
+     *
+     * @param sb    onde escrever.
+     * @param valor o texto, ou {@code null} para escrever {@code null}.
+     */
+    public static void escreverTexto(StringBuilder sb, String valor) {
+        if (valor == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char ch = valor.charAt(i);
+            switch (ch) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (ch < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        sb.append(ch);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    private Object valor() {
+        espacos();
+        if (pos >= texto.length()) {
+            throw erro("fim inesperado do documento");
+        }
+        char ch = texto.charAt(pos);
+        if ((ch == '{' || ch == '[') && ++profundidade > PROFUNDIDADE_MAXIMA) {
+            throw erro("aninhamento excessivo");
+        }
+        switch (ch) {
+            case '{': return objeto();
+            case '[': return lista();
+            case '"': return texto();
+            case 't': return literal("true", Boolean.TRUE);
+            case 'f': return literal("false", Boolean.FALSE);
+            case 'n': return literal("null", null);
+            default:
+                if (ch == '-' || (ch >= '0' && ch <= '9')) {
+                    return numero();
+                }
+                throw erro("caractere inesperado '" + ch + "'");
+        }
+    }
+
+    private Map<String, Object> objeto() {
+        Map<String, Object> mapa = new LinkedHashMap<>();
+        pos++; // '{'
+        espacos();
+        if (consumir('}')) {
+            profundidade--;
+            return mapa;
+        }
+        do {
+            espacos();
+            if (pos >= texto.length() || texto.charAt(pos) != '"') {
+                throw erro("nome de campo esperado");
+            }
+            String nome = texto();
+            espacos();
+            if (!consumir(':')) {
+                throw erro("':' esperado");
+            }
+            mapa.put(nome, valor());
+            espacos();
+        } while (consumir(','));
+        if (!consumir('}')) {
+            throw erro("'}' esperado");
+        }
+        profundidade--;
+        return mapa;
+    }
+
+    private List<Object> lista() {
+        List<Object> lista = new ArrayList<>();
+        pos++; // '['
+        espacos();
+        if (consumir(']')) {
+            profundidade--;
+            return lista;
+        }
+        do {
+            lista.add(valor());
+            espacos();
+        } while (consumir(','));
+        if (!consumir(']')) {
+            throw erro("']' esperado");
+        }
+        profundidade--;
+        return lista;
+    }
+
+    private String texto() {
+        StringBuilder sb = new StringBuilder();
+        pos++; // '"'
+        while (pos < texto.length()) {
+            char ch = texto.charAt(pos++);
+            if (ch == '"') {
+                return sb.toString();
+            }
+            if (ch != '\\') {
+                sb.append(ch);
+                continue;
+            }
+            if (pos >= texto.length()) {
+                break;
+            }
+            char esc = texto.charAt(pos++);
+            switch (esc) {
+                case '"': case '\\': case '/': sb.append(esc); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u':
+                    if (pos + 4 > texto.length()) {
+                        throw erro("escape \\u incompleto");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(texto.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw erro("escape \\u inválido");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    throw erro("escape inválido '\\" + esc + "'");
+            }
+        }
+        throw erro("texto não terminado");
+    }
+
+    private BigDecimal numero() {
+        int inicio = pos;
+        while (pos < texto.length() && "+-0123456789.eE".indexOf(texto.charAt(pos)) >= 0) {
+            pos++;
+        }
+        try {
+            return new BigDecimal(texto.substring(inicio, pos));
+        } catch (NumberFormatException e) {
+            throw erro("número inválido");
+        }
+    }
+
+    private Object literal(String palavra, Object valor) {
+        if (!texto.startsWith(palavra, pos)) {
+            throw erro("valor inválido");
+        }
+        pos += palavra.length();
+        return valor;
+    }
+
+    private boolean consumir(char ch) {
+        if (pos < texto.length() && texto.charAt(pos) == ch) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void espacos() {
+        while (pos < texto.length() && Character.isWhitespace(texto.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException erro(String motivo) {
+        return new IllegalArgumentException("JSON inválido na posição " + pos + ": " + motivo + ".");
+    }
+}
@@ -0,0 +1,542 @@
+package servidor;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import controller.ClienteController;
+import controller.ProdutoController;
+import controller.VendaController;
+import db.DB;
+import db.DBIntregatyException;
+import db.DbException;
+import model.Cliente;
+import model.Dinheiro;
+import model.ItemVenda;
+import model.Livro;
+import model.Produto;
+import model.ResumoVendas;
+import model.Venda;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Servidor HTTP sem interface gráfica, que expõe as operações de venda em JSON para vários caixas
+ * ou uma loja virtual ligados ao mesmo banco de dados. Iniciado por {@code app.Main --servidor}.
+ * <br>
+ * Usa o servidor HTTP do próprio JDK ({@code com.sun.net.httpserver}) com uma thread virtual por
+ * requisição: milhares de requisições simultâneas custam apenas milhares de threads virtuais, e o
+ * número de consultas simultâneas ao banco de dados continua limitado pelo pool de conexões
+ * (as demais requisições esperam uma conexão livre, sem ocupar threads do sistema).
+ * <br>
+ * Rotas (valores em dinheiro são números com duas casas decimais):
+ * <ul>
+ *     <li>{@code GET /api/clientes/{cpf}}: dados de um cliente;</li>
+ *     <li>{@code GET /api/produtos/{id}}: dados de um produto;</li>
+ *     <li>{@code GET /api/produtos?prefixo=...}: produtos cujo nome ou autor começa com o texto;</li>
+ *     <li>{@code POST /api/vendas}: registra uma venda, com o corpo
+ *     {@code {"cpf": "...", "itens": [{"produto": 1, "quantidade": 2}, ...]}};</li>
+ *     <li>{@code GET /api/vendas?inicio=AAAA-MM-DD&fim=AAAA-MM-DD}: vendas do período, com os itens;</li>
+ *     <li>{@code GET /api/vendas/resumo?inicio=AAAA-MM-DD&fim=AAAA-MM-DD}: totais do período.</li>
+ * </ul>
+ * Erros são respondidos com o status HTTP correspondente e o corpo {@code {"erro": "..."}}.
+ * Se a chave 'servidor.token' estiver definida em 'db.properties', todas as requisições devem
+ * enviar o cabeçalho {@code Authorization: Bearer <token>}.
+ */
+public class ServidorVendas {
+
+    private static final Logger LOG = Logger.getLogger(ServidorVendas.class.getName());
+
+    // Tamanho máximo do corpo de uma requisição (uma venda com milhares de itens cabe com folga).
+    private static final int TAMANHO_MAXIMO_CORPO = 1024 * 1024;
+    // Número máximo de produtos retornados pela busca por prefixo.
+    private static final int MAXIMO_SUGESTOES = 50;
+    private static final String TIPO_JSON = "application/json; charset=utf-8";
+
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+    private final String token;
+
+    private final ClienteController clienteController = new ClienteController();
+    private final ProdutoController produtoController = new ProdutoController();
+    private final VendaController vendaController = new VendaController();
+
+    /**
+     * Cria o servidor, sem iniciá-lo.
+     *
+     * @param endereco o endereço e a porta em que o servidor aceita conexões.
+     * @param backlog  o número de conexões aguardando aceitação no sistema operacional (0 usa o padrão do sistema).
+     * @param token    o token exigido no cabeçalho Authorization, ou {@code null} para não exigir autenticação.
+     * @throws IOException se a porta não puder ser aberta.
+     */
+    public ServidorVendas(InetSocketAddress endereco, int backlog, String token) throws IOException {
+        this.token = (token == null || token.isBlank()) ? null : token.trim();
+        this.servidor = HttpServer.create(endereco, backlog);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-", 0).factory());
+        servidor.setExecutor(executor);
+        servidor.createContext("/api/clientes/", troca -> tratar(troca, "GET", this::buscarCliente));
+        servidor.createContext("/api/produtos", troca -> tratar(troca, "GET", this::buscarProdutos));
+        servidor.createContext("/api/vendas", troca -> tratar(troca, null, this::vendas));
+        servidor.createContext("/api/vendas/resumo", troca -> tratar(troca, "GET", this::resumirVendas));
+    }
+
+    /**
+     * Cria o servidor com as chaves 'servidor.porta' (padrão 8080), 'servidor.backlog' (padrão 1024)
+     * e 'servidor.token' do arquivo 'db.properties'.
+     *
+     * @param porta a porta informada na linha de comando, ou {@code null} para usar a configurada.
+     * @return o servidor, ainda não iniciado.
+     * @throws IOException se a porta não puder ser aberta.
+     * @throws DbException se algum valor configurado não for um número.
+     */
+    public static ServidorVendas configurar(Integer porta) throws IOException {
+        Properties prop = DB.carregarProperties();
+        int p = (porta != null) ? porta : lerInteiro(prop, "servidor.porta", "8080");
+        int backlog = lerInteiro(prop, "servidor.backlog", "1024");
+        return new ServidorVendas(new InetSocketAddress(p), backlog, prop.getProperty("servidor.token"));
+    }
+
+    /**
+     * Começa a aceitar requisições.
+     */
+    public void iniciar() {
+        servidor.start();
+        LOG.info("Servidor de vendas aceitando requisições na porta " + getPorta()
+                + (token == null ? " (sem autenticação)" : ""));
+    }
+
+    /**
+     * Para de aceitar requisições, espera as em andamento terminarem (até o prazo) e encerra o servidor.
+     *
+     * @param prazoSegundos o tempo máximo de espera pelas requisições em andamento.
+     */
+    public void parar(int prazoSegundos) {
+        servidor.stop(prazoSegundos);
+        executor.shutdown();
+    }
+
+    /**
+     * Retorna a porta em que o servidor aceita conexões (útil quando criado com a porta 0).
+     *
+     * @return o número da porta.
+     */
+    public int getPorta() {
+        return servidor.getAddress().getPort();
+    }
+
+    // ------------------------------------------------------------------------------------
+    // Rotas
+    // ------------------------------------------------------------------------------------
+
+    private void buscarCliente(HttpExchange troca) throws IOException {
+        String cpf = parametroCaminho(troca, "/api/clientes/");
+        Cliente cliente = clienteController.buscarCliente(cpf);
+        if (cliente == null) {
+            throw new ErroHttp(404, "Cliente não encontrado: " + cpf);
+        }
+        StringBuilder sb = new StringBuilder();
+        escreverCliente(sb, cliente);
+        responder(troca, 200, sb);
+    }
+
+    private void buscarProdutos(HttpExchange troca) throws IOException {
+        String caminho = troca.getRequestURI().getPath();
+        if (caminho.equals("/api/produtos") || caminho.equals("/api/produtos/")) {
+            String prefixo = parametrosConsulta(troca).get("prefixo");
+            if (prefixo == null || prefixo.isBlank()) {
+                throw new ErroHttp(400, "Informe o parâmetro 'prefixo'.");
+            }
+            List<Produto> produtos = produtoController.sugerirProdutos(prefixo.trim(), MAXIMO_SUGESTOES);
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < produtos.size(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                escreverProduto(sb, produtos.get(i));
+            }
+            responder(troca, 200, sb.append(']'));
+            return;
+        }
+        int id = converterInteiro(parametroCaminho(troca, "/api/produtos/"), "ID do produto");
+        Produto produto = produtoController.buscarProduto(id);
+        if (produto == null) {
+            throw new ErroHttp(404, "Produto não encontrado: " + id);
+        }
+        StringBuilder sb = new StringBuilder();
+        escreverProduto(sb, produto);
+        responder(troca, 200, sb);
+    }
+
+    private void vendas(HttpExchange troca) throws IOException {
+        String caminho = troca.getRequestURI().getPath();
+        if (!caminho.equals("/api/vendas") && !caminho.equals("/api/vendas/")) {
+            throw new ErroHttp(404, "Recurso não encontrado: " + caminho);
+        }
+        String metodo = troca.getRequestMethod();
+        if (metodo.equals("POST")) {
+            registrarVenda(troca);
+        } else if (metodo.equals("GET")) {
+            listarVendas(troca);
+        } else {
+            troca.getResponseHeaders().set("Allow", "GET, POST");
+            throw new ErroHttp(405, "Método não permitido: " + metodo);
+        }
+    }
+
+    /**
+     * Registra uma venda. Os preços são os preços de venda atuais dos produtos; produtos repetidos
+     * no pedido são somados em uma única linha pelo DAO.
+     */
+    private void registrarVenda(HttpExchange troca) throws IOException {
+        Map<?, ?> pedido = comoObjeto(Json.ler(lerCorpo(troca)), "o corpo da requisição");
+        Object cpf = pedido.get("cpf");
+        if (!(cpf instanceof String)) {
+            throw new ErroHttp(400, "Informe o campo 'cpf'.");
+        }
+        Object listaItens = pedido.get("itens");
+        if (!(listaItens instanceof List) || ((List<?>) listaItens).isEmpty()) {
+            throw new ErroHttp(400, "Informe ao menos um item em 'itens'.");
+        }
+
+        Cliente cliente = clienteController.buscarCliente((String) cpf);
+        if (cliente == null) {
+            throw new ErroHttp(404, "Cliente não encontrado: " + cpf);
+        }
+        List<ItemVenda> itens = new ArrayList<>();
+        for (Object elemento : (List<?>) listaItens) {
+            Map<?, ?> item = comoObjeto(elemento, "cada item");
+            int idProduto = lerInteiroJson(item.get("produto"), "produto");
+            int quantidade = lerInteiroJson(item.get("quantidade"), "quantidade");
+            if (quantidade <= 0) {
+                throw new ErroHttp(400, "A quantidade do produto " + idProduto + " deve ser maior que zero.");
+            }
+            Produto produto = produtoController.buscarProduto(idProduto);
+            if (produto == null) {
+                throw new ErroHttp(404, "Produto não encontrado: " + idProduto);
+            }
+            itens.add(new ItemVenda(produto, quantidade, produto.getPrecoVenda()));
+        }
+
+        Venda venda = vendaController.realizarVenda(cliente, itens);
+        StringBuilder sb = new StringBuilder();
+        escreverVenda(sb, venda);
+        responder(troca, 201, sb);
+    }
+
+    /**
+     * Lista as vendas do período. As vendas são lidas de um cursor ({@code VendaDAO.percorrerPorPeriodo})
+     * e cada uma é escrita na resposta assim que é montada: nem a lista de vendas nem o documento JSON
+     * ficam inteiros em memória, qualquer que seja o tamanho do período.
+     */
+    private void listarVendas(HttpExchange troca) throws IOException {
+        Map<String, String> parametros = parametrosConsulta(troca);
+        LocalDate inicio = converterData(parametros.get("inicio"), "inicio");
+        LocalDate fim = converterData(parametros.get("fim"), "fim");
+
+        troca.getResponseHeaders().set("Content-Type", TIPO_JSON);
+        troca.sendResponseHeaders(200, 0); // Tamanho 0: resposta em partes (chunked).
+        try (Writer saida = new BufferedWriter(new OutputStreamWriter(troca.getResponseBody(), StandardCharsets.UTF_8))) {
+            StringBuilder sb = new StringBuilder(512);
+            saida.write('[');
+            try {
+                vendaController.percorrerVendasPorPeriodo(inicio, fim, venda -> {
+                    if (sb.length() > 0) {
+                        sb.setLength(0);
+                        sb.append(',');
+                    }
+                    escreverVenda(sb, venda);
+                    try {
+                        saida.append(sb);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause(); // O cliente fechou a conexão durante a leitura.
+            }
+            saida.write(']');
+        }
+    }
+
+    private void resumirVendas(HttpExchange troca) throws IOException {
+        exigirCaminho(troca, "/api/vendas/resumo");
+        Map<String, String> parametros = parametrosConsulta(troca);
+        LocalDate inicio = converterData(parametros.get("inicio"), "inicio");
+        LocalDate fim = converterData(parametros.get("fim"), "fim");
+        ResumoVendas resumo = vendaController.totalizarPeriodo(inicio, fim);
+        StringBuilder sb = new StringBuilder("{\"inicio\":\"").append(resumo.getInicio())
+                .append("\",\"fim\":\"").append(resumo.getFim())
+                .append("\",\"vendas\":").append(resumo.getQuantidadeVendas())
+                .append(",\"itens\":").append(resumo.getQuantidadeItens())
+                .append(",\"receita\":").append(Dinheiro.formatar(resumo.getReceita()))
+                .append(",\"custo\":").append(Dinheiro.formatar(resumo.getCusto()))
+                .append(",\"margem\":").append(Dinheiro.formatar(resumo.getMargem()))
+                .append('}');
+        responder(troca, 200, sb);
+    }
+
+    // ------------------------------------------------------------------------------------
+    // Representação em JSON
+    // ------------------------------------------------------------------------------------
+
+    private static void escreverCliente(StringBuilder sb, Cliente c) {
+        sb.append("{\"cpf\":");
+        Json.escreverTexto(sb, c.getCpf());
+        sb.append(",\"nome\":");
+        Json.escreverTexto(sb, c.getNome());
+        sb.append(",\"telefone\":");
+        Json.escreverTexto(sb, c.getTelefone());
+        sb.append(",\"endereco\":");
+        Json.escreverTexto(sb, c.getEndereco());
+        sb.append('}');
+    }
+
+    /**
+     * Escreve o produto sem o preço de compra, que não deve ser exposto aos caixas e à loja virtual.
+     */
+    private static void escreverProduto(StringBuilder sb, Produto p) {
+        sb.append("{\"id\":").append(p.getId()).append(",\"nome\":");
+        Json.escreverTexto(sb, p.getNome());
+        sb.append(",\"precoVenda\":").append(Dinheiro.formatar(p.getPrecoVenda()))
+                .append(",\"estoque\":").append(p.getEstoque());
+        if (p instanceof Livro) {
+            sb.append(",\"autor\":");
+            Json.escreverTexto(sb, ((Livro) p).getAutor());
+        }
+        sb.append('}');
+    }
+
+    private static void escreverVenda(StringBuilder sb, Venda v) {
+        sb.append("{\"id\":").append(v.getId()).append(",\"data\":\"").append(v.getDataVenda()).append("\",\"cliente\":");
+        escreverCliente(sb, v.getCliente());
+        sb.append(",\"itens\":[");
+        List<ItemVenda> itens = v.getItens();
+        for (int i = 0; i < itens.size(); i++) {
+            ItemVenda item = itens.get(i);
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"produto\":").append(item.getProduto().getId()).append(",\"nome\":");
+            Json.escreverTexto(sb, item.getProduto().getNome());
+            sb.append(",\"quantidade\":").append(item.getQuantidade())
+                    .append(",\"precoUnitario\":").append(Dinheiro.formatar(item.getPrecoUnitario()))
+                    .append(",\"subtotal\":").append(Dinheiro.formatar(item.getSubtotal()))
+                    .append('}');
+        }
+        sb.append("],\"total\":").append(Dinheiro.formatar(v.calcularTotal())).append('}');
+    }
+
+    // ------------------------------------------------------------------------------------
+    // Tratamento das requisições
+    // ------------------------------------------------------------------------------------
+
+    /**
+     * Rota do servidor; pode lançar {@link ErroHttp} para responder com um status de erro.
+     */
+    @FunctionalInterface
+    private interface Rota {
+        void tratar(HttpExchange troca) throws IOException;
+    }
+
+    /**
+     * Verifica o método e a autenticação, executa a rota e converte as exceções em respostas de erro.
+     *
+     * @param metodo o método HTTP aceito, ou {@code null} se a própria rota verificar o método.
+     */
+    private void tratar(HttpExchange troca, String metodo, Rota rota) {
+        try (troca) {
+            try {
+                if (token != null && !autenticada(troca)) {
+                    troca.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+                    throw new ErroHttp(401, "Autenticação necessária.");
+                }
+                if (metodo != null && !metodo.equals(troca.getRequestMethod())) {
+                    troca.getResponseHeaders().set("Allow", metodo);
+                    throw new ErroHttp(405, "Método não permitido: " + troca.getRequestMethod());
+                }
+                rota.tratar(troca);
+            } catch (ErroHttp e) {
+                responderErro(troca, e.status, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                // Validações do modelo e JSON inválido.
+                responderErro(troca, 400, e.getMessage());
+            } catch (DBIntregatyException e) {
+                // Regras garantidas pelo banco de dados, como o estoque insuficiente.
+                responderErro(troca, 409, e.getMessage());
+            } catch (DbException e) {
+                LOG.log(Level.WARNING, "Erro de banco de dados em " + troca.getRequestURI(), e);
+                responderErro(troca, 503, e.getMessage());
+            } catch (RuntimeException e) {
+                LOG.log(Level.SEVERE, "Erro inesperado em " + troca.getRequestURI(), e);
+                responderErro(troca, 500, "Erro interno do servidor.");
+            }
+        } catch (IOException e) {
+            // O cliente fechou a conexão antes de receber a resposta: não há a quem responder.
+            LOG.log(Level.FINE, "Falha ao responder " + troca.getRequestURI(), e);
+        }
+    }
+
+    /**
+     * Compara o token recebido com o configurado em tempo constante, para não revelar quantos
+     * caracteres iniciais estão corretos pelo tempo de resposta.
+     */
+    private boolean autenticada(HttpExchange troca) {
+        String recebido = troca.getRequestHeaders().getFirst("Authorization");
+        return recebido != null && MessageDigest.isEqual(("Bearer " + token).getBytes(StandardCharsets.UTF_8),
+                recebido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void responder(HttpExchange troca, int status, CharSequence json) throws IOException {
+        byte[] corpo = json.toString().getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().set("Content-Type", TIPO_JSON);
+        troca.sendResponseHeaders(status, corpo.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(corpo);
+        }
+    }
+
+    private static void responderErro(HttpExchange troca, int status, String mensagem) throws IOException {
+        if (troca.getResponseCode() != -1) {
+            return; // Os cabeçalhos já foram enviados (erro no meio de uma resposta em partes).
+        }
+        StringBuilder sb = new StringBuilder("{\"erro\":");
+        Json.escreverTexto(sb, mensagem);
+        responder(troca, status, sb.append('}'));
+    }
+
+    private static String lerCorpo(HttpExchange troca) throws IOException {
+        try (InputStream entrada = troca.getRequestBody()) {
+            ByteArrayOutputStream corpo = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int lidos;
+            while ((lidos = entrada.read(buffer)) != -1) {
+                if (corpo.size() + lidos > TAMANHO_MAXIMO_CORPO) {
+                    throw new ErroHttp(413, "Requisição maior que " + TAMANHO_MAXIMO_CORPO + " bytes.");
+                }
+                corpo.write(buffer, 0, lidos);
+            }
+            return corpo.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Retorna o trecho do caminho após o prefixo da rota, como o CPF em {@code /api/clientes/12345678901}.
+     * O contexto do servidor aceita qualquer caminho que comece pelo nome da rota (por exemplo,
+     * {@code /api/produtosX1}), por isso o prefixo completo, com a barra, é conferido aqui.
+     */
+    private static String parametroCaminho(HttpExchange troca, String prefixo) {
+        String caminho = troca.getRequestURI().getPath();
+        String valor = caminho.startsWith(prefixo) ? caminho.substring(prefixo.length()) : "";
+        if (valor.isEmpty() || valor.contains("/")) {
+            throw new ErroHttp(404, "Recurso não encontrado: " + caminho);
+        }
+        return valor;
+    }
+
+    /**
+     * Recusa com 404 os caminhos que apenas começam pelo da rota (como {@code /api/vendas/resumoX}),
+     * aceitos pelo contexto do servidor.
+     */
+    private static void exigirCaminho(HttpExchange troca, String rota) {
+        String caminho = troca.getRequestURI().getPath();
+        if (!caminho.equals(rota) && !caminho.equals(rota + "/")) {
+            throw new ErroHttp(404, "Recurso não encontrado: " + caminho);
+        }
+    }
+
+    private static Map<String, String> parametrosConsulta(HttpExchange troca) {
+        Map<String, String> parametros = new HashMap<>();
+        String consulta = troca.getRequestURI().getRawQuery();
+        if (consulta == null) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0) {
+                parametros.put(URLDecoder.decode(par.substring(0, igual), StandardCharsets.UTF_8),
+                        URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parametros;
+    }
+
+    private static Map<?, ?> comoObjeto(Object valor, String descricao) {
+        if (!(valor instanceof Map)) {
+            throw new ErroHttp(400, "Era esperado um objeto JSON em " + descricao + ".");
+        }
+        return (Map<?, ?>) valor;
+    }
+
+    private static int lerInteiroJson(Object valor, String campo) {
+        if (!(valor instanceof BigDecimal)) {
+            throw new ErroHttp(400, "Informe o número inteiro '" + campo + "' em cada item.");
+        }
+        try {
+            return ((BigDecimal) valor).intValueExact();
+        } catch (ArithmeticException e) {
+            throw new ErroHttp(400, "Valor inválido para '" + campo + "': " + valor);
+        }
+    }
+
+    private static int converterInteiro(String texto, String descricao) {
+        try {
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            throw new ErroHttp(400, descricao + " inválido: " + texto);
+        }
+    }
+
+    private static LocalDate converterData(String texto, String parametro) {
+        if (texto == null) {
+            throw new ErroHttp(400, "Informe o parâmetro '" + parametro + "' (AAAA-MM-DD).");
+        }
+        try {
+            return LocalDate.parse(texto);
+        } catch (DateTimeParseException e) {
+            throw new ErroHttp(400, "Data inválida em '" + parametro + "': " + texto);
+        }
+    }
+
+    private static int lerInteiro(Properties prop, String chave, String padrao) {
+        String valor = prop.getProperty(chave, padrao);
+        try {
+            return Integer.parseInt(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new DbException("Valor inválido para '" + chave + "': " + valor);
+        }
+    }
+
+    /**
+     * Interrompe uma rota com um status HTTP de erro e a mensagem a ser enviada ao cliente.
+     */
+    private static final class ErroHttp extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        ErroHttp(int status, String mensagem) {
+            super(mensagem);
+            this.status = status;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package view;
 import java.awt.EventQueue;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import controller.VendedorController;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.event.ActionEvent;
@@ -22,6 +23,8 @@ public class CadastroView extends JFrame {
     private JTextField textUsuario;
     private JPasswordField passwordSenha;
     private JPasswordField passwordField;
+    private VendedorController controller = new VendedorController();
+    private TarefasTela tarefas;
 
     /**
      * Método principal para iniciar a aplicação e exibir a tela de cadastro.
@@ -48,7 +51,8 @@ public class CadastroView extends JFrame {
      * redimensionamento, centraliza a janela na tela e adiciona os elementos visuais
      * como rótulos, campos de texto, campos de senha e botões para cadastro e voltar.
      * Também implementa a lógica para o botão de cadastro, validando os campos
-     * e tentando cadastrar um novo vendedor através da camada DAO.
+     * e tentando cadastrar um novo vendedor através do VendedorController,
+     * em segundo plano (ver {@link TarefasTela}).
      */
     public CadastroView() {
         setTitle("CADASTRO"); // Define o título da janela de cadastro.
@@ -58,6 +62,7 @@ public class CadastroView extends JFrame {
         contentPane.setBorder(new EmptyBorder(5, 5, 5, 5)); // Define uma borda vazia ao redor do painel.
         setContentPane(contentPane); // Define o painel como o contentPane da JFrame.
         contentPane.setLayout(null); // Define o layout do painel como null para posicionamento manual dos componentes.
+        tarefas = new TarefasTela(this, null); // Executa o cadastro fora da EDT, com cursor de espera.
 
         JPanel panel = new JPanel(); // Cria um painel para a área de título.
         panel.setBounds(5, 5, 478, 67); // Define as dimensões e a posição do painel de título.
@@ -123,25 +128,29 @@ public class CadastroView extends JFrame {
                     return; // Sai do método se as senhas não forem iguais.
                 }
 
-                // Cria uma instância do VendedorDAO para realizar a operação de cadastro.
-                dao.VendedorDAO dao = new dao.VendedorDAO();
-                boolean sucesso = dao.cadastrar(usuario, senha); // Chama o método de cadastro no DAO.
-
-                // Verifica se o cadastro foi bem-sucedido.
-                if (sucesso) {
-                    JOptionPane.showMessageDialog(null, "Vendedor cadastrado com sucesso!");
-                    // Limpa os campos após o cadastro bem-sucedido.
-                    textUsuario.setText("");
-                    passwordSenha.setText("");
-                    passwordField.setText("");
-
-                    // Redireciona para a tela de login após o cadastro.
-                    LoginView login = new LoginView();
-                    login.setVisible(true);
-                    dispose(); // Fecha a tela de cadastro.
-                } else {
-                    JOptionPane.showMessageDialog(null, "Erro ao cadastrar. Tente novamente.");
+                // Ignora cliques repetidos enquanto o cadastro anterior não termina.
+                if (tarefas.emAndamento("cadastrar")) {
+                    return;
                 }
+
+                // Cadastra o vendedor em segundo plano, através do VendedorController.
+                tarefas.executar("cadastrar", () -> controller.cadastrar(usuario, senha), sucesso -> {
+                    // Verifica se o cadastro foi bem-sucedido.
+                    if (sucesso) {
+                        JOptionPane.showMessageDialog(null, "Vendedor cadastrado com sucesso!");
+                        // Limpa os campos após o cadastro bem-sucedido.
+                        textUsuario.setText("");
+                        passwordSenha.setText("");
+                        passwordField.setText("");
+
+                        // Redireciona para a tela de login após o cadastro.
+                        LoginView login = new LoginView();
+                        login.setVisible(true);
+                        dispose(); // Fecha a tela de cadastro.
+                    } else {
+                        JOptionPane.showMessageDialog(null, "Erro ao cadastrar. Tente novamente.");
+                    }
+                }, ex -> JOptionPane.showMessageDialog(null, "Erro ao cadastrar: " + ex.getMessage()));
             }
         });
         contentPane.add(btnCadastrar); // Adiciona o botão de cadastro ao contentPane.
@@ -7,8 +7,6 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -19,16 +17,19 @@ public class ClienteView extends JFrame {
 
     private static final long serialVersionUID = 1L;
 
-    private JTextField txtNome, txtCpf, txtTelefone, txtEndereco;
-    private JTextArea areaClientes;
+    private JTextField txtNome, txtCpf, txtTelefone, txtEndereco, txtFiltro;
+    private ModeloTabelaPaginada<Cliente> modeloClientes;
     private ClienteController controller = new ClienteController();
+    private TarefasTela tarefas;
 
     /**
      * Construtor da classe ClienteView.
      * Inicializa os componentes da interface gráfica, como rótulos, campos de texto,
-     * botões para as operações CRUD (Cadastrar, Buscar, Atualizar, Excluir, Listar)
-     * e um JTextArea para exibir a lista de clientes. Define também os listeners
+     * botões para as operações CRUD (Cadastrar, Buscar, Atualizar, Excluir, Listar) e para a importação
+     * de um arquivo CSV, e uma JTable, com um campo de filtro, para exibir a lista de clientes. Define também os listeners
      * para os botões, associando-os aos respectivos métodos de controle.
+     * As chamadas ao controlador são executadas em segundo plano (ver {@link TarefasTela}),
+     * com uma barra de progresso exibida na parte inferior da janela.
      */
     public ClienteView() {
         setTitle("Cadastro de Clientes");
@@ -80,6 +81,12 @@ public class ClienteView extends JFrame {
         btnListar.addActionListener(this::listarClientes); // Listener para o botão Listar Todos.
         painel.add(btnListar);
 
+        JButton btnImportar = new JButton("Importar CSV");
+        btnImportar.addActionListener(e -> DialogoImportacao.importar(this, tarefas,
+                "clientes (colunas nome, cpf, telefone, endereco)", controller::importarClientes,
+                modeloClientes::atualizar)); // Listener para o botão Importar CSV.
+        painel.add(btnImportar);
+
         JButton btnSair = new JButton("Sair");
         btnSair.addActionListener(e -> { // Listener para o botão Sair.
             int confirm = JOptionPane.showConfirmDialog(this, "Deseja realmente sair?", "Confirmar saída", JOptionPane.YES_NO_OPTION);
@@ -90,11 +97,52 @@ public class ClienteView extends JFrame {
         });
         painel.add(btnSair);
 
-        areaClientes = new JTextArea();
-        areaClientes.setEditable(false);
-        areaClientes.setFont(new Font("Monospaced", Font.PLAIN, 12));
-        JScrollPane scroll = new JScrollPane(areaClientes); // Adiciona barra de rolagem para a área de texto.
-        contentPane.add(scroll, BorderLayout.CENTER);
+        // Tabela de clientes: as linhas são buscadas em blocos, conforme a tabela é rolada.
+        JTable tabelaClientes = new JTable();
+        tabelaClientes.setFillsViewportHeight(true);
+        JScrollPane scroll = new JScrollPane(tabelaClientes); // Adiciona barra de rolagem para a tabela.
+
+        // Campo de filtro: procura o texto no nome ou no CPF, no próprio banco de dados.
+        JPanel painelLista = new JPanel(new BorderLayout(10, 10));
+        JPanel painelFiltro = new JPanel(new BorderLayout(10, 0));
+        painelFiltro.add(new JLabel("Filtrar (nome ou CPF):"), BorderLayout.WEST);
+        txtFiltro = new JTextField();
+        txtFiltro.addActionListener(this::listarClientes); // Enter aplica o filtro.
+        painelFiltro.add(txtFiltro, BorderLayout.CENTER);
+        painelLista.add(painelFiltro, BorderLayout.NORTH);
+        painelLista.add(scroll, BorderLayout.CENTER);
+        contentPane.add(painelLista, BorderLayout.CENTER);
+
+        JProgressBar barraProgresso = new JProgressBar(); // Exibida enquanto há consultas em andamento.
+        contentPane.add(barraProgresso, BorderLayout.SOUTH);
+        tarefas = new TarefasTela(this, barraProgresso);
+
+        modeloClientes = new ModeloTabelaPaginada<>(tarefas, "listar",
+                new String[]{"Nome", "CPF", "Telefone", "Endereço"},
+                new String[]{"nome", "cpf", "telefone", "endereco"}) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected int contar(String filtro) {
+                return controller.contarClientes(filtro);
+            }
+
+            @Override
+            protected List<Cliente> buscar(String filtro, String ordenarPor, boolean decrescente, int deslocamento, int tamanho) {
+                return controller.listarClientesFaixa(filtro, ordenarPor, decrescente, deslocamento, tamanho);
+            }
+
+            @Override
+            protected Object getValor(Cliente c, int coluna) {
+                switch (coluna) {
+                    case 0: return c.getNome();
+                    case 1: return c.getCpf();
+                    case 2: return c.getTelefone();
+                    default: return c.getEndereco();
+                }
+            }
+        };
+        modeloClientes.instalar(tabelaClientes);
     }
 
     /**
@@ -110,20 +158,22 @@ public class ClienteView extends JFrame {
             JOptionPane.showMessageDialog(this, "Por favor, insira as todas informações do cliente a ser cadastrado.", "Erro", JOptionPane.ERROR_MESSAGE);
             return;
         }
+        if (tarefas.emAndamento("gravar")) {
+            return; // Ignora cliques repetidos enquanto a gravação anterior não termina.
+        }
         int confirm = JOptionPane.showConfirmDialog(this, "Deseja realmente cadastrar este cliente?", "Confirmar cadastro", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
-            try {
-                controller.cadastrarCliente(
-                        txtNome.getText(),
-                        txtCpf.getText(),
-                        txtTelefone.getText(),
-                        txtEndereco.getText()
-                );
-                JOptionPane.showMessageDialog(this, "Cliente cadastrado com sucesso!");
-                limparCampos(); // Limpa os campos após o cadastro.
-            } catch (Exception ex) {
-                JOptionPane.showMessageDialog(this, "Erro ao cadastrar: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
-            }
+            String nome = txtNome.getText();
+            String cpf = txtCpf.getText();
+            String telefone = txtTelefone.getText();
+            String endereco = txtEndereco.getText();
+            tarefas.executar("gravar",
+                    () -> controller.cadastrarCliente(nome, cpf, telefone, endereco),
+                    () -> {
+                        JOptionPane.showMessageDialog(this, "Cliente cadastrado com sucesso!");
+                        limparCampos(); // Limpa os campos após o cadastro.
+                    },
+                    ex -> JOptionPane.showMessageDialog(this, "Erro ao cadastrar: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE));
         }
     }
 
@@ -140,8 +190,9 @@ public class ClienteView extends JFrame {
             JOptionPane.showMessageDialog(this, "Por favor, insira o CPF do cliente a ser buscado.", "Erro", JOptionPane.ERROR_MESSAGE);
             return;
         }
-        try {
-            Cliente c = controller.buscarCliente(txtCpf.getText());
+        String cpf = txtCpf.getText();
+        // Uma nova busca cancela a anterior, se ela ainda não tiver terminado.
+        tarefas.executar("buscar", () -> controller.buscarCliente(cpf), c -> {
             if (c != null) {
                 txtNome.setText(c.getNome());
                 txtTelefone.setText(c.getTelefone());
@@ -150,9 +201,7 @@ public class ClienteView extends JFrame {
             } else {
                 JOptionPane.showMessageDialog(this, "Cliente não encontrado.");
             }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Erro ao buscar: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
-        }
+        }, ex -> JOptionPane.showMessageDialog(this, "Erro ao buscar: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE));
     }
 
     /**
@@ -168,21 +217,27 @@ public class ClienteView extends JFrame {
             JOptionPane.showMessageDialog(this, "Por favor, insira as informações do cliente a ser atualizado.", "Erro", JOptionPane.ERROR_MESSAGE);
             return;
         }
+        if (tarefas.emAndamento("gravar")) {
+            return; // Ignora cliques repetidos enquanto a gravação anterior não termina.
+        }
         int confirm = JOptionPane.showConfirmDialog(this, "Deseja realmente atualizar este cliente?", "Confirmar atualização", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
+            Cliente c;
             try {
-                Cliente c = new Cliente(
+                c = new Cliente(
                         txtNome.getText(),
                         txtCpf.getText(),
                         txtTelefone.getText(),
                         txtEndereco.getText()
                 );
-                controller.atualizarCliente(c);
-                JOptionPane.showMessageDialog(this, "Cliente atualizado com sucesso!");
-                limparCampos(); // Limpa os campos após o cadastro.
-            } catch (Exception ex) {
+            } catch (IllegalArgumentException ex) {
                 JOptionPane.showMessageDialog(this, "Erro ao atualizar: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+                return;
             }
+            tarefas.executar("gravar", () -> controller.atualizarCliente(c), () -> {
+                JOptionPane.showMessageDialog(this, "Cliente atualizado com sucesso!");
+                limparCampos(); // Limpa os campos após o cadastro.
+            }, ex -> JOptionPane.showMessageDialog(this, "Erro ao atualizar: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE));
         }
     }
 
@@ -198,41 +253,30 @@ public class ClienteView extends JFrame {
             JOptionPane.showMessageDialog(this, "Por favor, insira o CPF do cliente a ser excluído.", "Erro", JOptionPane.ERROR_MESSAGE);
             return;
         }
+        if (tarefas.emAndamento("gravar")) {
+            return; // Ignora cliques repetidos enquanto a gravação anterior não termina.
+        }
         int confirm = JOptionPane.showConfirmDialog(this, "Deseja realmente excluir este cliente?", "Confirmar exclusão", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
-            try {
-                controller.excluirCliente(txtCpf.getText());
+            String cpf = txtCpf.getText();
+            tarefas.executar("gravar", () -> controller.excluirCliente(cpf), () -> {
                 JOptionPane.showMessageDialog(this, "Cliente excluído com sucesso!");
                 limparCampos(); // Limpa os campos após a exclusão.
-            } catch (Exception ex) {
-                JOptionPane.showMessageDialog(this, "Erro ao excluir: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
-            }
+            }, ex -> JOptionPane.showMessageDialog(this, "Erro ao excluir: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE));
         }
     }
 
     /**
-     * Método chamado ao clicar no botão "Listar Todos".
-     * Obtém a lista de todos os clientes cadastrados utilizando o ClienteController,
-     * ordena a lista por nome e exibe os dados na JTextArea.
+     * Método chamado ao clicar no botão "Listar Todos" (ou ao pressionar Enter no campo de filtro).
+     * Lista na tabela os clientes que contêm o texto do filtro no nome ou no CPF (todos, se o filtro
+     * estiver vazio), na ordem escolhida pelo cabeçalho da tabela. O total e o primeiro bloco de linhas
+     * são buscados em segundo plano; os demais blocos, conforme a tabela é rolada.
+     * Uma nova listagem descarta uma listagem ainda em andamento.
      *
      * @param e Evento de clique do botão.
      */
     private void listarClientes(ActionEvent e) {
-        try {
-            List<Cliente> lista = controller.listarClientes();
-            Collections.sort(lista, Comparator.comparing(Cliente::getNome)); // Ordena a lista por nome.
-            areaClientes.setText(""); // Limpa a área de texto antes de exibir a lista.
-            for (Cliente c : lista) {
-                areaClientes.append("Cliente\n");
-                areaClientes.append("nome: " + c.getNome() + "\n");
-                areaClientes.append("cpf: " + c.getCpf() + "\n");
-                areaClientes.append("telefone: " + c.getTelefone() + "\n");
-                areaClientes.append("endereco: " + c.getEndereco() + "\n");
-                areaClientes.append("--------------------------------------\n");
-            }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Erro ao listar: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
-        }
+        modeloClientes.listar(txtFiltro.getText());
     }
 
     /**
@@ -243,7 +287,7 @@ public class ClienteView extends JFrame {
         txtCpf.setText("");
         txtTelefone.setText("");
         txtEndereco.setText("");
-        areaClientes.setText("");
+        modeloClientes.atualizar(); // Atualiza a tabela, se já estiver listada, com os dados gravados.
     }
 
     /**
@@ -0,0 +1,92 @@
+package view;
+
+import importacao.ErroImportacao;
+import importacao.ResultadoImportacao;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Fluxo de importação de um arquivo CSV, comum às telas de clientes e de produtos: escolha do arquivo,
+ * importação em segundo plano (ver {@link TarefasTela}) e exibição dos totais e dos primeiros erros.
+ */
+final class DialogoImportacao {
+
+    // Canal das importações em TarefasTela.
+    private static final String CANAL = "importar";
+
+    /**
+     * Chamada ao controlador que importa o arquivo.
+     */
+    @FunctionalInterface
+    interface Importacao {
+        ResultadoImportacao importar(Path arquivo) throws IOException;
+    }
+
+    private DialogoImportacao() {
+    }
+
+    /**
+     * Pede o arquivo ao usuário e o importa em segundo plano. Não faz nada se já houver uma
+     * importação em andamento na janela.
+     *
+     * @param janela     a janela da tela.
+     * @param tarefas    o auxiliar de tarefas da janela.
+     * @param descricao  o que é importado e as colunas esperadas, exibido no título do seletor de arquivos.
+     * @param importacao a chamada ao controlador.
+     * @param aoConcluir ação executada na EDT após a importação (por exemplo, atualizar a listagem).
+     */
+    static void importar(JFrame janela, TarefasTela tarefas, String descricao, Importacao importacao, Runnable aoConcluir) {
+        if (tarefas.emAndamento(CANAL)) {
+            return; // Ignora cliques repetidos enquanto a importação anterior não termina.
+        }
+        JFileChooser seletor = new JFileChooser();
+        seletor.setDialogTitle("Importar " + descricao);
+        seletor.setFileFilter(new FileNameExtensionFilter("Arquivos CSV", "csv"));
+        if (seletor.showOpenDialog(janela) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path arquivo = seletor.getSelectedFile().toPath();
+        tarefas.executar(CANAL, () -> {
+            try {
+                return importacao.importar(arquivo);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, resultado -> {
+            mostrarResultado(janela, resultado);
+            aoConcluir.run();
+        }, erro -> {
+            Throwable causa = (erro instanceof UncheckedIOException) ? erro.getCause() : erro;
+            JOptionPane.showMessageDialog(janela, "Erro ao importar: " + causa.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    /**
+     * Exibe os totais da importação e, se houver rejeições, os primeiros erros e o arquivo com todos eles.
+     */
+    private static void mostrarResultado(JFrame janela, ResultadoImportacao resultado) {
+        if (resultado.getRejeitados() == 0) {
+            JOptionPane.showMessageDialog(janela, "Importação concluída: " + resultado + ".");
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (ErroImportacao erro : resultado.getPrimeirosErros()) {
+            sb.append(erro).append('\n');
+        }
+        if (resultado.getRejeitados() > resultado.getPrimeirosErros().size()) {
+            sb.append("...\n");
+        }
+        JTextArea erros = new JTextArea(sb.toString(), 10, 60);
+        erros.setEditable(false);
+        JPanel painel = new JPanel(new BorderLayout(5, 5));
+        painel.add(new JLabel("Importação concluída: " + resultado + "."), BorderLayout.NORTH);
+        painel.add(new JScrollPane(erros), BorderLayout.CENTER);
+        painel.add(new JLabel("Registros rejeitados gravados em: " + resultado.getArquivoErros()), BorderLayout.SOUTH);
+        JOptionPane.showMessageDialog(janela, painel, "Importação", JOptionPane.WARNING_MESSAGE);
+    }
+}
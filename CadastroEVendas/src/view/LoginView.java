@@ -3,7 +3,7 @@ package view;
 import java.awt.EventQueue;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import dao.VendedorDAO;
+import controller.VendedorController;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.event.ActionEvent;
@@ -22,6 +22,8 @@ public class LoginView extends JFrame {
     private JPanel contentPane;
     private JTextField textUsuario;
     private JPasswordField passwordSenha;
+    private VendedorController controller = new VendedorController();
+    private TarefasTela tarefas;
 
     /**
      * Método principal para iniciar a aplicação e exibir a tela de login.
@@ -49,6 +51,7 @@ public class LoginView extends JFrame {
      * como rótulos, campos de texto, campos de senha e botões para login e cadastro.
      * Também implementa a lógica para autenticar o usuário ao clicar no botão "Login"
      * e para abrir a tela de cadastro ao clicar no botão "Cadastrar".
+     * A autenticação é executada em segundo plano (ver {@link TarefasTela}).
      */
     public LoginView() {
         setTitle("LOGIN"); // Define o título da janela de login.
@@ -58,6 +61,7 @@ public class LoginView extends JFrame {
         contentPane.setBorder(new EmptyBorder(5, 5, 5, 5)); // Define uma borda vazia ao redor do painel.
         setContentPane(contentPane); // Define o painel como o contentPane da JFrame.
         contentPane.setLayout(null); // Define o layout do painel como null para posicionamento manual dos componentes.
+        tarefas = new TarefasTela(this, null); // Executa a autenticação fora da EDT, com cursor de espera.
 
         JPanel panel = new JPanel(); // Cria um painel para a área de título.
         panel.setBounds(5, 5, 478, 67); // Define as dimensões e a posição do painel de título.
@@ -94,17 +98,17 @@ public class LoginView extends JFrame {
             public void actionPerformed(ActionEvent e) {
                 String usuario = textUsuario.getText(); // Obtém o texto do campo de usuário.
                 String senha = new String(passwordSenha.getPassword()); // Obtém a senha do campo de senha.
-                VendedorDAO dao = new VendedorDAO(); // Cria uma instância do VendedorDAO para autenticação.
-                boolean autenticado = dao.autenticar(usuario, senha); // Chama o método de autenticação no DAO.
-
-                // Verifica se a autenticação foi bem-sucedida.
-                if (autenticado) {
-                    TelaPrincipalView vendas = new TelaPrincipalView(); // Cria uma nova instância da tela principal.
-                    vendas.setVisible(true); // Exibe a tela principal.
-                    dispose(); // Fecha a tela de login.
-                } else {
-                    JOptionPane.showMessageDialog(null, "Usuário ou senha incorretos!", "Erro de Autenticação", JOptionPane.ERROR_MESSAGE);
-                }
+                // Autentica em segundo plano; uma nova tentativa descarta a anterior.
+                tarefas.executar("autenticar", () -> controller.autenticar(usuario, senha), autenticado -> {
+                    // Verifica se a autenticação foi bem-sucedida.
+                    if (autenticado) {
+                        TelaPrincipalView vendas = new TelaPrincipalView(); // Cria uma nova instância da tela principal.
+                        vendas.setVisible(true); // Exibe a tela principal.
+                        dispose(); // Fecha a tela de login.
+                    } else {
+                        JOptionPane.showMessageDialog(null, "Usuário ou senha incorretos!", "Erro de Autenticação", JOptionPane.ERROR_MESSAGE);
+                    }
+                }, ex -> JOptionPane.showMessageDialog(null, "Erro ao autenticar: " + ex.getMessage(), "Erro de Autenticação", JOptionPane.ERROR_MESSAGE));
             }
         });
         contentPane.add(btnLogin); // Adiciona o botão de login ao contentPane.
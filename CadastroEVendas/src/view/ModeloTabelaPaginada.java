@@ -0,0 +1,317 @@
+package view;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.JTableHeader;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Modelo de tabela que busca as linhas no banco de dados sob demanda, em blocos.
+ * <br>
+ * Ao listar, apenas o total de linhas e o primeiro bloco são buscados. A tabela só pede ao modelo
+ * os valores das linhas visíveis; quando uma delas pertence a um bloco ainda não carregado, o bloco
+ * é buscado em segundo plano (ver {@link TarefasTela}) e a linha é exibida como "carregando..." até
+ * a resposta chegar. Apenas os últimos {@value #BLOCOS_EM_MEMORIA} blocos usados ficam em memória,
+ * de modo que rolar por uma listagem grande não acumula objetos.
+ * <br>
+ * O filtro e a ordenação são aplicados pelo banco de dados: clicar no cabeçalho de uma coluna
+ * ordena por ela (um segundo clique inverte a ordem) e recarrega a listagem. Respostas de uma
+ * listagem anterior (outro filtro ou outra ordem) são descartadas.
+ * <br>
+ * Um bloco cuja busca falhou não é buscado de novo automaticamente (o que abriria uma mensagem de
+ * erro a cada repintura): as suas linhas são exibidas como "erro ao carregar", a mensagem é mostrada
+ * uma única vez por listagem, e a busca só é repetida ao listar ou atualizar a tabela de novo.
+ * <br>
+ * Os métodos desta classe devem ser chamados apenas na EDT.
+ *
+ * @param <T> o tipo do objeto exibido em cada linha.
+ */
+abstract class ModeloTabelaPaginada<T> extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    // Linhas buscadas por consulta.
+    private static final int TAMANHO_BLOCO = 100;
+    // Blocos mantidos em memória (os menos usados recentemente são descartados).
+    private static final int BLOCOS_EM_MEMORIA = 10;
+
+    private final String[] titulos;
+    private final String[] colunasOrdenacao;
+    private final transient TarefasTela tarefas;
+    private final String canal;
+
+    // Blocos carregados, indexados pelo número do bloco, em ordem de uso.
+    private final Map<Integer, List<T>> blocos = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> maisAntigo) {
+            return size() > BLOCOS_EM_MEMORIA;
+        }
+    };
+    // Blocos com busca em andamento, para não pedir o mesmo bloco duas vezes.
+    private final Set<Integer> pedidos = new HashSet<>();
+    // Blocos cuja busca falhou nesta listagem; só são buscados de novo na próxima listagem.
+    private final Set<Integer> falhas = new HashSet<>();
+
+    private int total = 0;
+    private String filtro = null;
+    private int colunaOrdenacao = 0;
+    private boolean decrescente = false;
+    // Incrementada a cada nova listagem; respostas de uma geração anterior são descartadas.
+    private int geracao = 0;
+    private boolean carregado = false;
+    private JTable tabela;
+
+    /**
+     * Cria o modelo.
+     *
+     * @param tarefas          o auxiliar de tarefas da janela, usado para buscar os blocos em segundo plano.
+     * @param canal            nome do canal das listagens em {@link TarefasTela}.
+     * @param titulos          os títulos das colunas.
+     * @param colunasOrdenacao a coluna do banco de dados usada para ordenar por cada coluna da tabela.
+     */
+    ModeloTabelaPaginada(TarefasTela tarefas, String canal, String[] titulos, String[] colunasOrdenacao) {
+        this.tarefas = tarefas;
+        this.canal = canal;
+        this.titulos = titulos;
+        this.colunasOrdenacao = colunasOrdenacao;
+    }
+
+    /**
+     * Conta as linhas que atendem ao filtro. Executado fora da EDT.
+     *
+     * @param filtro o filtro da listagem, ou {@code null}.
+     * @return o total de linhas.
+     */
+    protected abstract int contar(String filtro);
+
+    /**
+     * Busca uma faixa de linhas. Executado fora da EDT.
+     *
+     * @param filtro       o filtro da listagem, ou {@code null}.
+     * @param ordenarPor   a coluna do banco de dados usada na ordenação.
+     * @param decrescente  {@code true} para ordem decrescente.
+     * @param deslocamento posição da primeira linha.
+     * @param tamanho      número máximo de linhas.
+     * @return as linhas da faixa.
+     */
+    protected abstract List<T> buscar(String filtro, String ordenarPor, boolean decrescente, int deslocamento, int tamanho);
+
+    /**
+     * Retorna o valor exibido em uma coluna para um objeto.
+     *
+     * @param item   o objeto da linha.
+     * @param coluna o índice da coluna.
+     * @return o valor da célula.
+     */
+    protected abstract Object getValor(T item, int coluna);
+
+    /**
+     * Liga o modelo a uma tabela: define-o como modelo da tabela e faz os cliques no cabeçalho
+     * ordenarem a listagem.
+     *
+     * @param tabela a tabela que exibirá as linhas.
+     */
+    void instalar(JTable tabela) {
+        this.tabela = tabela;
+        tabela.setModel(this);
+        JTableHeader cabecalho = tabela.getTableHeader();
+        cabecalho.setReorderingAllowed(false);
+        cabecalho.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int coluna = tabela.convertColumnIndexToModel(tabela.columnAtPoint(e.getPoint()));
+                if (coluna >= 0) {
+                    ordenar(coluna);
+                }
+            }
+        });
+        atualizarCabecalho();
+    }
+
+    /**
+     * Lista as linhas que atendem ao filtro, mantendo a ordenação atual.
+     *
+     * @param filtro o texto a ser procurado, ou vazio para listar todas as linhas.
+     */
+    void listar(String filtro) {
+        this.filtro = (filtro == null || filtro.isBlank()) ? null : filtro.trim();
+        recarregar();
+    }
+
+    /**
+     * Lista novamente as linhas com o filtro e a ordem atuais, por exemplo após uma gravação.
+     * Não faz nada se a tabela ainda não tiver sido listada.
+     */
+    void atualizar() {
+        if (carregado) {
+            recarregar();
+        }
+    }
+
+    /**
+     * Ordena pela coluna informada; se ela já for a coluna da ordenação, inverte a ordem.
+     *
+     * @param coluna o índice da coluna no modelo.
+     */
+    void ordenar(int coluna) {
+        decrescente = (coluna == colunaOrdenacao) && !decrescente;
+        colunaOrdenacao = coluna;
+        atualizarCabecalho();
+        if (carregado) {
+            recarregar();
+        }
+    }
+
+    /**
+     * Retorna o objeto de uma linha, se o seu bloco estiver carregado.
+     *
+     * @param linha o índice da linha no modelo.
+     * @return o objeto da linha, ou {@code null} se ainda não tiver sido carregado.
+     */
+    T getItem(int linha) {
+        List<T> bloco = blocos.get(linha / TAMANHO_BLOCO);
+        int posicao = linha % TAMANHO_BLOCO;
+        return (bloco != null && posicao < bloco.size()) ? bloco.get(posicao) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return total;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return titulos.length;
+    }
+
+    @Override
+    public String getColumnName(int coluna) {
+        return titulos[coluna];
+    }
+
+    @Override
+    public Object getValueAt(int linha, int coluna) {
+        T item = getItem(linha);
+        if (item == null) {
+            int numero = linha / TAMANHO_BLOCO;
+            if (blocos.containsKey(numero)) {
+                return null; // O bloco veio menor que o esperado: linhas removidas depois da contagem.
+            }
+            if (falhas.contains(numero)) {
+                return coluna == 0 ? "erro ao carregar" : null;
+            }
+            carregarBloco(numero);
+            return coluna == 0 ? "carregando..." : null;
+        }
+        return getValor(item, coluna);
+    }
+
+    /**
+     * Descarta as linhas carregadas e busca o total e o primeiro bloco da listagem atual.
+     */
+    private void recarregar() {
+        int atual = ++geracao;
+        carregado = true;
+        blocos.clear();
+        pedidos.clear();
+        falhas.clear();
+        total = 0;
+        fireTableDataChanged();
+
+        String f = filtro;
+        String ordem = colunasOrdenacao[colunaOrdenacao];
+        boolean desc = decrescente;
+        // Uma nova listagem no mesmo canal cancela a anterior, se ainda estiver em andamento.
+        tarefas.executar(canal, () -> new Inicio<>(contar(f), buscar(f, ordem, desc, 0, TAMANHO_BLOCO)), inicio -> {
+            if (atual != geracao) {
+                return;
+            }
+            total = inicio.total;
+            blocos.put(0, inicio.primeiroBloco);
+            fireTableDataChanged();
+        }, this::mostrarErro);
+    }
+
+    /**
+     * Busca um bloco em segundo plano, se ele ainda não estiver sendo buscado.
+     */
+    private void carregarBloco(int numero) {
+        if (!pedidos.add(numero)) {
+            return;
+        }
+        int atual = geracao;
+        String f = filtro;
+        String ordem = colunasOrdenacao[colunaOrdenacao];
+        boolean desc = decrescente;
+        int deslocamento = numero * TAMANHO_BLOCO;
+        // Tarefa independente: blocos diferentes são buscados em paralelo sem se cancelarem.
+        tarefas.executar(null, () -> buscar(f, ordem, desc, deslocamento, TAMANHO_BLOCO), bloco -> {
+            if (atual != geracao) {
+                return; // Resposta de uma listagem anterior.
+            }
+            pedidos.remove(numero);
+            blocos.put(numero, bloco);
+            int ultima = Math.min(total, deslocamento + TAMANHO_BLOCO) - 1;
+            if (ultima >= deslocamento) {
+                fireTableRowsUpdated(deslocamento, ultima);
+            }
+        }, erro -> {
+            if (atual != geracao) {
+                return;
+            }
+            pedidos.remove(numero);
+            // Registra a falha antes de mostrar a mensagem: as repinturas não buscam o bloco de novo.
+            boolean primeiraFalha = falhas.isEmpty();
+            falhas.add(numero);
+            int ultima = Math.min(total, deslocamento + TAMANHO_BLOCO) - 1;
+            if (ultima >= deslocamento) {
+                fireTableRowsUpdated(deslocamento, ultima);
+            }
+            if (primeiraFalha) {
+                mostrarErro(erro);
+            }
+        });
+    }
+
+    /**
+     * Mostra a coluna e o sentido da ordenação no título da coluna ordenada.
+     */
+    private void atualizarCabecalho() {
+        if (tabela == null) {
+            return;
+        }
+        for (int i = 0; i < titulos.length; i++) {
+            String titulo = titulos[i];
+            if (i == colunaOrdenacao) {
+                titulo += decrescente ? " ▼" : " ▲";
+            }
+            tabela.getColumnModel().getColumn(tabela.convertColumnIndexToView(i)).setHeaderValue(titulo);
+        }
+        tabela.getTableHeader().repaint();
+    }
+
+    /**
+     * Resultado da busca inicial de uma listagem: o total de linhas e o primeiro bloco.
+     */
+    private static final class Inicio<T> {
+        final int total;
+        final List<T> primeiroBloco;
+
+        Inicio(int total, List<T> primeiroBloco) {
+            this.total = total;
+            this.primeiroBloco = primeiroBloco;
+        }
+    }
+
+    private void mostrarErro(Throwable erro) {
+        JOptionPane.showMessageDialog(tabela, "Erro ao listar: " + erro.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+    }
+}
@@ -2,17 +2,12 @@ package view;
 
 import controller.LivroController;
 import controller.ProdutoController;
-import db.DB;
-import db.DbException;
+import model.Dinheiro;
 import model.Produto;
 import model.Livro;
 
 import javax.swing.*;
 import java.awt.*;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -22,18 +17,22 @@ import java.util.List;
 public class ProdutoView extends JFrame {
 
     private static final long serialVersionUID = 1L;
-    private JTextField txtNome, txtPrecoCompra, txtPrecoVenda, txtEstoque, txtAutor;
+
+    private JTextField txtNome, txtPrecoCompra, txtPrecoVenda, txtEstoque, txtAutor, txtFiltro;
     private JCheckBox chkLivro;
-    private JTextArea txtAreaProdutos;
+    private ModeloTabelaPaginada<Produto> modeloProdutos;
     private ProdutoController controller;
+    private TarefasTela tarefas;
 
     /**
      * Construtor da classe ProdutoView.
      * Inicializa os componentes da interface gráfica, como rótulos, campos de texto,
      * um checkbox para indicar se o produto é um livro (ativando o campo Autor),
-     * botões para as operações (Cadastrar, Atualizar, Excluir, Visualizar, Sair)
-     * e uma JTextArea para exibir a lista de produtos. Define também os listeners
-     * para os botões e o checkbox.
+     * botões para as operações (Cadastrar, Atualizar, Excluir, Visualizar, Importar CSV, Sair)
+     * e uma JTable para exibir a lista de produtos, com um campo de filtro. Define também os listeners
+     * para os botões e o checkbox. As chamadas aos controladores são executadas em segundo
+     * plano (ver {@link TarefasTela}), com uma barra de progresso abaixo da lista de produtos.
+     * A tabela busca os produtos em blocos, conforme é rolada (ver {@link ModeloTabelaPaginada}).
      */
     public ProdutoView() {
         controller = new ProdutoController();
@@ -85,23 +84,71 @@ public class ProdutoView extends JFrame {
         JButton btnAtualizar = new JButton("Atualizar");
         JButton btnExcluir = new JButton("Excluir");
         JButton btnVisualizar = new JButton("Visualizar");
+        JButton btnImportar = new JButton("Importar CSV");
         JButton btnSair = new JButton("Sair");
 
         painelBotoes.add(btnCadastrar);
         painelBotoes.add(btnAtualizar);
         painelBotoes.add(btnExcluir);
         painelBotoes.add(btnVisualizar);
+        painelBotoes.add(btnImportar);
         painelBotoes.add(btnSair);
 
         getContentPane().add(painelBotoes, BorderLayout.CENTER);
 
-        // Área de texto para exibir a lista de produtos.
-        txtAreaProdutos = new JTextArea(12, 50);
-        txtAreaProdutos.setEditable(false);
-        txtAreaProdutos.setFont(new Font("Monospaced", Font.PLAIN, 12));
-        JScrollPane scrollPane = new JScrollPane(txtAreaProdutos);
+        // Tabela para exibir a lista de produtos; só as linhas visíveis são buscadas e desenhadas.
+        JTable tabelaProdutos = new JTable();
+        tabelaProdutos.setFillsViewportHeight(true);
+        tabelaProdutos.setPreferredScrollableViewportSize(new Dimension(620, 220));
+        JScrollPane scrollPane = new JScrollPane(tabelaProdutos);
         scrollPane.setBorder(BorderFactory.createEmptyBorder(10, 15, 10, 15));
-        getContentPane().add(scrollPane, BorderLayout.SOUTH);
+
+        // Campo de filtro: procura o texto no nome ou no autor, no próprio banco de dados.
+        JPanel painelFiltro = new JPanel(new BorderLayout(10, 0));
+        painelFiltro.setBorder(BorderFactory.createEmptyBorder(0, 15, 0, 15));
+        painelFiltro.add(new JLabel("Filtrar (nome ou autor):"), BorderLayout.WEST);
+        txtFiltro = new JTextField();
+        txtFiltro.addActionListener(e -> listarProdutos()); // Enter aplica o filtro.
+        painelFiltro.add(txtFiltro, BorderLayout.CENTER);
+
+        // Barra de progresso exibida enquanto há consultas em andamento.
+        JProgressBar barraProgresso = new JProgressBar();
+        JPanel painelLista = new JPanel(new BorderLayout());
+        painelLista.add(painelFiltro, BorderLayout.NORTH);
+        painelLista.add(scrollPane, BorderLayout.CENTER);
+        painelLista.add(barraProgresso, BorderLayout.SOUTH);
+        getContentPane().add(painelLista, BorderLayout.SOUTH);
+        tarefas = new TarefasTela(this, barraProgresso);
+
+        modeloProdutos = new ModeloTabelaPaginada<>(tarefas, "listar",
+                new String[]{"ID", "Nome", "Preço de Compra", "Preço de Venda", "Estoque", "Autor"},
+                new String[]{"id", "nome", "preco_compra", "preco_venda", "estoque", "autor"}) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected int contar(String filtro) {
+                return controller.contarProdutos(filtro);
+            }
+
+            @Override
+            protected List<Produto> buscar(String filtro, String ordenarPor, boolean decrescente, int deslocamento, int tamanho) {
+                return controller.listarProdutosFaixa(filtro, ordenarPor, decrescente, deslocamento, tamanho);
+            }
+
+            @Override
+            protected Object getValor(Produto p, int coluna) {
+                switch (coluna) {
+                    case 0: return p.getId();
+                    case 1: return p.getNome();
+                    case 2: return Dinheiro.formatar(p.getPrecoCompra());
+                    case 3: return Dinheiro.formatar(p.getPrecoVenda());
+                    case 4: return p.getEstoque();
+                    default: return (p instanceof Livro) ? ((Livro) p).getAutor() : "";
+                }
+            }
+        };
+        modeloProdutos.instalar(tabelaProdutos);
+        modeloProdutos.ordenar(1); // Ordem inicial: por nome.
 
         // Ação para o botão Cadastrar.
         btnCadastrar.addActionListener(e -> {
@@ -109,14 +156,18 @@ public class ProdutoView extends JFrame {
                 JOptionPane.showMessageDialog(this, "Preencha todos os campos obrigatórios.");
                 return;
             }
+            if (tarefas.emAndamento("gravar")) {
+                return; // Ignora cliques repetidos enquanto a gravação anterior não termina.
+            }
             int confirmacao = JOptionPane.showConfirmDialog(this, "Você tem certeza que deseja cadastrar este produto?", "Confirmação", JOptionPane.YES_NO_OPTION);
             if (confirmacao == JOptionPane.YES_OPTION) {
                 try {
                     String nome = txtNome.getText();
-                    double precoCompra = Double.parseDouble(txtPrecoCompra.getText());
-                    double precoVenda = Double.parseDouble(txtPrecoVenda.getText());
+                    long precoCompra = Dinheiro.converter(txtPrecoCompra.getText());
+                    long precoVenda = Dinheiro.converter(txtPrecoVenda.getText());
                     int estoque = Integer.parseInt(txtEstoque.getText());
 
+                    Runnable cadastro;
                     if (chkLivro.isSelected()) {
                         if (txtAutor.getText().isBlank()) {
                             JOptionPane.showMessageDialog(this, "Preencha o campo Autor.");
@@ -124,24 +175,26 @@ public class ProdutoView extends JFrame {
                         }
                         String autor = txtAutor.getText();
                         LivroController livroController = new LivroController();
-                        livroController.cadastrarProduto(nome, precoCompra, precoVenda, estoque, autor);
+                        cadastro = () -> livroController.cadastrarProduto(nome, precoCompra, precoVenda, estoque, autor);
                     } else {
-                        ProdutoController produtoController = new ProdutoController();
-                        produtoController.cadastrarProduto(nome, precoCompra, precoVenda, estoque);
+                        cadastro = () -> controller.cadastrarProduto(nome, precoCompra, precoVenda, estoque);
                     }
-                    JOptionPane.showMessageDialog(this, "Produto cadastrado com sucesso!");
-                    limparCampos();
-                    listarProdutos();
+                    tarefas.executar("gravar", cadastro, () -> {
+                        JOptionPane.showMessageDialog(this, "Produto cadastrado com sucesso!");
+                        limparCampos();
+                        listarProdutos();
+                    }, ex -> JOptionPane.showMessageDialog(this, "Erro ao cadastrar: " + ex.getMessage()));
                 } catch (NumberFormatException ex) {
                     JOptionPane.showMessageDialog(this, "Erro de formato nos campos numéricos.");
-                } catch (Exception ex) {
-                    JOptionPane.showMessageDialog(this, "Erro ao cadastrar: " + ex.getMessage());
                 }
             }
         });
 
         // Ação para o botão Atualizar.
         btnAtualizar.addActionListener(e -> {
+            if (tarefas.emAndamento("gravar")) {
+                return; // Ignora cliques repetidos enquanto a gravação anterior não termina.
+            }
             String idStr = JOptionPane.showInputDialog("Digite o ID do produto a atualizar:");
             if (idStr != null && !idStr.isBlank()) {
                 int confirmacao = JOptionPane.showConfirmDialog(this, "Você tem certeza que deseja atualizar este produto?", "Confirmação", JOptionPane.YES_NO_OPTION);
@@ -149,25 +202,26 @@ public class ProdutoView extends JFrame {
                     try {
                         int id = Integer.parseInt(idStr);
                         String nome = txtNome.getText();
-                        double precoCompra = Double.parseDouble(txtPrecoCompra.getText());
-                        double precoVenda = Double.parseDouble(txtPrecoVenda.getText());
+                        long precoCompra = Dinheiro.converter(txtPrecoCompra.getText());
+                        long precoVenda = Dinheiro.converter(txtPrecoVenda.getText());
                         int estoque = Integer.parseInt(txtEstoque.getText());
 
+                        Produto produto;
                         if (chkLivro.isSelected()) {
                             String autor = txtAutor.getText();
-                            Livro livro = new Livro(id, nome, precoCompra, precoVenda, estoque, autor);
-                            controller.atualizarProduto(livro);
+                            produto = new Livro(id, nome, precoCompra, precoVenda, estoque, autor);
                         } else {
-                            Produto produto = new Produto(id, nome, precoCompra, precoVenda, estoque);
-                            controller.atualizarProduto(produto);
+                            produto = new Produto(id, nome, precoCompra, precoVenda, estoque);
                         }
 
-                        JOptionPane.showMessageDialog(this, "Produto atualizado com sucesso!");
-                        limparCampos();
-                        listarProdutos();
+                        tarefas.executar("gravar", () -> controller.atualizarProduto(produto), () -> {
+                            JOptionPane.showMessageDialog(this, "Produto atualizado com sucesso!");
+                            limparCampos();
+                            listarProdutos();
+                        }, ex -> JOptionPane.showMessageDialog(this, "Erro ao atualizar: " + ex.getMessage()));
                     } catch (NumberFormatException ex) {
                         JOptionPane.showMessageDialog(this, "Erro de formato no ID ou nos campos numéricos.");
-                    } catch (Exception ex) {
+                    } catch (IllegalArgumentException ex) {
                         JOptionPane.showMessageDialog(this, "Erro ao atualizar: " + ex.getMessage());
                     }
                 }
@@ -176,19 +230,21 @@ public class ProdutoView extends JFrame {
 
         // Ação para o botão Excluir.
         btnExcluir.addActionListener(e -> {
+            if (tarefas.emAndamento("gravar")) {
+                return; // Ignora cliques repetidos enquanto a gravação anterior não termina.
+            }
             String idStr = JOptionPane.showInputDialog("Digite o ID do produto a excluir:");
             if (idStr != null && !idStr.isBlank()) {
                 int confirmacao = JOptionPane.showConfirmDialog(this, "Você tem certeza que deseja excluir este produto?", "Confirmação", JOptionPane.YES_NO_OPTION);
                 if (confirmacao == JOptionPane.YES_OPTION) {
                     try {
                         int id = Integer.parseInt(idStr);
-                        controller.excluirProduto(id);
-                        JOptionPane.showMessageDialog(this, "Produto excluído com sucesso!");
-                        listarProdutos();
+                        tarefas.executar("gravar", () -> controller.excluirProduto(id), () -> {
+                            JOptionPane.showMessageDialog(this, "Produto excluído com sucesso!");
+                            listarProdutos();
+                        }, ex -> JOptionPane.showMessageDialog(this, "Erro ao excluir: " + ex.getMessage()));
                     } catch (NumberFormatException ex) {
                         JOptionPane.showMessageDialog(this, "Erro de formato no ID.");
-                    } catch (Exception ex) {
-                        JOptionPane.showMessageDialog(this, "Erro ao excluir: " + ex.getMessage());
                     }
                 }
             }
@@ -197,6 +253,11 @@ public class ProdutoView extends JFrame {
         // Ação para o botão Visualizar.
         btnVisualizar.addActionListener(e -> listarProdutos());
 
+        // Ação para o botão Importar CSV.
+        btnImportar.addActionListener(e -> DialogoImportacao.importar(this, tarefas,
+                "produtos (colunas nome, preco_compra, preco_venda, estoque e, para livros, autor)",
+                controller::importarProdutos, modeloProdutos::atualizar));
+
         // Ação para o botão Sair.
         btnSair.addActionListener(e -> {
             int opcao = JOptionPane.showConfirmDialog(this, "Deseja realmente sair?", "Confirmação",
@@ -214,77 +275,12 @@ public class ProdutoView extends JFrame {
     }
 
     /**
-     * Lista todos os produtos ativos do banco de dados e exibe na área de texto,
-     * formatando a saída de acordo com se o produto é um livro ou não.
+     * Lista os produtos ativos que contêm o texto do campo de filtro (no nome ou no autor).
+     * A contagem e o primeiro bloco de linhas são buscados em segundo plano; os demais blocos,
+     * conforme a tabela é rolada. Uma nova listagem descarta a anterior, se ainda estiver em andamento.
      */
     private void listarProdutos() {
-        List<Produto> lista = listarOrdenado();
-        txtAreaProdutos.setText("");
-
-        for (Produto p : lista) {
-            if (p instanceof Livro) {
-                Livro l = (Livro) p;
-                txtAreaProdutos.append(
-                        "Livro\nID: " + l.getId() +
-                                "\nNome: " + l.getNome() +
-                                "\nPreço de Compra: " + String.format("%.2f", l.getPrecoCompra()) +
-                                "\nPreço de Venda: " + String.format("%.2f", l.getPrecoVenda()) +
-                                "\nEstoque: " + l.getEstoque() +
-                                "\nAutor: " + l.getAutor() +
-                                "\n---------------------------\n"
-                );
-            } else {
-                txtAreaProdutos.append(
-                        "Produto\nID: " + p.getId() +
-                                "\nNome: " + p.getNome() +
-                                "\nPreço de Compra: " + String.format("%.2f", p.getPrecoCompra()) +
-                                "\nPreço de Venda: " + String.format("%.2f", p.getPrecoVenda()) +
-                                "\nEstoque: " + p.getEstoque() +
-                                "\n---------------------------\n"
-                );
-            }
-        }
-    }
-
-    /**
-     * Busca todos os produtos ativos no banco de dados e retorna uma lista ordenada por nome.
-     * Distingue entre produtos comuns e livros com base na presença do campo 'autor' no banco de dados.
-     *
-     * @return Uma lista de objetos Produto (podendo ser instâncias de Livro).
-     * @throws DbException Se ocorrer algum erro ao acessar o banco de dados.
-     */
-    public List<Produto> listarOrdenado() {
-        List<Produto> lista = new ArrayList<>();
-        String sql = "SELECT * FROM produtos WHERE ativo = TRUE ORDER BY nome ASC";
-        try (Statement st = DB.getConnection().createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
-            while (rs.next()) {
-                String autor = rs.getString("autor");
-                Produto p;
-                if (autor != null) {
-                    p = new Livro(
-                            rs.getInt("id"),
-                            rs.getString("nome"),
-                            rs.getDouble("preco_compra"),
-                            rs.getDouble("preco_venda"),
-                            rs.getInt("estoque"),
-                            autor
-                    );
-                } else {
-                    p = new Produto(
-                            rs.getInt("id"),
-                            rs.getString("nome"),
-                            rs.getDouble("preco_compra"),
-                            rs.getDouble("preco_venda"),
-                            rs.getInt("estoque")
-                    );
-                }
-                lista.add(p);
-            }
-        } catch (SQLException e) {
-            throw new DbException("Erro ao listar produtos: " + e.getMessage());
-        }
-        return lista;
+        modeloProdutos.listar(txtFiltro.getText());
     }
 
     /**
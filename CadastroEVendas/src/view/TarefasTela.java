@@ -0,0 +1,161 @@
+package view;
+
+import controller.Assincrono;
+
+import javax.swing.*;
+import java.awt.Cursor;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Auxiliar das telas para executar chamadas aos controladores em segundo plano
+ * (via {@link Assincrono}) e aplicar o resultado na Thread de Despacho de Eventos (EDT).
+ * <br>
+ * Cada tarefa pertence a um canal (por exemplo, "buscarCliente"). Ao iniciar uma nova tarefa
+ * em um canal que ainda tem uma tarefa em andamento, a anterior é cancelada e seu resultado
+ * é descartado, de modo que uma resposta atrasada nunca sobrescreve uma mais recente.
+ * Enquanto houver tarefas em andamento, a janela mostra o cursor de espera e, se informada,
+ * uma barra de progresso indeterminada. Ao fechar a janela, todas as tarefas são canceladas.
+ * <br>
+ * Os métodos desta classe devem ser chamados apenas na EDT.
+ */
+class TarefasTela {
+
+    private final JFrame janela;
+    private final JProgressBar barraProgresso;
+
+    // Tarefa mais recente de cada canal (acessado apenas na EDT).
+    private final Map<String, CompletableFuture<?>> emAndamento = new HashMap<>();
+    // Quantidade de tarefas ainda não concluídas, para controlar o indicador de progresso.
+    private int pendentes = 0;
+
+    /**
+     * Cria o auxiliar para uma janela.
+     *
+     * @param janela         a janela cujas tarefas serão controladas.
+     * @param barraProgresso barra exibida durante as tarefas, ou {@code null} para usar apenas o cursor de espera.
+     */
+    TarefasTela(JFrame janela, JProgressBar barraProgresso) {
+        this.janela = janela;
+        this.barraProgresso = barraProgresso;
+        if (barraProgresso != null) {
+            barraProgresso.setIndeterminate(true);
+            barraProgresso.setVisible(false);
+        }
+        // Cancela as tarefas pendentes quando a janela é fechada.
+        janela.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                cancelarTodas();
+            }
+        });
+    }
+
+    /**
+     * Executa uma chamada em segundo plano e entrega o resultado na EDT.
+     *
+     * @param canal      o canal da tarefa; uma tarefa anterior no mesmo canal é cancelada.
+     *                   Com {@code null}, a tarefa é independente e nunca é substituída por outra.
+     * @param tarefa     a chamada ao controlador, executada fora da EDT.
+     * @param aoConcluir ação executada na EDT com o resultado.
+     * @param aoFalhar   ação executada na EDT com a exceção lançada pela tarefa.
+     * @param <T>        o tipo do resultado.
+     */
+    <T> void executar(String canal, Supplier<T> tarefa, Consumer<T> aoConcluir, Consumer<Throwable> aoFalhar) {
+        CompletableFuture<T> futuro = Assincrono.executar(tarefa);
+        if (canal != null) {
+            cancelar(canal);
+            emAndamento.put(canal, futuro);
+        }
+        iniciarProgresso();
+        futuro.whenComplete((resultado, erro) -> SwingUtilities.invokeLater(() -> {
+            finalizarProgresso();
+            if (canal != null) {
+                // Descarta o resultado se a tarefa foi cancelada ou substituída por outra mais recente.
+                if (emAndamento.get(canal) != futuro) {
+                    return;
+                }
+                emAndamento.remove(canal);
+            }
+            if (erro == null) {
+                aoConcluir.accept(resultado);
+            } else if (!(erro instanceof CancellationException)) {
+                aoFalhar.accept(erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro);
+            }
+        }));
+    }
+
+    /**
+     * Executa uma operação sem resultado (cadastro, atualização, exclusão) em segundo plano.
+     *
+     * @param canal      o canal da tarefa; uma tarefa anterior no mesmo canal é cancelada.
+     * @param tarefa     a chamada ao controlador, executada fora da EDT.
+     * @param aoConcluir ação executada na EDT após a operação.
+     * @param aoFalhar   ação executada na EDT com a exceção lançada pela tarefa.
+     */
+    void executar(String canal, Runnable tarefa, Runnable aoConcluir, Consumer<Throwable> aoFalhar) {
+        executar(canal, () -> {
+            tarefa.run();
+            return null;
+        }, resultado -> aoConcluir.run(), aoFalhar);
+    }
+
+    /**
+     * Indica se há uma tarefa em andamento no canal. Usado para impedir que uma operação
+     * de gravação (como finalizar uma venda) seja disparada duas vezes.
+     *
+     * @param canal o canal a ser verificado.
+     * @return {@code true} se houver uma tarefa ainda não concluída no canal.
+     */
+    boolean emAndamento(String canal) {
+        return emAndamento.containsKey(canal);
+    }
+
+    /**
+     * Cancela a tarefa em andamento no canal, se houver. O resultado dela será descartado.
+     * A consulta já enviada ao banco de dados não é interrompida, apenas ignorada.
+     *
+     * @param canal o canal a ser cancelado.
+     */
+    void cancelar(String canal) {
+        CompletableFuture<?> anterior = emAndamento.remove(canal);
+        if (anterior != null) {
+            anterior.cancel(true);
+        }
+    }
+
+    /**
+     * Cancela todas as tarefas em andamento na janela.
+     */
+    void cancelarTodas() {
+        for (CompletableFuture<?> futuro : emAndamento.values()) {
+            futuro.cancel(true);
+        }
+        emAndamento.clear();
+    }
+
+    private void iniciarProgresso() {
+        if (pendentes++ == 0) {
+            janela.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            if (barraProgresso != null) {
+                barraProgresso.setVisible(true);
+            }
+        }
+    }
+
+    private void finalizarProgresso() {
+        if (--pendentes == 0) {
+            janela.setCursor(Cursor.getDefaultCursor());
+            if (barraProgresso != null) {
+                barraProgresso.setVisible(false);
+            }
+        }
+    }
+}
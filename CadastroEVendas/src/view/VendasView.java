@@ -2,17 +2,30 @@ package view;
 
 import controller.ClienteController;
 import controller.ProdutoController;
+import analise.MaisVendidos;
+import analise.ProdutoMaisVendido;
 import controller.VendaController;
+import exportacao.FormatoExportacao;
+import model.Carrinho;
 import model.Cliente;
+import model.Dinheiro;
+import model.ItemVenda;
+import model.Livro;
 import model.Produto;
 import model.Venda;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -27,6 +40,14 @@ import javax.swing.GroupLayout.Alignment;
  */
 public class VendasView extends JFrame {
 	private static final long serialVersionUID = 1L;
+
+    // Tempo sem digitação antes de buscar as sugestões de produtos (debounce).
+    private static final int ATRASO_SUGESTOES_MS = 150;
+    // Número mínimo de letras para buscar sugestões e número máximo de sugestões exibidas.
+    private static final int MINIMO_LETRAS_SUGESTAO = 2;
+    private static final int MAXIMO_SUGESTOES = 10;
+    // Número de produtos exibidos no painel de mais vendidos.
+    private static final int MAXIMO_MAIS_VENDIDOS = 10;
 	
 	private JPanel contentPane;
     private JLabel lblNomeLoja;
@@ -34,8 +55,8 @@ public class VendasView extends JFrame {
     private JLabel lblIdProduto;
     private JTextField txtIdProduto;
     private JButton btnAdicionarItem;
-    private JList<Produto> listaItens;
-    private DefaultListModel<Produto> modelListaItens;
+    private JList<ItemVenda> listaItens;
+    private DefaultListModel<ItemVenda> modelListaItens;
     private JLabel lblTotalVenda;
     private JLabel lblCpfCliente;
     private JTextField txtCpfCliente;
@@ -45,8 +66,12 @@ public class VendasView extends JFrame {
     private JLabel lblDataInicio;
     private JFormattedTextField txtDataInicio;
     private JLabel lblDataFim;
+    private JLabel lblResumoPeriodo;
+    private JComboBox<String> cbPeriodoMaisVendidos; // Hoje ou últimos dias
+    private DefaultListModel<String> modeloMaisVendidos; // Produtos exibidos no painel de mais vendidos
     private JFormattedTextField txtDataFim;
     private JButton btnBuscarVendasPeriodo;
+    private JButton btnExportarVendas;
     private JScrollPane scrollPaneVendas;
     private JTable tabelaVendas;
     private DefaultTableModel modelTabelaVendas;
@@ -54,9 +79,12 @@ public class VendasView extends JFrame {
     private ProdutoController produtoController;
     private VendaController vendaController;
     private ClienteController clienteController;
-    private List<Produto> itensVendidos;
-    private double totalVenda;
+    private Carrinho carrinho; // Produtos e quantidades da venda em andamento (o total é mantido pelo carrinho)
     private Cliente clienteAtual = null;
+    private TarefasTela tarefas;
+    private JPopupMenu popupSugestoes; // Sugestões de produtos exibidas abaixo do campo do produto
+    private List<Produto> sugestoes = new ArrayList<>(); // Produtos exibidos nas sugestões
+    private Timer temporizadorSugestoes; // Aguarda uma pausa na digitação antes de buscar as sugestões
     private JButton btnNewButton;
     private Component horizontalStrut;
     private Component horizontalStrut_1;
@@ -108,15 +136,18 @@ public class VendasView extends JFrame {
 	 * configura o comportamento ao fechar, estabelece as dimensões, impede o
 	 * redimensionamento, centraliza a janela na tela e adiciona os elementos visuais
 	 * como o título, o painel de compra, a lista de itens vendidos e a tabela de vendas realizadas.
+	 * As consultas e o registro da venda são executados em segundo plano (ver {@link TarefasTela}),
+	 * com o cursor de espera exibido enquanto estiverem em andamento.
 	 */
     public VendasView() {
         produtoController = new ProdutoController(); // Inicializa o controlador de produtos
         vendaController = new VendaController(); // Inicializa o controlador de vendas
         clienteController = new ClienteController(); // Inicializa o controlador de clientes
-        itensVendidos = new ArrayList<>(); // Inicializa a lista de itens vendidos
-        totalVenda = 0.0; // Inicializa o total da venda
+        carrinho = new Carrinho(); // Inicializa o carrinho da venda
         initComponents(); // Chama o método para inicializar os componentes da interface
+        tarefas = new TarefasTela(this, null); // Executa as chamadas aos controladores fora da EDT
         atualizarListaItens(); // Atualiza a lista de itens vendidos
+        atualizarMaisVendidos(); // Exibe os mais vendidos de hoje
     }
 
     /**
@@ -281,8 +312,10 @@ public class VendasView extends JFrame {
 
         panelCompra = new JPanel(); // Cria um novo painel para a seção de compra
 
-        lblIdProduto = new JLabel("ID Produto:"); // Rótulo para o campo de ID do produto
-        txtIdProduto = new JTextField(10); // Campo de texto para inserir o ID do produto
+        lblIdProduto = new JLabel("ID ou Nome:"); // Rótulo para o campo do produto (ID, nome ou autor)
+        txtIdProduto = new JTextField(10); // Campo de texto para inserir o ID do produto ou o início do nome
+        txtIdProduto.addActionListener(e -> confirmarProduto()); // Enter adiciona pelo ID ou a primeira sugestão
+        configurarSugestoes(); // Busca sugestões de produtos enquanto o nome é digitado
         btnAdicionarItem = new JButton("Adicionar Item"); // Botão para adicionar o item à venda
         btnAdicionarItem.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
@@ -320,10 +353,11 @@ public class VendasView extends JFrame {
         	public void actionPerformed(ActionEvent e) {
         		int resposta = JOptionPane.showConfirmDialog(null, "Deseja realmente cancelar a venda?", "Confirmação", JOptionPane.YES_NO_OPTION); // Exibe uma janela de confirmação
 				if (resposta == JOptionPane.YES_OPTION) { // Se o usuário confirmar o cancelamento
-					itensVendidos.clear(); // Limpa a lista de itens vendidos
+					carrinho.limpar(); // Esvazia o carrinho
 					atualizarListaItens(); // Atualiza a lista de itens vendidos
 					atualizarTotalVenda(); // Atualiza o total da venda
 					tabelaVendas.setVisible(false); // Esconde a tabela de vendas
+					lblResumoPeriodo.setText(" "); // Limpa os totais do período
 					clienteAtual = null; // Limpa o cliente atual
 					txtCpfCliente.setText("");	 // Limpa o campo de CPF do cliente
 					txtDataInicio.setText(""); // Limpa os campos de data
@@ -363,7 +397,22 @@ public class VendasView extends JFrame {
         panelFiltroDatas.add(lblDataFim); // Adiciona o rótulo de data de fim ao painel
         panelFiltroDatas.add(txtDataFim); // Adiciona o campo de data de fim ao painel
         panelFiltroDatas.add(btnBuscarVendasPeriodo); // Adiciona o botão de buscar por período ao painel
+        btnExportarVendas = new JButton("Exportar"); // Botão para exportar as vendas do período (ou todas) em CSV ou JSON
+        btnExportarVendas.addActionListener(e -> exportarVendas());
+        panelFiltroDatas.add(btnExportarVendas); // Adiciona o botão de exportar ao painel
         panelVendasRealizadas.add(panelFiltroDatas, BorderLayout.NORTH); // Adiciona o painel de filtro de datas ao painel de vendas realizadas
+        lblResumoPeriodo = new JLabel(" "); // Rótulo com os totais do período buscado
+        lblResumoPeriodo.setFont(new Font("Arial", Font.BOLD, 14)); // Define a fonte do rótulo dos totais
+        panelVendasRealizadas.add(lblResumoPeriodo, BorderLayout.SOUTH); // Adiciona o rótulo dos totais abaixo da tabela
+        JPanel panelMaisVendidos = new JPanel(new BorderLayout(0, 5)); // Painel dos produtos mais vendidos, ao lado da tabela
+        panelMaisVendidos.setBorder(BorderFactory.createTitledBorder("Mais vendidos"));
+        panelMaisVendidos.setPreferredSize(new Dimension(300, 0));
+        cbPeriodoMaisVendidos = new JComboBox<>(new String[]{"Hoje", "Últimos " + MaisVendidos.DIAS_MAXIMOS + " dias"});
+        cbPeriodoMaisVendidos.addActionListener(e -> atualizarMaisVendidos()); // Atualiza ao trocar o período
+        modeloMaisVendidos = new DefaultListModel<>();
+        panelMaisVendidos.add(cbPeriodoMaisVendidos, BorderLayout.NORTH);
+        panelMaisVendidos.add(new JScrollPane(new JList<>(modeloMaisVendidos)), BorderLayout.CENTER);
+        panelVendasRealizadas.add(panelMaisVendidos, BorderLayout.EAST); // Adiciona o painel à direita da tabela de vendas
         GroupLayout gl_contentPane = new GroupLayout(contentPane); 
         gl_contentPane.setHorizontalGroup(
         	gl_contentPane.createParallelGroup(Alignment.LEADING)
@@ -447,6 +496,44 @@ public class VendasView extends JFrame {
         setVisible(true); // Torna a janela visível
     }
 
+    /**
+     * Exporta as vendas do período informado nos campos de data (ou todas, se os campos estiverem vazios)
+     * para um arquivo CSV ou JSON, conforme a extensão escolhida. A exportação roda em segundo plano.
+     */
+    private void exportarVendas() {
+        if (tarefas.emAndamento("exportar")) {
+            return; // Ignora cliques repetidos enquanto a exportação anterior não termina
+        }
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy"); // Formato das datas
+        LocalDate dataInicio;
+        LocalDate dataFim;
+        try {
+            dataInicio = txtDataInicio.getText().trim().isEmpty() ? null : LocalDate.parse(txtDataInicio.getText().trim(), formatter);
+            dataFim = txtDataFim.getText().trim().isEmpty() ? null : LocalDate.parse(txtDataFim.getText().trim(), formatter);
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "Formato de data inválido. Use dd/MM/yyyy.", "Erro", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        JFileChooser seletor = new JFileChooser();
+        seletor.setDialogTitle("Exportar vendas (CSV ou JSON)");
+        seletor.setFileFilter(new FileNameExtensionFilter("Arquivos CSV ou JSON", "csv", "json"));
+        if (seletor.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path arquivo = seletor.getSelectedFile().toPath();
+        FormatoExportacao formato = FormatoExportacao.peloNome(arquivo.getFileName().toString());
+        tarefas.executar("exportar", () -> {
+            try {
+                return vendaController.exportarVendas(arquivo, formato, dataInicio, dataFim);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, resultado -> JOptionPane.showMessageDialog(this, "Exportação concluída: " + resultado + "."), ex -> {
+            Throwable causa = (ex instanceof UncheckedIOException) ? ex.getCause() : ex;
+            JOptionPane.showMessageDialog(this, "Erro ao exportar: " + causa.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
     private void buscarVendasPorPeriodo() {
     	// Obtém as datas de início e fim a partir dos campos de texto
         String dataInicioStr = txtDataInicio.getText(); // Data de início
@@ -463,17 +550,15 @@ public class VendasView extends JFrame {
             LocalDate dataInicio = LocalDate.parse(dataInicioStr, formatter); // Converte a string da data de início para LocalDate
             LocalDate dataFim = LocalDate.parse(dataFimStr, formatter); // Converte a string da data de fim para LocalDate
 
-            List<Venda> vendasFiltradas = new ArrayList<>(); // Lista para armazenar as vendas filtradas
-            List<Venda> todasVendas = vendaController.listarVendas(); 	// Obtém todas as vendas realizadas
-
-            for (Venda venda : todasVendas) { // Itera sobre todas as vendas
-                if (!venda.getDataVenda().isBefore(dataInicio) && !venda.getDataVenda().isAfter(dataFim)) {  // Verifica se a data da venda está dentro do intervalo
-                    vendasFiltradas.add(venda); // Adiciona a venda à lista filtrada se estiver dentro do intervalo de datas
-                }
-            }
-
-            atualizarTabelaVendas(vendasFiltradas); // Atualiza a tabela com as vendas filtradas
-            tabelaVendas.setVisible(true); // Torna a tabela visível após a filtragem
+            // Busca no banco apenas as vendas do período, em segundo plano; uma nova busca descarta a anterior
+            tarefas.executar("vendasPeriodo", () -> vendaController.listarVendasPorPeriodo(dataInicio, dataFim), vendasFiltradas -> {
+                atualizarTabelaVendas(vendasFiltradas); // Atualiza a tabela com as vendas filtradas
+                tabelaVendas.setVisible(true); // Torna a tabela visível após a filtragem
+            }, ex -> JOptionPane.showMessageDialog(this, "Erro ao buscar vendas: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE));
+            // Os totais do período vêm do resumo diário, sem somar as vendas carregadas na tabela
+            tarefas.executar("resumoPeriodo", () -> vendaController.totalizarPeriodo(dataInicio, dataFim),
+                    resumo -> lblResumoPeriodo.setText("Totais do período: " + resumo),
+                    ex -> lblResumoPeriodo.setText("Erro ao calcular os totais do período: " + ex.getMessage()));
 
         } catch (DateTimeParseException e) {
             JOptionPane.showMessageDialog(this, "Formato de data inválido. Use dd/MM/yyyy.", "Erro", JOptionPane.ERROR_MESSAGE); // Exibe mensagem de erro se o formato da data estiver incorreto
@@ -485,72 +570,199 @@ public class VendasView extends JFrame {
     			// Obtém o CPF do cliente a partir do campo de texto
         String cpf = txtCpfCliente.getText(); // CPF do cliente
         if (!cpf.trim().isEmpty()) { // Verifica se o campo de CPF não está vazio
-            clienteAtual = clienteController.buscarCliente(cpf); // Busca o cliente pelo CPF
-            if (clienteAtual != null) { // Se o cliente for encontrado
-                JOptionPane.showMessageDialog(this, "Cliente encontrado: " + clienteAtual.getNome(), "Sucesso", JOptionPane.INFORMATION_MESSAGE); // Exibe mensagem de sucesso com o nome do cliente
-            } else { // Se o cliente não for encontrado
-                JOptionPane.showMessageDialog(this, "Cliente não encontrado com o CPF informado.", "Aviso", JOptionPane.WARNING_MESSAGE); // Exibe mensagem de aviso se o cliente não for encontrado
-                clienteAtual = null; // Limpa o cliente atual se não for encontrado
-            }
+            // Busca o cliente pelo CPF em segundo plano; uma nova busca descarta a anterior
+            tarefas.executar("buscarCliente", () -> clienteController.buscarCliente(cpf), cliente -> {
+                clienteAtual = cliente;
+                if (clienteAtual != null) { // Se o cliente for encontrado
+                    JOptionPane.showMessageDialog(this, "Cliente encontrado: " + clienteAtual.getNome(), "Sucesso", JOptionPane.INFORMATION_MESSAGE); // Exibe mensagem de sucesso com o nome do cliente
+                } else { // Se o cliente não for encontrado
+                    JOptionPane.showMessageDialog(this, "Cliente não encontrado com o CPF informado.", "Aviso", JOptionPane.WARNING_MESSAGE); // Exibe mensagem de aviso se o cliente não for encontrado
+                }
+            }, ex -> JOptionPane.showMessageDialog(this, "Erro ao buscar cliente: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE));
         } else { // Se o campo de CPF estiver vazio
             JOptionPane.showMessageDialog(this, "Por favor, digite o CPF do cliente.", "Aviso", JOptionPane.WARNING_MESSAGE);
         }
     }
 
+    /**
+     * Configura as sugestões de produtos do campo do produto. A cada alteração do texto, o temporizador
+     * é reiniciado; a busca só é feita depois de {@value #ATRASO_SUGESTOES_MS} ms sem digitação, para
+     * não consultar o banco de dados a cada tecla. O menu de sugestões não recebe o foco, de modo que
+     * o usuário continua digitando no campo.
+     */
+    private void configurarSugestoes() {
+        popupSugestoes = new JPopupMenu();
+        popupSugestoes.setFocusable(false);
+        temporizadorSugestoes = new Timer(ATRASO_SUGESTOES_MS, e -> buscarSugestoes());
+        temporizadorSugestoes.setRepeats(false);
+        txtIdProduto.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) {
+                temporizadorSugestoes.restart();
+            }
+
+            public void removeUpdate(DocumentEvent e) {
+                temporizadorSugestoes.restart();
+            }
+
+            public void changedUpdate(DocumentEvent e) {
+                temporizadorSugestoes.restart();
+            }
+        });
+    }
+
+    /**
+     * Busca em segundo plano os produtos cujo nome (ou autor, para livros) começa com o texto digitado.
+     * Textos numéricos são tratados como ID e não geram sugestões. Uma nova busca cancela a anterior,
+     * e uma resposta que chega depois de o texto mudar é descartada.
+     */
+    private void buscarSugestoes() {
+        String texto = txtIdProduto.getText().trim();
+        if (texto.length() < MINIMO_LETRAS_SUGESTAO || texto.chars().allMatch(Character::isDigit)) {
+            tarefas.cancelar("sugestoes");
+            esconderSugestoes();
+            return;
+        }
+        tarefas.executar("sugestoes", () -> produtoController.sugerirProdutos(texto, MAXIMO_SUGESTOES), lista -> {
+            if (texto.equals(txtIdProduto.getText().trim())) { // Ignora a resposta se o texto já mudou
+                mostrarSugestoes(lista);
+            }
+        }, ex -> esconderSugestoes());
+    }
+
+    private void mostrarSugestoes(List<Produto> lista) {
+        sugestoes = lista;
+        popupSugestoes.removeAll();
+        if (lista.isEmpty()) {
+            popupSugestoes.setVisible(false);
+            return;
+        }
+        for (Produto p : lista) {
+            String texto = p.getId() + " - " + p.getNome()
+                    + (p instanceof Livro ? " (" + ((Livro) p).getAutor() + ")" : "")
+                    + " - R$ " + Dinheiro.formatar(p.getPrecoVenda());
+            JMenuItem item = new JMenuItem(texto);
+            item.addActionListener(e -> escolherSugestao(p));
+            popupSugestoes.add(item);
+        }
+        if (popupSugestoes.isVisible()) {
+            popupSugestoes.pack(); // Ajusta o tamanho ao novo conteúdo
+        } else {
+            popupSugestoes.show(txtIdProduto, 0, txtIdProduto.getHeight());
+        }
+        txtIdProduto.requestFocusInWindow(); // Mantém o foco no campo para continuar digitando
+    }
+
+    private void esconderSugestoes() {
+        sugestoes = new ArrayList<>();
+        popupSugestoes.setVisible(false);
+    }
+
+    /**
+     * Adiciona ao carrinho o produto escolhido nas sugestões e limpa o campo para o próximo item.
+     */
+    private void escolherSugestao(Produto produto) {
+        esconderSugestoes();
+        txtIdProduto.setText("");
+        carrinho.adicionar(produto, 1);
+        atualizarListaItens();
+        atualizarTotalVenda();
+    }
+
+    /**
+     * Ação do Enter no campo do produto: um número é tratado como ID; um texto adiciona
+     * a primeira sugestão exibida.
+     */
+    private void confirmarProduto() {
+        String texto = txtIdProduto.getText().trim();
+        if (!texto.isEmpty() && !texto.chars().allMatch(Character::isDigit) && !sugestoes.isEmpty()) {
+            escolherSugestao(sugestoes.get(0));
+        } else {
+            adicionarItemVenda();
+        }
+    }
+
     private void adicionarItemVenda() {
 			// Obtém o ID do produto a partir do campo de texto
         try {
             int idProduto = Integer.parseInt(txtIdProduto.getText()); // ID do produto
-            Produto produto = produtoController.buscarProduto(idProduto); // Busca o produto pelo ID
-            if (produto != null) { // Se o produto for encontrado
-                itensVendidos.add(produto); // Adiciona o produto à lista de itens vendidos
-                atualizarListaItens(); // Atualiza a lista de itens vendidos
-                txtIdProduto.setText(""); // Limpa o campo de ID do produto
-                atualizarTotalVenda(); // Atualiza o total da venda
-            } else {
-                JOptionPane.showMessageDialog(this, "Produto não encontrado com o ID informado.", "Erro", JOptionPane.ERROR_MESSAGE); // Exibe mensagem de erro se o produto não for encontrado
-            }
+            txtIdProduto.setText(""); // Limpa o campo de ID do produto, liberando-o para o próximo item
+            // Busca o produto pelo ID em segundo plano. A tarefa é independente (sem canal), para que
+            // itens lidos em sequência não cancelem uns aos outros.
+            tarefas.executar(null, () -> produtoController.buscarProduto(idProduto), produto -> {
+                if (produto != null) { // Se o produto for encontrado
+                    carrinho.adicionar(produto, 1); // Adiciona uma unidade (um produto lido de novo só aumenta a quantidade)
+                    atualizarListaItens(); // Atualiza a lista de itens vendidos
+                    atualizarTotalVenda(); // Atualiza o total da venda
+                } else {
+                    JOptionPane.showMessageDialog(this, "Produto não encontrado com o ID informado: " + idProduto, "Erro", JOptionPane.ERROR_MESSAGE); // Exibe mensagem de erro se o produto não for encontrado
+                }
+            }, ex -> JOptionPane.showMessageDialog(this, "Erro ao buscar produto: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE));
         } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Por favor, digite um ID de produto válido.", "Erro", JOptionPane.ERROR_MESSAGE); // Exibe mensagem de erro se o ID do produto não for válido
+            JOptionPane.showMessageDialog(this, "Por favor, digite um ID de produto válido ou escolha um produto nas sugestões.", "Erro", JOptionPane.ERROR_MESSAGE); // Exibe mensagem de erro se o ID do produto não for válido
         }
     }
 
     private void atualizarListaItens() {
 		// Atualiza a lista de itens vendidos na interface
         modelListaItens.clear(); // Limpa a lista atual
-        for (Produto produto : itensVendidos) { // Itera sobre os itens vendidos
-            modelListaItens.addElement(produto); // Adiciona o produto à lista
+        for (ItemVenda item : carrinho.getItens()) { // Uma linha por produto, com a quantidade
+            modelListaItens.addElement(item); // Adiciona a linha à lista
         }
     }
 
     private void atualizarTotalVenda() {
 		// Atualiza o total da venda na interface
-        totalVenda = 0.0; // Inicializa o total da venda
-        for (Produto produto : itensVendidos) { // Itera sobre os itens vendidos
-            totalVenda += produto.getPrecoVenda(); // Soma o preço de venda do produto ao total
-        }
-        lblTotalVenda.setText(String.format("Total: R$ %.2f", totalVenda)); // Atualiza o rótulo do total da venda
+        lblTotalVenda.setText("Total: R$ " + Dinheiro.formatar(carrinho.getTotal())); // Atualiza o rótulo do total da venda
+    }
+
+    /**
+     * Atualiza o painel de mais vendidos com o período escolhido. A contagem é mantida em memória
+     * ({@link MaisVendidos}) e os nomes vêm do cache de produtos, de modo que a atualização não lê as vendas.
+     */
+    private void atualizarMaisVendidos() {
+        int dias = cbPeriodoMaisVendidos.getSelectedIndex() == 0 ? 1 : MaisVendidos.DIAS_MAXIMOS;
+        tarefas.executar("maisVendidos", () -> {
+            List<String> linhas = new ArrayList<>();
+            for (ProdutoMaisVendido item : vendaController.listarMaisVendidos(dias, MAXIMO_MAIS_VENDIDOS)) {
+                Produto produto = produtoController.buscarProduto(item.getIdProduto());
+                String nome = (produto != null) ? produto.getNome() : "Produto " + item.getIdProduto();
+                linhas.add(item.getQuantidade() + " - " + nome);
+            }
+            return linhas;
+        }, linhas -> {
+            modeloMaisVendidos.clear();
+            linhas.forEach(modeloMaisVendidos::addElement);
+        }, ex -> {
+            modeloMaisVendidos.clear();
+            modeloMaisVendidos.addElement("Erro: " + ex.getMessage());
+        });
     }
 
     private void finalizarVenda() {
 		// Finaliza a venda e registra no sistema
-        if (!itensVendidos.isEmpty()) { // Verifica se há itens vendidos
+        if (tarefas.emAndamento("finalizarVenda")) {
+            return; // Impede que a mesma venda seja registrada duas vezes
+        }
+        if (!carrinho.isVazio()) { // Verifica se há itens vendidos
             if (clienteAtual != null) { // Verifica se o cliente foi encontrado
-                try {
-                    vendaController.realizarVenda(clienteAtual, new ArrayList<>(itensVendidos)); // Realiza a venda com os itens vendidos
-                    JOptionPane.showMessageDialog(this, "Venda finalizada com sucesso para o cliente: " + clienteAtual.getNome() + "!", "Sucesso", JOptionPane.INFORMATION_MESSAGE); // Exibe mensagem de sucesso
-                    itensVendidos.clear(); // Limpa a lista de itens vendidos após a venda
+                Cliente cliente = clienteAtual;
+                List<ItemVenda> itens = carrinho.getItens();
+                // Registra a venda em segundo plano; a tela é limpa quando o registro termina
+                tarefas.executar("finalizarVenda", () -> vendaController.realizarVenda(cliente, itens), () -> {
+                    JOptionPane.showMessageDialog(this, "Venda finalizada com sucesso para o cliente: " + cliente.getNome() + "!", "Sucesso", JOptionPane.INFORMATION_MESSAGE); // Exibe mensagem de sucesso
+                    carrinho.remover(itens); // Remove os itens vendidos (mantém os lidos durante o registro)
                     atualizarListaItens(); // Atualiza a lista de itens vendidos
                     atualizarTotalVenda(); // Atualiza o total da venda
+                    atualizarMaisVendidos(); // Inclui a venda no painel de mais vendidos
                     atualizarTabelaVendas(new ArrayList<>()); // Limpa a tabela após a venda
                     tabelaVendas.setVisible(false); // Esconde a tabela após a venda
-                    clienteAtual = null; // Limpa o cliente atual
-                    txtCpfCliente.setText(""); // Limpa o campo de CPF do cliente
+                    if (clienteAtual == cliente) { // Limpa o cliente atual, se outro não tiver sido buscado nesse meio-tempo
+                        clienteAtual = null;
+                        txtCpfCliente.setText(""); // Limpa o campo de CPF do cliente
+                    }
                     txtDataInicio.setText(""); // Limpa os campos de data
                     txtDataFim.setText(""); // Limpa os campos de data
-                } catch (RuntimeException e) { // Captura exceções em tempo de execução
-                    JOptionPane.showMessageDialog(this, "Erro ao finalizar venda: " + e.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE); // Exibe mensagem de erro se ocorrer um erro ao finalizar a venda
-                }
+                }, e -> JOptionPane.showMessageDialog(this, "Erro ao finalizar venda: " + e.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE)); // Exibe mensagem de erro se ocorrer um erro ao finalizar a venda
             } else { // Se o cliente não foi encontrado
                 JOptionPane.showMessageDialog(this, "Por favor, informe e busque o cliente antes de finalizar a venda.", "Aviso", JOptionPane.WARNING_MESSAGE); // Exibe mensagem de aviso se o cliente não for encontrado
             }
@@ -569,7 +781,7 @@ public class VendasView extends JFrame {
                     venda.getId(), // ID da venda
                     clienteNome, // Nome do cliente
                     venda.getDataVenda().format(formatter), 	// Data da venda formatada
-                    venda.getProdutos().stream().mapToDouble(Produto::getPrecoVenda).sum() // Total da venda
+                    Dinheiro.formatar(venda.calcularTotal()) // Total da venda
             });
         }
     }